@@ -0,0 +1,316 @@
+package edu.ncsu.csc316.trail.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+import edu.ncsu.csc316.trail.factory.SpanningTreeAlgorithm;
+import edu.ncsu.csc316.trail.manager.TrailManager;
+import edu.ncsu.csc316.trail.manager.TrailReportManager;
+
+/**
+ * Benchmarks loading and analyzing synthetic trail networks of increasing size.
+ * For each size a trail file is generated (or reused from an earlier run), and
+ * every operation is warmed up and then timed over several iterations. Each
+ * iteration repeats the operation until it has run for at least the minimum
+ * iteration time, so small networks are timed as precisely as large ones. The
+ * results are printed as one row per operation and size.
+ *
+ * <p>
+ * Options are given as name=value arguments:
+ * </p>
+ *
+ * <pre>
+ * edges=1000,10000,100000,1000000   trails in each generated network
+ * density=4                         average trails at each attraction
+ * names=16                          length of each attraction name
+ * warmup=3                          untimed iterations of each operation
+ * iterations=5                      timed iterations of each operation
+ * time=200                          minimum iteration time in milliseconds
+ * dir=java.io.tmpdir                directory of the generated trail files
+ * only=                             comma separated operations to run, all if empty
+ * </pre>
+ *
+ * Networks of 10 million trails need about 400MB of disk for names of 16
+ * characters and a heap of several gigabytes.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailBenchmark {
+
+	/** Operation that is timed */
+	private interface Operation {
+
+		/**
+		 * Runs the operation once
+		 *
+		 * @return a result of the operation, which is kept alive so the operation
+		 *         is not optimized away
+		 * @throws Exception if the operation fails
+		 */
+		Object run() throws Exception;
+	}
+
+	/** Results of the timed operations, so they cannot be optimized away */
+	private static volatile int sink;
+
+	/** Trails in each generated network */
+	private long[] edgeCounts = { 1000, 10000, 100000, 1000000 };
+	/** Average trails at each attraction */
+	private double density = 4;
+	/** Length of each attraction name */
+	private int nameLength = 16;
+	/** Untimed iterations of each operation */
+	private int warmup = 3;
+	/** Timed iterations of each operation */
+	private int iterations = 5;
+	/** Minimum iteration time in nanoseconds */
+	private long minIterationNanos = 200000000L;
+	/** Directory of the generated trail files */
+	private String directory = System.getProperty("java.io.tmpdir");
+	/** Operations to run, or null for all of them */
+	private String[] only;
+
+	/**
+	 * Runs the benchmarks
+	 *
+	 * @param args are the name=value options
+	 * @throws Exception if a trail file cannot be generated or an operation fails
+	 */
+	public static void main(String[] args) throws Exception {
+		TrailBenchmark benchmark = new TrailBenchmark();
+		for (String arg : args) {
+			benchmark.setOption(arg);
+		}
+		benchmark.run();
+	}
+
+	/**
+	 * Sets one name=value option
+	 *
+	 * @param arg is the option
+	 */
+	private void setOption(String arg) {
+		int split = arg.indexOf('=');
+		if (split < 0) {
+			throw new IllegalArgumentException("Options must be given as name=value: " + arg);
+		}
+		String name = arg.substring(0, split);
+		String value = arg.substring(split + 1);
+		if ("edges".equals(name)) {
+			String[] sizes = value.split(",");
+			edgeCounts = new long[sizes.length];
+			for (int i = 0; i < sizes.length; i++) {
+				edgeCounts[i] = Long.parseLong(sizes[i].trim());
+			}
+		} else if ("density".equals(name)) {
+			density = Double.parseDouble(value);
+		} else if ("names".equals(name)) {
+			nameLength = Integer.parseInt(value);
+		} else if ("warmup".equals(name)) {
+			warmup = Integer.parseInt(value);
+		} else if ("iterations".equals(name)) {
+			iterations = Integer.parseInt(value);
+		} else if ("time".equals(name)) {
+			minIterationNanos = Long.parseLong(value) * 1000000L;
+		} else if ("dir".equals(name)) {
+			directory = value;
+		} else if ("only".equals(name)) {
+			only = value.isEmpty() ? null : value.split(",");
+		} else {
+			throw new IllegalArgumentException("Unknown option: " + name);
+		}
+	}
+
+	/**
+	 * Runs every selected operation on every network size
+	 *
+	 * @throws Exception if a trail file cannot be generated or an operation fails
+	 */
+	private void run() throws Exception {
+		System.out.printf(Locale.US, "%-34s %10s %14s %14s %14s%n", "operation", "edges", "mean ms/op", "min ms/op",
+				"ops");
+		for (long edges : edgeCounts) {
+			TrailNetworkGenerator generator = generator(edges);
+			final String path = generate(generator, edges);
+			final String first = generator.getAttractionName(0);
+			final String second = generator.getAttractionName(1);
+			final TrailManager manager = new TrailManager(path);
+			final TrailReportManager reports = new TrailReportManager(manager);
+			final int threshold = 9000;
+			final SpanningTreeAlgorithm kruskal = DSAFactory.getSequentialSpanningTreeAlgorithm();
+			final SpanningTreeAlgorithm boruvka = DSAFactory.getSpanningTreeAlgorithm();
+
+			time("TrailManager(path)", edges, new Operation() {
+				@Override
+				public Object run() throws Exception {
+					return new TrailManager(path);
+				}
+			});
+			time("getLeastCostlyTrails", edges, new Operation() {
+				@Override
+				public Object run() {
+					manager.getSpanningTreeCache().invalidate();
+					return manager.getLeastCostlyTrails();
+				}
+			});
+			time("KruskalSpanningTree", edges, new Operation() {
+				@Override
+				public Object run() {
+					return kruskal.minimumSpanningForest(manager.getGraph());
+				}
+			});
+			time("BoruvkaSpanningTree", edges, new Operation() {
+				@Override
+				public Object run() {
+					return boruvka.minimumSpanningForest(manager.getGraph());
+				}
+			});
+			time("getAttractionsWithLongTrails", edges, new Operation() {
+				@Override
+				public Object run() {
+					return manager.getAttractionsWithLongTrails(threshold);
+				}
+			});
+			time("getTrailIntersectionFrequencies", edges, new Operation() {
+				@Override
+				public Object run() {
+					return manager.getTrailIntersectionFrequencies();
+				}
+			});
+			time("getLeastCostlyTrailsReport", edges, new Operation() {
+				@Override
+				public Object run() {
+					return reports.getLeastCostlyTrailsReport(1.25);
+				}
+			});
+			time("getRestroomLocations", edges, new Operation() {
+				@Override
+				public Object run() {
+					return reports.getRestroomLocations(threshold);
+				}
+			});
+			time("getTrailSignLocations", edges, new Operation() {
+				@Override
+				public Object run() {
+					return reports.getTrailSignLocations();
+				}
+			});
+			time("addTrail+removeTrail", edges, new Operation() {
+				@Override
+				public Object run() {
+					manager.addTrail("Benchmark Trailhead", first, 1);
+					return manager.removeTrail("Benchmark Trailhead", first);
+				}
+			});
+			time("updateLength", edges, new Operation() {
+				private int length = 1;
+
+				@Override
+				public Object run() {
+					length = 10001 - length;
+					manager.updateLength(second, first, length);
+					return manager.getLeastCostlyTrails();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the generator of the network with the given number of trails
+	 *
+	 * @param edges is the number of trails
+	 * @return the generator of the network
+	 */
+	private TrailNetworkGenerator generator(long edges) {
+		return new TrailNetworkGenerator(edges, density, nameLength, 10000, edges);
+	}
+
+	/**
+	 * Generates the trail file of a network size, unless an earlier run already
+	 * did
+	 *
+	 * @param generator is the generator of the network
+	 * @param edges     is the number of trails
+	 * @return the path of the trail file
+	 * @throws IOException if the file cannot be written
+	 */
+	private String generate(TrailNetworkGenerator generator, long edges) throws IOException {
+		File file = new File(directory, "trails-" + edges + "-d" + density + "-n" + nameLength + ".csv");
+		if (!file.exists()) {
+			File partial = new File(file.getPath() + ".part");
+			generator.write(partial.getPath());
+			if (!partial.renameTo(file)) {
+				throw new IOException("Unable to write " + file);
+			}
+		}
+		return file.getPath();
+	}
+
+	/**
+	 * Warms up and times an operation, then prints its row
+	 *
+	 * @param name      is the name of the operation
+	 * @param edges     is the number of trails in the network
+	 * @param operation is the operation to time
+	 * @throws Exception if the operation fails
+	 */
+	private void time(String name, long edges, Operation operation) throws Exception {
+		if (!selected(name)) {
+			return;
+		}
+		for (int i = 0; i < warmup; i++) {
+			iteration(operation);
+		}
+		double total = 0;
+		double min = Double.MAX_VALUE;
+		long ops = 0;
+		for (int i = 0; i < iterations; i++) {
+			long[] result = iteration(operation);
+			double perOp = result[0] / 1e6 / result[1];
+			total += perOp;
+			min = Math.min(min, perOp);
+			ops += result[1];
+		}
+		System.out.printf(Locale.US, "%-34s %10d %14.4f %14.4f %14d%n", name, edges, total / iterations, min, ops);
+	}
+
+	/**
+	 * Runs an operation until the minimum iteration time has passed
+	 *
+	 * @param operation is the operation to run
+	 * @return the elapsed nanoseconds and the number of runs
+	 * @throws Exception if the operation fails
+	 */
+	private long[] iteration(Operation operation) throws Exception {
+		long runs = 0;
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			sink += System.identityHashCode(operation.run());
+			runs++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < minIterationNanos);
+		return new long[] { elapsed, runs };
+	}
+
+	/**
+	 * Returns whether an operation was selected to run
+	 *
+	 * @param name is the name of the operation
+	 * @return true if all operations run or the operation was named
+	 */
+	private boolean selected(String name) {
+		if (only == null) {
+			return true;
+		}
+		for (String s : only) {
+			if (name.startsWith(s.trim())) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,133 @@
+package edu.ncsu.csc316.trail.bench;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates synthetic trail files for benchmarks. Every generated network is
+ * connected: the first V - 1 trails form a random spanning tree, and the rest
+ * join random pairs of attractions. The number of attractions follows from the
+ * number of trails and the average number of trails per attraction.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailNetworkGenerator {
+
+	/** Number of trails to generate */
+	private final long edges;
+	/** Average number of trails at each attraction */
+	private final double density;
+	/** Length of each attraction name in characters */
+	private final int nameLength;
+	/** Longest trail length in feet */
+	private final int maxLength;
+	/** Seed of the random network */
+	private final long seed;
+
+	/**
+	 * Constructor for TrailNetworkGenerator
+	 *
+	 * @param edges      is the number of trails to generate
+	 * @param density    is the average number of trails at each attraction, at
+	 *                   least 2
+	 * @param nameLength is the length of each attraction name, at least 8
+	 * @param maxLength  is the longest trail length in feet
+	 * @param seed       is the seed of the random network
+	 */
+	public TrailNetworkGenerator(long edges, double density, int nameLength, int maxLength, long seed) {
+		if (edges < 1 || density < 2 || nameLength < 8 || maxLength < 1) {
+			throw new IllegalArgumentException("Invalid trail network parameters.");
+		}
+		this.edges = edges;
+		this.density = density;
+		this.nameLength = nameLength;
+		this.maxLength = maxLength;
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the number of attractions in the generated network
+	 *
+	 * @return the number of attractions
+	 */
+	public int getAttractionCount() {
+		return (int) Math.max(2, Math.min(edges + 1, Math.round(2 * edges / density)));
+	}
+
+	/**
+	 * Writes the trail network to a CSV file in the format of the trail files
+	 *
+	 * @param path is the path of the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(String path) throws IOException {
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8),
+				1 << 16);
+		try {
+			Random random = new Random(seed);
+			int vertices = getAttractionCount();
+			out.write("ATTRACTION_ONE,ATTRACTION_TWO,LENGTH_OF_TRAIL_IN_FEET\n");
+			for (long e = 0; e < edges; e++) {
+				int one;
+				int two;
+				if (e < vertices - 1) {
+					one = (int) e + 1;
+					two = random.nextInt(one);
+				} else {
+					one = random.nextInt(vertices);
+					two = random.nextInt(vertices - 1);
+					if (two >= one) {
+						two++;
+					}
+				}
+				writeName(out, one);
+				out.write(',');
+				writeName(out, two);
+				out.write(',');
+				out.write(Integer.toString(1 + random.nextInt(maxLength)));
+				out.write('\n');
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Returns the name of an attraction in the generated network. Attraction 1 is
+	 * always joined to attraction 0 by the first trail.
+	 *
+	 * @param id is the number of the attraction
+	 * @return the name of the attraction
+	 */
+	public String getAttractionName(int id) {
+		StringBuilder sb = new StringBuilder(nameLength);
+		String number = Integer.toString(id);
+		sb.append("Stop ");
+		for (int i = 5 + number.length(); i < nameLength; i++) {
+			sb.append('_');
+		}
+		return sb.append(number).toString();
+	}
+
+	/**
+	 * Writes the name of an attraction, padded to the name length
+	 *
+	 * @param out is the file being written
+	 * @param id  is the number of the attraction
+	 * @throws IOException if the file cannot be written
+	 */
+	private void writeName(Writer out, int id) throws IOException {
+		String number = Integer.toString(id);
+		out.write("Stop ");
+		for (int i = 5 + number.length(); i < nameLength; i++) {
+			out.write('_');
+		}
+		out.write(number);
+	}
+}
@@ -0,0 +1,206 @@
+package edu.ncsu.csc316.trail.factory;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.positional.PositionalLinkedList;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.dsa.map.Map;
+
+/**
+ * Base class of the spanning tree algorithms. The graph is first converted to
+ * primitive arrays: every vertex gets a dense int id, and the edges are
+ * ranked in the order the library kruskal takes them from its heap. The edge
+ * of rank r gets the sort key (weight &lt;&lt; 32 | r), so ties between edges
+ * of equal weight are broken exactly as the library breaks them, and the same
+ * trails are chosen. Subclasses work on the arrays alone and return the keys of
+ * the chosen edges. Compact graphs already number their vertices, so their ids
+ * are used directly.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public abstract class AbstractSpanningTreeAlgorithm implements SpanningTreeAlgorithm {
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <V, E extends Weighted> PositionalList<Edge<E>> minimumSpanningForest(Graph<V, E> graph) {
+		Graph<V, E> source = graph;
+		while (source instanceof UnmodifiableGraph) {
+			source = ((UnmodifiableGraph<V, E>) source).getWrappedGraph();
+		}
+		int m = source.numEdges();
+		Edge<E>[] edges = (Edge<E>[]) new Edge<?>[m];
+		int[] one = new int[m];
+		int[] two = new int[m];
+		int[] weights = new int[m];
+		int vertices;
+		int i = 0;
+		if (source instanceof CompactGraph) {
+			CompactGraph<V> compact = (CompactGraph<V>) source;
+			vertices = compact.vertexIdBound();
+			for (Edge<E> e : source.edges()) {
+				edges[i] = e;
+				one[i] = compact.endpointId((Edge<Weighted>) e, 0);
+				two[i] = compact.endpointId((Edge<Weighted>) e, 1);
+				weights[i] = e.getElement().getWeight();
+				i++;
+			}
+		} else {
+			Map<Vertex<V>, Integer> ids = DSAFactory.getMap();
+			vertices = 0;
+			for (Vertex<V> v : source.vertices()) {
+				ids.put(v, vertices++);
+			}
+			for (Edge<E> e : source.edges()) {
+				Vertex<V>[] ends = source.endVertices(e);
+				edges[i] = e;
+				one[i] = ids.get(ends[0]);
+				two[i] = ids.get(ends[1]);
+				weights[i] = e.getElement().getWeight();
+				i++;
+			}
+		}
+		int[] order = heapOrder(weights);
+		Edge<E>[] ranked = (Edge<E>[]) new Edge<?>[m];
+		int[] rankedOne = new int[m];
+		int[] rankedTwo = new int[m];
+		long[] keys = new long[m];
+		for (int r = 0; r < m; r++) {
+			int e = order[r];
+			ranked[r] = edges[e];
+			rankedOne[r] = one[e];
+			rankedTwo[r] = two[e];
+			keys[r] = key(weights[e], r);
+		}
+		long[] chosen = forest(vertices, rankedOne, rankedTwo, keys);
+		PositionalList<Edge<E>> list = new PositionalLinkedList<Edge<E>>();
+		for (long key : chosen) {
+			list.addLast(ranked[index(key)]);
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the edges in the order the library kruskal removes them from its
+	 * heap. It inserts every edge in graph order into a binary heap keyed by
+	 * weight alone and then removes the minimum until the tree is complete, so
+	 * edges of equal weight leave in an order that only the heap decides. The
+	 * same sift-up and sift-down steps are replayed here on an int array.
+	 *
+	 * @param weights is the weight of each edge in graph order
+	 * @return the index of each edge, in the order it leaves the heap
+	 */
+	public static int[] heapOrder(int[] weights) {
+		int m = weights.length;
+		int[] heap = new int[m];
+		for (int size = 0; size < m; size++) {
+			int child = size;
+			heap[child] = size;
+			while (child > 0) {
+				int parent = (child - 1) / 2;
+				if (weights[heap[parent]] <= weights[heap[child]]) {
+					break;
+				}
+				int t = heap[parent];
+				heap[parent] = heap[child];
+				heap[child] = t;
+				child = parent;
+			}
+		}
+		int[] order = new int[m];
+		for (int size = m; size > 0; size--) {
+			order[m - size] = heap[0];
+			int last = size - 1;
+			heap[0] = heap[last];
+			int parent = 0;
+			while (2 * parent + 1 < last) {
+				int child = 2 * parent + 1;
+				if (child + 1 < last && weights[heap[child + 1]] < weights[heap[child]]) {
+					child++;
+				}
+				if (weights[heap[child]] >= weights[heap[parent]]) {
+					break;
+				}
+				int t = heap[parent];
+				heap[parent] = heap[child];
+				heap[child] = t;
+				parent = child;
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Computes the minimum spanning forest of a graph given as arrays
+	 *
+	 * @param vertices is the number of vertex ids
+	 * @param one      is the id of the first endpoint of each edge
+	 * @param two      is the id of the second endpoint of each edge
+	 * @param keys     is the sort key of each edge; it must not be changed
+	 * @return the keys of the forest edges in ascending order
+	 */
+	protected abstract long[] forest(int vertices, int[] one, int[] two, long[] keys);
+
+	/**
+	 * Returns the sort key of an edge. A signed weight in the high half and a
+	 * non-negative index in the low half compare as (weight, index).
+	 *
+	 * @param weight is the weight of the edge
+	 * @param index  is the rank of the edge
+	 * @return the sort key
+	 */
+	protected static long key(int weight, int index) {
+		return (long) weight << 32 | index;
+	}
+
+	/**
+	 * Returns the edge index of a sort key
+	 *
+	 * @param key is the sort key
+	 * @return the rank of the edge
+	 */
+	protected static int index(long key) {
+		return (int) key;
+	}
+
+	/**
+	 * Returns the root of a vertex in a union-find forest, halving the path on
+	 * the way. Roots hold the negated size of their tree.
+	 *
+	 * @param parent is the parent of each vertex, or the negated size for roots
+	 * @param v      is the vertex
+	 * @return the root of the vertex
+	 */
+	protected static int find(int[] parent, int v) {
+		while (parent[v] >= 0) {
+			int p = parent[v];
+			if (parent[p] >= 0) {
+				parent[v] = parent[p];
+			}
+			v = p;
+		}
+		return v;
+	}
+
+	/**
+	 * Joins two trees of a union-find forest, hanging the smaller below the
+	 * larger
+	 *
+	 * @param parent is the parent of each vertex, or the negated size for roots
+	 * @param a      is the root of one tree
+	 * @param b      is the root of the other tree
+	 * @return the root of the joined tree
+	 */
+	protected static int union(int[] parent, int a, int b) {
+		if (parent[a] > parent[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		parent[a] += parent[b];
+		parent[b] = a;
+		return a;
+	}
+}
@@ -0,0 +1,263 @@
+package edu.ncsu.csc316.trail.factory;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel Boruvka's algorithm on a fork-join pool. Each round scans the
+ * remaining edges in parallel chunks; every edge between two components offers
+ * its key to both of them, and each component keeps the smallest offer with a
+ * compare-and-set. The chosen edges then merge the components, and edges that
+ * now lie inside one component are dropped from the next scan. The number of
+ * components at least halves in every round, so there are O(log V) rounds.
+ *
+ * <p>
+ * Because every key is distinct, the edge each component chooses is in the
+ * unique minimum spanning forest, so the result is exactly the forest that
+ * KruskalSpanningTree returns. Graphs with fewer edges than the sequential
+ * threshold, or pools with a single thread, are handed to Kruskal's algorithm
+ * directly, since the rounds would only add overhead.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class BoruvkaSpanningTree extends AbstractSpanningTreeAlgorithm {
+
+	/** Default number of edges below which Kruskal's algorithm is used */
+	public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 16;
+	/** Smallest number of array entries handed to one task */
+	private static final int MIN_CHUNK = 1 << 12;
+	/** Offer of a component that has not been offered any edge */
+	private static final long NONE = Long.MAX_VALUE;
+
+	/** Pool the rounds run on */
+	private final ForkJoinPool pool;
+	/** Number of edges below which Kruskal's algorithm is used */
+	private final int threshold;
+	/** Algorithm used for small graphs */
+	private final KruskalSpanningTree sequential;
+
+	/**
+	 * Creates the algorithm on the common fork-join pool
+	 */
+	public BoruvkaSpanningTree() {
+		this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+	}
+
+	/**
+	 * Creates the algorithm on the given pool
+	 *
+	 * @param pool      is the pool the rounds run on
+	 * @param threshold is the number of edges below which Kruskal's algorithm is
+	 *                  used instead
+	 */
+	public BoruvkaSpanningTree(ForkJoinPool pool, int threshold) {
+		this.pool = pool;
+		this.threshold = threshold;
+		sequential = new KruskalSpanningTree();
+	}
+
+	@Override
+	protected long[] forest(final int vertices, final int[] one, final int[] two, final long[] keys) {
+		if (keys.length < threshold || pool.getParallelism() < 2) {
+			return sequential.forest(vertices, one, two, keys);
+		}
+		final int[] component = new int[vertices];
+		for (int v = 0; v < vertices; v++) {
+			component[v] = v;
+		}
+		final int[] active = new int[keys.length];
+		for (int e = 0; e < active.length; e++) {
+			active[e] = e;
+		}
+		final AtomicLongArray best = new AtomicLongArray(vertices);
+		final int[] parent = new int[vertices];
+		Arrays.fill(parent, -1);
+		long[] chosen = new long[Math.max(0, vertices - 1)];
+		int count = 0;
+		int size = active.length;
+		while (size > 0) {
+			run(vertices, new Body() {
+				@Override
+				public void run(int chunk, int from, int to) {
+					for (int c = from; c < to; c++) {
+						best.set(c, NONE);
+					}
+				}
+			});
+			final int[] kept = new int[chunks(size)];
+			final int edges = size;
+			run(edges, new Body() {
+				@Override
+				public void run(int chunk, int from, int to) {
+					int write = from;
+					for (int j = from; j < to; j++) {
+						int e = active[j];
+						int a = component[one[e]];
+						int b = component[two[e]];
+						if (a != b) {
+							active[write++] = e;
+							offer(best, a, keys[e]);
+							offer(best, b, keys[e]);
+						}
+					}
+					kept[chunk] = write - from;
+				}
+			});
+			size = 0;
+			for (int c = 0; c < kept.length; c++) {
+				System.arraycopy(active, bound(edges, kept.length, c), active, size, kept[c]);
+				size += kept[c];
+			}
+			for (int c = 0; c < vertices; c++) {
+				long key = best.get(c);
+				if (key != NONE) {
+					int e = index(key);
+					int a = find(parent, component[one[e]]);
+					int b = find(parent, component[two[e]]);
+					if (a != b) {
+						union(parent, a, b);
+						chosen[count++] = key;
+					}
+				}
+			}
+			for (int c = 0; c < vertices; c++) {
+				if (parent[c] >= 0) {
+					parent[c] = find(parent, c);
+				}
+			}
+			run(vertices, new Body() {
+				@Override
+				public void run(int chunk, int from, int to) {
+					for (int v = from; v < to; v++) {
+						int root = parent[component[v]];
+						if (root >= 0) {
+							component[v] = root;
+						}
+					}
+				}
+			});
+		}
+		long[] result = Arrays.copyOf(chosen, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Lowers the offer of a component to a key if the key is smaller
+	 *
+	 * @param best      is the smallest offer of each component
+	 * @param component is the component
+	 * @param key       is the key of the offered edge
+	 */
+	private static void offer(AtomicLongArray best, int component, long key) {
+		long current = best.get(component);
+		while (key < current && !best.compareAndSet(component, current, key)) {
+			current = best.get(component);
+		}
+	}
+
+	/**
+	 * Runs a body over [0, size) in parallel chunks and waits for all of them
+	 *
+	 * @param size is the number of entries
+	 * @param body is the work done for each chunk
+	 */
+	private void run(int size, Body body) {
+		pool.invoke(new Chunks(body, size, chunks(size), 0, chunks(size)));
+	}
+
+	/**
+	 * Returns the number of chunks a range of entries is split into
+	 *
+	 * @param size is the number of entries
+	 * @return the number of chunks
+	 */
+	private int chunks(int size) {
+		return Math.max(1, Math.min(pool.getParallelism() * 4, size / MIN_CHUNK));
+	}
+
+	/**
+	 * Returns the first entry of a chunk
+	 *
+	 * @param size   is the number of entries
+	 * @param chunks is the number of chunks
+	 * @param chunk  is the chunk
+	 * @return the first entry of the chunk
+	 */
+	private static int bound(int size, int chunks, int chunk) {
+		return (int) ((long) size * chunk / chunks);
+	}
+
+	/**
+	 * Work done for one chunk of a range of entries
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private interface Body {
+
+		/**
+		 * Processes the entries of one chunk
+		 *
+		 * @param chunk is the number of the chunk
+		 * @param from  is the first entry of the chunk
+		 * @param to    is one past the last entry of the chunk
+		 */
+		void run(int chunk, int from, int to);
+	}
+
+	/**
+	 * Task that runs a body over a range of chunks, splitting the range in half
+	 * until a single chunk is left
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class Chunks extends RecursiveAction {
+
+		/** Serial version */
+		private static final long serialVersionUID = 1L;
+
+		/** Work done for each chunk */
+		private final Body body;
+		/** Number of entries */
+		private final int size;
+		/** Number of chunks the entries are split into */
+		private final int chunks;
+		/** First chunk of the task */
+		private final int first;
+		/** One past the last chunk of the task */
+		private final int last;
+
+		/**
+		 * Creates a task over a range of chunks
+		 *
+		 * @param body   is the work done for each chunk
+		 * @param size   is the number of entries
+		 * @param chunks is the number of chunks the entries are split into
+		 * @param first  is the first chunk of the task
+		 * @param last   is one past the last chunk of the task
+		 */
+		public Chunks(Body body, int size, int chunks, int first, int last) {
+			this.body = body;
+			this.size = size;
+			this.chunks = chunks;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first == 1) {
+				body.run(first, bound(size, chunks, first), bound(size, chunks, last));
+			} else {
+				int middle = (first + last) >>> 1;
+				invokeAll(new Chunks(body, size, chunks, first, middle), new Chunks(body, size, chunks, middle, last));
+			}
+		}
+	}
+}
@@ -0,0 +1,739 @@
+package edu.ncsu.csc316.trail.factory;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+
+/**
+ * An undirected graph with weighted edges that stores its structure in
+ * primitive arrays instead of per-vertex maps of edge objects. Every vertex is
+ * interned to a dense int id, every edge is an int id into parallel endpoint
+ * and weight arrays, and adjacency is kept in compressed sparse row (CSR) form:
+ * an offset array indexed by vertex id and target/edge arrays holding the
+ * incident edges of each vertex contiguously.
+ *
+ * Edges keep only the weight of the element they were inserted with. The
+ * element of every edge is the edge itself, which implements Weighted. Edge
+ * objects are lightweight handles created on demand, and two handles for the
+ * same edge are equal.
+ *
+ * The CSR index is rebuilt lazily the first time adjacency is needed after the
+ * graph has been modified, so bulk insertion costs O(V + E) overall. Once a
+ * graph is fully built, trimToSize() releases the spare capacity and the edge
+ * lookup table, leaving roughly 28 bytes per edge.
+ *
+ * @author Sumit Biswas
+ *
+ * @param <V> is the generic type for the vertex elements
+ */
+public class CompactGraph<V> implements Graph<V, Weighted> {
+
+	/** Default number of vertex and edge slots to allocate */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Vertices indexed by id, null if the vertex was removed */
+	private CompactVertex<V>[] vertexList;
+	/** Number of incident (live) edges of each vertex */
+	private int[] degree;
+	/** Number of vertex ids handed out so far */
+	private int vertexIds;
+	/** Number of live vertices */
+	private int vertexCount;
+
+	/** First endpoint of each edge, -1 if the edge was removed */
+	private int[] endpointOne;
+	/** Second endpoint of each edge */
+	private int[] endpointTwo;
+	/** Weight of each edge */
+	private int[] weight;
+	/** Number of edge ids handed out so far */
+	private int edgeIds;
+	/** Number of live edges */
+	private int edgeCount;
+
+	/** Edge ids keyed by their packed pair of endpoint ids, null until needed */
+	private LongIntHashMap edgeLookup;
+
+	/** CSR offsets: the incident edges of vertex v are at [offsets[v], offsets[v + 1]) */
+	private int[] offsets;
+	/** CSR targets: the opposite endpoint of each incident edge */
+	private int[] targets;
+	/** CSR edges: the id of each incident edge */
+	private int[] incident;
+	/** Whether the CSR index is out of date */
+	private volatile boolean dirty;
+
+	/**
+	 * Creates a new, empty CompactGraph
+	 */
+	public CompactGraph() {
+		this(DEFAULT_CAPACITY, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new, empty CompactGraph with room for the given number of vertices
+	 * and edges before any storage has to grow
+	 *
+	 * @param vertexCapacity is the expected number of vertices
+	 * @param edgeCapacity   is the expected number of edges
+	 */
+	public CompactGraph(int vertexCapacity, int edgeCapacity) {
+		vertexCapacity = Math.max(vertexCapacity, 1);
+		edgeCapacity = Math.max(edgeCapacity, 1);
+		vertexList = newVertexArray(vertexCapacity);
+		degree = new int[vertexCapacity];
+		endpointOne = new int[edgeCapacity];
+		endpointTwo = new int[edgeCapacity];
+		weight = new int[edgeCapacity];
+		edgeLookup = new LongIntHashMap(edgeCapacity);
+		dirty = true;
+	}
+
+	/**
+	 * Creates a CompactGraph from vertex elements and edge arrays collected by a
+	 * CompactGraphBuilder. The edge arrays are adopted rather than copied when
+	 * they are already the right length. The CSR index is built at once, and the
+	 * edge lookup table only if edges are inserted later.
+	 *
+	 * @param elements is the element of each vertex, indexed by vertex id
+	 * @param vertices is the number of vertices
+	 * @param one      is the first endpoint of each edge
+	 * @param two      is the second endpoint of each edge
+	 * @param weights  is the weight of each edge
+	 * @param edges    is the number of edges
+	 */
+	CompactGraph(V[] elements, int vertices, int[] one, int[] two, int[] weights, int edges) {
+		int capacity = Math.max(edges, 1);
+		vertexList = newVertexArray(Math.max(vertices, 1));
+		degree = new int[vertexList.length];
+		for (int v = 0; v < vertices; v++) {
+			vertexList[v] = new CompactVertex<V>(this, v, elements[v]);
+		}
+		endpointOne = one.length == capacity ? one : Arrays.copyOf(one, capacity);
+		endpointTwo = two.length == capacity ? two : Arrays.copyOf(two, capacity);
+		weight = weights.length == capacity ? weights : Arrays.copyOf(weights, capacity);
+		for (int e = 0; e < edges; e++) {
+			degree[endpointOne[e]]++;
+			if (endpointOne[e] != endpointTwo[e]) {
+				degree[endpointTwo[e]]++;
+			}
+		}
+		vertexIds = vertices;
+		vertexCount = vertices;
+		edgeIds = edges;
+		edgeCount = edges;
+		dirty = true;
+		buildIndex();
+	}
+
+	/**
+	 * Creates an array of vertices with the given length
+	 *
+	 * @param length is the length of the array
+	 * @return a new array of vertices
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> CompactVertex<V>[] newVertexArray(int length) {
+		return (CompactVertex<V>[]) new CompactVertex<?>[length];
+	}
+
+	@Override
+	public boolean isDirected() {
+		return false;
+	}
+
+	@Override
+	public int numVertices() {
+		return vertexCount;
+	}
+
+	@Override
+	public Iterable<Vertex<V>> vertices() {
+		return new Iterable<Vertex<V>>() {
+			@Override
+			public Iterator<Vertex<V>> iterator() {
+				return new VertexIterator();
+			}
+		};
+	}
+
+	@Override
+	public int numEdges() {
+		return edgeCount;
+	}
+
+	@Override
+	public Iterable<Edge<Weighted>> edges() {
+		return new Iterable<Edge<Weighted>>() {
+			@Override
+			public Iterator<Edge<Weighted>> iterator() {
+				return new EdgeIterator();
+			}
+		};
+	}
+
+	@Override
+	public Edge<Weighted> getEdge(Vertex<V> vertex1, Vertex<V> vertex2) {
+		int one = validate(vertex1).id;
+		int two = validate(vertex2).id;
+		int id;
+		if (edgeLookup != null) {
+			id = edgeLookup.get(key(one, two));
+		} else {
+			id = findEdge(one, two);
+		}
+		return id < 0 ? null : new CompactEdge(this, id);
+	}
+
+	/**
+	 * Finds the edge between two vertices by scanning the CSR range of the
+	 * endpoint with the smaller degree. Used once the lookup table is released.
+	 *
+	 * @param one is the id of one endpoint
+	 * @param two is the id of the other endpoint
+	 * @return the id of the edge, or -1 if there is no such edge
+	 */
+	private int findEdge(int one, int two) {
+		if (degree[one] > degree[two]) {
+			int temp = one;
+			one = two;
+			two = temp;
+		}
+		ensureIndex();
+		int[] tgt = targets;
+		int[] inc = incident;
+		for (int i = offsets[one]; i < offsets[one + 1]; i++) {
+			if (tgt[i] == two) {
+				return inc[i];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Releases spare array capacity and the edge lookup table once the graph has
+	 * been built, and builds the CSR index. getEdge keeps working by scanning the
+	 * adjacency of the lower-degree endpoint, and the lookup table is rebuilt if
+	 * edges are inserted later.
+	 */
+	public void trimToSize() {
+		vertexList = Arrays.copyOf(vertexList, Math.max(vertexIds, 1));
+		degree = Arrays.copyOf(degree, Math.max(vertexIds, 1));
+		endpointOne = Arrays.copyOf(endpointOne, Math.max(edgeIds, 1));
+		endpointTwo = Arrays.copyOf(endpointTwo, Math.max(edgeIds, 1));
+		weight = Arrays.copyOf(weight, Math.max(edgeIds, 1));
+		edgeLookup = null;
+		ensureIndex();
+	}
+
+	/**
+	 * Returns the edge lookup table, rebuilding it from the edge arrays if it was
+	 * released by trimToSize()
+	 *
+	 * @return the edge lookup table
+	 */
+	private LongIntHashMap lookup() {
+		if (edgeLookup == null) {
+			LongIntHashMap table = new LongIntHashMap(edgeCount);
+			for (int e = 0; e < edgeIds; e++) {
+				if (endpointOne[e] >= 0) {
+					table.put(key(endpointOne[e], endpointTwo[e]), e);
+				}
+			}
+			edgeLookup = table;
+		}
+		return edgeLookup;
+	}
+
+	/**
+	 * Returns one more than the largest vertex id handed out so far, so every
+	 * vertex id is in [0, bound)
+	 *
+	 * @return the bound of the vertex ids
+	 */
+	int vertexIdBound() {
+		return vertexIds;
+	}
+
+	/**
+	 * Returns the dense id of a vertex
+	 *
+	 * @param vertex is the vertex
+	 * @return the id of the vertex
+	 */
+	int vertexId(Vertex<V> vertex) {
+		return validate(vertex).id;
+	}
+
+	/**
+	 * Returns the dense id of an endpoint of an edge
+	 *
+	 * @param edge is the edge
+	 * @param end  is 0 for the first endpoint and 1 for the second
+	 * @return the id of the endpoint
+	 */
+	int endpointId(Edge<Weighted> edge, int end) {
+		int id = validate(edge).id;
+		return end == 0 ? endpointOne[id] : endpointTwo[id];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Vertex<V>[] endVertices(Edge<Weighted> edge) {
+		int id = validate(edge).id;
+		Vertex<V>[] ends = (Vertex<V>[]) new Vertex<?>[2];
+		ends[0] = vertexList[endpointOne[id]];
+		ends[1] = vertexList[endpointTwo[id]];
+		return ends;
+	}
+
+	@Override
+	public Vertex<V> opposite(Vertex<V> vertex, Edge<Weighted> edge) {
+		int v = validate(vertex).id;
+		int e = validate(edge).id;
+		if (endpointOne[e] == v) {
+			return vertexList[endpointTwo[e]];
+		} else if (endpointTwo[e] == v) {
+			return vertexList[endpointOne[e]];
+		}
+		throw new IllegalArgumentException("Edge is not incident on vertex.");
+	}
+
+	@Override
+	public int outDegree(Vertex<V> vertex) {
+		return degree[validate(vertex).id];
+	}
+
+	@Override
+	public int inDegree(Vertex<V> vertex) {
+		return outDegree(vertex);
+	}
+
+	@Override
+	public Iterable<Edge<Weighted>> outgoingEdges(Vertex<V> vertex) {
+		final int v = validate(vertex).id;
+		return new Iterable<Edge<Weighted>>() {
+			@Override
+			public Iterator<Edge<Weighted>> iterator() {
+				return new IncidentEdgeIterator(v);
+			}
+		};
+	}
+
+	@Override
+	public Iterable<Edge<Weighted>> incomingEdges(Vertex<V> vertex) {
+		return outgoingEdges(vertex);
+	}
+
+	@Override
+	public Vertex<V> insertVertex(V element) {
+		if (vertexIds == vertexList.length) {
+			int capacity = vertexList.length * 2;
+			vertexList = Arrays.copyOf(vertexList, capacity);
+			degree = Arrays.copyOf(degree, capacity);
+		}
+		CompactVertex<V> vertex = new CompactVertex<V>(this, vertexIds++, element);
+		vertexList[vertex.id] = vertex;
+		vertexCount++;
+		dirty = true;
+		return vertex;
+	}
+
+	@Override
+	public Edge<Weighted> insertEdge(Vertex<V> vertex1, Vertex<V> vertex2, Weighted element) {
+		int one = validate(vertex1).id;
+		int two = validate(vertex2).id;
+		long key = key(one, two);
+		if (lookup().get(key) >= 0) {
+			throw new IllegalArgumentException("Edge already exists.");
+		}
+		if (edgeIds == endpointOne.length) {
+			int capacity = endpointOne.length * 2;
+			endpointOne = Arrays.copyOf(endpointOne, capacity);
+			endpointTwo = Arrays.copyOf(endpointTwo, capacity);
+			weight = Arrays.copyOf(weight, capacity);
+		}
+		int id = edgeIds++;
+		endpointOne[id] = one;
+		endpointTwo[id] = two;
+		weight[id] = element.getWeight();
+		edgeLookup.put(key, id);
+		degree[one]++;
+		if (one != two) {
+			degree[two]++;
+		}
+		edgeCount++;
+		dirty = true;
+		return new CompactEdge(this, id);
+	}
+
+	@Override
+	public Vertex<V> removeVertex(Vertex<V> vertex) {
+		CompactVertex<V> v = validate(vertex);
+		if (degree[v.id] > 0) {
+			ensureIndex();
+			int[] inc = incident;
+			for (int i = offsets[v.id]; i < offsets[v.id + 1]; i++) {
+				if (endpointOne[inc[i]] >= 0) {
+					removeEdge(inc[i]);
+				}
+			}
+		}
+		vertexList[v.id] = null;
+		vertexCount--;
+		dirty = true;
+		return v;
+	}
+
+	@Override
+	public Edge<Weighted> removeEdge(Edge<Weighted> edge) {
+		CompactEdge e = validate(edge);
+		removeEdge(e.id);
+		return e;
+	}
+
+	/**
+	 * Removes the edge with the given id from the graph
+	 *
+	 * @param id is the id of the edge to remove
+	 */
+	private void removeEdge(int id) {
+		int one = endpointOne[id];
+		int two = endpointTwo[id];
+		if (edgeLookup != null) {
+			edgeLookup.remove(key(one, two));
+		}
+		degree[one]--;
+		if (one != two) {
+			degree[two]--;
+		}
+		endpointOne[id] = -1;
+		edgeCount--;
+		dirty = true;
+	}
+
+	/**
+	 * Rebuilds the CSR adjacency index if the graph changed since it was last built
+	 */
+	private void ensureIndex() {
+		if (dirty) {
+			buildIndex();
+		}
+	}
+
+	/**
+	 * Rebuilds the CSR adjacency index from the edge arrays. The incident edges of
+	 * each vertex are stored in increasing edge id order.
+	 */
+	private synchronized void buildIndex() {
+		if (!dirty) {
+			return;
+		}
+		int[] off = new int[vertexIds + 1];
+		for (int v = 0; v < vertexIds; v++) {
+			off[v + 1] = off[v] + degree[v];
+		}
+		int[] next = Arrays.copyOf(off, vertexIds);
+		int[] tgt = new int[off[vertexIds]];
+		int[] inc = new int[off[vertexIds]];
+		for (int e = 0; e < edgeIds; e++) {
+			int one = endpointOne[e];
+			if (one < 0) {
+				continue;
+			}
+			int two = endpointTwo[e];
+			tgt[next[one]] = two;
+			inc[next[one]++] = e;
+			if (one != two) {
+				tgt[next[two]] = one;
+				inc[next[two]++] = e;
+			}
+		}
+		offsets = off;
+		targets = tgt;
+		incident = inc;
+		dirty = false;
+	}
+
+	/**
+	 * Packs the ids of the two endpoints of an undirected edge into one key
+	 *
+	 * @param one is the id of one endpoint
+	 * @param two is the id of the other endpoint
+	 * @return the key of the edge, independent of the order of its endpoints
+	 */
+	static long key(int one, int two) {
+		if (one > two) {
+			return ((long) two << 32) | one;
+		}
+		return ((long) one << 32) | two;
+	}
+
+	/**
+	 * Checks that the vertex belongs to this graph and has not been removed
+	 *
+	 * @param vertex is the vertex to check
+	 * @return the vertex as a CompactVertex
+	 */
+	@SuppressWarnings("unchecked")
+	private CompactVertex<V> validate(Vertex<V> vertex) {
+		if (!(vertex instanceof CompactVertex)) {
+			throw new IllegalArgumentException("Vertex is not a valid compact graph vertex.");
+		}
+		CompactVertex<V> v = (CompactVertex<V>) vertex;
+		if (v.owner != this || vertexList[v.id] != v) {
+			throw new IllegalArgumentException("Vertex is not in the graph.");
+		}
+		return v;
+	}
+
+	/**
+	 * Checks that the edge belongs to this graph and has not been removed
+	 *
+	 * @param edge is the edge to check
+	 * @return the edge as a CompactEdge
+	 */
+	private CompactEdge validate(Edge<Weighted> edge) {
+		if (!(edge instanceof CompactEdge)) {
+			throw new IllegalArgumentException("Edge is not a valid compact graph edge.");
+		}
+		CompactEdge e = (CompactEdge) edge;
+		if (e.owner != this || endpointOne[e.id] < 0) {
+			throw new IllegalArgumentException("Edge is not in the graph.");
+		}
+		return e;
+	}
+
+	/**
+	 * A vertex of the compact graph, identified by its dense id
+	 *
+	 * @author Sumit Biswas
+	 *
+	 * @param <V> is the generic type for the vertex element
+	 */
+	private static class CompactVertex<V> implements Vertex<V> {
+
+		/** Graph that owns the vertex */
+		private final CompactGraph<V> owner;
+		/** Id of the vertex */
+		private final int id;
+		/** Element stored in the vertex */
+		private final V element;
+
+		/**
+		 * Constructor for CompactVertex
+		 *
+		 * @param owner   is the graph that owns the vertex
+		 * @param id      is the id of the vertex
+		 * @param element is the element stored in the vertex
+		 */
+		public CompactVertex(CompactGraph<V> owner, int id, V element) {
+			this.owner = owner;
+			this.id = id;
+			this.element = element;
+		}
+
+		@Override
+		public V getElement() {
+			return element;
+		}
+
+		@Override
+		public String toString() {
+			return "Vertex[" + element + "]";
+		}
+	}
+
+	/**
+	 * A lightweight handle to an edge of the compact graph. The handle is its own
+	 * element, so getElement().getWeight() reads the weight array directly.
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class CompactEdge implements Edge<Weighted>, Weighted {
+
+		/** Graph that owns the edge */
+		private final CompactGraph<?> owner;
+		/** Id of the edge */
+		private final int id;
+
+		/**
+		 * Constructor for CompactEdge
+		 *
+		 * @param owner is the graph that owns the edge
+		 * @param id    is the id of the edge
+		 */
+		public CompactEdge(CompactGraph<?> owner, int id) {
+			this.owner = owner;
+			this.id = id;
+		}
+
+		@Override
+		public Weighted getElement() {
+			return this;
+		}
+
+		@Override
+		public int getWeight() {
+			return owner.weight[id];
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof CompactEdge)) {
+				return false;
+			}
+			CompactEdge other = (CompactEdge) obj;
+			return other.id == id && other.owner == owner;
+		}
+
+		@Override
+		public String toString() {
+			return "Edge[" + getWeight() + "]";
+		}
+	}
+
+	/**
+	 * Iterator over the live vertices in id order
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private class VertexIterator implements Iterator<Vertex<V>> {
+
+		/** Id of the next vertex to return */
+		private int next;
+
+		/**
+		 * Constructor for VertexIterator
+		 */
+		public VertexIterator() {
+			next = skip(0);
+		}
+
+		/**
+		 * Returns the first live vertex id at or after the given id
+		 *
+		 * @param id is the id to start from
+		 * @return the id of the next live vertex
+		 */
+		private int skip(int id) {
+			while (id < vertexIds && vertexList[id] == null) {
+				id++;
+			}
+			return id;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < vertexIds;
+		}
+
+		@Override
+		public Vertex<V> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Vertex<V> v = vertexList[next];
+			next = skip(next + 1);
+			return v;
+		}
+	}
+
+	/**
+	 * Iterator over the live edges in id order
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private class EdgeIterator implements Iterator<Edge<Weighted>> {
+
+		/** Id of the next edge to return */
+		private int next;
+
+		/**
+		 * Constructor for EdgeIterator
+		 */
+		public EdgeIterator() {
+			next = skip(0);
+		}
+
+		/**
+		 * Returns the first live edge id at or after the given id
+		 *
+		 * @param id is the id to start from
+		 * @return the id of the next live edge
+		 */
+		private int skip(int id) {
+			while (id < edgeIds && endpointOne[id] < 0) {
+				id++;
+			}
+			return id;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < edgeIds;
+		}
+
+		@Override
+		public Edge<Weighted> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Edge<Weighted> e = new CompactEdge(CompactGraph.this, next);
+			next = skip(next + 1);
+			return e;
+		}
+	}
+
+	/**
+	 * Iterator over the incident edges of one vertex, read from the CSR index
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private class IncidentEdgeIterator implements Iterator<Edge<Weighted>> {
+
+		/** CSR edge array the iterator reads from */
+		private int[] edges;
+		/** Position of the next incident edge in the CSR arrays */
+		private int next;
+		/** Position just past the last incident edge of the vertex */
+		private int end;
+
+		/**
+		 * Constructor for IncidentEdgeIterator
+		 *
+		 * @param v is the id of the vertex
+		 */
+		public IncidentEdgeIterator(int v) {
+			ensureIndex();
+			edges = incident;
+			next = offsets[v];
+			end = offsets[v + 1];
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < end;
+		}
+
+		@Override
+		public Edge<Weighted> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return new CompactEdge(CompactGraph.this, edges[next++]);
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package edu.ncsu.csc316.trail.factory;
+
+import java.util.Arrays;
+
+/**
+ * Collects the vertices and edges of a CompactGraph in primitive arrays and
+ * builds the graph in one step. Storage is sized up front from the expected
+ * numbers of vertices and edges. Parallel edges are detected with one probe of
+ * a table keyed by the packed pair of endpoint ids, and no Edge or element
+ * objects are created until the graph is built.
+ *
+ * @author Sumit Biswas
+ *
+ * @param <V> is the generic type for the vertex elements
+ */
+public class CompactGraphBuilder<V> {
+
+	/** Element of each vertex, indexed by vertex id */
+	private V[] elements;
+	/** Number of vertices added */
+	private int vertices;
+	/** First endpoint of each edge */
+	private int[] one;
+	/** Second endpoint of each edge */
+	private int[] two;
+	/** Weight of each edge */
+	private int[] weight;
+	/** Number of edges added */
+	private int edges;
+	/** Edge ids keyed by their packed pair of endpoint ids */
+	private LongIntHashMap lookup;
+
+	/**
+	 * Creates a builder with room for the given numbers of vertices and edges
+	 * before any storage has to grow
+	 *
+	 * @param expectedVertices is the expected number of vertices
+	 * @param expectedEdges    is the expected number of edges
+	 */
+	@SuppressWarnings("unchecked")
+	public CompactGraphBuilder(int expectedVertices, int expectedEdges) {
+		elements = (V[]) new Object[Math.max(expectedVertices, 1)];
+		int capacity = Math.max(expectedEdges, 1);
+		one = new int[capacity];
+		two = new int[capacity];
+		weight = new int[capacity];
+		lookup = new LongIntHashMap(capacity);
+	}
+
+	/**
+	 * Adds a vertex
+	 *
+	 * @param element is the element of the vertex
+	 * @return the id of the vertex, which is the number of vertices added before
+	 *         it
+	 */
+	public int addVertex(V element) {
+		if (vertices == elements.length) {
+			elements = Arrays.copyOf(elements, vertices * 2);
+		}
+		elements[vertices] = element;
+		return vertices++;
+	}
+
+	/**
+	 * Adds an edge between two vertices, unless an edge already joins them
+	 *
+	 * @param vertexOne is the id of one endpoint
+	 * @param vertexTwo is the id of the other endpoint
+	 * @param length    is the weight of the edge
+	 * @return -1 if the edge was added, or the id of the edge that already joins
+	 *         the vertices
+	 * @throws IndexOutOfBoundsException if an endpoint has not been added
+	 */
+	public int addEdge(int vertexOne, int vertexTwo, int length) {
+		if (vertexOne < 0 || vertexOne >= vertices || vertexTwo < 0 || vertexTwo >= vertices) {
+			throw new IndexOutOfBoundsException("Vertex id out of range.");
+		}
+		int existing = lookup.putIfAbsent(CompactGraph.key(vertexOne, vertexTwo), edges);
+		if (existing >= 0) {
+			return existing;
+		}
+		if (edges == one.length) {
+			int capacity = edges * 2;
+			one = Arrays.copyOf(one, capacity);
+			two = Arrays.copyOf(two, capacity);
+			weight = Arrays.copyOf(weight, capacity);
+		}
+		one[edges] = vertexOne;
+		two[edges] = vertexTwo;
+		weight[edges] = length;
+		edges++;
+		return -1;
+	}
+
+	/**
+	 * Returns the weight of an edge
+	 *
+	 * @param edge is the id of the edge
+	 * @return the weight of the edge
+	 */
+	public int getWeight(int edge) {
+		checkEdge(edge);
+		return weight[edge];
+	}
+
+	/**
+	 * Changes the weight of an edge
+	 *
+	 * @param edge   is the id of the edge
+	 * @param length is the new weight of the edge
+	 */
+	public void setWeight(int edge, int length) {
+		checkEdge(edge);
+		weight[edge] = length;
+	}
+
+	/**
+	 * Checks that an edge has been added
+	 *
+	 * @param edge is the id of the edge
+	 * @throws IndexOutOfBoundsException if the edge has not been added
+	 */
+	private void checkEdge(int edge) {
+		if (edge < 0 || edge >= edges) {
+			throw new IndexOutOfBoundsException("Edge id out of range.");
+		}
+	}
+
+	/**
+	 * Returns the number of vertices added
+	 *
+	 * @return the number of vertices
+	 */
+	public int numVertices() {
+		return vertices;
+	}
+
+	/**
+	 * Returns the number of edges added
+	 *
+	 * @return the number of edges
+	 */
+	public int numEdges() {
+		return edges;
+	}
+
+	/**
+	 * Builds a graph directly from its vertex elements and edge arrays, when the
+	 * edges are known to join distinct pairs of vertices, such as the edges of a
+	 * saved graph. The arrays are adopted rather than copied and no lookup table
+	 * is probed, so only the CSR index is built on top of them.
+	 *
+	 * @param <V>      is the generic type for the vertex elements
+	 * @param elements is the element of each vertex, indexed by vertex id
+	 * @param one      is the first endpoint of each edge
+	 * @param two      is the second endpoint of each edge
+	 * @param weights  is the weight of each edge
+	 * @return the graph
+	 * @throws IndexOutOfBoundsException if the edge arrays differ in length or an
+	 *                                   endpoint is not a vertex id
+	 */
+	public static <V> CompactGraph<V> build(V[] elements, int[] one, int[] two, int[] weights) {
+		int edges = one.length;
+		if (two.length != edges || weights.length != edges) {
+			throw new IndexOutOfBoundsException("Edge arrays differ in length.");
+		}
+		for (int e = 0; e < edges; e++) {
+			if (one[e] < 0 || one[e] >= elements.length || two[e] < 0 || two[e] >= elements.length) {
+				throw new IndexOutOfBoundsException("Vertex id out of range.");
+			}
+		}
+		return new CompactGraph<V>(elements, elements.length, one, two, weights, edges);
+	}
+
+	/**
+	 * Builds the graph. Vertex and edge ids in the graph are the ids handed out
+	 * by the builder. The builder must not be used afterwards.
+	 *
+	 * @return the graph
+	 */
+	public CompactGraph<V> build() {
+		CompactGraph<V> graph = new CompactGraph<V>(elements, vertices, one, two, weight, edges);
+		elements = null;
+		one = null;
+		two = null;
+		weight = null;
+		lookup = null;
+		return graph;
+	}
+}
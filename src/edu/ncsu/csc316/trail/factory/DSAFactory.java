@@ -1,9 +1,12 @@
 package edu.ncsu.csc316.trail.factory;
 
+import java.util.concurrent.ForkJoinPool;
+
 //import edu.ncsu.csc316.dsa.data.Identifiable;
 //import edu.ncsu.csc316.dsa.disjoint_set.DisjointSetForest;
 //import edu.ncsu.csc316.dsa.disjoint_set.UpTreeDisjointSetForest;
 //import edu.ncsu.csc316.dsa.graph.AdjacencyListGraph;
+import edu.ncsu.csc316.dsa.Weighted;
 import edu.ncsu.csc316.dsa.graph.AdjacencyMapGraph;
 //import edu.ncsu.csc316.dsa.graph.EdgeListGraph;
 import edu.ncsu.csc316.dsa.graph.Graph;
@@ -93,6 +96,15 @@ public class DSAFactory {
 //		return getRadixSorter();
 //	}
 
+	/**
+	 * Returns a radix sorter for long keys that carry int values
+	 * 
+	 * @return a radix sorter for long keys
+	 */
+	public static LongRadixSorter getLongRadixSorter() {
+		return new LongRadixSorter();
+	}
+
 	/**
 	 * Returns a data structure that implements a stack
 	 * 
@@ -163,6 +175,117 @@ public class DSAFactory {
 		return new AdjacencyMapGraph<V, E>();
 	}
 	
+	/**
+	 * Returns a compact, index-based undirected graph with weighted edges
+	 * @return a compact undirected graph
+	 * @param <V> is the generic type for vertex
+	 */
+	public static <V> CompactGraph<V> getCompactUndirectedGraph() {
+		return new CompactGraph<V>();
+	}
+	
+	/**
+	 * Returns a compact, index-based undirected graph with weighted edges that
+	 * has room for the given number of vertices and edges
+	 * @param vertices is the expected number of vertices
+	 * @param edges is the expected number of edges
+	 * @return a compact undirected graph
+	 * @param <V> is the generic type for vertex
+	 */
+	public static <V> CompactGraph<V> getCompactUndirectedGraph(int vertices, int edges) {
+		return new CompactGraph<V>(vertices, edges);
+	}
+	
+	/**
+	 * Returns a compact undirected graph built directly from vertex elements and
+	 * edge arrays that join distinct pairs of vertices. The arrays are adopted.
+	 * @param elements is the element of each vertex, indexed by vertex id
+	 * @param one is the first endpoint of each edge
+	 * @param two is the second endpoint of each edge
+	 * @param weights is the weight of each edge
+	 * @return a compact undirected graph
+	 * @param <V> is the generic type for vertex
+	 */
+	public static <V> CompactGraph<V> getCompactUndirectedGraph(V[] elements, int[] one, int[] two, int[] weights) {
+		return CompactGraphBuilder.build(elements, one, two, weights);
+	}
+	
+	/**
+	 * Returns a builder that collects vertices and edges in primitive arrays and
+	 * builds a compact undirected graph from them in one step
+	 * @param vertices is the expected number of vertices
+	 * @param edges is the expected number of edges
+	 * @return a compact graph builder
+	 * @param <V> is the generic type for vertex
+	 */
+	public static <V> CompactGraphBuilder<V> getCompactGraphBuilder(int vertices, int edges) {
+		return new CompactGraphBuilder<V>(vertices, edges);
+	}
+	
+	/**
+	 * Returns an engine that answers shortest path queries on the given
+	 * undirected graph with a bidirectional Dijkstra search
+	 * @param graph is the graph to search
+	 * @param landmarks is the number of landmark distance tables to precompute for
+	 * goal-directed search, 0 for none
+	 * @return a shortest path engine
+	 * @param <V> is the generic type for vertex
+	 * @param <E> is the generic type for edge
+	 */
+	public static <V, E extends Weighted> ShortestPathEngine<V> getShortestPathEngine(Graph<V, E> graph,
+			int landmarks) {
+		return new ShortestPathEngine<V>(graph, landmarks);
+	}
+	
+	/**
+	 * Returns dense int ids for the vertices and edge endpoints of the given
+	 * graph, read from a compact graph without hashing
+	 * @param graph is the graph to number
+	 * @return the ids of the graph
+	 * @param <V> is the generic type for vertex
+	 */
+	public static <V> EdgeEndpoints<V> getEdgeEndpoints(Graph<V, Weighted> graph) {
+		return new EdgeEndpoints<V>(graph);
+	}
+	
+	/**
+	 * Returns a read-only view of the given graph
+	 * @param graph is the graph to wrap
+	 * @return a view of the graph that cannot be modified
+	 * @param <V> is the generic type for vertex
+	 * @param <E> is the generic type for edge
+	 */
+	public static <V, E> Graph<V, E> getUnmodifiableGraph(Graph<V, E> graph) {
+		return new UnmodifiableGraph<V, E>(graph);
+	}
+	
+	/**
+	 * Returns the algorithm used to compute minimum spanning trees, which runs
+	 * Boruvka's algorithm in parallel on large graphs
+	 * @return a minimum spanning tree algorithm
+	 */
+	public static SpanningTreeAlgorithm getSpanningTreeAlgorithm() {
+		return getParallelSpanningTreeAlgorithm(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Returns a sequential minimum spanning tree algorithm
+	 * @return Kruskal's algorithm
+	 */
+	public static SpanningTreeAlgorithm getSequentialSpanningTreeAlgorithm() {
+		return new KruskalSpanningTree();
+	}
+	
+	/**
+	 * Returns a minimum spanning tree algorithm that runs on the given pool. It
+	 * returns the same trees as the sequential algorithm.
+	 * @param pool is the pool the algorithm runs on
+	 * @return Boruvka's algorithm
+	 */
+	public static SpanningTreeAlgorithm getParallelSpanningTreeAlgorithm(ForkJoinPool pool) {
+		return new BoruvkaSpanningTree(pool, BoruvkaSpanningTree.DEFAULT_SEQUENTIAL_THRESHOLD);
+	}
+	
 	/**
 	 * Returns a data structure that implements a directed graph
 	 * @return a directed graph
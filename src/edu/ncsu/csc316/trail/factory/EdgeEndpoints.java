@@ -0,0 +1,95 @@
+package edu.ncsu.csc316.trail.factory;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.map.Map;
+
+/**
+ * Dense int ids for the vertices of a graph and the endpoints of its edges, so
+ * code outside this package can index arrays by vertex without hashing.
+ * Compact graphs already number their vertices, so their ids are read from the
+ * graph's arrays; other graphs get ids in vertex order from a map built once.
+ * The ids are only valid until the graph changes, and may be read from
+ * several threads at once while it does not.
+ *
+ * @author Sumit Biswas
+ *
+ * @param <V> is the generic type for the vertex element
+ */
+public class EdgeEndpoints<V> {
+
+	/** Graph whose ids are used, or null if the ids come from the map */
+	private final CompactGraph<V> compact;
+	/** Graph the ids are given for */
+	private final Graph<V, Weighted> graph;
+	/** Id of each vertex of a graph that is not compact, or null */
+	private final Map<Vertex<V>, Integer> ids;
+	/** Vertex of each id */
+	private final Vertex<V>[] vertices;
+
+	/**
+	 * Numbers the vertices of a graph
+	 *
+	 * @param graph is the graph
+	 */
+	@SuppressWarnings("unchecked")
+	public EdgeEndpoints(Graph<V, Weighted> graph) {
+		Graph<V, Weighted> source = graph;
+		while (source instanceof UnmodifiableGraph) {
+			source = ((UnmodifiableGraph<V, Weighted>) source).getWrappedGraph();
+		}
+		this.graph = source;
+		if (source instanceof CompactGraph) {
+			compact = (CompactGraph<V>) source;
+			ids = null;
+			vertices = (Vertex<V>[]) new Vertex<?>[compact.vertexIdBound()];
+			for (Vertex<V> v : source.vertices()) {
+				vertices[compact.vertexId(v)] = v;
+			}
+		} else {
+			compact = null;
+			ids = DSAFactory.getMap();
+			vertices = (Vertex<V>[]) new Vertex<?>[source.numVertices()];
+			int id = 0;
+			for (Vertex<V> v : source.vertices()) {
+				vertices[id] = v;
+				ids.put(v, id++);
+			}
+		}
+	}
+
+	/**
+	 * Returns one more than the largest vertex id, so every id is in [0, bound)
+	 *
+	 * @return the bound of the vertex ids
+	 */
+	public int vertexIdBound() {
+		return vertices.length;
+	}
+
+	/**
+	 * Returns the vertex of an id
+	 *
+	 * @param id is the vertex id
+	 * @return the vertex, or null if the id belongs to a removed vertex
+	 */
+	public Vertex<V> getVertex(int id) {
+		return vertices[id];
+	}
+
+	/**
+	 * Returns the id of an endpoint of an edge
+	 *
+	 * @param edge is the edge
+	 * @param end  is 0 for the first endpoint and 1 for the second
+	 * @return the id of the endpoint
+	 */
+	public int endpointId(Edge<Weighted> edge, int end) {
+		if (compact != null) {
+			return compact.endpointId(edge, end);
+		}
+		return ids.get(graph.endVertices(edge)[end]);
+	}
+}
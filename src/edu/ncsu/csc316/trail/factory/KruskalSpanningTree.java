@@ -0,0 +1,36 @@
+package edu.ncsu.csc316.trail.factory;
+
+import java.util.Arrays;
+
+/**
+ * Sequential Kruskal's algorithm. The edge keys are sorted as primitive longs,
+ * and a union-find forest over int arrays with union by size and path halving
+ * decides which edges join two trees. Unlike the library implementation it
+ * handles disconnected graphs, and it breaks ties the same way because the
+ * keys carry the library heap order. It runs in O(E log E) time.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class KruskalSpanningTree extends AbstractSpanningTreeAlgorithm {
+
+	@Override
+	protected long[] forest(int vertices, int[] one, int[] two, long[] keys) {
+		long[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		int[] parent = new int[vertices];
+		Arrays.fill(parent, -1);
+		long[] chosen = new long[Math.max(0, Math.min(sorted.length, vertices - 1))];
+		int count = 0;
+		for (int i = 0; i < sorted.length && count < chosen.length; i++) {
+			int e = index(sorted[i]);
+			int a = find(parent, one[e]);
+			int b = find(parent, two[e]);
+			if (a != b) {
+				union(parent, a, b);
+				chosen[count++] = sorted[i];
+			}
+		}
+		return Arrays.copyOf(chosen, count);
+	}
+}
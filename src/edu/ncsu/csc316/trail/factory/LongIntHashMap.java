@@ -0,0 +1,191 @@
+package edu.ncsu.csc316.trail.factory;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to non-negative int values,
+ * using linear probing with backward-shift deletion so no boxed keys, values or
+ * entry objects are allocated.
+ *
+ * @author Sumit Biswas
+ *
+ */
+class LongIntHashMap {
+
+	/** Marker for an empty slot; keys are packed pairs of non-negative ids so never equal it */
+	private static final long EMPTY = -1L;
+	/** Value returned for absent keys */
+	private static final int ABSENT = -1;
+
+	/** Keys of the table, EMPTY for free slots */
+	private long[] keys;
+	/** Values of the table */
+	private int[] values;
+	/** Number of entries in the table */
+	private int size;
+	/** Capacity minus one, used to wrap probe positions */
+	private int mask;
+
+	/**
+	 * Creates a new LongIntHashMap sized to hold the given number of entries
+	 * without resizing
+	 *
+	 * @param expected is the expected number of entries
+	 */
+	LongIntHashMap(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Returns the value stored for the key
+	 *
+	 * @param key is the key to look up
+	 * @return the value for the key, or -1 if the key is absent
+	 */
+	int get(long key) {
+		int i = slot(key);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				return values[i];
+			}
+			i = (i + 1) & mask;
+		}
+		return ABSENT;
+	}
+
+	/**
+	 * Stores the value for the key, replacing any existing value
+	 *
+	 * @param key   is the key
+	 * @param value is the value, which must be non-negative
+	 */
+	void put(long key, int value) {
+		int i = slot(key);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size * 2 > keys.length) {
+			resize();
+		}
+	}
+
+	/**
+	 * Stores the value for the key unless the key is already present, probing the
+	 * table once either way
+	 *
+	 * @param key   is the key
+	 * @param value is the value, which must be non-negative
+	 * @return the value already stored for the key, or -1 if the value was stored
+	 */
+	int putIfAbsent(long key, int value) {
+		int i = slot(key);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				return values[i];
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size * 2 > keys.length) {
+			resize();
+		}
+		return ABSENT;
+	}
+
+	/**
+	 * Removes the key from the map
+	 *
+	 * @param key is the key to remove
+	 * @return the value that was stored for the key, or -1 if the key was absent
+	 */
+	int remove(long key) {
+		int i = slot(key);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				int old = values[i];
+				shiftBack(i);
+				size--;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		return ABSENT;
+	}
+
+	/**
+	 * Returns the number of entries in the map
+	 *
+	 * @return the number of entries
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Closes the gap left at the given slot by moving later entries of the same
+	 * probe run back, so lookups never stop early at a freed slot
+	 *
+	 * @param gap is the slot that was freed
+	 */
+	private void shiftBack(int gap) {
+		int i = gap;
+		while (true) {
+			i = (i + 1) & mask;
+			if (keys[i] == EMPTY) {
+				break;
+			}
+			int home = slot(keys[i]);
+			// move the entry only if its home slot is not between the gap and its position
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				keys[gap] = keys[i];
+				values[gap] = values[i];
+				gap = i;
+			}
+		}
+		keys[gap] = EMPTY;
+	}
+
+	/**
+	 * Doubles the capacity of the table and reinserts every entry
+	 */
+	private void resize() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		values = new int[oldValues.length * 2];
+		mask = keys.length - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] != EMPTY) {
+				int i = slot(oldKeys[j]);
+				while (keys[i] != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	/**
+	 * Returns the home slot of the key
+	 *
+	 * @param key is the key
+	 * @return the slot the key hashes to
+	 */
+	private int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+}
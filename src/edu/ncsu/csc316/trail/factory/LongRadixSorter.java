@@ -0,0 +1,77 @@
+package edu.ncsu.csc316.trail.factory;
+
+/**
+ * Least significant digit radix sort of long keys, each carrying an int value.
+ * Keys are compared as unsigned 64 bit numbers and sorted one byte at a time.
+ * The counts of every byte are taken in a single pass first, so bytes that are
+ * the same in every key are skipped; keys that pack small numbers therefore
+ * take only a few passes. The sort is stable and runs in O(n) time for a fixed
+ * key width, with no comparisons and no allocation besides two scratch arrays.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class LongRadixSorter {
+
+	/** Number of bits in one digit */
+	private static final int DIGIT_BITS = 8;
+	/** Number of different digits */
+	private static final int RADIX = 1 << DIGIT_BITS;
+	/** Number of digits in a key */
+	private static final int DIGITS = Long.SIZE / DIGIT_BITS;
+
+	/**
+	 * Sorts the first size keys in ascending unsigned order, moving each value
+	 * along with its key
+	 *
+	 * @param keys   is the array of keys
+	 * @param values is the array of values, parallel to the keys
+	 * @param size   is the number of keys to sort
+	 */
+	public void sort(long[] keys, int[] values, int size) {
+		int[][] counts = new int[DIGITS][RADIX];
+		for (int i = 0; i < size; i++) {
+			long key = keys[i];
+			for (int d = 0; d < DIGITS; d++) {
+				counts[d][(int) (key >>> (d * DIGIT_BITS)) & (RADIX - 1)]++;
+			}
+		}
+		long[] fromKeys = keys;
+		int[] fromValues = values;
+		long[] toKeys = null;
+		int[] toValues = null;
+		for (int d = 0; d < DIGITS; d++) {
+			int[] count = counts[d];
+			if (size == 0 || count[(int) (keys[0] >>> (d * DIGIT_BITS)) & (RADIX - 1)] == size) {
+				continue;
+			}
+			if (toKeys == null) {
+				toKeys = new long[size];
+				toValues = new int[size];
+			}
+			int offset = 0;
+			for (int b = 0; b < RADIX; b++) {
+				int c = count[b];
+				count[b] = offset;
+				offset += c;
+			}
+			int shift = d * DIGIT_BITS;
+			for (int i = 0; i < size; i++) {
+				long key = fromKeys[i];
+				int slot = count[(int) (key >>> shift) & (RADIX - 1)]++;
+				toKeys[slot] = key;
+				toValues[slot] = fromValues[i];
+			}
+			long[] k = fromKeys;
+			fromKeys = toKeys;
+			toKeys = k;
+			int[] v = fromValues;
+			fromValues = toValues;
+			toValues = v;
+		}
+		if (fromKeys != keys) {
+			System.arraycopy(fromKeys, 0, keys, 0, size);
+			System.arraycopy(fromValues, 0, values, 0, size);
+		}
+	}
+}
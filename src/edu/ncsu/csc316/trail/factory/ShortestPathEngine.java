@@ -0,0 +1,639 @@
+package edu.ncsu.csc316.trail.factory;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.map.Map;
+
+/**
+ * Point-to-point shortest paths on an undirected graph with non-negative edge
+ * weights. The graph is copied into compressed sparse row arrays once, and each
+ * query runs a bidirectional Dijkstra search over two indexed binary heaps.
+ *
+ * <p>
+ * Optional landmarks make the search goal-directed (ALT): the distance from a
+ * few well-spread landmarks to every vertex is precomputed, and the triangle
+ * inequality turns those distances into lower bounds that steer both searches
+ * towards each other. Both searches use the average of the forward and reverse
+ * bounds as their potential, so the search stays exact. Keys and distances are
+ * kept doubled so the averaged potentials stay integral.
+ * </p>
+ *
+ * <p>
+ * The engine is immutable and may be queried from several threads at once.
+ * Each thread keeps its own search arrays, which are reset by bumping a
+ * generation stamp, so distance queries allocate nothing once a thread has
+ * made its first query.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ * @param <V> is the generic type for the vertex elements
+ */
+public class ShortestPathEngine<V> {
+
+	/** Distance of a vertex that cannot be reached */
+	private static final long INFINITY = Long.MAX_VALUE;
+
+	/** Vertex of each id, null for ids without a vertex */
+	private final Vertex<V>[] vertices;
+	/** Id of each vertex, for graphs that do not number their vertices */
+	private final Map<Vertex<V>, Integer> ids;
+	/** Compact graph whose vertex ids are used directly, or null */
+	private final CompactGraph<V> compact;
+	/** The neighbours of vertex v are at [offsets[v], offsets[v + 1]) */
+	private final int[] offsets;
+	/** Opposite endpoint of each incident edge */
+	private final int[] targets;
+	/** Weight of each incident edge */
+	private final int[] weights;
+	/** Distances from each landmark to every vertex, INFINITY if unreachable */
+	private final long[][] landmarks;
+	/** Search arrays of each thread */
+	private final ThreadLocal<Search> searches;
+
+	/**
+	 * Creates an engine for a graph
+	 *
+	 * @param graph     is an undirected graph whose edges have non-negative
+	 *                  weights; later changes to it are not seen by the engine
+	 * @param landmarks is the number of landmarks to precompute, 0 for plain
+	 *                  bidirectional Dijkstra
+	 * @param <E>       is the type of the edge elements
+	 * @throws IllegalArgumentException if the graph is directed, has a negative
+	 *                                  weight or the number of landmarks is
+	 *                                  negative
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends Weighted> ShortestPathEngine(Graph<V, E> graph, int landmarks) {
+		if (graph.isDirected()) {
+			throw new IllegalArgumentException("Graph must be undirected.");
+		}
+		if (landmarks < 0) {
+			throw new IllegalArgumentException("Number of landmarks must be >= 0.");
+		}
+		Graph<V, E> source = graph;
+		while (source instanceof UnmodifiableGraph) {
+			source = ((UnmodifiableGraph<V, E>) source).getWrappedGraph();
+		}
+		int n;
+		int m = source.numEdges();
+		int[] one = new int[m];
+		int[] two = new int[m];
+		int[] w = new int[m];
+		if (source instanceof CompactGraph) {
+			compact = (CompactGraph<V>) source;
+			ids = null;
+			n = compact.vertexIdBound();
+			vertices = (Vertex<V>[]) new Vertex<?>[n];
+			for (Vertex<V> v : source.vertices()) {
+				vertices[compact.vertexId(v)] = v;
+			}
+			int i = 0;
+			for (Edge<E> e : source.edges()) {
+				one[i] = compact.endpointId((Edge<Weighted>) e, 0);
+				two[i] = compact.endpointId((Edge<Weighted>) e, 1);
+				w[i++] = e.getElement().getWeight();
+			}
+		} else {
+			compact = null;
+			ids = DSAFactory.getMap();
+			n = source.numVertices();
+			vertices = (Vertex<V>[]) new Vertex<?>[n];
+			int id = 0;
+			for (Vertex<V> v : source.vertices()) {
+				vertices[id] = v;
+				ids.put(v, id++);
+			}
+			int i = 0;
+			for (Edge<E> e : source.edges()) {
+				Vertex<V>[] ends = source.endVertices(e);
+				one[i] = ids.get(ends[0]);
+				two[i] = ids.get(ends[1]);
+				w[i++] = e.getElement().getWeight();
+			}
+		}
+		offsets = new int[n + 1];
+		for (int i = 0; i < m; i++) {
+			if (w[i] < 0) {
+				throw new IllegalArgumentException("Edge weights must be >= 0.");
+			}
+			if (one[i] != two[i]) {
+				offsets[one[i] + 1]++;
+				offsets[two[i] + 1]++;
+			}
+		}
+		for (int v = 0; v < n; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] next = Arrays.copyOf(offsets, n);
+		targets = new int[offsets[n]];
+		weights = new int[offsets[n]];
+		for (int i = 0; i < m; i++) {
+			if (one[i] != two[i]) {
+				targets[next[one[i]]] = two[i];
+				weights[next[one[i]]++] = w[i];
+				targets[next[two[i]]] = one[i];
+				weights[next[two[i]]++] = w[i];
+			}
+		}
+		searches = new ThreadLocal<Search>() {
+			@Override
+			protected Search initialValue() {
+				return new Search(offsets.length - 1);
+			}
+		};
+		this.landmarks = selectLandmarks(landmarks);
+	}
+
+	/**
+	 * Chooses well-spread landmarks and computes their distance tables. The first
+	 * landmark is the vertex farthest from an arbitrary vertex, and each later one
+	 * is the vertex farthest from the landmarks chosen so far.
+	 *
+	 * @param count is the number of landmarks
+	 * @return the distance table of each landmark
+	 */
+	private long[][] selectLandmarks(int count) {
+		int n = vertices.length;
+		int start = 0;
+		while (start < n && vertices[start] == null) {
+			start++;
+		}
+		count = start == n ? 0 : Math.min(count, n);
+		long[][] tables = new long[count][];
+		if (count == 0) {
+			return tables;
+		}
+		Search search = searches.get();
+		long[] nearest = new long[n];
+		Arrays.fill(nearest, INFINITY);
+		long[] dist = search.allDistances(start);
+		int landmark = farthest(dist);
+		for (int k = 0; k < count; k++) {
+			tables[k] = search.allDistances(landmark);
+			for (int v = 0; v < n; v++) {
+				nearest[v] = Math.min(nearest[v], tables[k][v]);
+			}
+			landmark = farthest(nearest);
+		}
+		return tables;
+	}
+
+	/**
+	 * Returns the vertex with the largest distance, preferring unreachable ones
+	 *
+	 * @param dist is the distance of each vertex id
+	 * @return the id of the farthest vertex
+	 */
+	private int farthest(long[] dist) {
+		int best = -1;
+		for (int v = 0; v < dist.length; v++) {
+			if (vertices[v] != null && (best < 0 || dist[v] > dist[best])) {
+				best = v;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the number of vertex ids, so every id is in [0, bound)
+	 *
+	 * @return the bound of the vertex ids
+	 */
+	public int vertexIdBound() {
+		return vertices.length;
+	}
+
+	/**
+	 * Returns the number of landmarks
+	 *
+	 * @return the number of precomputed landmark tables
+	 */
+	public int getLandmarkCount() {
+		return landmarks.length;
+	}
+
+	/**
+	 * Returns the id of a vertex
+	 *
+	 * @param vertex is the vertex
+	 * @return the id of the vertex, or -1 if it was not in the graph when the
+	 *         engine was created
+	 */
+	public int id(Vertex<V> vertex) {
+		if (compact != null) {
+			try {
+				int id = compact.vertexId(vertex);
+				return id < vertices.length && vertices[id] == vertex ? id : -1;
+			} catch (IllegalArgumentException e) {
+				return -1;
+			}
+		}
+		Integer id = ids.get(vertex);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the vertex with an id
+	 *
+	 * @param id is the id of the vertex
+	 * @return the vertex
+	 * @throws IndexOutOfBoundsException if there is no vertex with the id
+	 */
+	public Vertex<V> vertex(int id) {
+		if (id < 0 || id >= vertices.length || vertices[id] == null) {
+			throw new IndexOutOfBoundsException("No vertex with id " + id + ".");
+		}
+		return vertices[id];
+	}
+
+	/**
+	 * Returns the length of a shortest path between two vertices. No memory is
+	 * allocated once the calling thread has made a query.
+	 *
+	 * @param from is the id of the start vertex
+	 * @param to   is the id of the end vertex
+	 * @return the length of the path, or -1 if there is no path
+	 * @throws IndexOutOfBoundsException if there is no vertex with one of the ids
+	 */
+	public long distance(int from, int to) {
+		vertex(from);
+		vertex(to);
+		long d = searches.get().run(from, to);
+		return d == INFINITY ? -1 : d;
+	}
+
+	/**
+	 * Returns the vertex ids along a shortest path between two vertices
+	 *
+	 * @param from is the id of the start vertex
+	 * @param to   is the id of the end vertex
+	 * @return the ids from the start to the end vertex, or null if there is no
+	 *         path
+	 * @throws IndexOutOfBoundsException if there is no vertex with one of the ids
+	 */
+	public int[] path(int from, int to) {
+		vertex(from);
+		vertex(to);
+		Search search = searches.get();
+		if (search.run(from, to) == INFINITY) {
+			return null;
+		}
+		return search.path(from, to);
+	}
+
+	/**
+	 * Search arrays of one thread: distances, parents and stamps for the forward
+	 * and reverse searches, their heaps and the cached potentials. An entry is
+	 * valid only if its stamp matches the generation of the current query.
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private class Search {
+
+		/** Generation of the current query */
+		private int generation;
+		/** Forward and reverse distances */
+		private final long[][] dist = new long[2][];
+		/** Forward and reverse parents */
+		private final int[][] parent = new int[2][];
+		/** Generation in which each vertex was reached in each direction */
+		private final int[][] reached = new int[2][];
+		/** Generation in which each vertex was settled in each direction */
+		private final int[][] settled = new int[2][];
+		/** Forward and reverse heaps */
+		private final IndexedHeap[] heaps = new IndexedHeap[2];
+		/** Doubled average potential of each vertex, valid if stamped */
+		private final long[] potential;
+		/** Generation in which each potential was computed */
+		private final int[] potentialStamp;
+		/** Vertex where the best path found so far meets */
+		private int meet;
+		/** Start of the current query */
+		private int source;
+		/** End of the current query */
+		private int target;
+
+		/**
+		 * Creates search arrays for a number of vertex ids
+		 *
+		 * @param n is the number of vertex ids
+		 */
+		Search(int n) {
+			for (int d = 0; d < 2; d++) {
+				dist[d] = new long[n];
+				parent[d] = new int[n];
+				reached[d] = new int[n];
+				settled[d] = new int[n];
+				heaps[d] = new IndexedHeap(n);
+			}
+			potential = new long[n];
+			potentialStamp = new int[n];
+		}
+
+		/**
+		 * Starts a new generation, clearing the stamps when the counter wraps
+		 */
+		private void nextGeneration() {
+			if (++generation == Integer.MAX_VALUE) {
+				for (int d = 0; d < 2; d++) {
+					Arrays.fill(reached[d], 0);
+					Arrays.fill(settled[d], 0);
+				}
+				Arrays.fill(potentialStamp, 0);
+				generation = 1;
+			}
+			heaps[0].clear();
+			heaps[1].clear();
+		}
+
+		/**
+		 * Runs a bidirectional search
+		 *
+		 * @param from is the id of the start vertex
+		 * @param to   is the id of the end vertex
+		 * @return the distance, or INFINITY if there is no path
+		 */
+		long run(int from, int to) {
+			nextGeneration();
+			source = from;
+			target = to;
+			meet = from;
+			if (from == to) {
+				return 0;
+			}
+			long best = INFINITY;
+			reach(0, from, 0, -1);
+			reach(1, to, 0, -1);
+			while (!heaps[0].isEmpty() && !heaps[1].isEmpty()) {
+				long top0 = heaps[0].minKey();
+				long top1 = heaps[1].minKey();
+				if (best != INFINITY && top0 + top1 >= 2 * best) {
+					break;
+				}
+				int d = top0 <= top1 ? 0 : 1;
+				int other = 1 - d;
+				int u = heaps[d].poll();
+				settled[d][u] = generation;
+				long du = dist[d][u];
+				for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+					int v = targets[i];
+					if (settled[d][v] == generation) {
+						continue;
+					}
+					long nd = du + weights[i];
+					if (reached[d][v] != generation || nd < dist[d][v]) {
+						reach(d, v, nd, u);
+						if (reached[other][v] == generation && nd + dist[other][v] < best) {
+							best = nd + dist[other][v];
+							meet = v;
+						}
+					}
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Records a shorter distance to a vertex and queues it with its key
+		 *
+		 * @param d    is 0 for the forward search and 1 for the reverse search
+		 * @param v    is the vertex
+		 * @param nd   is its new distance
+		 * @param from is the vertex it is reached from, or -1 for the start
+		 */
+		private void reach(int d, int v, long nd, int from) {
+			dist[d][v] = nd;
+			parent[d][v] = from;
+			reached[d][v] = generation;
+			long p = potential(v);
+			heaps[d].update(v, 2 * nd + (d == 0 ? p : -p));
+		}
+
+		/**
+		 * Returns the doubled average potential of a vertex: its lower bound to
+		 * the target minus its lower bound from the source
+		 *
+		 * @param v is the vertex
+		 * @return the potential of the forward search, negated for the reverse
+		 */
+		private long potential(int v) {
+			if (landmarks.length == 0) {
+				return 0;
+			}
+			if (potentialStamp[v] != generation) {
+				potential[v] = bound(v, target) - bound(source, v);
+				potentialStamp[v] = generation;
+			}
+			return potential[v];
+		}
+
+		/**
+		 * Returns a lower bound of the distance between two vertices from the
+		 * landmark tables
+		 *
+		 * @param a is one vertex
+		 * @param b is the other vertex
+		 * @return the largest bound given by any landmark that reaches both
+		 */
+		private long bound(int a, int b) {
+			long best = 0;
+			for (long[] table : landmarks) {
+				long da = table[a];
+				long db = table[b];
+				if (da != INFINITY && db != INFINITY) {
+					best = Math.max(best, Math.abs(da - db));
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Returns the vertices along the path found by the last run
+		 *
+		 * @param from is the start of the last run
+		 * @param to   is the end of the last run
+		 * @return the ids from the start to the end vertex
+		 */
+		int[] path(int from, int to) {
+			if (from == to) {
+				return new int[] { from };
+			}
+			int forward = 1;
+			for (int v = meet; v != from; v = parent[0][v]) {
+				forward++;
+			}
+			int reverse = 0;
+			for (int v = meet; v != to; v = parent[1][v]) {
+				reverse++;
+			}
+			int[] path = new int[forward + reverse];
+			int v = meet;
+			for (int k = forward - 1; k >= 0; k--) {
+				path[k] = v;
+				v = parent[0][v];
+			}
+			v = meet;
+			for (int k = forward; k < path.length; k++) {
+				v = parent[1][v];
+				path[k] = v;
+			}
+			return path;
+		}
+
+		/**
+		 * Runs a full single-source search without potentials, for the landmark
+		 * tables
+		 *
+		 * @param from is the id of the source
+		 * @return a new array of the distance to every vertex id
+		 */
+		long[] allDistances(int from) {
+			nextGeneration();
+			long[] table = new long[dist[0].length];
+			Arrays.fill(table, INFINITY);
+			dist[0][from] = 0;
+			reached[0][from] = generation;
+			heaps[0].update(from, 0);
+			while (!heaps[0].isEmpty()) {
+				int u = heaps[0].poll();
+				settled[0][u] = generation;
+				long du = dist[0][u];
+				table[u] = du;
+				for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+					int v = targets[i];
+					long nd = du + weights[i];
+					if (settled[0][v] != generation && (reached[0][v] != generation || nd < dist[0][v])) {
+						dist[0][v] = nd;
+						reached[0][v] = generation;
+						heaps[0].update(v, nd);
+					}
+				}
+			}
+			return table;
+		}
+	}
+
+	/**
+	 * Binary min-heap of vertex ids keyed by long, which records the position of
+	 * each id so its key can be decreased in place
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class IndexedHeap {
+
+		/** Vertex ids in heap order */
+		private final int[] items;
+		/** Key of each vertex id */
+		private final long[] keys;
+		/** Position of each vertex id in items, -1 if it is not queued */
+		private final int[] positions;
+		/** Number of queued ids */
+		private int size;
+
+		/**
+		 * Creates an empty heap for a number of vertex ids
+		 *
+		 * @param n is the number of vertex ids
+		 */
+		IndexedHeap(int n) {
+			items = new int[n];
+			keys = new long[n];
+			positions = new int[n];
+			Arrays.fill(positions, -1);
+		}
+
+		/**
+		 * Returns whether no ids are queued
+		 *
+		 * @return true if the heap is empty
+		 */
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		/**
+		 * Returns the smallest key
+		 *
+		 * @return the key of the first id
+		 */
+		long minKey() {
+			return keys[items[0]];
+		}
+
+		/**
+		 * Removes every queued id
+		 */
+		void clear() {
+			for (int i = 0; i < size; i++) {
+				positions[items[i]] = -1;
+			}
+			size = 0;
+		}
+
+		/**
+		 * Queues an id, or lowers its key if it is already queued
+		 *
+		 * @param v   is the vertex id
+		 * @param key is its key, which must not be larger than its queued key
+		 */
+		void update(int v, long key) {
+			keys[v] = key;
+			int i = positions[v];
+			if (i < 0) {
+				i = size++;
+			}
+			while (i > 0) {
+				int p = (i - 1) >>> 1;
+				int up = items[p];
+				if (keys[up] <= key) {
+					break;
+				}
+				items[i] = up;
+				positions[up] = i;
+				i = p;
+			}
+			items[i] = v;
+			positions[v] = i;
+		}
+
+		/**
+		 * Removes and returns the id with the smallest key
+		 *
+		 * @return the vertex id
+		 */
+		int poll() {
+			int first = items[0];
+			positions[first] = -1;
+			int last = items[--size];
+			if (size > 0) {
+				long key = keys[last];
+				int i = 0;
+				while (true) {
+					int c = 2 * i + 1;
+					if (c >= size) {
+						break;
+					}
+					if (c + 1 < size && keys[items[c + 1]] < keys[items[c]]) {
+						c++;
+					}
+					if (keys[items[c]] >= key) {
+						break;
+					}
+					items[i] = items[c];
+					positions[items[i]] = i;
+					i = c;
+				}
+				items[i] = last;
+				positions[last] = i;
+			}
+			return first;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package edu.ncsu.csc316.trail.factory;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+
+/**
+ * Algorithm that computes a minimum spanning forest of a weighted undirected
+ * graph. Edges of equal weight are ordered the way the library kruskal takes
+ * them from its heap, which makes the forest unique and the same as the one the
+ * library chooses, so every implementation returns exactly the same edges in
+ * the same order for the same graph.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public interface SpanningTreeAlgorithm {
+
+	/**
+	 * Returns the edges of the minimum spanning forest of the graph: one minimum
+	 * spanning tree for each connected component. The edges are listed by
+	 * ascending weight, and edges of equal weight in the library kruskal order.
+	 *
+	 * @param <V>   is the generic type for vertex
+	 * @param <E>   is the generic type for edge
+	 * @param graph is the graph
+	 * @return the edges of the minimum spanning forest
+	 */
+	<V, E extends Weighted> PositionalList<Edge<E>> minimumSpanningForest(Graph<V, E> graph);
+}
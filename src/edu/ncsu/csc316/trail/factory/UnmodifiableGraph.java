@@ -0,0 +1,118 @@
+package edu.ncsu.csc316.trail.factory;
+
+import edu.ncsu.csc316.dsa.graph.Graph;
+
+/**
+ * Read-only view of a graph. Every query is passed through to the wrapped
+ * graph, and every insertion or removal throws UnsupportedOperationException,
+ * so the view can be handed out without letting callers change the graph.
+ *
+ * @author Sumit Biswas
+ *
+ * @param <V> is the generic type for vertex
+ * @param <E> is the generic type for edge
+ */
+public class UnmodifiableGraph<V, E> implements Graph<V, E> {
+
+	/** Wrapped graph */
+	private final Graph<V, E> graph;
+
+	/**
+	 * Creates a read-only view of the given graph
+	 *
+	 * @param graph is the graph to wrap
+	 */
+	public UnmodifiableGraph(Graph<V, E> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Returns the wrapped graph, so algorithms in this package can use its
+	 * internal representation
+	 *
+	 * @return the wrapped graph
+	 */
+	Graph<V, E> getWrappedGraph() {
+		return graph;
+	}
+
+	@Override
+	public boolean isDirected() {
+		return graph.isDirected();
+	}
+
+	@Override
+	public int numVertices() {
+		return graph.numVertices();
+	}
+
+	@Override
+	public Iterable<Vertex<V>> vertices() {
+		return graph.vertices();
+	}
+
+	@Override
+	public int numEdges() {
+		return graph.numEdges();
+	}
+
+	@Override
+	public Iterable<Edge<E>> edges() {
+		return graph.edges();
+	}
+
+	@Override
+	public Edge<E> getEdge(Vertex<V> vertex1, Vertex<V> vertex2) {
+		return graph.getEdge(vertex1, vertex2);
+	}
+
+	@Override
+	public Vertex<V>[] endVertices(Edge<E> edge) {
+		return graph.endVertices(edge);
+	}
+
+	@Override
+	public Vertex<V> opposite(Vertex<V> vertex, Edge<E> edge) {
+		return graph.opposite(vertex, edge);
+	}
+
+	@Override
+	public int outDegree(Vertex<V> vertex) {
+		return graph.outDegree(vertex);
+	}
+
+	@Override
+	public int inDegree(Vertex<V> vertex) {
+		return graph.inDegree(vertex);
+	}
+
+	@Override
+	public Iterable<Edge<E>> outgoingEdges(Vertex<V> vertex) {
+		return graph.outgoingEdges(vertex);
+	}
+
+	@Override
+	public Iterable<Edge<E>> incomingEdges(Vertex<V> vertex) {
+		return graph.incomingEdges(vertex);
+	}
+
+	@Override
+	public Vertex<V> insertVertex(V element) {
+		throw new UnsupportedOperationException("The graph cannot be modified.");
+	}
+
+	@Override
+	public Edge<E> insertEdge(Vertex<V> vertex1, Vertex<V> vertex2, E element) {
+		throw new UnsupportedOperationException("The graph cannot be modified.");
+	}
+
+	@Override
+	public Vertex<V> removeVertex(Vertex<V> vertex) {
+		throw new UnsupportedOperationException("The graph cannot be modified.");
+	}
+
+	@Override
+	public Edge<E> removeEdge(Edge<E> edge) {
+		throw new UnsupportedOperationException("The graph cannot be modified.");
+	}
+}
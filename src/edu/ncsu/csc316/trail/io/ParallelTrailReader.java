@@ -0,0 +1,374 @@
+package edu.ncsu.csc316.trail.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import edu.ncsu.csc316.trail.io.StreamingTrailReader.TrailHandler;
+
+/**
+ * Reads large potential trail files in parallel. The file is memory-mapped and
+ * split into chunks that end on line boundaries; each chunk is parsed on a
+ * fork-join pool into its own buffer of rows, and the buffers are handed to the
+ * TrailHandler strictly in file order. The handler therefore sees exactly the
+ * same sequence of trails as with StreamingTrailReader, so attractions are
+ * interned in the same order and every report is identical.
+ *
+ * Only a bounded window of parsed chunks is held at a time, so memory stays
+ * proportional to the chunk size rather than to the file.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class ParallelTrailReader {
+
+	/** Default number of bytes in each chunk */
+	public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+	/**
+	 * Reads every potential trail in the file on the common fork-join pool and
+	 * passes them to the handler in file order
+	 *
+	 * @param pathToTrailFile the path to the file containing trail data
+	 * @param handler         the handler that receives each trail
+	 * @return the number of trails read
+	 * @throws FileNotFoundException    if the input file does not exist or cannot
+	 *                                  be opened
+	 * @throws IllegalArgumentException if the input file does not contain any trail
+	 *                                  data, or contains a malformed row
+	 */
+	public static int readTrails(String pathToTrailFile, TrailHandler handler) throws FileNotFoundException {
+		return readTrails(pathToTrailFile, handler, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Reads every potential trail in the file on the given pool and passes them to
+	 * the handler in file order
+	 *
+	 * @param pathToTrailFile the path to the file containing trail data
+	 * @param handler         the handler that receives each trail
+	 * @param pool            the pool the chunks are parsed on
+	 * @param chunkSize       the approximate number of bytes in each chunk
+	 * @return the number of trails read
+	 * @throws FileNotFoundException    if the input file does not exist or cannot
+	 *                                  be opened
+	 * @throws IllegalArgumentException if the input file does not contain any trail
+	 *                                  data, or contains a malformed row
+	 */
+	public static int readTrails(String pathToTrailFile, TrailHandler handler, ForkJoinPool pool, int chunkSize)
+			throws FileNotFoundException {
+		RandomAccessFile file = new RandomAccessFile(pathToTrailFile, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long[] bounds = chunkBounds(channel, Math.max(chunkSize, 1));
+			int chunks = bounds.length - 1;
+			int window = Math.max(2, pool.getParallelism() * 2);
+			ArrayList<ForkJoinTask<Chunk>> tasks = new ArrayList<ForkJoinTask<Chunk>>(chunks);
+			for (int i = 0; i < chunks && i < window; i++) {
+				tasks.add(pool.submit(new ChunkTask(channel, bounds[i], bounds[i + 1])));
+			}
+			int trails = 0;
+			int lines = 1;
+			for (int i = 0; i < chunks; i++) {
+				Chunk chunk = tasks.get(i).join();
+				tasks.set(i, null);
+				if (i + window < chunks) {
+					tasks.add(pool.submit(new ChunkTask(channel, bounds[i + window], bounds[i + window + 1])));
+				}
+				if (chunk.errorLine > 0) {
+					throw new IllegalArgumentException("Line " + (lines + chunk.errorLine) + " " + chunk.error);
+				}
+				for (int j = 0; j < chunk.size; j++) {
+					handler.handleTrail(chunk.names[2 * j], chunk.names[2 * j + 1], chunk.lengths[j]);
+				}
+				trails += chunk.size;
+				lines += chunk.lines;
+			}
+			if (trails == 0) {
+				throw new IllegalArgumentException("The specified input file does not contain any trail data!");
+			}
+			return trails;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to read " + pathToTrailFile, e);
+		} finally {
+			try {
+				file.close();
+			} catch (IOException e) {
+				// nothing more can be read, so the data already handled stands
+			}
+		}
+	}
+
+	/**
+	 * Splits the file into chunks after its header line. Every chunk boundary is
+	 * moved forward to just past the next newline so no row is split.
+	 *
+	 * @param channel   is the channel of the file
+	 * @param chunkSize is the approximate number of bytes in each chunk
+	 * @return the offsets of the chunk boundaries, starting with the end of the
+	 *         header and ending with the size of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long[] chunkBounds(FileChannel channel, int chunkSize) throws IOException {
+		long size = channel.size();
+		ArrayList<Long> bounds = new ArrayList<Long>();
+		long position = nextLine(channel, 0, size);
+		bounds.add(position);
+		while (position < size) {
+			position = nextLine(channel, Math.min(position + chunkSize, size), size);
+			bounds.add(position);
+		}
+		long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the offset just past the first newline at or after the given offset
+	 *
+	 * @param channel  is the channel of the file
+	 * @param position is the offset to start searching from
+	 * @param size     is the size of the file
+	 * @return the offset of the start of the next line, or size if there is none
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		while (position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * The rows parsed from one chunk of the file
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class Chunk {
+
+		/** Attraction names, two per row */
+		private String[] names = new String[64];
+		/** Trail length of each row */
+		private int[] lengths = new int[32];
+		/** Number of rows */
+		private int size;
+		/** Number of lines in the chunk, including blank lines */
+		private int lines;
+		/** Line within the chunk of the first malformed row, 0 if none */
+		private int errorLine;
+		/** Description of the first malformed row */
+		private String error;
+
+		/**
+		 * Adds a row to the chunk
+		 *
+		 * @param one    is the name of the attraction at one end
+		 * @param two    is the name of the attraction at the other end
+		 * @param length is the length of the trail
+		 */
+		private void add(String one, String two, int length) {
+			if (size == lengths.length) {
+				lengths = Arrays.copyOf(lengths, size * 2);
+				names = Arrays.copyOf(names, size * 4);
+			}
+			names[2 * size] = one;
+			names[2 * size + 1] = two;
+			lengths[size++] = length;
+		}
+	}
+
+	/**
+	 * Parses one chunk of the file from a read-only memory mapping
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class ChunkTask extends RecursiveTask<Chunk> {
+
+		/** Serial version UID */
+		private static final long serialVersionUID = 1L;
+
+		/** Channel of the file */
+		private final transient FileChannel channel;
+		/** Offset of the first byte of the chunk */
+		private final long start;
+		/** Offset just past the last byte of the chunk */
+		private final long end;
+
+		/**
+		 * Constructor for ChunkTask
+		 *
+		 * @param channel is the channel of the file
+		 * @param start   is the offset of the first byte of the chunk
+		 * @param end     is the offset just past the last byte of the chunk
+		 */
+		public ChunkTask(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected Chunk compute() {
+			Chunk chunk = new Chunk();
+			MappedByteBuffer buffer;
+			try {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+			} catch (IOException e) {
+				chunk.errorLine = 1;
+				chunk.error = "could not be read: " + e.getMessage();
+				return chunk;
+			}
+			HashMap<String, String> interned = new HashMap<String, String>();
+			byte[] field = new byte[256];
+			int limit = buffer.limit();
+			int lineStart = 0;
+			while (lineStart < limit) {
+				int lineEnd = lineStart;
+				while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+					lineEnd++;
+				}
+				chunk.lines++;
+				int contentEnd = lineEnd;
+				if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+					contentEnd--;
+				}
+				if (contentEnd > lineStart) {
+					int firstComma = indexOf(buffer, lineStart, contentEnd);
+					int secondComma = indexOf(buffer, firstComma + 1, contentEnd);
+					if (secondComma >= contentEnd) {
+						chunk.errorLine = chunk.lines;
+						chunk.error = "does not contain a potential trail.";
+						return chunk;
+					}
+					int length = parseLength(buffer, secondComma + 1, indexOf(buffer, secondComma + 1, contentEnd));
+					if (length < 0) {
+						chunk.errorLine = chunk.lines;
+						chunk.error = "has an invalid trail length.";
+						return chunk;
+					}
+					field = ensure(field, Math.max(firstComma - lineStart, secondComma - firstComma));
+					String one = intern(interned, decode(buffer, field, lineStart, firstComma));
+					String two = intern(interned, decode(buffer, field, firstComma + 1, secondComma));
+					chunk.add(one, two, length);
+				}
+				lineStart = lineEnd + 1;
+			}
+			return chunk;
+		}
+
+		/**
+		 * Returns a shared copy of the name, so each distinct name in a chunk is
+		 * only stored once
+		 *
+		 * @param interned is the map of names seen so far in the chunk
+		 * @param name     is the name
+		 * @return the shared copy of the name
+		 */
+		private static String intern(HashMap<String, String> interned, String name) {
+			String shared = interned.get(name);
+			if (shared == null) {
+				interned.put(name, name);
+				return name;
+			}
+			return shared;
+		}
+
+		/**
+		 * Returns a buffer with room for at least the given number of bytes
+		 *
+		 * @param field  is the current buffer
+		 * @param length is the number of bytes needed
+		 * @return field, or a larger buffer
+		 */
+		private static byte[] ensure(byte[] field, int length) {
+			return length <= field.length ? field : new byte[Math.max(length, field.length * 2)];
+		}
+
+		/**
+		 * Decodes a UTF-8 field of the mapping
+		 *
+		 * @param buffer is the mapping
+		 * @param field  is a scratch buffer large enough for the field
+		 * @param from   is the index of the first byte of the field
+		 * @param to     is the index just past the field
+		 * @return the decoded field
+		 */
+		private static String decode(MappedByteBuffer buffer, byte[] field, int from, int to) {
+			for (int i = from; i < to; i++) {
+				field[i - from] = buffer.get(i);
+			}
+			return new String(field, 0, to - from, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Returns the index of the first comma in a range of the mapping
+		 *
+		 * @param buffer is the mapping
+		 * @param from   is the index to start at
+		 * @param to     is the index just past the range
+		 * @return the index of the comma, or to if there is none
+		 */
+		private static int indexOf(MappedByteBuffer buffer, int from, int to) {
+			for (int i = from; i < to; i++) {
+				if (buffer.get(i) == ',') {
+					return i;
+				}
+			}
+			return to;
+		}
+
+		/**
+		 * Parses a non-negative trail length, ignoring surrounding spaces
+		 *
+		 * @param buffer is the mapping
+		 * @param from   is the index of the first byte of the field
+		 * @param to     is the index just past the field
+		 * @return the trail length, or -1 if the field is not a valid length
+		 */
+		private static int parseLength(MappedByteBuffer buffer, int from, int to) {
+			while (from < to && buffer.get(from) == ' ') {
+				from++;
+			}
+			while (to > from && buffer.get(to - 1) == ' ') {
+				to--;
+			}
+			if (from == to || to - from > 10) {
+				return -1;
+			}
+			long value = 0;
+			for (int i = from; i < to; i++) {
+				int digit = buffer.get(i) - '0';
+				if (digit < 0 || digit > 9) {
+					return -1;
+				}
+				value = value * 10 + digit;
+			}
+			return value > Integer.MAX_VALUE ? -1 : (int) value;
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package edu.ncsu.csc316.trail.io;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads potential trail data (ATTRACTION_ONE,ATTRACTION_TWO,LENGTH_OF_TRAIL_IN_FEET
+ * rows after a header line) and hands each row to a TrailHandler as soon as it
+ * is parsed, so no list of trails is ever materialized. The file is read
+ * through one reusable char buffer.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class StreamingTrailReader {
+
+	/** Size of the read buffer in chars */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Receives the rows of a trail file as they are parsed
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	public interface TrailHandler {
+
+		/**
+		 * Handles one potential trail
+		 *
+		 * @param attractionOne is the name of the attraction at one end of the trail
+		 * @param attractionTwo is the name of the attraction at the other end
+		 * @param length        is the length of the trail in feet
+		 */
+		void handleTrail(String attractionOne, String attractionTwo, int length);
+	}
+
+	/** Handler that receives each trail */
+	private TrailHandler handler;
+	/** Buffer the file is read into */
+	private char[] buffer;
+	/** Holds a line that spans two reads of the buffer */
+	private char[] carry;
+	/** Number of chars held in carry */
+	private int carryLength;
+	/** Number of the line being parsed, starting at 1 for the header */
+	private int lineNumber;
+	/** Number of trails handled */
+	private int trails;
+
+	/**
+	 * Constructor for StreamingTrailReader
+	 *
+	 * @param handler is the handler that receives each trail
+	 */
+	private StreamingTrailReader(TrailHandler handler) {
+		this.handler = handler;
+		this.buffer = new char[BUFFER_SIZE];
+		this.carry = new char[256];
+	}
+
+	/**
+	 * Reads every potential trail in the file and passes it to the handler
+	 *
+	 * @param pathToTrailFile the path to the file containing trail data
+	 * @param handler         the handler that receives each trail
+	 * @return the number of trails read
+	 * @throws FileNotFoundException    if the input file does not exist or cannot
+	 *                                  be opened
+	 * @throws IllegalArgumentException if the input file does not contain any trail
+	 *                                  data, or contains a malformed row
+	 */
+	public static int readTrails(String pathToTrailFile, TrailHandler handler) throws FileNotFoundException {
+		Reader in = new InputStreamReader(new FileInputStream(pathToTrailFile), StandardCharsets.UTF_8);
+		try {
+			return new StreamingTrailReader(handler).read(in);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to read " + pathToTrailFile, e);
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing more can be read, so the data already handled stands
+			}
+		}
+	}
+
+	/**
+	 * Reads every line from the reader
+	 *
+	 * @param in is the reader for the trail file
+	 * @return the number of trails read
+	 * @throws IOException if the reader fails
+	 */
+	private int read(Reader in) throws IOException {
+		int count;
+		while ((count = in.read(buffer, 0, buffer.length)) != -1) {
+			int start = 0;
+			for (int i = 0; i < count; i++) {
+				if (buffer[i] == '\n') {
+					if (carryLength > 0) {
+						append(buffer, start, i);
+						line(carry, 0, carryLength);
+						carryLength = 0;
+					} else {
+						line(buffer, start, i);
+					}
+					start = i + 1;
+				}
+			}
+			append(buffer, start, count);
+		}
+		if (carryLength > 0) {
+			line(carry, 0, carryLength);
+		}
+		if (trails == 0) {
+			throw new IllegalArgumentException("The specified input file does not contain any trail data!");
+		}
+		return trails;
+	}
+
+	/**
+	 * Appends part of the buffer to the carried-over partial line
+	 *
+	 * @param chars is the array holding the chars
+	 * @param start is the index of the first char
+	 * @param end   is the index just past the last char
+	 */
+	private void append(char[] chars, int start, int end) {
+		int length = end - start;
+		if (carryLength + length > carry.length) {
+			carry = Arrays.copyOf(carry, Math.max(carry.length * 2, carryLength + length));
+		}
+		System.arraycopy(chars, start, carry, carryLength, length);
+		carryLength += length;
+	}
+
+	/**
+	 * Parses one line. The first line is the header and is skipped, as are blank
+	 * lines.
+	 *
+	 * @param chars is the array holding the line
+	 * @param start is the index of the first char of the line
+	 * @param end   is the index just past the last char of the line
+	 */
+	private void line(char[] chars, int start, int end) {
+		lineNumber++;
+		if (end > start && chars[end - 1] == '\r') {
+			end--;
+		}
+		if (lineNumber == 1 || end == start) {
+			return;
+		}
+		int firstComma = indexOf(chars, ',', start, end);
+		int secondComma = indexOf(chars, ',', firstComma + 1, end);
+		if (secondComma >= end) {
+			throw new IllegalArgumentException("Line " + lineNumber + " does not contain a potential trail.");
+		}
+		int lengthEnd = indexOf(chars, ',', secondComma + 1, end);
+		String one = new String(chars, start, firstComma - start);
+		String two = new String(chars, firstComma + 1, secondComma - firstComma - 1);
+		handler.handleTrail(one, two, parseLength(chars, secondComma + 1, lengthEnd));
+		trails++;
+	}
+
+	/**
+	 * Parses a non-negative trail length, ignoring surrounding spaces
+	 *
+	 * @param chars is the array holding the length
+	 * @param start is the index of the first char of the field
+	 * @param end   is the index just past the last char of the field
+	 * @return the trail length
+	 */
+	private int parseLength(char[] chars, int start, int end) {
+		while (start < end && chars[start] == ' ') {
+			start++;
+		}
+		while (end > start && chars[end - 1] == ' ') {
+			end--;
+		}
+		if (start == end || end - start > 10) {
+			throw new IllegalArgumentException("Line " + lineNumber + " has an invalid trail length.");
+		}
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = chars[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new IllegalArgumentException("Line " + lineNumber + " has an invalid trail length.");
+			}
+			value = value * 10 + digit;
+		}
+		if (value > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Line " + lineNumber + " has an invalid trail length.");
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Returns the index of the first occurrence of a char in a range
+	 *
+	 * @param chars is the array to search
+	 * @param c     is the char to find
+	 * @param start is the index to start at
+	 * @param end   is the index just past the range
+	 * @return the index of the char, or end if it does not occur
+	 */
+	private static int indexOf(char[] chars, char c, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (chars[i] == c) {
+				return i;
+			}
+		}
+		return end;
+	}
+}
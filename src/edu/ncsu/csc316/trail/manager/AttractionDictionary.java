@@ -0,0 +1,221 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.EdgeEndpoints;
+
+/**
+ * Dictionary of the attraction names of a trail network. Each distinct name is
+ * interned once: it gets a dense int id in the order it was first seen and a
+ * single Attraction object, so names repeated on many rows of a trail file are
+ * stored only once. The dictionary also ranks the names in lexicographic order,
+ * so reports can order attractions by comparing ints instead of strings.
+ *
+ * <p>
+ * Names are never removed, so ids stay valid for the life of the network. The
+ * ranks are computed on first use and again only after a new name was added.
+ * Lookups may run concurrently with each other and with interning.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class AttractionDictionary {
+
+	/** Id of each interned name */
+	private final ConcurrentHashMap<String, Integer> ids;
+	/** Attraction of each id; only the first size entries are used */
+	private volatile Attraction[] attractions;
+	/** Number of interned names */
+	private volatile int size;
+	/** Rank of each id in name order, or null if not computed */
+	private volatile int[] ranks;
+	/** Attractions in name order, indexed by rank, or null if not computed */
+	private volatile Attraction[] byName;
+
+	/**
+	 * Creates an empty dictionary
+	 */
+	public AttractionDictionary() {
+		ids = new ConcurrentHashMap<String, Integer>();
+		attractions = new Attraction[16];
+	}
+
+	/**
+	 * Returns the id of a name, adding the name if it is new
+	 *
+	 * @param name is the name of the attraction
+	 * @return the id of the name
+	 */
+	public int intern(String name) {
+		Integer id = ids.get(name);
+		return id != null ? id : add(new Attraction(name));
+	}
+
+	/**
+	 * Returns the id of an attraction's name, adding the attraction itself if its
+	 * name is new
+	 *
+	 * @param attraction is the attraction
+	 * @return the id of the attraction's name
+	 */
+	public int intern(Attraction attraction) {
+		Integer id = ids.get(attraction.getName());
+		return id != null ? id : add(attraction);
+	}
+
+	/**
+	 * Adds an attraction under the next id, unless another thread added its name
+	 * first
+	 *
+	 * @param attraction is the attraction to add
+	 * @return the id of the attraction's name
+	 */
+	private synchronized int add(Attraction attraction) {
+		Integer existing = ids.get(attraction.getName());
+		if (existing != null) {
+			return existing;
+		}
+		int id = size;
+		Attraction[] array = attractions;
+		if (id == array.length) {
+			array = Arrays.copyOf(array, id * 2);
+		}
+		array[id] = attraction;
+		attractions = array;
+		size = id + 1;
+		ranks = null;
+		byName = null;
+		ids.put(attraction.getName(), id);
+		return id;
+	}
+
+	/**
+	 * Returns the number of interned names
+	 *
+	 * @return the number of names
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the id of a name
+	 *
+	 * @param name is the name of the attraction
+	 * @return the id of the name, or -1 if it was never interned
+	 */
+	public int getId(String name) {
+		Integer id = ids.get(name);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the id of an attraction's name
+	 *
+	 * @param attraction is the attraction
+	 * @return the id of the attraction's name, or -1 if it was never interned
+	 */
+	public int getId(Attraction attraction) {
+		return getId(attraction.getName());
+	}
+
+	/**
+	 * Returns the dictionary id of each vertex of a graph, so edge endpoints can
+	 * be mapped to dictionary ids by their vertex ids without looking up names
+	 *
+	 * @param endpoints is the vertex ids of a graph of interned attractions
+	 * @return the dictionary id of each vertex id, or -1 for removed vertices
+	 */
+	public int[] getIds(EdgeEndpoints<Attraction> endpoints) {
+		int[] result = new int[endpoints.vertexIdBound()];
+		for (int v = 0; v < result.length; v++) {
+			Vertex<Attraction> vertex = endpoints.getVertex(v);
+			result[v] = vertex == null ? -1 : getId(vertex.getElement());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the interned attraction of an id
+	 *
+	 * @param id is the id of the name
+	 * @return the attraction with that name
+	 */
+	public Attraction getAttraction(int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("No attraction has id " + id + ".");
+		}
+		return attractions[id];
+	}
+
+	/**
+	 * Returns the rank of every id in name order. The array is shared and must not
+	 * be modified; it covers every name interned before the call.
+	 *
+	 * @return the rank of each id, indexed by id
+	 */
+	public int[] getRanks() {
+		int[] r = ranks;
+		if (r == null) {
+			synchronized (this) {
+				rank();
+				r = ranks;
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Returns the rank of an attraction's name
+	 *
+	 * @param attraction is the attraction
+	 * @return the rank of its name
+	 * @throws IllegalArgumentException if the name was never interned
+	 */
+	public int getRank(Attraction attraction) {
+		int id = getId(attraction);
+		if (id < 0) {
+			throw new IllegalArgumentException("Unknown attraction " + attraction.getName() + ".");
+		}
+		return getRanks()[id];
+	}
+
+	/**
+	 * Returns the interned attractions in name order. The array is shared and must
+	 * not be modified; its index is the rank of each attraction.
+	 *
+	 * @return the attractions sorted by name
+	 */
+	public Attraction[] getAttractionsByName() {
+		Attraction[] b = byName;
+		if (b == null) {
+			synchronized (this) {
+				rank();
+				b = byName;
+			}
+		}
+		return b;
+	}
+
+	/**
+	 * Sorts the interned names and records the rank of each id, unless they are
+	 * already ranked. The caller must hold the lock of the dictionary.
+	 */
+	private void rank() {
+		if (ranks != null) {
+			return;
+		}
+		Attraction[] sorted = Arrays.copyOf(attractions, size);
+		Arrays.sort(sorted);
+		int[] r = new int[sorted.length];
+		for (int rank = 0; rank < sorted.length; rank++) {
+			r[ids.get(sorted[rank].getName())] = rank;
+		}
+		byName = sorted;
+		ranks = r;
+	}
+}
@@ -0,0 +1,135 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Formats trail construction costs with two decimal places using integer
+ * arithmetic, appending the digits straight into a StringBuilder. The output
+ * matches String.format("%.2f", cost) for the double cost that multiplying the
+ * trail length by the cost per foot produces.
+ *
+ * <p>
+ * The cost per foot is read once as an exact decimal u / 10^s. The cost of a
+ * trail is then the exact integer length * u in units of 10^-s, which is
+ * rounded half up to cents with one division. String.format rounds the double
+ * product, which can differ from the exact decimal by a few units in the last
+ * place, so the integer result is only used when the exact cost is farther than
+ * that error from a half cent. Costs on or near a half cent, and costs too large
+ * for a long, fall back to String.format, which keeps every report unchanged.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class CentsFormatter {
+
+	/** Largest decimal scale of a cost per foot handled with integer arithmetic */
+	private static final int MAX_SCALE = 18;
+
+	/** Cost per foot */
+	private final double costPerFoot;
+	/** Cost per foot in units of 10^-scale, or -1 if it cannot be used */
+	private final long unscaled;
+	/** Number of decimal places of the unscaled cost per foot */
+	private final int scale;
+	/** Units of 10^-scale in one cent */
+	private final long unitsPerCent;
+	/** Value of one unit of 10^-scale */
+	private final double unit;
+
+	/**
+	 * Constructor for CentsFormatter
+	 *
+	 * @param costPerFoot is the cost (in USD $) per foot of trail construction
+	 */
+	public CentsFormatter(double costPerFoot) {
+		this.costPerFoot = costPerFoot;
+		long u = -1;
+		int s = 2;
+		if (costPerFoot > 0 && !Double.isInfinite(costPerFoot)) {
+			BigDecimal exact = BigDecimal.valueOf(costPerFoot);
+			s = Math.max(2, exact.scale());
+			if (s <= MAX_SCALE) {
+				exact = exact.setScale(s);
+				if (exact.unscaledValue().bitLength() < 63) {
+					u = exact.unscaledValue().longValue();
+				}
+			}
+		}
+		unscaled = u;
+		scale = s;
+		long p = 1;
+		for (int i = 2; i < s; i++) {
+			p *= 10;
+		}
+		unitsPerCent = p;
+		unit = Math.pow(10, -s);
+	}
+
+	/**
+	 * Appends the cost per foot itself
+	 *
+	 * @param sb is the builder to append to
+	 * @return the builder
+	 */
+	public StringBuilder appendCostPerFoot(StringBuilder sb) {
+		return append(sb, 1, costPerFoot, 1);
+	}
+
+	/**
+	 * Appends the cost of a trail, which is its length times the cost per foot
+	 *
+	 * @param sb     is the builder to append to
+	 * @param length is the length of the trail in feet
+	 * @return the builder
+	 */
+	public StringBuilder appendCost(StringBuilder sb, int length) {
+		return append(sb, length, length * costPerFoot, 1);
+	}
+
+	/**
+	 * Appends a total cost that was summed as doubles, one trail cost at a time
+	 *
+	 * @param sb          is the builder to append to
+	 * @param totalLength is the total length of the trails in feet
+	 * @param total       is the sum of the double costs of the trails
+	 * @param trails      is the number of trails in the sum
+	 * @return the builder
+	 */
+	public StringBuilder appendTotal(StringBuilder sb, long totalLength, double total, int trails) {
+		return append(sb, totalLength, total, trails);
+	}
+
+	/**
+	 * Appends the cost of a length, using integer arithmetic when the rounding
+	 * errors of the double cost cannot change its cents
+	 *
+	 * @param sb     is the builder to append to
+	 * @param length is the length in feet
+	 * @param cost   is the cost computed with doubles
+	 * @param terms  is the number of rounded products summed into the cost
+	 * @return the builder
+	 */
+	private StringBuilder append(StringBuilder sb, long length, double cost, int terms) {
+		if (unscaled < 0 || length < 0 || length > Long.MAX_VALUE / 2 / Math.max(1, unscaled)) {
+			return sb.append(String.format(Locale.US, "%.2f", cost));
+		}
+		long units = length * unscaled;
+		long cents = units / unitsPerCent;
+		long rest = units % unitsPerCent;
+		double distance = Math.abs(2 * rest - unitsPerCent) * unit / 2;
+		if (distance <= 4.0 * (terms + 1) * Math.ulp(cost)) {
+			return sb.append(String.format(Locale.US, "%.2f", cost));
+		}
+		if (2 * rest > unitsPerCent) {
+			cents++;
+		}
+		sb.append(cents / 100).append('.');
+		long fraction = cents % 100;
+		if (fraction < 10) {
+			sb.append('0');
+		}
+		return sb.append(fraction);
+	}
+}
@@ -0,0 +1,16 @@
+package edu.ncsu.csc316.trail.manager;
+
+/**
+ * Decides which trail is kept when a trail file lists more than one trail
+ * between the same two attractions.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public enum DuplicateTrailPolicy {
+
+	/** Keep the first trail listed, as the original loader did */
+	FIRST,
+	/** Keep the shortest trail listed; ties keep the first of them */
+	SHORTEST
+}
@@ -0,0 +1,769 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import edu.ncsu.csc316.trail.factory.AbstractSpanningTreeAlgorithm;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+import edu.ncsu.csc316.trail.io.StreamingTrailReader;
+import edu.ncsu.csc316.trail.io.StreamingTrailReader.TrailHandler;
+import edu.ncsu.csc316.trail.metrics.TrailMetric;
+import edu.ncsu.csc316.trail.metrics.TrailMetrics;
+
+/**
+ * Least costly trails of a trail file that is too large to hold as a graph.
+ * Only the attraction names, a union-find over their ids, the chosen trails and
+ * one int per row are kept in memory, so the memory needed grows with the
+ * number of attractions and only by four bytes with each row.
+ *
+ * <p>
+ * Each parsed row is buffered as a fixed-width record, and full buffers are
+ * radix sorted and spilled to temporary files. The rows are first merge-sorted
+ * by their pair of attractions, so that several rows for the same two
+ * attractions are reduced to one trail by the DuplicateTrailPolicy, exactly as
+ * the graph builder does. The trails are then merge-sorted by length and
+ * streamed through Kruskal's algorithm. The in-memory spanning tree takes
+ * trails of equal length in the order of the library kruskal's heap, so the
+ * length of each trail is kept by the row that first named it, which is its
+ * graph order, and the heap is replayed on those lengths to rank the trails.
+ * Each group of trails of equal length is then taken in rank order, so the
+ * same trails are chosen.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class ExternalSpanningTree {
+
+	/** Default number of records sorted in memory before they are spilled */
+	public static final int DEFAULT_RECORDS_PER_RUN = 1 << 20;
+	/** Largest number of runs merged at once */
+	private static final int MAX_FAN_IN = 64;
+	/** Size of the stream buffer of each run in bytes */
+	private static final int STREAM_BUFFER_SIZE = 1 << 16;
+	/** Size of a record on disk: a long key and two ints */
+	private static final int RECORD_BYTES = 16;
+
+	/** Dictionary the attraction names are interned in */
+	private final AttractionDictionary dictionary;
+	/** Dictionary id of the first attraction of each chosen trail */
+	private final int[] one;
+	/** Dictionary id of the second attraction of each chosen trail */
+	private final int[] two;
+	/** Length of each chosen trail */
+	private final int[] lengths;
+	/** Number of chosen trails */
+	private int count;
+	/** Number of sorted runs written to disk */
+	private int spilledRuns;
+	/** Number of rows read */
+	private int rows;
+	/** Length, and later rank, of the trail first named by each row, or -1 */
+	private int[] ranks;
+
+	/**
+	 * Computes the least costly trails of a trail file, spilling to the default
+	 * temporary directory
+	 *
+	 * @param pathToTrailFile is the path to the file containing trail data
+	 * @param policy          is the policy that decides which of several
+	 *                        parallel trails is kept
+	 * @throws IOException              if the file cannot be read or the
+	 *                                  temporary files cannot be written
+	 * @throws IllegalArgumentException if the file does not contain any trail
+	 *                                  data, or contains a malformed row
+	 */
+	public ExternalSpanningTree(String pathToTrailFile, DuplicateTrailPolicy policy) throws IOException {
+		this(pathToTrailFile, policy, null, DEFAULT_RECORDS_PER_RUN);
+	}
+
+	/**
+	 * Computes the least costly trails of a trail file
+	 *
+	 * @param pathToTrailFile is the path to the file containing trail data
+	 * @param policy          is the policy that decides which of several
+	 *                        parallel trails is kept
+	 * @param tempDirectory   is the directory the runs are spilled to, or null for
+	 *                        the default temporary directory
+	 * @param recordsPerRun   is the number of records sorted in memory before
+	 *                        they are spilled
+	 * @throws IOException              if the file cannot be read or the
+	 *                                  temporary files cannot be written
+	 * @throws IllegalArgumentException if recordsPerRun is less than 2, or the
+	 *                                  file does not contain any trail data, or
+	 *                                  contains a malformed row
+	 */
+	public ExternalSpanningTree(String pathToTrailFile, final DuplicateTrailPolicy policy, File tempDirectory,
+			int recordsPerRun) throws IOException {
+		if (recordsPerRun < 2) {
+			throw new IllegalArgumentException("At least 2 records must be sorted in memory.");
+		}
+		long start = TrailMetrics.start();
+		dictionary = new AttractionDictionary();
+		final RunWriter byPair = new RunWriter(tempDirectory, recordsPerRun);
+		final RunWriter byLength = new RunWriter(tempDirectory, recordsPerRun);
+		try {
+			try {
+				StreamingTrailReader.readTrails(pathToTrailFile, new TrailHandler() {
+					@Override
+					public void handleTrail(String attractionOne, String attractionTwo, int length) {
+						int a = dictionary.intern(attractionOne);
+						int b = dictionary.intern(attractionTwo);
+						byPair.add((long) Math.min(a, b) << 32 | Math.max(a, b), rows++, length);
+					}
+				});
+				ranks = new int[rows];
+				Arrays.fill(ranks, -1);
+				merge(byPair, byPair.finish(), new RecordHandler() {
+					/** Pair of attractions of the trail being reduced */
+					private long pair = -1;
+					/** First row that named the trail */
+					private int firstRow;
+					/** Length kept for the trail so far */
+					private int length;
+
+					@Override
+					public boolean handle(long key, int row, int rowLength) {
+						if (key == pair) {
+							if (policy == DuplicateTrailPolicy.SHORTEST) {
+								length = Math.min(length, rowLength);
+							}
+							return true;
+						}
+						end();
+						pair = key;
+						firstRow = row;
+						length = rowLength;
+						return true;
+					}
+
+					@Override
+					public void end() {
+						if (pair >= 0) {
+							byLength.add((length ^ (long) Integer.MIN_VALUE) << 32 | firstRow, (int) (pair >>> 32),
+									(int) pair);
+							ranks[firstRow] = length;
+						}
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			rank();
+			int n = dictionary.size();
+			final int[] parent = new int[n];
+			Arrays.fill(parent, -1);
+			one = new int[Math.max(n - 1, 0)];
+			two = new int[one.length];
+			lengths = new int[one.length];
+			merge(byLength, byLength.finish(), new RecordHandler() {
+				/** Length of the buffered trails */
+				private int length;
+				/** Rank and buffer position of each buffered trail */
+				private long[] group = new long[16];
+				/** First attraction of each buffered trail */
+				private int[] groupOne = new int[16];
+				/** Second attraction of each buffered trail */
+				private int[] groupTwo = new int[16];
+				/** Number of buffered trails */
+				private int size;
+
+				@Override
+				public boolean handle(long key, int a, int b) {
+					int trailLength = (int) (key >>> 32) ^ Integer.MIN_VALUE;
+					if (size > 0 && trailLength != length) {
+						end();
+						if (count == one.length) {
+							return false;
+						}
+					}
+					if (size == group.length) {
+						group = Arrays.copyOf(group, size * 2);
+						groupOne = Arrays.copyOf(groupOne, size * 2);
+						groupTwo = Arrays.copyOf(groupTwo, size * 2);
+					}
+					length = trailLength;
+					group[size] = (long) ranks[(int) key] << 32 | size;
+					groupOne[size] = a;
+					groupTwo[size++] = b;
+					return true;
+				}
+
+				@Override
+				public void end() {
+					Arrays.sort(group, 0, size);
+					for (int i = 0; i < size && count < one.length; i++) {
+						int t = (int) group[i];
+						int rootA = find(parent, groupOne[t]);
+						int rootB = find(parent, groupTwo[t]);
+						if (rootA != rootB) {
+							union(parent, rootA, rootB);
+							one[count] = groupOne[t];
+							two[count] = groupTwo[t];
+							lengths[count++] = length;
+						}
+					}
+					size = 0;
+				}
+			});
+			spilledRuns = byPair.getSpilledRuns() + byLength.getSpilledRuns();
+		} finally {
+			ranks = null;
+			byPair.delete();
+			byLength.delete();
+		}
+		TrailMetrics.stop(TrailMetric.EXTERNAL_SPANNING_TREE, start);
+		TrailMetrics.count(TrailMetric.SPILLED_RUNS, spilledRuns);
+	}
+
+	/**
+	 * Replaces the length kept by the first row of each trail with the rank of
+	 * the trail in the order the library kruskal takes trails from its heap
+	 */
+	private void rank() {
+		int trails = 0;
+		for (int length : ranks) {
+			if (length >= 0) {
+				trails++;
+			}
+		}
+		int[] weights = new int[trails];
+		int[] firstRows = new int[trails];
+		int t = 0;
+		for (int row = 0; row < ranks.length; row++) {
+			if (ranks[row] >= 0) {
+				weights[t] = ranks[row];
+				firstRows[t++] = row;
+			}
+		}
+		int[] order = AbstractSpanningTreeAlgorithm.heapOrder(weights);
+		for (int r = 0; r < order.length; r++) {
+			ranks[firstRows[order[r]]] = r;
+		}
+	}
+
+	/**
+	 * Returns the dictionary the attraction names of the file were interned in
+	 *
+	 * @return the dictionary of attractions
+	 */
+	public AttractionDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns the number of least costly trails
+	 *
+	 * @return the number of trails
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the dictionary id of the attraction at one end of a trail. Trails
+	 * are indexed in order of length, ties in the order the file first lists
+	 * them.
+	 *
+	 * @param index is the index of the trail
+	 * @return the id of the attraction
+	 */
+	public int getAttractionOne(int index) {
+		checkIndex(index);
+		return one[index];
+	}
+
+	/**
+	 * Returns the dictionary id of the attraction at the other end of a trail
+	 *
+	 * @param index is the index of the trail
+	 * @return the id of the attraction
+	 */
+	public int getAttractionTwo(int index) {
+		checkIndex(index);
+		return two[index];
+	}
+
+	/**
+	 * Returns the length of a trail
+	 *
+	 * @param index is the index of the trail
+	 * @return the length in feet
+	 */
+	public int getLength(int index) {
+		checkIndex(index);
+		return lengths[index];
+	}
+
+	/**
+	 * Returns the number of sorted runs that were written to disk
+	 *
+	 * @return the number of runs, 0 if every sort fit in memory
+	 */
+	public int getSpilledRuns() {
+		return spilledRuns;
+	}
+
+	/**
+	 * Checks that a trail index is in range
+	 *
+	 * @param index is the index of the trail
+	 * @throws IndexOutOfBoundsException if there is no such trail
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("Trail index out of range.");
+		}
+	}
+
+	/**
+	 * Returns the root of an attraction's set, halving the path on the way
+	 *
+	 * @param parent is the parent of each id, or a negative size for roots
+	 * @param v      is the id
+	 * @return the id of the root
+	 */
+	private static int find(int[] parent, int v) {
+		while (parent[v] >= 0) {
+			if (parent[parent[v]] >= 0) {
+				parent[v] = parent[parent[v]];
+			}
+			v = parent[v];
+		}
+		return v;
+	}
+
+	/**
+	 * Joins two sets, hanging the smaller one under the larger one
+	 *
+	 * @param parent is the parent of each id, or a negative size for roots
+	 * @param a      is the root of one set
+	 * @param b      is the root of the other set
+	 */
+	private static void union(int[] parent, int a, int b) {
+		if (parent[a] > parent[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		parent[a] += parent[b];
+		parent[b] = a;
+	}
+
+	/**
+	 * Merges sorted records and passes them to a handler in order. Records are
+	 * ordered by their key as an unsigned number, then by their first int. The
+	 * handler's end method is called once every record has been passed, unless
+	 * the handler stopped the merge.
+	 *
+	 * @param writer  is the writer that holds the records that were not spilled,
+	 *                or null if only runs on disk are merged
+	 * @param runs    is the sorted runs on disk, at most MAX_FAN_IN of them
+	 * @param handler is the handler that receives the records
+	 * @throws IOException if a run cannot be read
+	 */
+	private static void merge(RunWriter writer, File[] runs, RecordHandler handler) throws IOException {
+		int k = runs.length;
+		DataInputStream[] in = new DataInputStream[k];
+		long[] remaining = new long[k];
+		long[] keys = new long[k + 1];
+		int[] as = new int[k + 1];
+		int[] bs = new int[k + 1];
+		int[] heap = new int[k + 1];
+		int size = 0;
+		try {
+			for (int r = 0; r < k; r++) {
+				in[r] = new DataInputStream(
+						new BufferedInputStream(new FileInputStream(runs[r]), STREAM_BUFFER_SIZE));
+				remaining[r] = runs[r].length() / RECORD_BYTES;
+				if (read(in[r], remaining, r, keys, as, bs)) {
+					heap[size] = r;
+					siftUp(heap, size++, keys, as);
+				}
+			}
+			// The records still in memory are merged as one more run
+			int buffered = 0;
+			if (writer != null && writer.size() > 0) {
+				writer.sort();
+				writer.get(buffered++, k, keys, as, bs);
+				heap[size] = k;
+				siftUp(heap, size++, keys, as);
+			}
+			while (size > 0) {
+				int top = heap[0];
+				if (!handler.handle(keys[top], as[top], bs[top])) {
+					return;
+				}
+				boolean more;
+				if (top == k) {
+					more = buffered < writer.size();
+					if (more) {
+						writer.get(buffered++, k, keys, as, bs);
+					}
+				} else {
+					more = read(in[top], remaining, top, keys, as, bs);
+				}
+				if (!more) {
+					heap[0] = heap[--size];
+				}
+				siftDown(heap, 0, size, keys, as);
+			}
+			handler.end();
+		} finally {
+			for (DataInputStream stream : in) {
+				if (stream != null) {
+					stream.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the next record of a run
+	 *
+	 * @param in        is the stream of the run
+	 * @param remaining is the number of unread records of each run
+	 * @param r         is the index of the run
+	 * @param keys      receives the key
+	 * @param as        receives the first int
+	 * @param bs        receives the second int
+	 * @return false if the run has no more records
+	 * @throws IOException if the run cannot be read
+	 */
+	private static boolean read(DataInputStream in, long[] remaining, int r, long[] keys, int[] as, int[] bs)
+			throws IOException {
+		if (remaining[r] == 0) {
+			return false;
+		}
+		remaining[r]--;
+		keys[r] = in.readLong();
+		as[r] = in.readInt();
+		bs[r] = in.readInt();
+		return true;
+	}
+
+	/**
+	 * Returns whether the current record of one run comes before that of another
+	 *
+	 * @param i    is the index of one run
+	 * @param j    is the index of the other run
+	 * @param keys is the current key of each run
+	 * @param as   is the current first int of each run
+	 * @return true if run i's record comes first
+	 */
+	private static boolean less(int i, int j, long[] keys, int[] as) {
+		int c = Long.compareUnsigned(keys[i], keys[j]);
+		return c < 0 || c == 0 && as[i] < as[j];
+	}
+
+	/**
+	 * Moves an entry of a min-heap of runs up to its place
+	 *
+	 * @param heap is the heap of run indexes
+	 * @param i    is the index of the entry
+	 * @param keys is the current key of each run
+	 * @param as   is the current first int of each run
+	 */
+	private static void siftUp(int[] heap, int i, long[] keys, int[] as) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!less(heap[i], heap[parent], keys, as)) {
+				return;
+			}
+			int t = heap[i];
+			heap[i] = heap[parent];
+			heap[parent] = t;
+			i = parent;
+		}
+	}
+
+	/**
+	 * Moves an entry of a min-heap of runs down to its place
+	 *
+	 * @param heap is the heap of run indexes
+	 * @param i    is the index of the entry
+	 * @param size is the number of entries in the heap
+	 * @param keys is the current key of each run
+	 * @param as   is the current first int of each run
+	 */
+	private static void siftDown(int[] heap, int i, int size, long[] keys, int[] as) {
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				return;
+			}
+			if (child + 1 < size && less(heap[child + 1], heap[child], keys, as)) {
+				child++;
+			}
+			if (!less(heap[child], heap[i], keys, as)) {
+				return;
+			}
+			int t = heap[i];
+			heap[i] = heap[child];
+			heap[child] = t;
+			i = child;
+		}
+	}
+
+	/**
+	 * Receives merged records in order
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private interface RecordHandler {
+
+		/**
+		 * Handles one record
+		 *
+		 * @param key is the key of the record
+		 * @param a   is the first int of the record
+		 * @param b   is the second int of the record
+		 * @return false to stop the merge
+		 */
+		boolean handle(long key, int a, int b);
+
+		/** Handles the end of the records */
+		void end();
+	}
+
+	/**
+	 * Buffers fixed-width records of a long key and two ints in primitive arrays
+	 * and spills them to a temporary file as a sorted run whenever the buffer is
+	 * full. Records added in order of their first int keep that order among equal
+	 * keys, since the radix sort is stable.
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class RunWriter {
+
+		/** Directory the runs are written to, or null for the default */
+		private final File directory;
+		/** Key of each buffered record */
+		private long[] keys;
+		/** First int of each buffered record */
+		private int[] as;
+		/** Second int of each buffered record */
+		private int[] bs;
+		/** Buffer positions in sorted order */
+		private int[] order;
+		/** Number of buffered records */
+		private int size;
+		/** Runs written so far, including merged runs */
+		private File[] runs;
+		/** Number of runs not yet merged into a larger one */
+		private int runCount;
+		/** Every file written, so all of them can be deleted */
+		private File[] files;
+		/** Number of files written */
+		private int fileCount;
+		/** Number of runs spilled from the buffer */
+		private int spilled;
+
+		/**
+		 * Creates a writer with an empty buffer
+		 *
+		 * @param directory is the directory runs are written to, or null for the
+		 *                  default temporary directory
+		 * @param capacity  is the number of records buffered before a run is
+		 *                  spilled
+		 */
+		RunWriter(File directory, int capacity) {
+			this.directory = directory;
+			keys = new long[capacity];
+			as = new int[capacity];
+			bs = new int[capacity];
+			order = new int[capacity];
+			runs = new File[4];
+			files = new File[4];
+		}
+
+		/**
+		 * Adds a record, spilling the buffer first if it is full
+		 *
+		 * @param key is the key of the record
+		 * @param a   is the first int of the record
+		 * @param b   is the second int of the record
+		 * @throws UncheckedIOException if the buffer cannot be spilled
+		 */
+		void add(long key, int a, int b) {
+			if (size == keys.length) {
+				try {
+					spill();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			keys[size] = key;
+			as[size] = a;
+			bs[size] = b;
+			size++;
+		}
+
+		/**
+		 * Returns the number of buffered records
+		 *
+		 * @return the number of records in memory
+		 */
+		int size() {
+			return size;
+		}
+
+		/** Sorts the buffered records */
+		void sort() {
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			DSAFactory.getLongRadixSorter().sort(keys, order, size);
+		}
+
+		/**
+		 * Copies a sorted buffered record into a slot of the merge arrays
+		 *
+		 * @param i    is the position of the record in sorted order
+		 * @param slot is the slot to copy into
+		 * @param k    receives the key
+		 * @param a    receives the first int
+		 * @param b    receives the second int
+		 */
+		void get(int i, int slot, long[] k, int[] a, int[] b) {
+			k[slot] = keys[i];
+			a[slot] = as[order[i]];
+			b[slot] = bs[order[i]];
+		}
+
+		/**
+		 * Sorts the buffer and writes it to a new run
+		 *
+		 * @throws IOException if the run cannot be written
+		 */
+		private void spill() throws IOException {
+			sort();
+			DataOutputStream out = open(addRun(newFile()));
+			try {
+				for (int i = 0; i < size; i++) {
+					out.writeLong(keys[i]);
+					out.writeInt(as[order[i]]);
+					out.writeInt(bs[order[i]]);
+				}
+			} finally {
+				out.close();
+			}
+			size = 0;
+			spilled++;
+		}
+
+		/**
+		 * Merges runs until at most MAX_FAN_IN - 1 are left, so the runs and the
+		 * buffer can be merged in one pass, and returns them
+		 *
+		 * @return the runs to merge with the buffer
+		 * @throws IOException if the runs cannot be merged
+		 */
+		File[] finish() throws IOException {
+			while (runCount >= MAX_FAN_IN) {
+				File[] level = Arrays.copyOf(runs, runCount);
+				runCount = 0;
+				for (int from = 0; from < level.length; from += MAX_FAN_IN) {
+					File[] group = Arrays.copyOfRange(level, from, Math.min(level.length, from + MAX_FAN_IN));
+					final DataOutputStream out = open(addRun(newFile()));
+					try {
+						merge(null, group, new RecordHandler() {
+							@Override
+							public boolean handle(long key, int a, int b) {
+								try {
+									out.writeLong(key);
+									out.writeInt(a);
+									out.writeInt(b);
+								} catch (IOException e) {
+									throw new UncheckedIOException(e);
+								}
+								return true;
+							}
+
+							@Override
+							public void end() {
+								// The run is closed by the caller
+							}
+						});
+					} catch (UncheckedIOException e) {
+						throw e.getCause();
+					} finally {
+						out.close();
+					}
+					for (File f : group) {
+						f.delete();
+					}
+				}
+			}
+			return Arrays.copyOf(runs, runCount);
+		}
+
+		/**
+		 * Returns the number of runs spilled from the buffer
+		 *
+		 * @return the number of spilled runs
+		 */
+		int getSpilledRuns() {
+			return spilled;
+		}
+
+		/** Deletes every file this writer has written */
+		void delete() {
+			for (int i = 0; i < fileCount; i++) {
+				files[i].delete();
+			}
+			fileCount = 0;
+			runCount = 0;
+		}
+
+		/**
+		 * Creates a new temporary file and remembers it for deletion
+		 *
+		 * @return the file
+		 * @throws IOException if the file cannot be created
+		 */
+		private File newFile() throws IOException {
+			File file = File.createTempFile("trails", ".run", directory);
+			if (fileCount == files.length) {
+				files = Arrays.copyOf(files, fileCount * 2);
+			}
+			files[fileCount++] = file;
+			return file;
+		}
+
+		/**
+		 * Adds a file to the runs
+		 *
+		 * @param file is the run
+		 * @return the file
+		 */
+		private File addRun(File file) {
+			if (runCount == runs.length) {
+				runs = Arrays.copyOf(runs, runCount * 2);
+			}
+			runs[runCount++] = file;
+			return file;
+		}
+
+		/**
+		 * Opens a buffered stream that writes a run
+		 *
+		 * @param file is the run
+		 * @return the stream
+		 * @throws IOException if the file cannot be opened
+		 */
+		private static DataOutputStream open(File file) throws IOException {
+			return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), STREAM_BUFFER_SIZE));
+		}
+	}
+}
@@ -0,0 +1,363 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+import edu.ncsu.csc316.dsa.Position;
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.list.positional.PositionalLinkedList;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.dsa.set.Set;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+
+/**
+ * Minimum spanning tree (or forest) of a trail graph that is kept up to date as
+ * trails are added, removed or change length, instead of being recomputed.
+ * <ul>
+ * <li>A new trail closes a cycle with the tree path between its attractions.
+ * It replaces the longest trail on that path if it is shorter, which takes
+ * O(V) time.</li>
+ * <li>Removing a tree trail splits its tree in two. The shortest trail that
+ * joins the two parts again takes its place. Only the trails of the smaller
+ * part are searched, so removing a trail near the edge of the network is
+ * cheap. Removing any other trail leaves the tree unchanged.</li>
+ * <li>A length change is handled as the removal of the old trail and the
+ * insertion of the new one, but a tree trail that gets shorter simply stays in
+ * the tree.</li>
+ * </ul>
+ * The result is always a minimum spanning forest of the graph. Among trails of
+ * equal length it may choose differently from a full run of Kruskal's
+ * algorithm. The tree is not thread-safe; SpanningTreeCache guards it.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class IncrementalSpanningTree {
+
+	/** Graph the tree spans */
+	private Graph<Attraction, Weighted> graph;
+	/** Edges of the tree */
+	private PositionalList<Edge<Weighted>> edges;
+	/** Position of each tree edge in the edge list */
+	private Map<Edge<Weighted>, Position<Edge<Weighted>>> positions;
+	/** Tree edges at each attraction */
+	private Map<Vertex<Attraction>, List<Edge<Weighted>>> adjacency;
+
+	/**
+	 * Creates an incremental tree starting from a minimum spanning tree of the
+	 * graph
+	 *
+	 * @param graph is the graph the tree spans
+	 * @param tree  is a minimum spanning tree (or forest) of the graph
+	 */
+	public IncrementalSpanningTree(Graph<Attraction, Weighted> graph, Iterable<Edge<Weighted>> tree) {
+		this.graph = graph;
+		edges = new PositionalLinkedList<Edge<Weighted>>();
+		positions = DSAFactory.getMap();
+		adjacency = DSAFactory.getMap();
+		for (Edge<Weighted> e : tree) {
+			Vertex<Attraction>[] ends = graph.endVertices(e);
+			attach(e, ends[0], ends[1]);
+		}
+	}
+
+	/**
+	 * Returns whether the edge is in the tree
+	 *
+	 * @param edge is the edge
+	 * @return true if the edge is a tree edge
+	 */
+	public boolean contains(Edge<Weighted> edge) {
+		return positions.get(edge) != null;
+	}
+
+	/**
+	 * Returns a new list of the tree edges
+	 *
+	 * @return a copy of the edges of the tree
+	 */
+	public PositionalList<Edge<Weighted>> toList() {
+		PositionalList<Edge<Weighted>> copy = new PositionalLinkedList<Edge<Weighted>>();
+		for (Edge<Weighted> e : edges) {
+			copy.addLast(e);
+		}
+		return copy;
+	}
+
+	/**
+	 * Updates the tree after an edge was inserted into the graph. If the edge
+	 * joins two trees of the forest it becomes a tree edge; otherwise it replaces
+	 * the longest edge on the tree path between its endpoints if it is shorter.
+	 *
+	 * @param edge is the inserted edge
+	 */
+	public void edgeInserted(Edge<Weighted> edge) {
+		Vertex<Attraction>[] ends = graph.endVertices(edge);
+		if (ends[0] == ends[1]) {
+			return;
+		}
+		Map<Vertex<Attraction>, Edge<Weighted>> parent = search(ends[0], ends[1]);
+		if (parent.get(ends[1]) == null) {
+			attach(edge, ends[0], ends[1]);
+			return;
+		}
+		Edge<Weighted> longest = null;
+		Vertex<Attraction> longestEnd = null;
+		Vertex<Attraction> v = ends[1];
+		while (v != ends[0]) {
+			Edge<Weighted> e = parent.get(v);
+			Vertex<Attraction> next = graph.opposite(v, e);
+			if (longest == null || e.getElement().getWeight() > longest.getElement().getWeight()) {
+				longest = e;
+				longestEnd = v;
+			}
+			v = next;
+		}
+		if (longest.getElement().getWeight() > edge.getElement().getWeight()) {
+			detach(longest, longestEnd, graph.opposite(longestEnd, longest));
+			attach(edge, ends[0], ends[1]);
+		}
+	}
+
+	/**
+	 * Updates the tree after an edge was removed from the graph. A removed tree
+	 * edge is replaced by the shortest remaining edge that reconnects the two
+	 * parts of its tree, if there is one.
+	 *
+	 * @param edge is the removed edge
+	 * @param one  is one endpoint of the removed edge
+	 * @param two  is the other endpoint of the removed edge
+	 */
+	public void edgeRemoved(Edge<Weighted> edge, Vertex<Attraction> one, Vertex<Attraction> two) {
+		if (contains(edge)) {
+			detach(edge, one, two);
+			reconnect(one, two);
+		}
+	}
+
+	/**
+	 * Updates the tree after an edge was replaced in the graph by an edge between
+	 * the same endpoints with a different length
+	 *
+	 * @param edge        is the removed edge
+	 * @param length      is the length of the removed edge
+	 * @param replacement is the inserted edge
+	 * @param one         is one endpoint of both edges
+	 * @param two         is the other endpoint of both edges
+	 */
+	public void edgeReplaced(Edge<Weighted> edge, int length, Edge<Weighted> replacement, Vertex<Attraction> one,
+			Vertex<Attraction> two) {
+		if (!contains(edge)) {
+			edgeInserted(replacement);
+		} else if (replacement.getElement().getWeight() <= length) {
+			detach(edge, one, two);
+			attach(replacement, one, two);
+		} else {
+			detach(edge, one, two);
+			reconnect(one, two);
+		}
+	}
+
+	/**
+	 * Searches the tree from one vertex until another vertex is found
+	 *
+	 * @param from is the vertex to start from
+	 * @param to   is the vertex to find
+	 * @return the tree edge used to reach each visited vertex; the start vertex
+	 *         has none and an unreachable target is absent
+	 */
+	private Map<Vertex<Attraction>, Edge<Weighted>> search(Vertex<Attraction> from, Vertex<Attraction> to) {
+		Map<Vertex<Attraction>, Edge<Weighted>> parent = DSAFactory.getMap();
+		ArrayDeque<Vertex<Attraction>> stack = new ArrayDeque<Vertex<Attraction>>();
+		stack.push(from);
+		while (!stack.isEmpty()) {
+			Vertex<Attraction> v = stack.pop();
+			if (v == to) {
+				break;
+			}
+			List<Edge<Weighted>> list = adjacency.get(v);
+			if (list == null) {
+				continue;
+			}
+			Edge<Weighted> back = parent.get(v);
+			for (int i = 0; i < list.size(); i++) {
+				Edge<Weighted> e = list.get(i);
+				if (!e.equals(back)) {
+					Vertex<Attraction> w = graph.opposite(v, e);
+					parent.put(w, e);
+					stack.push(w);
+				}
+			}
+		}
+		return parent;
+	}
+
+	/**
+	 * Adds the shortest graph edge between the two parts of a tree that was just
+	 * split, if there is one. Both parts are walked one vertex at a time until
+	 * the smaller one is complete. Before the split the two parts formed one
+	 * connected component of the graph, so every edge that leaves the smaller
+	 * part leads to the other one, and only the edges of the smaller part need to
+	 * be searched.
+	 *
+	 * @param one is a vertex of one part
+	 * @param two is a vertex of the other part
+	 */
+	private void reconnect(Vertex<Attraction> one, Vertex<Attraction> two) {
+		TreeWalk walkOne = new TreeWalk(one);
+		TreeWalk walkTwo = new TreeWalk(two);
+		TreeWalk smaller;
+		while (true) {
+			if (!walkOne.step()) {
+				smaller = walkOne;
+				break;
+			}
+			if (!walkTwo.step()) {
+				smaller = walkTwo;
+				break;
+			}
+		}
+		Edge<Weighted> best = null;
+		Vertex<Attraction> bestEnd = null;
+		for (Vertex<Attraction> v : smaller.visited) {
+			for (Edge<Weighted> e : graph.outgoingEdges(v)) {
+				if ((best == null || e.getElement().getWeight() < best.getElement().getWeight())
+						&& !smaller.seen.contains(graph.opposite(v, e))) {
+					best = e;
+					bestEnd = v;
+				}
+			}
+		}
+		if (best != null) {
+			attach(best, bestEnd, graph.opposite(bestEnd, best));
+		}
+	}
+
+	/**
+	 * Depth-first walk over the vertices of one tree of the forest that can be
+	 * advanced one vertex at a time
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private class TreeWalk {
+
+		/** Vertices found so far */
+		private Set<Vertex<Attraction>> seen;
+		/** Vertices found so far, in the order they were found */
+		private ArrayList<Vertex<Attraction>> visited;
+		/** Vertices found but not yet expanded */
+		private ArrayDeque<Vertex<Attraction>> stack;
+
+		/**
+		 * Starts a walk at a vertex
+		 *
+		 * @param start is the vertex to start from
+		 */
+		public TreeWalk(Vertex<Attraction> start) {
+			seen = DSAFactory.getSet();
+			visited = new ArrayList<Vertex<Attraction>>();
+			stack = new ArrayDeque<Vertex<Attraction>>();
+			found(start);
+		}
+
+		/**
+		 * Expands the next vertex of the walk
+		 *
+		 * @return false if the walk had already found every vertex of its tree
+		 */
+		public boolean step() {
+			if (stack.isEmpty()) {
+				return false;
+			}
+			Vertex<Attraction> v = stack.pop();
+			List<Edge<Weighted>> list = adjacency.get(v);
+			if (list != null) {
+				for (int i = 0; i < list.size(); i++) {
+					Vertex<Attraction> w = graph.opposite(v, list.get(i));
+					if (!seen.contains(w)) {
+						found(w);
+					}
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Records a newly found vertex
+		 *
+		 * @param v is the vertex
+		 */
+		private void found(Vertex<Attraction> v) {
+			seen.add(v);
+			visited.add(v);
+			stack.push(v);
+		}
+	}
+
+	/**
+	 * Adds an edge to the tree
+	 *
+	 * @param edge is the edge
+	 * @param one  is one endpoint of the edge
+	 * @param two  is the other endpoint of the edge
+	 */
+	private void attach(Edge<Weighted> edge, Vertex<Attraction> one, Vertex<Attraction> two) {
+		positions.put(edge, edges.addLast(edge));
+		neighbors(one).addLast(edge);
+		neighbors(two).addLast(edge);
+	}
+
+	/**
+	 * Removes an edge from the tree
+	 *
+	 * @param edge is the edge
+	 * @param one  is one endpoint of the edge
+	 * @param two  is the other endpoint of the edge
+	 */
+	private void detach(Edge<Weighted> edge, Vertex<Attraction> one, Vertex<Attraction> two) {
+		edges.remove(positions.remove(edge));
+		unlink(one, edge);
+		unlink(two, edge);
+	}
+
+	/**
+	 * Returns the list of tree edges at a vertex, creating it if needed
+	 *
+	 * @param vertex is the vertex
+	 * @return the tree edges at the vertex
+	 */
+	private List<Edge<Weighted>> neighbors(Vertex<Attraction> vertex) {
+		List<Edge<Weighted>> list = adjacency.get(vertex);
+		if (list == null) {
+			list = DSAFactory.getIndexedList();
+			adjacency.put(vertex, list);
+		}
+		return list;
+	}
+
+	/**
+	 * Removes an edge from the list of tree edges at a vertex
+	 *
+	 * @param vertex is the vertex
+	 * @param edge   is the edge to remove
+	 */
+	private void unlink(Vertex<Attraction> vertex, Edge<Weighted> edge) {
+		List<Edge<Weighted>> list = adjacency.get(vertex);
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i).equals(edge)) {
+				list.remove(i);
+				break;
+			}
+		}
+		if (list.isEmpty()) {
+			adjacency.remove(vertex);
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded cache of rendered String reports, keyed by the kind of report, its
+ * parameter and the version of the trails it was rendered from. The cache holds
+ * at most a number of reports and an estimated number of bytes; the least
+ * recently used reports are evicted first. Reports of older versions are never
+ * served: the first lookup for a newer version drops every cached report.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class ReportCache {
+
+	/** Most reports kept by a default cache */
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+	/** Most estimated bytes kept by a default cache */
+	public static final long DEFAULT_MAX_BYTES = 32L << 20;
+
+	/** Estimated bytes used by an entry besides the characters of its report */
+	private static final int ENTRY_OVERHEAD = 96;
+
+	/**
+	 * Kinds of cached report
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	public enum Type {
+		/** Least costly trails report, whose parameter is the cost per foot */
+		LEAST_COSTLY_TRAILS,
+		/** Restroom locations report, whose parameter is the minimum trail length */
+		RESTROOM_LOCATIONS,
+		/** Trail sign locations report, whose parameter is the most attractions listed, 0 for all */
+		TRAIL_SIGNS,
+		/** Least costly trails sensitivity report, whose parameter is the cost per foot */
+		SENSITIVITY,
+		/** Least costly trails report by trail system, whose parameter is the cost per foot */
+		LEAST_COSTLY_TRAILS_BY_SYSTEM,
+		/** Restroom locations report by trail system, whose parameter is the minimum trail length */
+		RESTROOM_LOCATIONS_BY_SYSTEM,
+		/** Trail sign locations report by trail system, which has no parameter */
+		TRAIL_SIGNS_BY_SYSTEM
+	}
+
+	/** Most reports kept */
+	private final int maxEntries;
+	/** Most estimated bytes kept */
+	private final long maxBytes;
+	/** Cached reports, from least to most recently used */
+	private final LinkedHashMap<Key, String> reports;
+	/** Version of the trails the cached reports were rendered from */
+	private long version;
+	/** Estimated bytes of the cached reports */
+	private long bytes;
+	/** Number of lookups that found a report */
+	private long hits;
+	/** Number of lookups that did not find a report */
+	private long misses;
+	/** Number of reports evicted to stay within the bounds */
+	private long evictions;
+	/** Number of reports dropped because the trails changed */
+	private long invalidations;
+
+	/**
+	 * Creates a cache with the default bounds
+	 */
+	public ReportCache() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Creates a cache with the given bounds. A cache with no entries caches
+	 * nothing.
+	 *
+	 * @param maxEntries is the most reports kept
+	 * @param maxBytes   is the most estimated bytes kept
+	 * @throws IllegalArgumentException if a bound is negative
+	 */
+	public ReportCache(int maxEntries, long maxBytes) {
+		if (maxEntries < 0 || maxBytes < 0) {
+			throw new IllegalArgumentException("Cache bounds must be >= 0.");
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.reports = new LinkedHashMap<Key, String>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns a cached report
+	 *
+	 * @param type      is the kind of report
+	 * @param parameter is the parameter of the report, as long bits
+	 * @param version   is the current version of the trails
+	 * @return the report, or null if it is not cached
+	 */
+	public synchronized String get(Type type, long parameter, long version) {
+		advance(version);
+		String report = reports.get(new Key(type, parameter));
+		if (report == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return report;
+	}
+
+	/**
+	 * Caches a report, unless it was rendered from older trails than the cached
+	 * reports or is larger than the cache
+	 *
+	 * @param type      is the kind of report
+	 * @param parameter is the parameter of the report, as long bits
+	 * @param version   is the version of the trails the report was rendered from
+	 * @param report    is the report
+	 */
+	public synchronized void put(Type type, long parameter, long version, String report) {
+		long size = size(report);
+		if (version < this.version || maxEntries == 0 || size > maxBytes) {
+			return;
+		}
+		advance(version);
+		String old = reports.put(new Key(type, parameter), report);
+		if (old != null) {
+			bytes -= size(old);
+		}
+		bytes += size;
+		Iterator<String> it = reports.values().iterator();
+		while (reports.size() > maxEntries || bytes > maxBytes) {
+			bytes -= size(it.next());
+			it.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Drops every cached report if the trails have a newer version than the
+	 * cached reports
+	 *
+	 * @param newVersion is the current version of the trails
+	 */
+	private void advance(long newVersion) {
+		if (newVersion > version) {
+			invalidations += reports.size();
+			reports.clear();
+			bytes = 0;
+			version = newVersion;
+		}
+	}
+
+	/**
+	 * Returns the estimated bytes used by a cached report
+	 *
+	 * @param report is the report
+	 * @return the estimated size of its entry
+	 */
+	private static long size(String report) {
+		return 2L * report.length() + ENTRY_OVERHEAD;
+	}
+
+	/**
+	 * Drops every cached report
+	 */
+	public synchronized void clear() {
+		reports.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Returns the number of cached reports
+	 *
+	 * @return the number of reports
+	 */
+	public synchronized int size() {
+		return reports.size();
+	}
+
+	/**
+	 * Returns the estimated bytes used by the cached reports
+	 *
+	 * @return the estimated size of the cache
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Returns the number of lookups that found a report
+	 *
+	 * @return the number of cache hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a report
+	 *
+	 * @return the number of cache misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of reports evicted to stay within the bounds
+	 *
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Returns the number of reports dropped because the trails changed
+	 *
+	 * @return the number of invalidations
+	 */
+	public synchronized long getInvalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * Kind and parameter of a cached report
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class Key {
+
+		/** Kind of report */
+		private final Type type;
+		/** Parameter of the report, as long bits */
+		private final long parameter;
+
+		/**
+		 * Creates a Key
+		 *
+		 * @param type      is the kind of report
+		 * @param parameter is the parameter of the report
+		 */
+		Key(Type type, long parameter) {
+			this.type = type;
+			this.parameter = parameter;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return type == k.type && parameter == k.parameter;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * type.ordinal() + (int) (parameter ^ parameter >>> 32);
+		}
+	}
+}
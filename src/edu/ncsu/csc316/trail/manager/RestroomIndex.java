@@ -0,0 +1,157 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.set.Set;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+
+/**
+ * Index of the shortest trail at each attraction, built once per graph to
+ * answer restroom queries. The minimum incident trail lengths are kept in a
+ * sorted array, so the attractions whose trails are all longer than a threshold
+ * are found with a binary search followed by a scan of the k matching entries.
+ * Each entry also records the rank of the attraction's name in the network's
+ * AttractionDictionary, so the matches can be listed in name order without
+ * comparing any names. The index is immutable and may be queried from several
+ * threads at once.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class RestroomIndex {
+
+	/** Minimum incident trail length of each entry, in ascending order */
+	private final int[] minLengths;
+	/** Name rank of the attraction of each entry, parallel to minLengths */
+	private final int[] ranks;
+	/**
+	 * Attractions of the dictionary in name order, indexed by name rank; only the
+	 * ranks in the ranks array belong to the graph
+	 */
+	private final Attraction[] byName;
+
+	/**
+	 * Builds the index for a graph in O(V log V + E) time. Attractions without
+	 * any trail have no shortest trail, so they are longer than every threshold.
+	 *
+	 * @param graph      is the trail graph to index
+	 * @param dictionary is the dictionary that holds every attraction of the graph
+	 */
+	public RestroomIndex(Graph<Attraction, Weighted> graph, AttractionDictionary dictionary) {
+		int size = graph.numVertices();
+		int[] nameRanks = dictionary.getRanks();
+		byName = dictionary.getAttractionsByName();
+		long[] keys = new long[size];
+		int i = 0;
+		for (Vertex<Attraction> v : graph.vertices()) {
+			int min = Integer.MAX_VALUE;
+			for (Edge<Weighted> e : graph.outgoingEdges(v)) {
+				min = Math.min(min, e.getElement().getWeight());
+			}
+			keys[i++] = (long) min << 32 | nameRanks[dictionary.getId(v.getElement())];
+		}
+		Arrays.sort(keys);
+		minLengths = new int[size];
+		ranks = new int[size];
+		for (int j = 0; j < size; j++) {
+			minLengths[j] = (int) (keys[j] >> 32);
+			ranks[j] = (int) keys[j];
+		}
+	}
+
+	/**
+	 * Returns the number of indexed attractions
+	 *
+	 * @return the number of attractions
+	 */
+	public int size() {
+		return minLengths.length;
+	}
+
+	/**
+	 * Returns the number of attractions for which all connecting trails are longer
+	 * than minTrailLength, in O(log V) time
+	 *
+	 * @param minTrailLength the minimum trail length to use as a threshold
+	 * @return the number of matching attractions
+	 */
+	public int countLongerThan(int minTrailLength) {
+		return minLengths.length - firstLongerThan(minTrailLength);
+	}
+
+	/**
+	 * Returns a Set of Attractions for which all connecting trails are longer than
+	 * minTrailLength, in O(log V + k) time
+	 *
+	 * @param minTrailLength the minimum trail length to use as a threshold
+	 * @return a Set of the matching attractions
+	 */
+	public Set<Attraction> getAttractionsLongerThan(int minTrailLength) {
+		Set<Attraction> set = DSAFactory.getSet();
+		for (int i = firstLongerThan(minTrailLength); i < ranks.length; i++) {
+			set.add(byName[ranks[i]]);
+		}
+		return set;
+	}
+
+	/**
+	 * Returns the Attractions for which all connecting trails are longer than
+	 * minTrailLength, sorted by name. Few matches are put in order by sorting
+	 * their name ranks, many matches by marking them and walking the names in
+	 * order, so a query takes O(log V + min(k log k, V)) time.
+	 *
+	 * @param minTrailLength the minimum trail length to use as a threshold
+	 * @return a List of the matching attractions in name order
+	 */
+	public List<Attraction> getSortedAttractionsLongerThan(int minTrailLength) {
+		int from = firstLongerThan(minTrailLength);
+		int count = ranks.length - from;
+		List<Attraction> list = DSAFactory.getIndexedList();
+		if (count <= ranks.length / 32) {
+			int[] matches = Arrays.copyOfRange(ranks, from, ranks.length);
+			Arrays.sort(matches);
+			for (int r : matches) {
+				list.addLast(byName[r]);
+			}
+		} else {
+			boolean[] match = new boolean[byName.length];
+			for (int i = from; i < ranks.length; i++) {
+				match[ranks[i]] = true;
+			}
+			for (int r = 0; r < match.length; r++) {
+				if (match[r]) {
+					list.addLast(byName[r]);
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the first entry whose minimum trail length is greater than the
+	 * threshold
+	 *
+	 * @param minTrailLength the threshold
+	 * @return the index of the first matching entry, or the number of entries if
+	 *         none match
+	 */
+	private int firstLongerThan(int minTrailLength) {
+		int low = 0;
+		int high = minLengths.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (minLengths[mid] <= minTrailLength) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
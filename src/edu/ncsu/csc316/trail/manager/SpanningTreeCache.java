@@ -0,0 +1,339 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Iterator;
+
+import edu.ncsu.csc316.dsa.Position;
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+import edu.ncsu.csc316.trail.factory.SpanningTreeAlgorithm;
+import edu.ncsu.csc316.trail.metrics.TrailMetric;
+import edu.ncsu.csc316.trail.metrics.TrailMetrics;
+
+/**
+ * Caches the least costly trails (the minimum spanning tree) of a trail graph
+ * so that every report built from the same graph shares a single run of the
+ * spanning tree algorithm from DSAFactory. The tree is computed on first use
+ * and kept until the cache is invalidated. When trails are added, removed or
+ * change length, the cached tree is updated in place by an
+ * IncrementalSpanningTree instead of being computed again. Lists returned by
+ * getTree are never changed afterwards; an update produces a new list on the
+ * next request.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class SpanningTreeCache {
+
+	/** Graph the spanning tree is computed from */
+	private Graph<Attraction, Weighted> graph;
+	/** Algorithm that computes the spanning tree */
+	private SpanningTreeAlgorithm algorithm;
+	/** Read-only view of the cached spanning tree, null if not computed */
+	private PositionalList<Edge<Weighted>> tree;
+	/** Spanning tree kept up to date as the graph changes, null until it first changes */
+	private IncrementalSpanningTree incremental;
+	/** Number of graph changes applied to the cached tree */
+	private int updates;
+	/** Number of requests served from the cache */
+	private int hits;
+	/** Number of requests that listed the incrementally updated tree again */
+	private int rebuilds;
+	/** Number of requests that had to compute the spanning tree */
+	private int misses;
+
+	/**
+	 * Creates a new, empty SpanningTreeCache for the given graph
+	 *
+	 * @param graph is the graph the spanning tree is computed from
+	 */
+	public SpanningTreeCache(Graph<Attraction, Weighted> graph) {
+		this(graph, null);
+	}
+
+	/**
+	 * Creates a new SpanningTreeCache for the given graph that already holds its
+	 * spanning tree, such as one loaded from a snapshot
+	 *
+	 * @param graph is the graph the spanning tree is computed from
+	 * @param tree  is the minimum spanning tree of the graph, or null if unknown
+	 */
+	public SpanningTreeCache(Graph<Attraction, Weighted> graph, PositionalList<Edge<Weighted>> tree) {
+		this(graph, tree, DSAFactory.getSpanningTreeAlgorithm());
+	}
+
+	/**
+	 * Creates a new SpanningTreeCache for the given graph that computes its
+	 * spanning tree with the given algorithm
+	 *
+	 * @param graph     is the graph the spanning tree is computed from
+	 * @param tree      is the minimum spanning tree of the graph, or null if
+	 *                  unknown
+	 * @param algorithm is the algorithm that computes the spanning tree
+	 */
+	public SpanningTreeCache(Graph<Attraction, Weighted> graph, PositionalList<Edge<Weighted>> tree,
+			SpanningTreeAlgorithm algorithm) {
+		this.graph = graph;
+		this.algorithm = algorithm;
+		if (tree != null) {
+			this.tree = new ReadOnlyPositionalList<Edge<Weighted>>(tree);
+		}
+	}
+
+	/**
+	 * Returns a read-only view of the minimum spanning tree of the graph,
+	 * computing it if it is not already cached
+	 *
+	 * @return a read-only PositionalList of the edges in the minimum spanning tree
+	 */
+	public synchronized PositionalList<Edge<Weighted>> getTree() {
+		if (tree == null && incremental != null) {
+			rebuilds++;
+			tree = new ReadOnlyPositionalList<Edge<Weighted>>(incremental.toList());
+		} else if (tree == null) {
+			misses++;
+			long start = TrailMetrics.start();
+			tree = new ReadOnlyPositionalList<Edge<Weighted>>(algorithm.minimumSpanningForest(graph));
+			TrailMetrics.stop(TrailMetric.SPANNING_TREE, start);
+		} else {
+			hits++;
+		}
+		return tree;
+	}
+
+	/**
+	 * Discards the cached spanning tree, so it is computed again on the next
+	 * request
+	 */
+	public synchronized void invalidate() {
+		tree = null;
+		incremental = null;
+	}
+
+	/**
+	 * Returns whether a spanning tree is currently cached
+	 *
+	 * @return true if a spanning tree is cached
+	 */
+	public synchronized boolean isCached() {
+		return tree != null || incremental != null;
+	}
+
+	/**
+	 * Inserts an edge into the graph and updates the cached tree to match
+	 *
+	 * @param one     is one endpoint of the edge
+	 * @param two     is the other endpoint of the edge
+	 * @param element is the trail of the edge
+	 * @return the inserted edge
+	 */
+	public synchronized Edge<Weighted> insertEdge(Vertex<Attraction> one, Vertex<Attraction> two, Weighted element) {
+		IncrementalSpanningTree t = incremental();
+		Edge<Weighted> edge = graph.insertEdge(one, two, element);
+		if (t != null) {
+			t.edgeInserted(edge);
+		}
+		return edge;
+	}
+
+	/**
+	 * Removes an edge from the graph and updates the cached tree to match
+	 *
+	 * @param edge is the edge to remove
+	 */
+	public synchronized void removeEdge(Edge<Weighted> edge) {
+		IncrementalSpanningTree t = incremental();
+		Vertex<Attraction>[] ends = graph.endVertices(edge);
+		graph.removeEdge(edge);
+		if (t != null) {
+			t.edgeRemoved(edge, ends[0], ends[1]);
+		}
+	}
+
+	/**
+	 * Replaces an edge of the graph by an edge between the same endpoints with a
+	 * different trail, and updates the cached tree to match
+	 *
+	 * @param edge    is the edge to replace
+	 * @param element is the trail of the new edge
+	 * @return the new edge
+	 */
+	public synchronized Edge<Weighted> replaceEdge(Edge<Weighted> edge, Weighted element) {
+		IncrementalSpanningTree t = incremental();
+		Vertex<Attraction>[] ends = graph.endVertices(edge);
+		int length = edge.getElement().getWeight();
+		graph.removeEdge(edge);
+		Edge<Weighted> replacement = graph.insertEdge(ends[0], ends[1], element);
+		if (t != null) {
+			t.edgeReplaced(edge, length, replacement, ends[0], ends[1]);
+		}
+		return replacement;
+	}
+
+	/**
+	 * Returns the number of graph changes applied to the cached tree without
+	 * computing it again
+	 *
+	 * @return the number of incremental updates
+	 */
+	public synchronized int getUpdates() {
+		return updates;
+	}
+
+	/**
+	 * Prepares the cached tree for an update. The current list may have been
+	 * handed out, so it is left as it is and a new one is made on the next
+	 * request.
+	 *
+	 * @return the incremental tree to update, or null if no tree is cached and
+	 *         there is nothing to update
+	 */
+	private IncrementalSpanningTree incremental() {
+		if (incremental == null && tree == null) {
+			return null;
+		}
+		if (incremental == null) {
+			incremental = new IncrementalSpanningTree(graph, tree);
+		}
+		tree = null;
+		updates++;
+		return incremental;
+	}
+
+	/**
+	 * Returns the number of requests served from the cache
+	 *
+	 * @return the number of cache hits
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of requests that listed the incrementally updated tree
+	 * again after a change. These take O(V) time but do not compute the tree, so
+	 * they are counted neither as hits nor as misses.
+	 *
+	 * @return the number of rebuilt lists
+	 */
+	public synchronized int getRebuilds() {
+		return rebuilds;
+	}
+
+	/**
+	 * Returns the number of requests that had to compute the spanning tree
+	 *
+	 * @return the number of cache misses
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * PositionalList wrapper that allows reads but rejects every modification, so
+	 * the cached tree cannot be altered by its callers.
+	 *
+	 * @author Sumit Biswas
+	 *
+	 * @param <E> is the generic type for the elements of the list
+	 */
+	private static class ReadOnlyPositionalList<E> implements PositionalList<E> {
+
+		/** Wrapped list */
+		private PositionalList<E> list;
+
+		/**
+		 * Constructor for ReadOnlyPositionalList
+		 *
+		 * @param list is the list to wrap
+		 */
+		public ReadOnlyPositionalList(PositionalList<E> list) {
+			this.list = list;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			final Iterator<E> it = list.iterator();
+			return new Iterator<E>() {
+				@Override
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+
+				@Override
+				public E next() {
+					return it.next();
+				}
+			};
+		}
+
+		@Override
+		public Position<E> addAfter(Position<E> p, E element) {
+			throw new UnsupportedOperationException("The cached spanning tree cannot be modified.");
+		}
+
+		@Override
+		public Position<E> addBefore(Position<E> p, E element) {
+			throw new UnsupportedOperationException("The cached spanning tree cannot be modified.");
+		}
+
+		@Override
+		public Position<E> addFirst(E element) {
+			throw new UnsupportedOperationException("The cached spanning tree cannot be modified.");
+		}
+
+		@Override
+		public Position<E> addLast(E element) {
+			throw new UnsupportedOperationException("The cached spanning tree cannot be modified.");
+		}
+
+		@Override
+		public Position<E> after(Position<E> p) {
+			return list.after(p);
+		}
+
+		@Override
+		public Position<E> before(Position<E> p) {
+			return list.before(p);
+		}
+
+		@Override
+		public Position<E> first() {
+			return list.first();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return list.isEmpty();
+		}
+
+		@Override
+		public Position<E> last() {
+			return list.last();
+		}
+
+		@Override
+		public Iterable<Position<E>> positions() {
+			return list.positions();
+		}
+
+		@Override
+		public E remove(Position<E> p) {
+			throw new UnsupportedOperationException("The cached spanning tree cannot be modified.");
+		}
+
+		@Override
+		public E set(Position<E> p, E element) {
+			throw new UnsupportedOperationException("The cached spanning tree cannot be modified.");
+		}
+
+		@Override
+		public int size() {
+			return list.size();
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package edu.ncsu.csc316.trail.manager;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+
+/**
+ * Sensitivity of the least costly trails to losing one of them: for every trail
+ * of the minimum spanning tree, the cheapest other trail that reconnects the
+ * network if it cannot be built, and how much longer the network becomes.
+ *
+ * <p>
+ * All replacements are found in one sweep instead of one spanning tree per
+ * trail. The tree is rooted, the other trails are radix sorted by length, and
+ * each one in turn is the replacement of every tree trail on the tree path
+ * between its attractions that has none yet. A tree trail that has been given
+ * its replacement is contracted into its parent with a disjoint set of jump
+ * pointers, so each tree trail is visited once and the sweep takes nearly
+ * linear time after the sort.
+ * </p>
+ *
+ * <p>
+ * The result is immutable and may be read from several threads at once.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class SpanningTreeSensitivity {
+
+	/** Trails of the spanning tree */
+	private final Edge<Weighted>[] treeEdges;
+	/** Cheapest replacement of each tree trail, null if there is none */
+	private final Edge<Weighted>[] replacements;
+
+	/**
+	 * Computes the replacements of the trails of a minimum spanning tree
+	 *
+	 * @param graph      is the trail graph
+	 * @param tree       is a minimum spanning tree or forest of the graph
+	 * @param dictionary is the dictionary that holds every attraction of the graph
+	 */
+	@SuppressWarnings("unchecked")
+	public SpanningTreeSensitivity(Graph<Attraction, Weighted> graph, PositionalList<Edge<Weighted>> tree,
+			AttractionDictionary dictionary) {
+		int n = dictionary.size();
+		int k = tree.size();
+		treeEdges = (Edge<Weighted>[]) new Edge<?>[k];
+		replacements = (Edge<Weighted>[]) new Edge<?>[k];
+		int[] one = new int[k];
+		int[] two = new int[k];
+		int[] offsets = new int[n + 1];
+		int i = 0;
+		for (Edge<Weighted> e : tree) {
+			Vertex<Attraction>[] ends = graph.endVertices(e);
+			treeEdges[i] = e;
+			one[i] = dictionary.getId(ends[0].getElement());
+			two[i] = dictionary.getId(ends[1].getElement());
+			offsets[one[i] + 1]++;
+			offsets[two[i] + 1]++;
+			i++;
+		}
+		for (int v = 0; v < n; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] incident = new int[2 * k];
+		int[] fill = new int[n];
+		for (int e = 0; e < k; e++) {
+			incident[offsets[one[e]] + fill[one[e]]++] = e;
+			incident[offsets[two[e]] + fill[two[e]]++] = e;
+		}
+
+		// Root every tree of the forest, recording each vertex's parent and the
+		// tree trail that leads to it
+		int[] parent = new int[n];
+		int[] parentEdge = new int[n];
+		int[] depth = new int[n];
+		boolean[] visited = new boolean[n];
+		int[] stack = new int[n];
+		for (int root = 0; root < n; root++) {
+			if (visited[root]) {
+				continue;
+			}
+			visited[root] = true;
+			parent[root] = root;
+			parentEdge[root] = -1;
+			int top = 0;
+			stack[top++] = root;
+			while (top > 0) {
+				int u = stack[--top];
+				for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+					int e = incident[j];
+					int v = one[e] == u ? two[e] : one[e];
+					if (!visited[v]) {
+						visited[v] = true;
+						parent[v] = u;
+						parentEdge[v] = e;
+						depth[v] = depth[u] + 1;
+						stack[top++] = v;
+					}
+				}
+			}
+		}
+
+		// Sort the trails that are not in the tree by length
+		int m = graph.numEdges();
+		Edge<Weighted>[] others = (Edge<Weighted>[]) new Edge<?>[m];
+		int[] otherOne = new int[m];
+		int[] otherTwo = new int[m];
+		long[] keys = new long[m];
+		int[] order = new int[m];
+		int count = 0;
+		for (Edge<Weighted> e : graph.edges()) {
+			Vertex<Attraction>[] ends = graph.endVertices(e);
+			int u = dictionary.getId(ends[0].getElement());
+			int v = dictionary.getId(ends[1].getElement());
+			if (parent[u] == v && parentEdge[u] >= 0 || parent[v] == u && parentEdge[v] >= 0) {
+				continue;
+			}
+			others[count] = e;
+			otherOne[count] = u;
+			otherTwo[count] = v;
+			keys[count] = (e.getElement().getWeight() ^ (long) Integer.MIN_VALUE) << 32;
+			order[count] = count;
+			count++;
+		}
+		DSAFactory.getLongRadixSorter().sort(keys, order, count);
+
+		// Give each tree trail the first, and so the shortest, trail that covers it
+		int[] jump = new int[n];
+		for (int v = 0; v < n; v++) {
+			jump[v] = v;
+		}
+		for (int j = 0; j < count; j++) {
+			int o = order[j];
+			int u = find(jump, otherOne[o]);
+			int v = find(jump, otherTwo[o]);
+			while (u != v) {
+				if (depth[u] < depth[v]) {
+					int t = u;
+					u = v;
+					v = t;
+				}
+				replacements[parentEdge[u]] = others[o];
+				jump[u] = parent[u];
+				u = find(jump, u);
+			}
+		}
+	}
+
+	/**
+	 * Returns the highest vertex reached by following the jump pointers from a
+	 * vertex, halving the path on the way
+	 *
+	 * @param jump is the jump pointer of each vertex
+	 * @param v    is the vertex
+	 * @return the vertex whose tree trail to its parent has no replacement yet,
+	 *         or the root
+	 */
+	private static int find(int[] jump, int v) {
+		while (jump[v] != v) {
+			jump[v] = jump[jump[v]];
+			v = jump[v];
+		}
+		return v;
+	}
+
+	/**
+	 * Returns the number of trails in the spanning tree
+	 *
+	 * @return the number of tree trails
+	 */
+	public int size() {
+		return treeEdges.length;
+	}
+
+	/**
+	 * Returns a trail of the spanning tree, in the order of the tree passed to the
+	 * constructor
+	 *
+	 * @param index is the index of the tree trail
+	 * @return the tree trail
+	 */
+	public Edge<Weighted> getTreeEdge(int index) {
+		return treeEdges[index];
+	}
+
+	/**
+	 * Returns the cheapest trail that reconnects the network without a tree trail
+	 *
+	 * @param index is the index of the tree trail
+	 * @return the replacement trail, or null if the tree trail is the only
+	 *         connection between its two sides
+	 */
+	public Edge<Weighted> getReplacement(int index) {
+		return replacements[index];
+	}
+
+	/**
+	 * Returns how much longer the least costly trails become without a tree trail
+	 *
+	 * @param index is the index of the tree trail
+	 * @return the increase in feet, or -1 if the network cannot be reconnected
+	 */
+	public long getIncrease(int index) {
+		if (replacements[index] == null) {
+			return -1;
+		}
+		return (long) replacements[index].getElement().getWeight() - treeEdges[index].getElement().getWeight();
+	}
+}
@@ -0,0 +1,388 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+import edu.ncsu.csc316.trail.factory.EdgeEndpoints;
+
+/**
+ * Number of least costly trails that meet at each attraction, kept in an int
+ * array indexed by the attraction's id in the network's AttractionDictionary.
+ * Each vertex is mapped to its dictionary id once, and the endpoints of the
+ * trails are then resolved by vertex id, so no name is looked up per trail.
+ * Large trees are split into one range of trails per worker of a fork-join
+ * pool; each range resolves and counts its endpoints into its own array, and
+ * the arrays are summed in parallel ranges of ids. Attractions are selected
+ * by a primitive filter over the counts and ordered by a packed key of their
+ * count and name rank, so no entry or boxed count is created. The counts are
+ * immutable and may be read from several threads at once.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailDegrees {
+
+	/** Default number of trail endpoints below which they are counted on one thread */
+	public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 16;
+	/** Number of ids summed without splitting when the counts are merged */
+	private static final int MERGE_CHUNK = 1 << 14;
+
+	/** Number of trails at each attraction id */
+	private final int[] degrees;
+	/** Name rank of each attraction id */
+	private final int[] ranks;
+
+	/**
+	 * Counts the trails at each attraction on the common fork-join pool
+	 *
+	 * @param graph      is the trail graph
+	 * @param tree       is the least costly trails of the graph
+	 * @param dictionary is the dictionary that holds every attraction of the graph
+	 */
+	public TrailDegrees(Graph<Attraction, Weighted> graph, PositionalList<Edge<Weighted>> tree,
+			AttractionDictionary dictionary) {
+		this(graph, tree, dictionary, ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+	}
+
+	/**
+	 * Counts the trails at each attraction on the given pool
+	 *
+	 * @param graph      is the trail graph
+	 * @param tree       is the least costly trails of the graph
+	 * @param dictionary is the dictionary that holds every attraction of the graph
+	 * @param pool       is the pool large counts run on
+	 * @param threshold  is the number of trail endpoints below which they are
+	 *                   counted on the calling thread, and the fewest endpoints
+	 *                   a parallel range counts
+	 */
+	@SuppressWarnings("unchecked")
+	public TrailDegrees(Graph<Attraction, Weighted> graph, PositionalList<Edge<Weighted>> tree,
+			AttractionDictionary dictionary, ForkJoinPool pool, int threshold) {
+		int n = dictionary.size();
+		ranks = dictionary.getRanks();
+		EdgeEndpoints<Attraction> endpoints = DSAFactory.getEdgeEndpoints(graph);
+		int[] ids = dictionary.getIds(endpoints);
+		Edge<Weighted>[] edges = (Edge<Weighted>[]) new Edge<?>[tree.size()];
+		int i = 0;
+		for (Edge<Weighted> e : tree) {
+			edges[i++] = e;
+		}
+		int ends = 2 * edges.length;
+		if (ends < threshold || pool.getParallelism() < 2) {
+			degrees = new int[n];
+			count(edges, 0, edges.length, endpoints, ids, degrees);
+		} else {
+			int ranges = Math.max(2, Math.min(pool.getParallelism(), ends / Math.max(threshold, 1)));
+			int[][] counts = new int[ranges][];
+			pool.invoke(new CountTask(edges, endpoints, ids, counts, n, 0, ranges));
+			degrees = new int[n];
+			pool.invoke(new MergeTask(counts, degrees, 0, n));
+		}
+	}
+
+	/**
+	 * Counts the endpoints of a range of trails
+	 *
+	 * @param edges     is the trails
+	 * @param from      is the first trail of the range
+	 * @param to        is one past the last trail of the range
+	 * @param endpoints is the vertex ids of the graph
+	 * @param ids       is the dictionary id of each vertex id
+	 * @param counts    receives the number of trails at each attraction id
+	 */
+	private static void count(Edge<Weighted>[] edges, int from, int to, EdgeEndpoints<Attraction> endpoints,
+			int[] ids, int[] counts) {
+		for (int i = from; i < to; i++) {
+			counts[ids[endpoints.endpointId(edges[i], 0)]]++;
+			counts[ids[endpoints.endpointId(edges[i], 1)]]++;
+		}
+	}
+
+	/**
+	 * Returns the number of attraction ids, including those without trails
+	 *
+	 * @return the number of ids
+	 */
+	public int size() {
+		return degrees.length;
+	}
+
+	/**
+	 * Returns the number of least costly trails at an attraction
+	 *
+	 * @param id is the dictionary id of the attraction
+	 * @return the number of trails, 0 if the attraction has none
+	 */
+	public int getDegree(int id) {
+		return degrees[id];
+	}
+
+	/**
+	 * Returns the ids of the attractions with at least a number of trails, in id
+	 * order
+	 *
+	 * @param minDegree is the smallest number of trails
+	 * @return the ids of the matching attractions
+	 */
+	public int[] filter(int minDegree) {
+		int[] ids = new int[degrees.length];
+		int count = 0;
+		for (int id = 0; id < degrees.length; id++) {
+			if (degrees[id] >= minDegree) {
+				ids[count++] = id;
+			}
+		}
+		return Arrays.copyOf(ids, count);
+	}
+
+	/**
+	 * Returns the ids of the attractions with at least a number of trails, the
+	 * attractions with the most trails first and ties in name order
+	 *
+	 * @param minDegree is the smallest number of trails
+	 * @return the ids of the matching attractions in report order
+	 */
+	public int[] sorted(int minDegree) {
+		int[] ids = filter(minDegree);
+		long[] keys = new long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			keys[i] = key(ids[i]);
+		}
+		DSAFactory.getLongRadixSorter().sort(keys, ids, ids.length);
+		return ids;
+	}
+
+	/**
+	 * Returns the ids of at most k attractions with at least a number of trails,
+	 * in the order of sorted(minDegree). The best k are kept in a bounded heap,
+	 * so the other matches are never sorted and the selection takes O(V log k)
+	 * time.
+	 *
+	 * @param k         is the most attractions to return
+	 * @param minDegree is the smallest number of trails
+	 * @return the ids of the first k matching attractions in report order
+	 */
+	public int[] top(int k, int minDegree) {
+		if (k <= 0) {
+			return new int[0];
+		}
+		long[] heap = new long[Math.min(k, degrees.length)];
+		int[] ids = new int[heap.length];
+		int size = 0;
+		for (int id = 0; id < degrees.length; id++) {
+			if (degrees[id] < minDegree) {
+				continue;
+			}
+			long key = key(id);
+			if (size < heap.length) {
+				heap[size] = key;
+				ids[size] = id;
+				siftUp(heap, ids, size++);
+			} else if (key < heap[0]) {
+				heap[0] = key;
+				ids[0] = id;
+				siftDown(heap, ids, 0, size);
+			}
+		}
+		for (int end = size - 1; end > 0; end--) {
+			swap(heap, ids, 0, end);
+			siftDown(heap, ids, 0, end);
+		}
+		return Arrays.copyOf(ids, size);
+	}
+
+	/**
+	 * Returns the sort key of an attraction, which orders more trails first and
+	 * then the name rank
+	 *
+	 * @param id is the dictionary id of the attraction
+	 * @return the key
+	 */
+	private long key(int id) {
+		return (long) (Integer.MAX_VALUE - degrees[id]) << 32 | ranks[id];
+	}
+
+	/**
+	 * Moves an entry of a max-heap up to its place
+	 *
+	 * @param heap is the heap of keys
+	 * @param ids  is the id of each key
+	 * @param i    is the index of the entry
+	 */
+	private static void siftUp(long[] heap, int[] ids, int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heap[parent] >= heap[i]) {
+				return;
+			}
+			swap(heap, ids, parent, i);
+			i = parent;
+		}
+	}
+
+	/**
+	 * Moves an entry of a max-heap down to its place
+	 *
+	 * @param heap is the heap of keys
+	 * @param ids  is the id of each key
+	 * @param i    is the index of the entry
+	 * @param size is the number of entries in the heap
+	 */
+	private static void siftDown(long[] heap, int[] ids, int i, int size) {
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				return;
+			}
+			if (child + 1 < size && heap[child + 1] > heap[child]) {
+				child++;
+			}
+			if (heap[i] >= heap[child]) {
+				return;
+			}
+			swap(heap, ids, i, child);
+			i = child;
+		}
+	}
+
+	/**
+	 * Swaps two entries of a heap
+	 *
+	 * @param heap is the heap of keys
+	 * @param ids  is the id of each key
+	 * @param a    is the index of one entry
+	 * @param b    is the index of the other entry
+	 */
+	private static void swap(long[] heap, int[] ids, int a, int b) {
+		long key = heap[a];
+		heap[a] = heap[b];
+		heap[b] = key;
+		int id = ids[a];
+		ids[a] = ids[b];
+		ids[b] = id;
+	}
+
+	/**
+	 * Task that counts a range of the trail ranges, splitting it in half until it
+	 * holds one range. Each range of trails resolves and counts its endpoints into
+	 * an array of its own, so the ranges share nothing while they count.
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class CountTask extends RecursiveAction {
+
+		/** Serial version */
+		private static final long serialVersionUID = 1L;
+
+		/** Trails of the tree */
+		private final Edge<Weighted>[] edges;
+		/** Vertex ids of the graph */
+		private final EdgeEndpoints<Attraction> endpoints;
+		/** Dictionary id of each vertex id */
+		private final int[] ids;
+		/** Counts of each range of trails */
+		private final int[][] counts;
+		/** Number of attraction ids */
+		private final int n;
+		/** First range of the task */
+		private final int from;
+		/** One past the last range of the task */
+		private final int to;
+
+		/**
+		 * Creates a task over ranges of trails
+		 *
+		 * @param edges     is the trails of the tree
+		 * @param endpoints is the vertex ids of the graph
+		 * @param ids       is the dictionary id of each vertex id
+		 * @param counts    receives the counts of each range
+		 * @param n         is the number of attraction ids
+		 * @param from      is the first range of the task
+		 * @param to        is one past the last range of the task
+		 */
+		CountTask(Edge<Weighted>[] edges, EdgeEndpoints<Attraction> endpoints, int[] ids, int[][] counts, int n,
+				int from, int to) {
+			this.edges = edges;
+			this.endpoints = endpoints;
+			this.ids = ids;
+			this.counts = counts;
+			this.n = n;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				int ranges = counts.length;
+				int first = (int) ((long) edges.length * from / ranges);
+				int last = (int) ((long) edges.length * to / ranges);
+				counts[from] = new int[n];
+				count(edges, first, last, endpoints, ids, counts[from]);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new CountTask(edges, endpoints, ids, counts, n, from, middle),
+						new CountTask(edges, endpoints, ids, counts, n, middle, to));
+			}
+		}
+	}
+
+	/**
+	 * Task that sums the counts of every range of trails over a range of ids,
+	 * splitting it in half until it is small enough
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class MergeTask extends RecursiveAction {
+
+		/** Serial version */
+		private static final long serialVersionUID = 1L;
+
+		/** Counts of each range of trails */
+		private final int[][] counts;
+		/** Receives the total count of each id */
+		private final int[] degrees;
+		/** First id of the range */
+		private final int from;
+		/** One past the last id of the range */
+		private final int to;
+
+		/**
+		 * Creates a task over a range of ids
+		 *
+		 * @param counts  is the counts of each range of trails
+		 * @param degrees receives the total count of each id
+		 * @param from    is the first id of the range
+		 * @param to      is one past the last id of the range
+		 */
+		MergeTask(int[][] counts, int[] degrees, int from, int to) {
+			this.counts = counts;
+			this.degrees = degrees;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= MERGE_CHUNK) {
+				for (int[] range : counts) {
+					for (int id = from; id < to; id++) {
+						degrees[id] += range[id];
+					}
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new MergeTask(counts, degrees, from, middle), new MergeTask(counts, degrees, middle, to));
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.CompactGraph;
+import edu.ncsu.csc316.trail.factory.CompactGraphBuilder;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+import edu.ncsu.csc316.trail.io.StreamingTrailReader.TrailHandler;
+import edu.ncsu.csc316.trail.metrics.TrailMetric;
+import edu.ncsu.csc316.trail.metrics.TrailMetrics;
+
+/**
+ * Builds a trail graph one potential trail at a time, as the rows are parsed.
+ * Vertices represent Attractions and edges represent PotentialTrails. When a
+ * file lists several trails between the same two attractions, the
+ * DuplicateTrailPolicy decides which one is kept. Names are interned in an
+ * AttractionDictionary, so every attraction is created once however many rows
+ * name it, and its vertex is found by its dictionary id.
+ *
+ * <p>
+ * Rows are collected in a CompactGraphBuilder sized from the expected number
+ * of rows, so each row costs one dictionary lookup per endpoint and one probe
+ * of a table keyed by the packed endpoint ids, and the graph is built in one
+ * step at the end.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailGraphBuilder implements TrailHandler {
+
+	/** Builder that collects the vertices and edges */
+	private CompactGraphBuilder<Attraction> builder;
+	/** Dictionary the attraction names are interned in */
+	private AttractionDictionary dictionary;
+	/** Policy that decides which of several parallel trails is kept */
+	private DuplicateTrailPolicy policy;
+	/** Vertex id of each attraction added so far, indexed by dictionary id, or -1 */
+	private int[] vertexIds;
+	/** Whether the time spent adding rows is measured */
+	private boolean timed;
+	/** Time spent adding rows to the graph, in nanoseconds */
+	private long buildNanos;
+	/** Number of rows whose attractions were already connected */
+	private long duplicates;
+
+	/**
+	 * Creates a new TrailGraphBuilder with an empty graph that keeps the first of
+	 * several parallel trails
+	 *
+	 * @param dictionary is the dictionary the attraction names are interned in
+	 */
+	public TrailGraphBuilder(AttractionDictionary dictionary) {
+		this(dictionary, 16, DuplicateTrailPolicy.FIRST);
+	}
+
+	/**
+	 * Creates a new TrailGraphBuilder with an empty graph that has room for the
+	 * given number of rows
+	 *
+	 * @param dictionary   is the dictionary the attraction names are interned in
+	 * @param expectedRows is the expected number of rows
+	 * @param policy       is the policy that decides which of several parallel
+	 *                     trails is kept
+	 */
+	public TrailGraphBuilder(AttractionDictionary dictionary, int expectedRows, DuplicateTrailPolicy policy) {
+		int rows = Math.max(expectedRows, 16);
+		builder = DSAFactory.getCompactGraphBuilder(rows / 2, rows);
+		this.dictionary = dictionary;
+		this.policy = policy;
+		vertexIds = new int[rows / 2];
+		Arrays.fill(vertexIds, -1);
+		timed = TrailMetrics.isEnabled();
+	}
+
+	@Override
+	public void handleTrail(String attractionOne, String attractionTwo, int length) {
+		long start = timed ? System.nanoTime() : 0;
+		int v1 = vertex(dictionary.intern(attractionOne));
+		int v2 = vertex(dictionary.intern(attractionTwo));
+		int existing = builder.addEdge(v1, v2, length);
+		if (existing >= 0) {
+			duplicates++;
+			if (policy == DuplicateTrailPolicy.SHORTEST && length < builder.getWeight(existing)) {
+				builder.setWeight(existing, length);
+			}
+		}
+		if (timed) {
+			buildNanos += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Returns the vertex id of an attraction, adding a vertex if the attraction
+	 * has not been seen yet
+	 *
+	 * @param id is the dictionary id of the attraction
+	 * @return the vertex id of the attraction
+	 */
+	private int vertex(int id) {
+		if (id >= vertexIds.length) {
+			int old = vertexIds.length;
+			vertexIds = Arrays.copyOf(vertexIds, Math.max(id + 1, old * 2));
+			Arrays.fill(vertexIds, old, vertexIds.length, -1);
+		}
+		int v = vertexIds[id];
+		if (v < 0) {
+			v = builder.addVertex(dictionary.getAttraction(id));
+			vertexIds[id] = v;
+		}
+		return v;
+	}
+
+	/**
+	 * Finishes building and returns the graph. The builder must not be used
+	 * afterwards.
+	 *
+	 * @return a Graph that models the trails handled so far
+	 */
+	public Graph<Attraction, Weighted> build() {
+		long start = timed ? System.nanoTime() : 0;
+		CompactGraph<Attraction> graph = builder.build();
+		builder = null;
+		vertexIds = null;
+		if (timed) {
+			buildNanos += System.nanoTime() - start;
+			TrailMetrics.record(TrailMetric.GRAPH_BUILD, buildNanos);
+		}
+		TrailMetrics.count(TrailMetric.VERTICES, graph.numVertices());
+		TrailMetrics.count(TrailMetric.EDGES, graph.numEdges());
+		TrailMetrics.count(TrailMetric.DUPLICATE_ROWS, duplicates);
+		return graph;
+	}
+
+	/**
+	 * Returns the time spent adding rows to the graph, which is only measured
+	 * if metrics were enabled when the builder was created
+	 *
+	 * @return the time in nanoseconds, or 0 if it was not measured
+	 */
+	long getBuildNanos() {
+		return buildNanos;
+	}
+}
@@ -0,0 +1,263 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.positional.PositionalLinkedList;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.CompactGraph;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+
+/**
+ * Reads and writes prebuilt trail graphs in a compact binary snapshot format,
+ * so a trail network can be loaded without parsing its CSV file again. All
+ * values are big-endian:
+ *
+ * <pre>
+ * int    magic number 0x54524C47 ("TRLG")
+ * int    format version
+ * int    number of attractions V
+ * int    number of trails E
+ * int    number of least costly trails T, or -1 if they were not saved
+ * V x    attraction name: int byte length, UTF-8 bytes
+ * E x    trail: int attraction index, int attraction index, int length
+ * T x    int index of a least costly trail
+ * </pre>
+ *
+ * Attractions and trails are written in graph order, so a loaded graph iterates
+ * in the same order as the graph that was saved and produces the same reports.
+ * Snapshots are read through a read-only memory mapping of the file, and the
+ * trails are copied straight into the edge arrays of a CompactGraph. Every
+ * count in the header is checked against the bytes left in the file before
+ * anything is allocated.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailGraphSnapshot {
+
+	/** File extension of trail graph snapshots */
+	public static final String EXTENSION = ".trailgraph";
+	/** Magic number at the start of every snapshot */
+	private static final int MAGIC = 0x54524C47;
+	/** Version of the snapshot format */
+	private static final int VERSION = 1;
+
+	/** Graph of the snapshot */
+	private Graph<Attraction, Weighted> graph;
+	/** Least costly trails of the snapshot, null if they were not saved */
+	private PositionalList<Edge<Weighted>> tree;
+
+	/**
+	 * Constructor for TrailGraphSnapshot
+	 *
+	 * @param graph is the graph of the snapshot
+	 * @param tree  is the least costly trails of the snapshot, or null
+	 */
+	private TrailGraphSnapshot(Graph<Attraction, Weighted> graph, PositionalList<Edge<Weighted>> tree) {
+		this.graph = graph;
+		this.tree = tree;
+	}
+
+	/**
+	 * Returns the graph of the snapshot
+	 *
+	 * @return the graph of the snapshot
+	 */
+	public Graph<Attraction, Weighted> getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the least costly trails stored in the snapshot
+	 *
+	 * @return the least costly trails, or null if they were not saved
+	 */
+	public PositionalList<Edge<Weighted>> getTree() {
+		return tree;
+	}
+
+	/**
+	 * Returns whether the path names a trail graph snapshot
+	 *
+	 * @param path is the path of a trail file
+	 * @return true if the path ends with the snapshot extension
+	 */
+	public static boolean isSnapshot(String path) {
+		return path.toLowerCase().endsWith(EXTENSION);
+	}
+
+	/**
+	 * Writes a snapshot of the graph and, optionally, its least costly trails
+	 *
+	 * @param path  is the path of the snapshot file to write
+	 * @param graph is the graph to save
+	 * @param tree  is the least costly trails of the graph, or null to leave them out
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void save(String path, Graph<Attraction, Weighted> graph, PositionalList<Edge<Weighted>> tree)
+			throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(graph.numVertices());
+			out.writeInt(graph.numEdges());
+			out.writeInt(tree == null ? -1 : tree.size());
+			Map<Vertex<Attraction>, Integer> vertexIndex = DSAFactory.getMap();
+			for (Vertex<Attraction> v : graph.vertices()) {
+				vertexIndex.put(v, vertexIndex.size());
+				byte[] name = v.getElement().getName().getBytes(StandardCharsets.UTF_8);
+				out.writeInt(name.length);
+				out.write(name);
+			}
+			Map<Edge<Weighted>, Integer> edgeIndex = null;
+			if (tree != null) {
+				edgeIndex = DSAFactory.getMap();
+			}
+			for (Edge<Weighted> e : graph.edges()) {
+				if (edgeIndex != null) {
+					edgeIndex.put(e, edgeIndex.size());
+				}
+				Vertex<Attraction>[] ends = graph.endVertices(e);
+				out.writeInt(vertexIndex.get(ends[0]));
+				out.writeInt(vertexIndex.get(ends[1]));
+				out.writeInt(e.getElement().getWeight());
+			}
+			if (tree != null) {
+				for (Edge<Weighted> e : tree) {
+					out.writeInt(edgeIndex.get(e));
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads a snapshot through a read-only memory mapping of the file
+	 *
+	 * @param path is the path of the snapshot file
+	 * @return the snapshot
+	 * @throws FileNotFoundException    if the file does not exist or cannot be
+	 *                                  opened
+	 * @throws IllegalArgumentException if the file is not a valid snapshot or does
+	 *                                  not contain any trail data
+	 */
+	public static TrailGraphSnapshot load(String path) throws FileNotFoundException {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("The snapshot " + path + " is too large to map.");
+			}
+			MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return read(path, in);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			IllegalArgumentException corrupt = corrupt(path);
+			corrupt.initCause(e);
+			throw corrupt;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to read " + path, e);
+		} finally {
+			try {
+				file.close();
+			} catch (IOException e) {
+				// the snapshot has already been read
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot from a mapped file
+	 *
+	 * @param path is the path of the snapshot file
+	 * @param in   is the mapped file
+	 * @return the snapshot
+	 * @throws IllegalArgumentException if the file is not a valid snapshot or does
+	 *                                  not contain any trail data
+	 */
+	private static TrailGraphSnapshot read(String path, MappedByteBuffer in) {
+		if (in.remaining() < 20 || in.getInt() != MAGIC) {
+			throw new IllegalArgumentException("The file is not a trail graph snapshot.");
+		}
+		if (in.getInt() != VERSION) {
+			throw new IllegalArgumentException("The trail graph snapshot version is not supported.");
+		}
+		int vertexCount = in.getInt();
+		int edgeCount = in.getInt();
+		int treeCount = in.getInt();
+		if (edgeCount == 0) {
+			throw new IllegalArgumentException("The specified input file does not contain any trail data!");
+		}
+		// Each attraction takes at least its length, each trail 12 bytes and each
+		// least costly trail 4 bytes
+		if (vertexCount < 0 || edgeCount < 0 || treeCount < -1
+				|| 4L * vertexCount + 12L * edgeCount + 4L * Math.max(treeCount, 0) > in.remaining()) {
+			throw corrupt(path);
+		}
+		Attraction[] attractions = new Attraction[vertexCount];
+		byte[] name = new byte[256];
+		for (int i = 0; i < vertexCount; i++) {
+			int length = in.getInt();
+			if (length < 0 || length > in.remaining()) {
+				throw corrupt(path);
+			}
+			if (length > name.length) {
+				name = new byte[Math.max(length, name.length * 2)];
+			}
+			in.get(name, 0, length);
+			attractions[i] = new Attraction(new String(name, 0, length, StandardCharsets.UTF_8));
+		}
+		if (12L * edgeCount + 4L * Math.max(treeCount, 0) > in.remaining()) {
+			throw corrupt(path);
+		}
+		int[] one = new int[edgeCount];
+		int[] two = new int[edgeCount];
+		int[] lengths = new int[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			one[i] = in.getInt();
+			two[i] = in.getInt();
+			lengths[i] = in.getInt();
+		}
+		CompactGraph<Attraction> graph = DSAFactory.getCompactUndirectedGraph(attractions, one, two, lengths);
+		PositionalList<Edge<Weighted>> tree = null;
+		if (treeCount >= 0) {
+			@SuppressWarnings("unchecked")
+			Edge<Weighted>[] edges = (Edge<Weighted>[]) new Edge<?>[edgeCount];
+			int i = 0;
+			for (Edge<Weighted> e : graph.edges()) {
+				edges[i++] = e;
+			}
+			tree = new PositionalLinkedList<Edge<Weighted>>();
+			for (i = 0; i < treeCount; i++) {
+				tree.addLast(edges[in.getInt()]);
+			}
+		}
+		return new TrailGraphSnapshot(graph, tree);
+	}
+
+	/**
+	 * Returns the exception thrown for a truncated or corrupt snapshot
+	 *
+	 * @param path is the path of the snapshot file
+	 * @return the exception
+	 */
+	private static IllegalArgumentException corrupt(String path) {
+		return new IllegalArgumentException("The snapshot " + path + " is truncated or corrupt.");
+	}
+}
@@ -1,13 +1,15 @@
 package edu.ncsu.csc316.trail.manager;
 
+import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.Iterator;
+import java.io.IOException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import edu.ncsu.csc316.dsa.Weighted;
 import edu.ncsu.csc316.dsa.graph.Graph;
 import edu.ncsu.csc316.dsa.graph.Graph.Edge;
 import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
-import edu.ncsu.csc316.dsa.graph.MinimumSpanningTreeUtil;
 import edu.ncsu.csc316.dsa.list.List;
 import edu.ncsu.csc316.dsa.list.positional.PositionalList;
 import edu.ncsu.csc316.dsa.map.Map;
@@ -15,10 +17,17 @@ import edu.ncsu.csc316.dsa.set.Set;
 import edu.ncsu.csc316.trail.data.Attraction;
 import edu.ncsu.csc316.trail.data.PotentialTrail;
 import edu.ncsu.csc316.trail.factory.DSAFactory;
-import edu.ncsu.csc316.trail.io.TrailReader;
+import edu.ncsu.csc316.trail.io.ParallelTrailReader;
+import edu.ncsu.csc316.trail.io.StreamingTrailReader;
+import edu.ncsu.csc316.trail.metrics.TrailMetric;
+import edu.ncsu.csc316.trail.metrics.TrailMetrics;
 
 /**
- * Manages analysis of potential trails to connect attractions.
+ * Manages analysis of potential trails to connect attractions. Each manager
+ * owns its own trail graph, and every method may be called from several threads
+ * at once. Trails can be added, removed or change length after loading; the
+ * least costly trails are then updated incrementally rather than recomputed,
+ * and the queries never see a half-applied change.
  * 
  * @author Dr. King
  */
@@ -48,13 +57,43 @@ public class TrailManager {
 //		
 //	}
 
-	/** List containing the potential trails */
-	private List<PotentialTrail> list;
+	/** Size in bytes from which trail files are parsed in parallel */
+	private static final long PARALLEL_LOAD_BYTES = 64L << 20;
+	/** Estimated bytes per row of a trail file, used to size the graph storage */
+	private static final int ESTIMATED_ROW_BYTES = 40;
+	/** Number of landmarks the router uses unless setRouteLandmarks is called */
+	private static final int DEFAULT_ROUTE_LANDMARKS = 4;
+
 	/** Graph built from the potential trails */
+	private Graph<Attraction, Weighted> trails;
+	/** Read-only view of the graph built from the potential trails */
 	private Graph<Attraction, Weighted> graph;
+	/** Cache of the least costly trails shared by every report */
+	private SpanningTreeCache treeCache;
+	/** Index of the shortest trail at each attraction, built on first use */
+	private volatile RestroomIndex restroomIndex;
+	/** Replacements of the least costly trails, computed on first use */
+	private volatile SpanningTreeSensitivity sensitivity;
+	/** Number of least costly trails at each attraction, counted on first use */
+	private volatile TrailDegrees degrees;
+	/** Separate trail systems of the network, found on first use */
+	private volatile TrailSystems systems;
+	/** Router that answers shortest route queries, built on first use */
+	private volatile TrailRouter router;
+	/** Number of landmarks the router precomputes distances from */
+	private volatile int routeLandmarks = DEFAULT_ROUTE_LANDMARKS;
+	/** Dictionary of the attraction names, with their ids and name ranks */
+	private AttractionDictionary dictionary;
+	/** Vertex of each attraction, built when the trails are first changed */
+	private Map<Attraction, Vertex<Attraction>> vertices;
+	/** Number of changes made to the trails since loading */
+	private volatile long version;
+	/** Lock that keeps queries from reading the trails while they are changed */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 	
 	/**
-	 * Creates a new TrailManager
+	 * Creates a new TrailManager. Paths ending in .trailgraph are loaded as binary
+	 * snapshots written by saveSnapshot, any other path is parsed as a CSV file.
 	 * 
 	 * @param pathToTrailFile the path to the file containing trail data
 	 * @throws FileNotFoundException    if the input file does not exist or cannot
@@ -63,43 +102,286 @@ public class TrailManager {
 	 *                                  data
 	 */
 	public TrailManager(String pathToTrailFile) throws FileNotFoundException {
-		list = TrailReader.loadPotentialTrails(pathToTrailFile);
-		graph = buildGraph(list);
-		TrailReportManager.setGraph(graph);
+		this(pathToTrailFile, DuplicateTrailPolicy.FIRST);
 	}
 
 	/**
-	 * Builds a graph from the provided input list. Vertices represent Attractions
-	 * Edges represent PotentialTrails
+	 * Creates a new TrailManager that chooses between several trails listed for
+	 * the same two attractions with the given policy. Snapshots are loaded as
+	 * they were saved, since they never hold parallel trails.
 	 * 
-	 * @param trailData the list of data for potential trails
+	 * @param pathToTrailFile the path to the file containing trail data
+	 * @param policy          the policy that decides which of several parallel
+	 *                        trails in a CSV file is kept
+	 * @throws FileNotFoundException    if the input file does not exist or cannot
+	 *                                  be opened
+	 * @throws IllegalArgumentException if the input file does not contain any trail
+	 *                                  data
+	 */
+	public TrailManager(String pathToTrailFile, DuplicateTrailPolicy policy) throws FileNotFoundException {
+		long start = TrailMetrics.start();
+		dictionary = new AttractionDictionary();
+		if (TrailGraphSnapshot.isSnapshot(pathToTrailFile)) {
+			TrailGraphSnapshot snapshot = TrailGraphSnapshot.load(pathToTrailFile);
+			trails = snapshot.getGraph();
+			for (Vertex<Attraction> v : trails.vertices()) {
+				dictionary.intern(v.getElement());
+			}
+			treeCache = new SpanningTreeCache(trails, snapshot.getTree());
+		} else {
+			trails = buildGraph(pathToTrailFile, dictionary, policy);
+			treeCache = new SpanningTreeCache(trails);
+		}
+		graph = DSAFactory.getUnmodifiableGraph(trails);
+		TrailMetrics.stop(TrailMetric.LOAD, start);
+	}
+
+	/**
+	 * Builds a graph from the provided trail file in a single pass. Each row is
+	 * added to the graph as soon as it is parsed, so no list of PotentialTrails
+	 * is kept alongside the graph. Large files are parsed in parallel chunks, which
+	 * produces the same graph. Vertices represent Attractions, Edges represent
+	 * PotentialTrails and only keep the trail length. The graph storage is sized
+	 * from the file length, so it rarely has to grow while the rows are added.
+	 * 
+	 * @param pathToTrailFile the path to the file containing trail data
+	 * @param dictionary      the dictionary the attraction names are interned in
+	 * @param policy          the policy that decides which of several parallel
+	 *                        trails is kept
 	 * @return a Graph that models the provided trail data
+	 * @throws FileNotFoundException    if the input file does not exist or cannot
+	 *                                  be opened
+	 * @throws IllegalArgumentException if the input file does not contain any trail
+	 *                                  data
 	 */
-	private static Graph<Attraction, Weighted> buildGraph(List<PotentialTrail> trailData) {
-		Graph<Attraction, Weighted> toReturn = DSAFactory.getUndirectedGraph();
-		Map<Attraction, Vertex<Attraction>> covered = DSAFactory.getMap();
-		for (int i = 0; i < trailData.size(); i++) {
-			PotentialTrail potential = trailData.get(i);
-			Attraction one = potential.getAttractionOne();
-			Attraction two = potential.getAttractionTwo();
-			Vertex<Attraction> v1 = null, v2 = null;
-			if (covered.get(one) == null) {
-				v1 = toReturn.insertVertex(one);
-				covered.put(one, v1);
-			} else {
-				v1 = covered.get(one);
+	private static Graph<Attraction, Weighted> buildGraph(String pathToTrailFile, AttractionDictionary dictionary,
+			DuplicateTrailPolicy policy) throws FileNotFoundException {
+		long length = new File(pathToTrailFile).length();
+		int expectedRows = (int) Math.min(length / ESTIMATED_ROW_BYTES, Integer.MAX_VALUE / 2);
+		TrailGraphBuilder builder = new TrailGraphBuilder(dictionary, expectedRows, policy);
+		long start = TrailMetrics.start();
+		if (length >= PARALLEL_LOAD_BYTES
+				&& Runtime.getRuntime().availableProcessors() > 1) {
+			ParallelTrailReader.readTrails(pathToTrailFile, builder);
+		} else {
+			StreamingTrailReader.readTrails(pathToTrailFile, builder);
+		}
+		Graph<Attraction, Weighted> built = builder.build();
+		if (builder.getBuildNanos() > 0) {
+			TrailMetrics.record(TrailMetric.PARSE, System.nanoTime() - start - builder.getBuildNanos());
+		}
+		return built;
+	}
+
+	/**
+	 * Saves the trail graph as a binary snapshot that can be loaded much faster
+	 * than the original CSV file by passing its path to the constructor
+	 * 
+	 * @param pathToSnapshot           the path of the snapshot file, which should
+	 *                                 end in .trailgraph
+	 * @param includeLeastCostlyTrails whether to store the least costly trails too,
+	 *                                 computing them if needed
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public void saveSnapshot(String pathToSnapshot, boolean includeLeastCostlyTrails) throws IOException {
+		lock.readLock().lock();
+		try {
+			PositionalList<Edge<Weighted>> tree = null;
+			if (includeLeastCostlyTrails) {
+				tree = getLeastCostlyTrails();
+			}
+			TrailGraphSnapshot.save(pathToSnapshot, graph, tree);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds a potential trail between two attractions. Attractions that are not in
+	 * the network yet are added with it. The least costly trails are updated by
+	 * swapping out the longest trail on the cycle the new trail closes, if the
+	 * new trail is shorter.
+	 * 
+	 * @param attractionOne the name of the attraction at one end of the trail
+	 * @param attractionTwo the name of the attraction at the other end
+	 * @param length        the length of the trail in feet
+	 * @throws IllegalArgumentException if both ends are the same attraction, the
+	 *                                  length is negative or a trail already
+	 *                                  connects the attractions
+	 */
+	public void addTrail(String attractionOne, String attractionTwo, int length) {
+		if (attractionOne.equals(attractionTwo)) {
+			throw new IllegalArgumentException("A trail must connect two different attractions.");
+		}
+		checkLength(attractionOne, attractionTwo, length);
+		lock.writeLock().lock();
+		try {
+			Attraction one = dictionary.getAttraction(dictionary.intern(attractionOne));
+			Attraction two = dictionary.getAttraction(dictionary.intern(attractionTwo));
+			Vertex<Attraction> v1 = vertices().get(one);
+			Vertex<Attraction> v2 = vertices().get(two);
+			if (v1 != null && v2 != null && graph.getEdge(v1, v2) != null) {
+				throw new IllegalArgumentException(
+						"A trail already connects " + attractionOne + " and " + attractionTwo + ".");
+			}
+			v1 = v1 == null ? insertVertex(one) : v1;
+			v2 = v2 == null ? insertVertex(two) : v2;
+			treeCache.insertEdge(v1, v2, new PotentialTrail(one, two, length));
+			changed();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the potential trail between two attractions. Attractions left
+	 * without any trail are removed from the network. If the trail was one of
+	 * the least costly trails, the shortest trail that reconnects the network
+	 * takes its place.
+	 * 
+	 * @param attractionOne the name of the attraction at one end of the trail
+	 * @param attractionTwo the name of the attraction at the other end
+	 * @return true if the trail was removed, false if no trail connects the
+	 *         attractions
+	 */
+	public boolean removeTrail(String attractionOne, String attractionTwo) {
+		lock.writeLock().lock();
+		try {
+			Edge<Weighted> edge = findTrail(attractionOne, attractionTwo);
+			if (edge == null) {
+				return false;
+			}
+			Vertex<Attraction>[] ends = graph.endVertices(edge);
+			treeCache.removeEdge(edge);
+			for (Vertex<Attraction> v : ends) {
+				if (graph.outDegree(v) == 0) {
+					vertices.remove(v.getElement());
+					trails.removeVertex(v);
+				}
 			}
-			if (covered.get(two) == null) {
-				v2 = toReturn.insertVertex(two);
-				covered.put(two, v2);
-			} else {
-				v2 = covered.get(two);
+			changed();
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Changes the length of the potential trail between two attractions and
+	 * updates the least costly trails to match
+	 * 
+	 * @param attractionOne the name of the attraction at one end of the trail
+	 * @param attractionTwo the name of the attraction at the other end
+	 * @param length        the new length of the trail in feet
+	 * @throws IllegalArgumentException if the length is negative or no trail
+	 *                                  connects the attractions
+	 */
+	public void updateLength(String attractionOne, String attractionTwo, int length) {
+		checkLength(attractionOne, attractionTwo, length);
+		lock.writeLock().lock();
+		try {
+			Edge<Weighted> edge = findTrail(attractionOne, attractionTwo);
+			if (edge == null) {
+				throw new IllegalArgumentException(
+						"No trail connects " + attractionOne + " and " + attractionTwo + ".");
 			}
-			if (toReturn.getEdge(v1, v2) == null) {
-				toReturn.insertEdge(v1, v2, potential);
+			Vertex<Attraction>[] ends = graph.endVertices(edge);
+			treeCache.replaceEdge(edge, new PotentialTrail(ends[0].getElement(), ends[1].getElement(), length));
+			changed();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Rejects a negative trail length, as the trail file readers do
+	 * 
+	 * @param attractionOne the name of the attraction at one end of the trail
+	 * @param attractionTwo the name of the attraction at the other end
+	 * @param length        the length of the trail in feet
+	 * @throws IllegalArgumentException if the length is negative
+	 */
+	private static void checkLength(String attractionOne, String attractionTwo, int length) {
+		if (length < 0) {
+			throw new IllegalArgumentException(
+					"The trail from " + attractionOne + " to " + attractionTwo + " has an invalid trail length.");
+		}
+	}
+
+	/**
+	 * Returns the trail between two attractions
+	 * 
+	 * @param attractionOne the name of one attraction
+	 * @param attractionTwo the name of the other attraction
+	 * @return the trail, or null if the attractions are not connected by a trail
+	 */
+	private Edge<Weighted> findTrail(String attractionOne, String attractionTwo) {
+		Vertex<Attraction> v1 = vertices().get(new Attraction(attractionOne));
+		Vertex<Attraction> v2 = vertices().get(new Attraction(attractionTwo));
+		if (v1 == null || v2 == null) {
+			return null;
+		}
+		return graph.getEdge(v1, v2);
+	}
+
+	/**
+	 * Returns the vertex of each attraction, building the map on first use
+	 * 
+	 * @return the vertex of each attraction
+	 */
+	private Map<Attraction, Vertex<Attraction>> vertices() {
+		if (vertices == null) {
+			vertices = DSAFactory.getMap();
+			for (Vertex<Attraction> v : graph.vertices()) {
+				vertices.put(v.getElement(), v);
 			}
 		}
-		return toReturn;
+		return vertices;
+	}
+
+	/**
+	 * Adds a new attraction to the network
+	 * 
+	 * @param attraction the attraction
+	 * @return the vertex of the attraction
+	 */
+	private Vertex<Attraction> insertVertex(Attraction attraction) {
+		Vertex<Attraction> v = trails.insertVertex(attraction);
+		vertices.put(attraction, v);
+		return v;
+	}
+
+	/**
+	 * Records a change to the trails, discarding the indexes built from the old
+	 * trails
+	 */
+	private void changed() {
+		restroomIndex = null;
+		sensitivity = null;
+		degrees = null;
+		systems = null;
+		router = null;
+		version++;
+	}
+
+	/**
+	 * Returns the number of changes made to the trails since they were loaded, so
+	 * that results derived from older trails can be recognized
+	 * 
+	 * @return the version of the trails
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the lock that must be held while reading the trails, so that no
+	 * change is made in the middle of a report
+	 * 
+	 * @return the read lock of the trails
+	 */
+	Lock readLock() {
+		return lock.readLock();
 	}
 
 	/**
@@ -110,32 +392,265 @@ public class TrailManager {
 	 * @return a Set of Attractions for which restrooms should be located
 	 */
 	public Set<Attraction> getAttractionsWithLongTrails(int minTrailLength) {
-		Set<Attraction> toReturn = DSAFactory.getSet();
-		Iterable<Vertex<Attraction>> it = graph.vertices();
-		for (Vertex<Attraction> ver : it) {
-			boolean toAdd = true;
-			Iterable<Edge<Weighted>> secondIt = graph.outgoingEdges(ver);
-			for (Edge<Weighted> edge : secondIt) {
-				if (edge.getElement().getWeight() <= minTrailLength) {
-					toAdd = false;
-					break;
+		long start = TrailMetrics.start();
+		Set<Attraction> attractions = getRestroomIndex().getAttractionsLongerThan(minTrailLength);
+		TrailMetrics.stop(TrailMetric.QUERY_LONG_TRAILS, start);
+		return attractions;
+	}
+
+	/**
+	 * Returns the Attractions for which all connecting trails are longer than
+	 * minTrailLength, already sorted by name
+	 * 
+	 * @param minTrailLength the minimum trail length to use as a threshold
+	 * @return a List of Attractions for which restrooms should be located, in name
+	 *         order
+	 */
+	public List<Attraction> getSortedAttractionsWithLongTrails(int minTrailLength) {
+		long start = TrailMetrics.start();
+		List<Attraction> attractions = getRestroomIndex().getSortedAttractionsLongerThan(minTrailLength);
+		TrailMetrics.stop(TrailMetric.QUERY_LONG_TRAILS, start);
+		return attractions;
+	}
+
+	/**
+	 * Returns the index of the shortest trail at each attraction, building it the
+	 * first time it is needed
+	 * 
+	 * @return the restroom index of the trail graph
+	 */
+	public RestroomIndex getRestroomIndex() {
+		RestroomIndex index = restroomIndex;
+		if (index == null) {
+			lock.readLock().lock();
+			try {
+				synchronized (this) {
+					index = restroomIndex;
+					if (index == null) {
+						index = new RestroomIndex(graph, dictionary);
+						restroomIndex = index;
+					}
 				}
+			} finally {
+				lock.readLock().unlock();
 			}
-			if (toAdd) {
-				toReturn.add(ver.getElement());
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the number of least costly trails at each attraction, indexed by
+	 * dictionary id, counting them the first time they are needed
+	 * 
+	 * @return the trail counts of the attractions
+	 */
+	public TrailDegrees getTrailDegrees() {
+		TrailDegrees d = degrees;
+		if (d == null) {
+			lock.readLock().lock();
+			try {
+				synchronized (this) {
+					d = degrees;
+					if (d == null) {
+						PositionalList<Edge<Weighted>> tree = getLeastCostlyTrails();
+						long start = TrailMetrics.start();
+						d = new TrailDegrees(graph, tree, dictionary);
+						TrailMetrics.stop(TrailMetric.QUERY_INTERSECTION_FREQUENCIES, start);
+						degrees = d;
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * Returns the separate trail systems of the network, finding them the first
+	 * time they are needed
+	 * 
+	 * @return the trail systems of the network
+	 */
+	public TrailSystems getTrailSystems() {
+		TrailSystems s = systems;
+		if (s == null) {
+			lock.readLock().lock();
+			try {
+				synchronized (this) {
+					s = systems;
+					if (s == null) {
+						s = new TrailSystems(graph, getTrailDegrees(), dictionary);
+						systems = s;
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * Returns, for every least costly trail, the cheapest other trail that
+	 * reconnects the network without it, computing them all in one sweep the
+	 * first time they are needed
+	 * 
+	 * @return the sensitivity of the least costly trails
+	 */
+	public SpanningTreeSensitivity getSpanningTreeSensitivity() {
+		SpanningTreeSensitivity s = sensitivity;
+		if (s == null) {
+			lock.readLock().lock();
+			try {
+				synchronized (this) {
+					s = sensitivity;
+					if (s == null) {
+						s = new SpanningTreeSensitivity(graph, getLeastCostlyTrails(), dictionary);
+						sensitivity = s;
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * Returns the length of a shortest route along the trails between two
+	 * attractions
+	 * 
+	 * @param from is the name of the start attraction
+	 * @param to   is the name of the end attraction
+	 * @return the length of the route in feet, or -1 if the attractions are not
+	 *         connected
+	 * @throws IllegalArgumentException if an attraction is not in the network
+	 */
+	public long getRouteLength(String from, String to) {
+		long start = TrailMetrics.start();
+		lock.readLock().lock();
+		try {
+			return getRouter().getRouteLength(from, to);
+		} finally {
+			lock.readLock().unlock();
+			TrailMetrics.stop(TrailMetric.QUERY_ROUTE, start);
+		}
+	}
+
+	/**
+	 * Returns a shortest route along the trails between two attractions
+	 * 
+	 * @param from is the name of the start attraction
+	 * @param to   is the name of the end attraction
+	 * @return the route, or null if the attractions are not connected
+	 * @throws IllegalArgumentException if an attraction is not in the network
+	 */
+	public TrailRoute getShortestRoute(String from, String to) {
+		long start = TrailMetrics.start();
+		lock.readLock().lock();
+		try {
+			return getRouter().getRoute(from, to);
+		} finally {
+			lock.readLock().unlock();
+			TrailMetrics.stop(TrailMetric.QUERY_ROUTE, start);
+		}
+	}
+
+	/**
+	 * Sets the number of landmarks the router precomputes distances from. More
+	 * landmarks make each query search fewer attractions, at the cost of one
+	 * distance per attraction and landmark. The router is built again on the next
+	 * route query.
+	 * 
+	 * @param landmarks is the number of landmarks, 0 for plain bidirectional
+	 *                  search
+	 * @throws IllegalArgumentException if landmarks is negative
+	 */
+	public void setRouteLandmarks(int landmarks) {
+		if (landmarks < 0) {
+			throw new IllegalArgumentException("The number of landmarks cannot be negative.");
+		}
+		synchronized (this) {
+			routeLandmarks = landmarks;
+			router = null;
+		}
+	}
+
+	/**
+	 * Returns the router of the trail graph, building it the first time it is
+	 * needed
+	 * 
+	 * @return the shortest route router of the trail graph
+	 */
+	public TrailRouter getRouter() {
+		TrailRouter r = router;
+		if (r == null) {
+			lock.readLock().lock();
+			try {
+				synchronized (this) {
+					r = router;
+					if (r == null) {
+						r = new TrailRouter(graph, dictionary, routeLandmarks);
+						router = r;
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
 			}
 		}
-		return toReturn;
+		return r;
+	}
+
+	/**
+	 * Returns the dictionary of attraction names, which gives every attraction a
+	 * dense id and a rank in name order. Attractions that were removed stay in
+	 * the dictionary, so its ranks order every attraction of the network but
+	 * may skip numbers.
+	 * 
+	 * @return the attraction dictionary
+	 */
+	public AttractionDictionary getDictionary() {
+		return dictionary;
 	}
 
 	/**
 	 * Returns a PositionalList of Weighted edges that represents trails that
-	 * produce the least costly solution to connect all attractions
+	 * produce the least costly solution to connect all attractions. The trails are
+	 * computed once and shared by every later call, so the returned list is read-only.
+	 * A returned list is not changed when the trails change later.
 	 * 
 	 * @return a PositionalList of Weighted Edges represent the least costly trails
 	 */
 	public PositionalList<Edge<Weighted>> getLeastCostlyTrails() {
-		return MinimumSpanningTreeUtil.kruskal(graph);
+		long start = TrailMetrics.start();
+		lock.readLock().lock();
+		try {
+			return treeCache.getTree();
+		} finally {
+			lock.readLock().unlock();
+			TrailMetrics.stop(TrailMetric.QUERY_LEAST_COSTLY_TRAILS, start);
+		}
+	}
+
+	/**
+	 * Returns the trail graph of this manager. The view can be read from several
+	 * threads at once, but not while addTrail, removeTrail or updateLength runs.
+	 * 
+	 * @return a read-only view of the trail graph
+	 */
+	public Graph<Attraction, Weighted> getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the cache holding the least costly trails, which records how many
+	 * requests were served without recomputing them
+	 * 
+	 * @return the cache of the least costly trails
+	 */
+	public SpanningTreeCache getSpanningTreeCache() {
+		return treeCache;
 	}
 
 	/**
@@ -146,26 +661,17 @@ public class TrailManager {
 	 *         specific attraction
 	 */
 	public Map<Attraction, Integer> getTrailIntersectionFrequencies() {
-		Map<Attraction, Integer> toReturn = DSAFactory.getMap();
-		PositionalList<Edge<Weighted>> edges = MinimumSpanningTreeUtil.kruskal(graph);
-		Iterator<Edge<Weighted>> it = edges.iterator();
-		while (it.hasNext()) {
-			Vertex<Attraction>[] arr = graph.endVertices(it.next());
-			Attraction one = arr[0].getElement();
-			Attraction two = arr[1].getElement();
-			Integer rOne = toReturn.get(one);
-			Integer rTwo = toReturn.get(two);
-			if (rOne == null) {
-				toReturn.put(one, 1);
-			} else {
-				toReturn.put(one, rOne + 1);
-			}
-			if (rTwo == null) {
-				toReturn.put(two, 1);
-			} else {
-				toReturn.put(two, rTwo + 1);
+		lock.readLock().lock();
+		try {
+			TrailDegrees d = getTrailDegrees();
+			Map<Attraction, Integer> frequencies = DSAFactory.getMap();
+			for (int id : d.filter(1)) {
+				frequencies.put(dictionary.getAttraction(id), d.getDegree(id));
 			}
+			return frequencies;
+		} finally {
+			lock.readLock().unlock();
 		}
-		return toReturn;
 	}
+
 }
\ No newline at end of file
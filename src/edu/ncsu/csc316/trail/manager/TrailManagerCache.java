@@ -0,0 +1,213 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Bounded cache of loaded TrailManagers, so a trail file that is requested
+ * again is not parsed and built into a graph again. Each manager is kept with a
+ * TrailReportManager, so the report state derived from it is reused as well.
+ * Managers are keyed by the canonical path of their file and remembered with
+ * its modification time and length; a file that changed since it was loaded is
+ * loaded again. When the cache is full, the least recently used manager is
+ * dropped.
+ *
+ * <p>
+ * Each file is loaded by the first thread that asks for it, without holding
+ * the cache lock, and threads asking for the same file meanwhile wait for that
+ * load instead of starting their own.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailManagerCache {
+
+	/** Most managers kept at once */
+	private final int capacity;
+	/** Cached loads by canonical path, from least to most recently used */
+	private final LinkedHashMap<String, Entry> entries;
+	/** Number of requests served by a cached manager */
+	private long hits;
+	/** Number of requests that had to load their file */
+	private long misses;
+	/** Number of managers dropped to stay within the capacity */
+	private long evictions;
+
+	/**
+	 * Creates an empty cache
+	 *
+	 * @param capacity is the most managers kept at once
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public TrailManagerCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Cache capacity must be > 0.");
+		}
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the manager of a trail file, loading it if it is not cached or the
+	 * file changed since it was loaded
+	 *
+	 * @param path is the path of the trail file or snapshot
+	 * @return the manager of the file
+	 * @throws FileNotFoundException    if the file does not exist or cannot be
+	 *                                  opened
+	 * @throws IllegalArgumentException if the file does not contain any trail
+	 *                                  data
+	 */
+	public TrailManager get(String path) throws FileNotFoundException {
+		return getReportManager(path).getTrailManager();
+	}
+
+	/**
+	 * Returns the report manager of a trail file, loading the file if it is not
+	 * cached or changed since it was loaded
+	 *
+	 * @param path is the path of the trail file or snapshot
+	 * @return the report manager of the file
+	 * @throws FileNotFoundException    if the file does not exist or cannot be
+	 *                                  opened
+	 * @throws IllegalArgumentException if the file does not contain any trail
+	 *                                  data
+	 */
+	public TrailReportManager getReportManager(String path) throws FileNotFoundException {
+		File file = new File(path);
+		if (!file.isFile()) {
+			throw new FileNotFoundException("Could not find file " + path + ".");
+		}
+		final String key;
+		try {
+			key = file.getCanonicalPath();
+		} catch (IOException e) {
+			throw new FileNotFoundException("Could not resolve file " + path + ".");
+		}
+		long modified = file.lastModified();
+		long length = file.length();
+		Entry entry;
+		boolean load = false;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry != null && entry.modified == modified && entry.length == length) {
+				hits++;
+			} else {
+				misses++;
+				load = true;
+				entry = new Entry(modified, length, new FutureTask<TrailReportManager>(new Callable<TrailReportManager>() {
+					@Override
+					public TrailReportManager call() throws FileNotFoundException {
+						return new TrailReportManager(key);
+					}
+				}));
+				entries.put(key, entry);
+				while (entries.size() > capacity) {
+					entries.remove(entries.keySet().iterator().next());
+					evictions++;
+				}
+			}
+		}
+		if (load) {
+			entry.task.run();
+		}
+		try {
+			return entry.task.get();
+		} catch (ExecutionException e) {
+			synchronized (this) {
+				if (entries.get(key) == entry) {
+					entries.remove(key);
+				}
+			}
+			Throwable cause = e.getCause();
+			if (cause instanceof FileNotFoundException) {
+				throw (FileNotFoundException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw (Error) cause;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while loading " + path + ".", e);
+		}
+	}
+
+	/**
+	 * Drops every cached manager
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of managers cached
+	 *
+	 * @return the number of cached managers
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the number of requests served by a cached manager
+	 *
+	 * @return the number of cache hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of requests that had to load their file
+	 *
+	 * @return the number of cache misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of managers dropped to stay within the capacity
+	 *
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Load of one version of a trail file
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class Entry {
+
+		/** Modification time of the file when it was loaded */
+		private final long modified;
+		/** Length of the file when it was loaded */
+		private final long length;
+		/** Task that loads the manager */
+		private final FutureTask<TrailReportManager> task;
+
+		/**
+		 * Creates an Entry
+		 *
+		 * @param modified is the modification time of the file
+		 * @param length   is the length of the file
+		 * @param task     is the task that loads the manager
+		 */
+		Entry(long modified, long length, FutureTask<TrailReportManager> task) {
+			this.modified = modified;
+			this.length = length;
+			this.task = task;
+		}
+	}
+}
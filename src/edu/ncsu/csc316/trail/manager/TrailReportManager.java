@@ -1,41 +1,47 @@
 package edu.ncsu.csc316.trail.manager;
 
 import java.io.FileNotFoundException;
-import java.util.Iterator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.Lock;
 
-import edu.ncsu.csc316.dsa.Position;
 import edu.ncsu.csc316.dsa.Weighted;
 import edu.ncsu.csc316.dsa.graph.Graph;
 import edu.ncsu.csc316.dsa.graph.Graph.Edge;
 import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
 import edu.ncsu.csc316.dsa.list.List;
 import edu.ncsu.csc316.dsa.list.positional.PositionalList;
-import edu.ncsu.csc316.dsa.map.Map;
-import edu.ncsu.csc316.dsa.map.Map.Entry;
-import edu.ncsu.csc316.dsa.set.Set;
-import edu.ncsu.csc316.dsa.sorter.Sorter;
 import edu.ncsu.csc316.trail.data.Attraction;
 import edu.ncsu.csc316.trail.factory.DSAFactory;
+import edu.ncsu.csc316.trail.manager.ReportCache.Type;
+import edu.ncsu.csc316.trail.metrics.TrailMetric;
+import edu.ncsu.csc316.trail.metrics.TrailMetrics;
 
 /**
- * Creates String Reports of trail information for the user interface
+ * Creates String Reports of trail information for the user interface. Each
+ * report manager owns the trail network it was built from, so several networks
+ * can be analyzed at once in the same program. String reports are kept in a
+ * ReportCache, so a repeated request is answered without rendering it again
+ * until the trails change.
  * 
  * @author Dr. King
  */
 public class TrailReportManager {
 
 	/** TrailManager instance */
-	private TrailManager manager;
-	/** Graph built from the potential trails */
-	private static Graph<Attraction, Weighted> graph;
-	
-	/** Sets the graph in the TrailReportManager to the given graph
-	 * 
-	 * @param g is the given graph
-	 */
-	public static void setGraph(Graph<Attraction, Weighted> g) {
-		graph = g;
-	}
+	private final TrailManager manager;
+	/** Graph built from the potential trails, owned by this report manager */
+	private final Graph<Attraction, Weighted> graph;
+	/** Least costly trails in report order, sorted on first use */
+	private List<Trail> sortedTrails;
+	/** Version of the trails that sortedTrails was built from */
+	private long sortedVersion;
+	/** Cache of the rendered String reports */
+	private final ReportCache reportCache;
 
 	/**
 	 * Constructs a new TrailReportManager to facilitate generation of String
@@ -46,7 +52,63 @@ public class TrailReportManager {
 	 * @throws IllegalArgumentException if the file does not contain any trail data
 	 */
 	public TrailReportManager(String pathToTrailFile) throws FileNotFoundException {
-		manager = new TrailManager(pathToTrailFile);
+		this(new TrailManager(pathToTrailFile));
+	}
+
+	/**
+	 * Constructs a new TrailReportManager for the trail network of an existing
+	 * TrailManager. Report managers never share state with each other, and the
+	 * report methods may be called from several threads at once.
+	 * 
+	 * @param manager the TrailManager whose trail network is reported on
+	 */
+	public TrailReportManager(TrailManager manager) {
+		this(manager, new ReportCache());
+	}
+
+	/**
+	 * Constructs a new TrailReportManager for the trail network of an existing
+	 * TrailManager that keeps its rendered reports in the given cache
+	 * 
+	 * @param manager     the TrailManager whose trail network is reported on
+	 * @param reportCache the cache of rendered reports, which must not be shared
+	 *                    with another report manager
+	 */
+	public TrailReportManager(TrailManager manager, ReportCache reportCache) {
+		this.manager = manager;
+		this.graph = manager.getGraph();
+		this.reportCache = reportCache;
+	}
+
+	/**
+	 * Returns the cache of rendered reports, which records its hits, misses and
+	 * evictions
+	 * 
+	 * @return the report cache
+	 */
+	public ReportCache getReportCache() {
+		return reportCache;
+	}
+
+	/**
+	 * Returns the TrailManager whose trail network is reported on
+	 * 
+	 * @return the trail manager
+	 */
+	public TrailManager getTrailManager() {
+		return manager;
+	}
+
+	/**
+	 * Saves the trail network, together with its least costly trails, as a binary
+	 * snapshot that can be passed to the constructor instead of the CSV file
+	 * 
+	 * @param pathToSnapshot the path of the snapshot file, which should end in
+	 *                       .trailgraph
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public void saveSnapshot(String pathToSnapshot) throws IOException {
+		manager.saveSnapshot(pathToSnapshot, true);
 	}
 
 	/**
@@ -56,36 +118,236 @@ public class TrailReportManager {
 	 * @return a String report of the least costly trails to connect all attractions
 	 */
 	public String getLeastCostlyTrailsReport(double costPerFoot) {
+		return getReport(Type.LEAST_COSTLY_TRAILS, costPerFoot, 0);
+	}
+
+	/**
+	 * Writes a report of the least costly trails to connect all attractions. The
+	 * report is written a few lines at a time through a small bounded buffer, so
+	 * the memory it needs does not depend on the number of trails. The writer is
+	 * neither flushed nor closed.
+	 * 
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @param out         the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeLeastCostlyTrailsReport(double costPerFoot, Writer out) throws IOException {
+		writeReport(Type.LEAST_COSTLY_TRAILS, costPerFoot, 0, out);
+	}
+
+	/**
+	 * Returns a report of the least costly trails found out of core by an
+	 * ExternalSpanningTree. The report is the same as the one a TrailReportManager
+	 * of the file produces.
+	 * 
+	 * @param tree        the least costly trails of a trail file
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @return a String report of the least costly trails to connect all attractions
+	 */
+	public static String getLeastCostlyTrailsReport(ExternalSpanningTree tree, double costPerFoot) {
+		ReportSink sink = new ReportSink(TrailMetric.REPORT_LEAST_COSTLY_TRAILS);
+		writeLeastCostlyTrailsReport(tree, costPerFoot, sink);
+		return sink.toString();
+	}
+
+	/**
+	 * Writes a report of the least costly trails found out of core by an
+	 * ExternalSpanningTree through a small bounded buffer. The writer is neither
+	 * flushed nor closed.
+	 * 
+	 * @param tree        the least costly trails of a trail file
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @param out         the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public static void writeLeastCostlyTrailsReport(ExternalSpanningTree tree, double costPerFoot, Writer out)
+			throws IOException {
+		try {
+			writeLeastCostlyTrailsReport(tree, costPerFoot, new ReportSink(TrailMetric.REPORT_LEAST_COSTLY_TRAILS, out));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Writes a report of the least costly trails of an ExternalSpanningTree to a
+	 * report sink. The trails are put in report order the same way as
+	 * getSortedTrails, and the tree lists them in the order of the in-memory
+	 * spanning tree, so ties are ordered the same way.
+	 * 
+	 * @param tree        the least costly trails of a trail file
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @param sink        the sink that receives the report
+	 */
+	private static void writeLeastCostlyTrailsReport(ExternalSpanningTree tree, double costPerFoot, ReportSink sink) {
 		if (costPerFoot <= 0) {
-			return "Construction cost per linear foot must be > $0.00.";
+			sink.builder().append("Construction cost per linear foot must be > $0.00.");
+			sink.finish();
+			return;
 		}
-		PositionalList<Edge<Weighted>> list = manager.getLeastCostlyTrails();
-		Iterable<Position<Edge<Weighted>>> it = list.positions();
-		List<Trail> tList = DSAFactory.getIndexedList();
-		Sorter<Trail> sorter = DSAFactory.getComparisonSorter();
-		String cost = String.format("%.2f", costPerFoot);
-		
-		for (Position<Edge<Weighted>> pos : it) {
-			Vertex<Attraction>[] arr = graph.endVertices(pos.getElement());
-			tList.addLast(new Trail(arr[0].getElement(), arr[1].getElement(), pos.getElement().getElement().getWeight(), costPerFoot));
+		AttractionDictionary dictionary = tree.getDictionary();
+		int[] ranks = dictionary.getRanks();
+		Trail[] trails = new Trail[tree.size()];
+		long[] keys = new long[trails.length];
+		for (int i = trails.length - 1, index = 0; i >= 0; i--, index++) {
+			int idOne = tree.getAttractionOne(index);
+			int idTwo = tree.getAttractionTwo(index);
+			int length = tree.getLength(index);
+			trails[i] = new Trail(dictionary.getAttraction(idOne), dictionary.getAttraction(idTwo), length,
+					ranks[idOne] <= ranks[idTwo], idOne);
+			keys[i] = key(length, ranks[idOne], ranks[idTwo]);
 		}
-		
-		sorter.sortList(tList);
+		writeLeastCostlyTrails(sort(trails, keys), costPerFoot, sink);
+	}
+
+	/**
+	 * Writes a report of the least costly trails to a report sink
+	 * 
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @param sink        the sink that receives the report
+	 */
+	private void writeLeastCostlyTrailsReport(double costPerFoot, ReportSink sink) {
+		if (costPerFoot <= 0) {
+			sink.builder().append("Construction cost per linear foot must be > $0.00.");
+			sink.finish();
+			return;
+		}
+		writeLeastCostlyTrails(getSortedTrails(), costPerFoot, sink);
+	}
+
+	/**
+	 * Writes the least costly trails report of trails in report order
+	 * 
+	 * @param tList       the trails in report order
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction, which
+	 *                    must be positive
+	 * @param sink        the sink that receives the report
+	 */
+	private static void writeLeastCostlyTrails(List<Trail> tList, double costPerFoot, ReportSink sink) {
+		CentsFormatter formatter = new CentsFormatter(costPerFoot);
 		
 		double total = 0;
-		StringBuilder sb = new StringBuilder("Minimum Trails for $ ($");
-		sb.append(cost);
-		sb.append(" per linear foot) [\n");
+		long totalLength = 0;
+		long capacity = 80;
 		for (int i = 0; i < tList.size(); i++) {
 			Trail t = tList.get(i);
-			sb.append(t.toString());
-			total += t.getCost();
+			total += t.getCost(costPerFoot);
+			totalLength += t.getLength();
+			capacity += t.getReportLength();
+		}
+		StringBuilder sb = sink.reserve(capacity);
+		sb.append("Minimum Trails for $");
+		formatter.appendTotal(sb, totalLength, total, tList.size());
+		sb.append(" ($");
+		formatter.appendCostPerFoot(sb);
+		sb.append(" per linear foot) [\n");
+		for (int i = 0; i < tList.size(); i++) {
+			tList.get(i).appendTo(sb, formatter);
+			sink.endLine();
 		}
 		sb.append("]");
-		cost = String.format("%.2f", total);
-		sb.insert(20, cost);
-		
-		return sb.toString();
+		sink.finish();
+	}
+
+	/**
+	 * Returns a report of the least costly trails for each cost per foot. The
+	 * least costly trails are found and sorted once for all of the costs, so each
+	 * report only multiplies the trail lengths by its cost. The trails cannot
+	 * change between the reports, so all of them describe the same trails.
+	 * 
+	 * @param costsPerFoot the costs (in USD $) per foot of trail construction
+	 * @return a List of String reports, one for each cost in the same order
+	 */
+	public List<String> getLeastCostlyTrailsReports(double[] costsPerFoot) {
+		List<String> reports = DSAFactory.getIndexedList();
+		Lock lock = manager.readLock();
+		lock.lock();
+		try {
+			for (double costPerFoot : costsPerFoot) {
+				reports.addLast(getLeastCostlyTrailsReport(costPerFoot));
+			}
+		} finally {
+			lock.unlock();
+		}
+		return reports;
+	}
+
+	/**
+	 * Returns the least costly trails sorted by length and then by attraction
+	 * name, sorting them again only after the trails have changed. Each trail is
+	 * given a key that packs its length and the name rank of its main attraction,
+	 * and the keys are radix sorted in linear time. Trails that are still equal
+	 * are listed in the reverse order of the least costly trails list, which is
+	 * where the library merge sort put them: it takes the right run first on
+	 * ties. The trails are therefore handed to the stable radix sort backwards.
+	 * 
+	 * @return the least costly trails in report order
+	 */
+	private List<Trail> getSortedTrails() {
+		Lock lock = manager.readLock();
+		lock.lock();
+		try {
+			synchronized (this) {
+				long version = manager.getVersion();
+				if (sortedTrails == null || sortedVersion != version) {
+					PositionalList<Edge<Weighted>> list = manager.getLeastCostlyTrails();
+					AttractionDictionary dictionary = manager.getDictionary();
+					int[] ranks = dictionary.getRanks();
+					Trail[] trails = new Trail[list.size()];
+					long[] keys = new long[trails.length];
+					int i = trails.length - 1;
+					for (Edge<Weighted> e : list) {
+						Vertex<Attraction>[] arr = graph.endVertices(e);
+						int idOne = dictionary.getId(arr[0].getElement());
+						int rankOne = ranks[idOne];
+						int rankTwo = ranks[dictionary.getId(arr[1].getElement())];
+						int length = e.getElement().getWeight();
+						trails[i] = new Trail(arr[0].getElement(), arr[1].getElement(), length, rankOne <= rankTwo, idOne);
+						keys[i] = key(length, rankOne, rankTwo);
+						i--;
+					}
+					sortedTrails = sort(trails, keys);
+					sortedVersion = version;
+				}
+				return sortedTrails;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the report order key of a trail, which packs its length and the
+	 * name rank of its main attraction
+	 * 
+	 * @param length  the length of the trail
+	 * @param rankOne the name rank of the attraction on one end
+	 * @param rankTwo the name rank of the attraction on the other end
+	 * @return the key of the trail
+	 */
+	private static long key(int length, int rankOne, int rankTwo) {
+		return (length ^ (long) Integer.MIN_VALUE) << 32 | Math.min(rankOne, rankTwo);
+	}
+
+	/**
+	 * Radix sorts trails by their report order keys. The sort is stable, so
+	 * trails with equal keys keep their order.
+	 * 
+	 * @param trails the trails
+	 * @param keys   the report order key of each trail
+	 * @return a List of the trails in report order
+	 */
+	private static List<Trail> sort(Trail[] trails, long[] keys) {
+		int[] order = new int[trails.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		DSAFactory.getLongRadixSorter().sort(keys, order, trails.length);
+		List<Trail> tList = DSAFactory.getIndexedList();
+		for (int j = 0; j < trails.length; j++) {
+			tList.addLast(trails[order[j]]);
+		}
+		return tList;
 	}
 
 	/**
@@ -98,28 +360,80 @@ public class TrailReportManager {
 	 *         lengths longer than the minimum trail length threshold
 	 */
 	public String getRestroomLocations(int minTrailLength) {
+		return getReport(Type.RESTROOM_LOCATIONS, 0, minTrailLength);
+	}
+
+	/**
+	 * Writes a report of the attractions that should be considered for restroom
+	 * locations, a few lines at a time through a small bounded buffer. The writer
+	 * is neither flushed nor closed.
+	 * 
+	 * @param minTrailLength the minimum trail length to use as a threshold for
+	 *                       determining restroom locations
+	 * @param out            the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeRestroomLocations(int minTrailLength, Writer out) throws IOException {
+		writeReport(Type.RESTROOM_LOCATIONS, 0, minTrailLength, out);
+	}
+
+	/**
+	 * Writes a report of the restroom locations to a report sink
+	 * 
+	 * @param minTrailLength the minimum trail length to use as a threshold
+	 * @param sink           the sink that receives the report
+	 */
+	private void writeRestroomLocations(int minTrailLength, ReportSink sink) {
 		if (minTrailLength <= 0) {
-			return "Trail length must be > 0 feet.";
+			sink.builder().append("Trail length must be > 0 feet.");
+			sink.finish();
+			return;
 		}
-		Set<Attraction> set = manager.getAttractionsWithLongTrails(minTrailLength);
-		if (set.isEmpty()) {
-			return "No attractions are endpoints of trails longer than " + minTrailLength + " feet.";
+		List<Attraction> aList = manager.getSortedAttractionsWithLongTrails(minTrailLength);
+		if (aList.isEmpty()) {
+			sink.builder().append("No attractions are endpoints of trails longer than ").append(minTrailLength)
+					.append(" feet.");
+			sink.finish();
+			return;
 		}
-		StringBuilder sb = new StringBuilder("Attractions with adjacent trails longer than " + minTrailLength + " feet [\n");
-		Iterator<Attraction> it = set.iterator();
-		Sorter<Attraction> sorter = DSAFactory.getComparisonSorter();
-		List<Attraction> aList = DSAFactory.getIndexedList();
-		while (it.hasNext()) {
-			aList.addLast(it.next());
+		long capacity = 64;
+		for (int i = 0; i < aList.size(); i++) {
+			capacity += aList.get(i).getName().length() + 4;
 		}
-		sorter.sortList(aList);
+		StringBuilder sb = sink.reserve(capacity);
+		sb.append("Attractions with adjacent trails longer than ").append(minTrailLength).append(" feet [\n");
 		for (int i = 0; i < aList.size(); i++) {
 			sb.append("   ");
 			sb.append(aList.get(i).getName());
 			sb.append('\n');
+			sink.endLine();
 		}
 		sb.append(']');
-		return sb.toString();
+		sink.finish();
+	}
+
+	/**
+	 * Returns a report of the restroom locations for each minimum trail length.
+	 * The shortest trail at each attraction is indexed once for all of the
+	 * thresholds, so each report only cuts the index at its threshold. The
+	 * trails cannot change between the reports, so all of them describe the same
+	 * trails.
+	 * 
+	 * @param minTrailLengths the minimum trail lengths to use as thresholds
+	 * @return a List of String reports, one for each threshold in the same order
+	 */
+	public List<String> getRestroomLocations(int[] minTrailLengths) {
+		List<String> reports = DSAFactory.getIndexedList();
+		Lock lock = manager.readLock();
+		lock.lock();
+		try {
+			for (int minTrailLength : minTrailLengths) {
+				reports.addLast(getRestroomLocations(minTrailLength));
+			}
+		} finally {
+			lock.unlock();
+		}
+		return reports;
 	}
 
 	/**
@@ -130,83 +444,840 @@ public class TrailReportManager {
 	 *         trails in the set of least costly trails
 	 */
 	public String getTrailSignLocations() {
-		Map<Attraction, Integer> map = manager.getTrailIntersectionFrequencies();
-		int count = 0;
-		Iterable<Entry<Attraction, Integer>> it = map.entrySet();
-		List<SignLocation> sList = DSAFactory.getIndexedList();
-		for (Entry<Attraction, Integer> entry : it) {
-			int val = entry.getValue();
-			if (val > 2) {
-				count++;
-				sList.addLast(new SignLocation(entry));
-			}	
-		}
-		if (count == 0) {
-			return "No attractions need trail navigation signs.";
-		}
-		Sorter<SignLocation> sorter = DSAFactory.getComparisonSorter();
-		sorter.sortList(sList);
-		StringBuilder sb = new StringBuilder("Attractions that need a trail navigation sign [\n");
-		for (int i = 0; i < sList.size(); i++) {
-			sb.append("   ");
-			sb.append(sList.get(i).toString());
+		return getTrailSignLocations(0);
+	}
+
+	/**
+	 * Returns a report of the attractions with the most connecting trails among
+	 * those that should be considered for trail navigation sign locations
+	 * 
+	 * @param limit the most attractions to list, 0 for all of them
+	 * @return a String report of at most limit attractions that have at least 3
+	 *         connecting trails in the set of least costly trails, or a message
+	 *         if limit is negative
+	 */
+	public String getTrailSignLocations(int limit) {
+		return getReport(Type.TRAIL_SIGNS, 0, limit);
+	}
+
+	/**
+	 * Writes a report of the attractions that should be considered for trail
+	 * navigation sign locations, a few lines at a time through a small bounded
+	 * buffer. The writer is neither flushed nor closed.
+	 * 
+	 * @param out the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeTrailSignLocations(Writer out) throws IOException {
+		writeTrailSignLocations(0, out);
+	}
+
+	/**
+	 * Writes a report of the attractions with the most connecting trails among
+	 * those that should be considered for trail navigation sign locations. The
+	 * writer is neither flushed nor closed.
+	 * 
+	 * @param limit the most attractions to list, 0 for all of them
+	 * @param out   the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeTrailSignLocations(int limit, Writer out) throws IOException {
+		writeReport(Type.TRAIL_SIGNS, 0, limit, out);
+	}
+
+	/**
+	 * Writes a report of the trail sign locations to a report sink. The
+	 * attractions are taken from the trail counts with a primitive filter, and a
+	 * limited report keeps only the best matches in a bounded heap.
+	 * 
+	 * @param limit the most attractions to list, 0 for all of them
+	 * @param sink  the sink that receives the report
+	 */
+	private void writeTrailSignLocations(int limit, ReportSink sink) {
+		if (limit < 0) {
+			sink.builder().append("Number of sign locations must be >= 0.");
+			sink.finish();
+			return;
+		}
+		TrailDegrees degrees = manager.getTrailDegrees();
+		int[] ids = limit > 0 ? degrees.top(limit, 3) : degrees.sorted(3);
+		if (ids.length == 0) {
+			sink.builder().append("No attractions need trail navigation signs.");
+			sink.finish();
+			return;
+		}
+		AttractionDictionary dictionary = manager.getDictionary();
+		long capacity = 64;
+		for (int id : ids) {
+			capacity += dictionary.getAttraction(id).getName().length() + 36;
+		}
+		StringBuilder sb = sink.reserve(capacity);
+		sb.append("Attractions that need a trail navigation sign [\n");
+		for (int id : ids) {
+			sb.append("   ").append(dictionary.getAttraction(id).getName()).append(": ").append(degrees.getDegree(id))
+					.append(" intersecting trails\n");
+			sink.endLine();
 		}
 		sb.append(']');
-		return sb.toString();
+		sink.finish();
 	}
 	
-	/** Private class that represents Attractions with Trail Signs
+	/**
+	 * Returns a report of what losing each of the least costly trails would
+	 * cost: the cheapest other trail that reconnects the network and how much
+	 * more the network would cost with it. Trails without a replacement come
+	 * first, then the trails whose loss costs the most.
+	 * 
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @return a String report of the replacement of each least costly trail
+	 */
+	public String getSensitivityReport(double costPerFoot) {
+		return getReport(Type.SENSITIVITY, costPerFoot, 0);
+	}
+
+	/**
+	 * Writes a report of the replacement of each least costly trail, a few lines
+	 * at a time through a small bounded buffer. The writer is neither flushed nor
+	 * closed.
+	 * 
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @param out         the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeSensitivityReport(double costPerFoot, Writer out) throws IOException {
+		writeReport(Type.SENSITIVITY, costPerFoot, 0, out);
+	}
+
+	/**
+	 * Writes a report of the replacement of each least costly trail to a report
+	 * sink
+	 * 
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @param sink        the sink that receives the report
+	 */
+	private void writeSensitivityReport(double costPerFoot, ReportSink sink) {
+		if (costPerFoot <= 0) {
+			sink.builder().append("Construction cost per linear foot must be > $0.00.");
+			sink.finish();
+			return;
+		}
+		SpanningTreeSensitivity sensitivity = manager.getSpanningTreeSensitivity();
+		AttractionDictionary dictionary = manager.getDictionary();
+		int[] ranks = dictionary.getRanks();
+		int size = sensitivity.size();
+		long[] keys = new long[size];
+		int[] order = new int[size];
+		long capacity = 64;
+		for (int i = 0; i < size; i++) {
+			Vertex<Attraction>[] arr = graph.endVertices(sensitivity.getTreeEdge(i));
+			capacity += arr[0].getElement().getName().length() + arr[1].getElement().getName().length() + 96;
+			Edge<Weighted> replacement = sensitivity.getReplacement(i);
+			if (replacement != null) {
+				Vertex<Attraction>[] ends = graph.endVertices(replacement);
+				capacity += ends[0].getElement().getName().length() + ends[1].getElement().getName().length();
+			}
+			int rank = Math.min(ranks[dictionary.getId(arr[0].getElement())],
+					ranks[dictionary.getId(arr[1].getElement())]);
+			long increase = sensitivity.getIncrease(i);
+			long priority = increase < 0 ? 0 : 1 + Integer.MAX_VALUE - Math.min(increase, Integer.MAX_VALUE);
+			keys[i] = priority << 32 | rank;
+			order[i] = i;
+		}
+		DSAFactory.getLongRadixSorter().sort(keys, order, size);
+		CentsFormatter formatter = new CentsFormatter(costPerFoot);
+		StringBuilder sb = sink.reserve(capacity);
+		sb.append("Trail Sensitivity ($");
+		formatter.appendCostPerFoot(sb);
+		sb.append(" per linear foot) [\n");
+		for (int i = 0; i < size; i++) {
+			int index = order[i];
+			trail(sensitivity.getTreeEdge(index), dictionary, ranks).appendRoute(sb.append("   "));
+			Edge<Weighted> replacement = sensitivity.getReplacement(index);
+			if (replacement == null) {
+				sb.append(" -> no replacement\n");
+			} else {
+				trail(replacement, dictionary, ranks).appendRoute(sb.append(" -> "));
+				long increase = sensitivity.getIncrease(index);
+				sb.append(", ").append(increase).append(" more feet for $");
+				formatter.appendCost(sb, (int) Math.min(increase, Integer.MAX_VALUE));
+				sb.append('\n');
+			}
+			sink.endLine();
+		}
+		sb.append(']');
+		sink.finish();
+	}
+
+	/**
+	 * Returns the Trail of an edge, naming first the attraction that comes first
+	 * by name
+	 * 
+	 * @param edge       the edge of the trail
+	 * @param dictionary the dictionary of the attraction names
+	 * @param ranks      the name rank of each attraction id
+	 * @return the trail
+	 */
+	private Trail trail(Edge<Weighted> edge, AttractionDictionary dictionary, int[] ranks) {
+		Vertex<Attraction>[] arr = graph.endVertices(edge);
+		int idOne = dictionary.getId(arr[0].getElement());
+		boolean oneFirst = ranks[idOne] <= ranks[dictionary.getId(arr[1].getElement())];
+		return new Trail(arr[0].getElement(), arr[1].getElement(), edge.getElement().getWeight(), oneFirst, idOne);
+	}
+
+	/**
+	 * Returns a report of the least costly trails with a section for each
+	 * separate trail system of the network. Each section lists the least costly
+	 * trails of its system with their subtotal, and the header gives the total
+	 * of every system.
+	 * 
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @return a String report of the least costly trails of each trail system
+	 */
+	public String getLeastCostlyTrailsReportBySystem(double costPerFoot) {
+		return getReport(Type.LEAST_COSTLY_TRAILS_BY_SYSTEM, costPerFoot, 0);
+	}
+
+	/**
+	 * Writes a report of the least costly trails with a section for each trail
+	 * system. The writer is neither flushed nor closed.
+	 * 
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @param out         the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeLeastCostlyTrailsReportBySystem(double costPerFoot, Writer out) throws IOException {
+		writeReport(Type.LEAST_COSTLY_TRAILS_BY_SYSTEM, costPerFoot, 0, out);
+	}
+
+	/**
+	 * Returns a report of the restroom locations with a section for each trail
+	 * system that has any. Each section gives how many of the system's
+	 * attractions it lists.
+	 * 
+	 * @param minTrailLength the minimum trail length to use as a threshold for
+	 *                       determining restroom locations
+	 * @return a String report of the restroom locations of each trail system
+	 */
+	public String getRestroomLocationsBySystem(int minTrailLength) {
+		return getReport(Type.RESTROOM_LOCATIONS_BY_SYSTEM, 0, minTrailLength);
+	}
+
+	/**
+	 * Writes a report of the restroom locations with a section for each trail
+	 * system. The writer is neither flushed nor closed.
+	 * 
+	 * @param minTrailLength the minimum trail length to use as a threshold for
+	 *                       determining restroom locations
+	 * @param out            the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeRestroomLocationsBySystem(int minTrailLength, Writer out) throws IOException {
+		writeReport(Type.RESTROOM_LOCATIONS_BY_SYSTEM, 0, minTrailLength, out);
+	}
+
+	/**
+	 * Returns a report of the trail sign locations with a section for each trail
+	 * system that has any. Each section gives how many of the system's
+	 * attractions it lists.
+	 * 
+	 * @return a String report of the trail sign locations of each trail system
+	 */
+	public String getTrailSignLocationsBySystem() {
+		return getReport(Type.TRAIL_SIGNS_BY_SYSTEM, 0, 0);
+	}
+
+	/**
+	 * Writes a report of the trail sign locations with a section for each trail
+	 * system. The writer is neither flushed nor closed.
+	 * 
+	 * @param out the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeTrailSignLocationsBySystem(Writer out) throws IOException {
+		writeReport(Type.TRAIL_SIGNS_BY_SYSTEM, 0, 0, out);
+	}
+
+	/**
+	 * Writes a report of the least costly trails of each trail system to a
+	 * report sink. The trails keep the order of the least costly trails report
+	 * and are grouped by system with a stable counting sort.
+	 * 
+	 * @param costPerFoot the cost (in USD $) per foot of trail construction
+	 * @param sink        the sink that receives the report
+	 */
+	private void writeLeastCostlyTrailsBySystem(double costPerFoot, ReportSink sink) {
+		if (costPerFoot <= 0) {
+			sink.builder().append("Construction cost per linear foot must be > $0.00.");
+			sink.finish();
+			return;
+		}
+		final List<Trail> tList = getSortedTrails();
+		final TrailSystems systems = manager.getTrailSystems();
+		int count = systems.getCount();
+		int size = tList.size();
+		final int[] offsets = new int[count + 1];
+		int[] systemOf = new int[size];
+		double total = 0;
+		long totalLength = 0;
+		long capacity = 80 + 64L * count;
+		for (int i = 0; i < size; i++) {
+			Trail t = tList.get(i);
+			systemOf[i] = systems.getSystem(t.getId());
+			offsets[systemOf[i] + 1]++;
+			total += t.getCost(costPerFoot);
+			totalLength += t.getLength();
+			capacity += t.getReportLength() + 3;
+		}
+		for (int s = 0; s < count; s++) {
+			offsets[s + 1] += offsets[s];
+		}
+		final int[] order = new int[size];
+		int[] fill = Arrays.copyOf(offsets, count);
+		for (int i = 0; i < size; i++) {
+			order[fill[systemOf[i]]++] = i;
+		}
+		final CentsFormatter formatter = new CentsFormatter(costPerFoot);
+		StringBuilder sb = sink.reserve(capacity);
+		sb.append("Minimum Trails for $");
+		formatter.appendTotal(sb, totalLength, total, size);
+		sb.append(" ($");
+		formatter.appendCostPerFoot(sb);
+		sb.append(" per linear foot) in ").append(count).append(count == 1 ? " trail system [\n" : " trail systems [\n");
+		writeSections(count, new Section() {
+			@Override
+			public void append(int system, StringBuilder sb, ReportSink sink) {
+				double subtotal = 0;
+				long length = 0;
+				for (int j = offsets[system]; j < offsets[system + 1]; j++) {
+					Trail t = tList.get(order[j]);
+					subtotal += t.getCost(costPerFoot);
+					length += t.getLength();
+				}
+				appendSystem(sb, systems, system);
+				sb.append(" for $");
+				formatter.appendTotal(sb, length, subtotal, offsets[system + 1] - offsets[system]);
+				sb.append(" [\n");
+				endLine(sink);
+				for (int j = offsets[system]; j < offsets[system + 1]; j++) {
+					sb.append("   ");
+					tList.get(order[j]).appendTo(sb, formatter);
+					endLine(sink);
+				}
+				sb.append("   ]\n");
+				endLine(sink);
+			}
+		}, sink);
+		sink.builder().append(']');
+		sink.finish();
+	}
+
+	/**
+	 * Writes a report of the restroom locations of each trail system to a report
+	 * sink
+	 * 
+	 * @param minTrailLength the minimum trail length to use as a threshold for
+	 *                       determining restroom locations
+	 * @param sink           the sink that receives the report
+	 */
+	private void writeRestroomLocationsBySystem(int minTrailLength, ReportSink sink) {
+		if (minTrailLength <= 0) {
+			sink.builder().append("Trail length must be > 0 feet.");
+			sink.finish();
+			return;
+		}
+		final TrailSystems systems = manager.getTrailSystems();
+		int count = systems.getCount();
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		final List<Attraction>[] lists = new List[count];
+		final int[] matching = new int[count];
+		int sections = 0;
+		long capacity = 80;
+		for (int s = 0; s < count; s++) {
+			List<Attraction> aList = systems.getSortedAttractionsLongerThan(s, minTrailLength);
+			if (!aList.isEmpty()) {
+				lists[sections] = aList;
+				matching[sections++] = s;
+				capacity += 64 + systems.getFirstAttraction(s).getName().length();
+				for (int i = 0; i < aList.size(); i++) {
+					capacity += aList.get(i).getName().length() + 7;
+				}
+			}
+		}
+		if (sections == 0) {
+			sink.builder().append("No attractions are endpoints of trails longer than ").append(minTrailLength)
+					.append(" feet.");
+			sink.finish();
+			return;
+		}
+		StringBuilder sb = sink.reserve(capacity);
+		sb.append("Attractions with adjacent trails longer than ").append(minTrailLength).append(" feet in ")
+				.append(sections).append(sections == 1 ? " trail system [\n" : " trail systems [\n");
+		writeSections(sections, new Section() {
+			@Override
+			public void append(int section, StringBuilder sb, ReportSink sink) {
+				List<Attraction> aList = lists[section];
+				appendSystem(sb, systems, matching[section], aList.size());
+				sb.append(" [\n");
+				endLine(sink);
+				for (int i = 0; i < aList.size(); i++) {
+					sb.append("      ").append(aList.get(i).getName()).append('\n');
+					endLine(sink);
+				}
+				sb.append("   ]\n");
+				endLine(sink);
+			}
+		}, sink);
+		sink.builder().append(']');
+		sink.finish();
+	}
+
+	/**
+	 * Writes a report of the trail sign locations of each trail system to a
+	 * report sink
+	 * 
+	 * @param sink the sink that receives the report
+	 */
+	private void writeTrailSignLocationsBySystem(ReportSink sink) {
+		final TrailSystems systems = manager.getTrailSystems();
+		int count = systems.getCount();
+		final int[] matching = new int[count];
+		int sections = 0;
+		long capacity = 80;
+		for (int s = 0; s < count; s++) {
+			if (systems.getSignCount(s) > 0) {
+				matching[sections++] = s;
+				capacity += 64 + systems.getFirstAttraction(s).getName().length();
+				for (int i = 0; i < systems.getSignCount(s); i++) {
+					capacity += systems.getSignAttraction(s, i).getName().length() + 40;
+				}
+			}
+		}
+		if (sections == 0) {
+			sink.builder().append("No attractions need trail navigation signs.");
+			sink.finish();
+			return;
+		}
+		StringBuilder sb = sink.reserve(capacity);
+		sb.append("Attractions that need a trail navigation sign in ").append(sections)
+				.append(sections == 1 ? " trail system [\n" : " trail systems [\n");
+		writeSections(sections, new Section() {
+			@Override
+			public void append(int section, StringBuilder sb, ReportSink sink) {
+				int system = matching[section];
+				int signs = systems.getSignCount(system);
+				appendSystem(sb, systems, system, signs);
+				sb.append(" [\n");
+				endLine(sink);
+				for (int i = 0; i < signs; i++) {
+					sb.append("      ").append(systems.getSignAttraction(system, i).getName()).append(": ")
+							.append(systems.getSignDegree(system, i)).append(" intersecting trails\n");
+					endLine(sink);
+				}
+				sb.append("   ]\n");
+				endLine(sink);
+			}
+		}, sink);
+		sink.builder().append(']');
+		sink.finish();
+	}
+
+	/**
+	 * Appends the sections of a report in order. A report for a Writer is built
+	 * one section at a time in the sink's bounded buffer. A String report with
+	 * several sections renders ranges of them into separate builders in parallel
+	 * on the common fork-join pool, then joins them in order.
+	 * 
+	 * @param count   the number of sections
+	 * @param section renders one section
+	 * @param sink    the sink that receives the report
+	 */
+	private static void writeSections(int count, Section section, ReportSink sink) {
+		if (sink.isStreaming() || count < 2 || ForkJoinPool.getCommonPoolParallelism() < 2) {
+			for (int s = 0; s < count; s++) {
+				section.append(s, sink.builder(), sink);
+			}
+			return;
+		}
+		StringBuilder[] parts = new StringBuilder[count];
+		int grain = Math.max(1, count / (4 * ForkJoinPool.getCommonPoolParallelism()));
+		ForkJoinPool.commonPool().invoke(new SectionTask(section, parts, 0, count, grain));
+		StringBuilder sb = sink.builder();
+		for (StringBuilder part : parts) {
+			if (part != null) {
+				sb.append(part);
+			}
+		}
+	}
+
+	/**
+	 * Appends the heading of a trail system section, naming the system after its
+	 * first attraction
+	 * 
+	 * @param sb      the report being written
+	 * @param systems the trail systems of the network
+	 * @param system  the number of the system
+	 */
+	private static void appendSystem(StringBuilder sb, TrailSystems systems, int system) {
+		int size = systems.getSize(system);
+		sb.append("   Trail system of ").append(systems.getFirstAttraction(system).getName()).append(" (")
+				.append(size).append(size == 1 ? " attraction)" : " attractions)");
+	}
+
+	/**
+	 * Appends the heading of a trail system section that lists some of the
+	 * system's attractions
+	 * 
+	 * @param sb      the report being written
+	 * @param systems the trail systems of the network
+	 * @param system  the number of the system
+	 * @param listed  the number of attractions the section lists
+	 */
+	private static void appendSystem(StringBuilder sb, TrailSystems systems, int system, int listed) {
+		int size = systems.getSize(system);
+		sb.append("   Trail system of ").append(systems.getFirstAttraction(system).getName()).append(" (")
+				.append(listed).append(" of ").append(size).append(size == 1 ? " attraction)" : " attractions)");
+	}
+
+	/**
+	 * Passes a finished line on to the sink's writer if the sink streams
+	 * 
+	 * @param sink the sink of the report, or null if the section is rendered on
+	 *             its own
+	 */
+	private static void endLine(ReportSink sink) {
+		if (sink != null) {
+			sink.endLine();
+		}
+	}
+
+	/**
+	 * Renders one section of a report that has a section for each trail system
+	 * 
+	 * @author Sumit Biswas
+	 *
+	 */
+	private interface Section {
+
+		/**
+		 * Appends a section
+		 * 
+		 * @param section the number of the section
+		 * @param sb      the builder to append to
+		 * @param sink    the sink whose builder is sb, or null if the section is
+		 *                rendered into a builder of its own
+		 */
+		void append(int section, StringBuilder sb, ReportSink sink);
+	}
+
+	/**
+	 * Task that renders a range of sections, splitting it in half until it is
+	 * small enough
 	 * 
 	 * @author Sumit Biswas
 	 *
 	 */
-	private class SignLocation implements Comparable<SignLocation> {
+	private static class SectionTask extends RecursiveAction {
+
+		/** Serial version */
+		private static final long serialVersionUID = 1L;
+
+		/** Renders one section */
+		private final Section section;
+		/** Builder of each range, stored at the range's first section */
+		private final StringBuilder[] parts;
+		/** First section of the range */
+		private final int from;
+		/** One past the last section of the range */
+		private final int to;
+		/** Number of sections rendered without splitting */
+		private final int grain;
+
+		/**
+		 * Creates a task over a range of sections
+		 * 
+		 * @param section renders one section
+		 * @param parts   receives the builder of each range
+		 * @param from    the first section of the range
+		 * @param to      one past the last section of the range
+		 * @param grain   the number of sections rendered without splitting
+		 */
+		SectionTask(Section section, StringBuilder[] parts, int from, int to, int grain) {
+			this.section = section;
+			this.parts = parts;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grain) {
+				StringBuilder sb = new StringBuilder();
+				for (int s = from; s < to; s++) {
+					section.append(s, sb, null);
+				}
+				parts[from] = sb;
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new SectionTask(section, parts, from, middle, grain),
+						new SectionTask(section, parts, middle, to, grain));
+			}
+		}
+	}
+
+	/**
+	 * Returns a String report from the cache, rendering and caching it if it is
+	 * not cached for the current version of the trails. The trails cannot change
+	 * while the report is rendered.
+	 * 
+	 * @param type           the kind of report
+	 * @param costPerFoot    the cost per foot of a least costly trails report
+	 * @param minTrailLength the minimum trail length of a restroom locations
+	 *                       report, or the most attractions listed in a trail
+	 *                       sign locations report
+	 * @return the report
+	 */
+	private String getReport(Type type, double costPerFoot, int minTrailLength) {
+		long parameter = parameter(type, costPerFoot, minTrailLength);
+		Lock lock = manager.readLock();
+		lock.lock();
+		try {
+			long version = manager.getVersion();
+			String report = reportCache.get(type, parameter, version);
+			if (report == null) {
+				ReportSink sink = new ReportSink(metric(type));
+				render(type, costPerFoot, minTrailLength, sink);
+				report = sink.toString();
+				reportCache.put(type, parameter, version, report);
+			}
+			return report;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes a report from the cache, or renders it to the writer if it is not
+	 * cached for the current version of the trails. The trails cannot change
+	 * while the report is rendered.
+	 * 
+	 * @param type           the kind of report
+	 * @param costPerFoot    the cost per foot of a least costly trails report
+	 * @param minTrailLength the minimum trail length of a restroom locations
+	 *                       report, or the most attractions listed in a trail
+	 *                       sign locations report
+	 * @param out            the writer that receives the report
+	 * @throws IOException if the report cannot be written
+	 */
+	private void writeReport(Type type, double costPerFoot, int minTrailLength, Writer out) throws IOException {
+		Lock lock = manager.readLock();
+		lock.lock();
+		try {
+			String cached = reportCache.get(type, parameter(type, costPerFoot, minTrailLength), manager.getVersion());
+			if (cached != null) {
+				out.write(cached);
+				return;
+			}
+			render(type, costPerFoot, minTrailLength, new ReportSink(metric(type), out));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the parameter a report is cached under
+	 * 
+	 * @param type           the kind of report
+	 * @param costPerFoot    the cost per foot of a least costly trails report
+	 * @param minTrailLength the minimum trail length or limit of other reports
+	 * @return the cache parameter
+	 */
+	private static long parameter(Type type, double costPerFoot, int minTrailLength) {
+		if (type == Type.LEAST_COSTLY_TRAILS || type == Type.SENSITIVITY
+				|| type == Type.LEAST_COSTLY_TRAILS_BY_SYSTEM) {
+			return Double.doubleToLongBits(costPerFoot);
+		}
+		return minTrailLength;
+	}
+
+	/**
+	 * Returns the timer that records how long a kind of report takes to render
+	 * 
+	 * @param type the kind of report
+	 * @return the timer of the report
+	 */
+	private static TrailMetric metric(Type type) {
+		switch (type) {
+		case LEAST_COSTLY_TRAILS:
+		case LEAST_COSTLY_TRAILS_BY_SYSTEM:
+			return TrailMetric.REPORT_LEAST_COSTLY_TRAILS;
+		case SENSITIVITY:
+			return TrailMetric.REPORT_SENSITIVITY;
+		case RESTROOM_LOCATIONS:
+		case RESTROOM_LOCATIONS_BY_SYSTEM:
+			return TrailMetric.REPORT_RESTROOM_LOCATIONS;
+		default:
+			return TrailMetric.REPORT_TRAIL_SIGNS;
+		}
+	}
+
+	/**
+	 * Renders a report to a sink
+	 * 
+	 * @param type           the kind of report
+	 * @param costPerFoot    the cost per foot of a least costly trails report
+	 * @param minTrailLength the minimum trail length or limit of other reports
+	 * @param sink           the sink that receives the report
+	 */
+	private void render(Type type, double costPerFoot, int minTrailLength, ReportSink sink) {
+		switch (type) {
+		case LEAST_COSTLY_TRAILS:
+			writeLeastCostlyTrailsReport(costPerFoot, sink);
+			break;
+		case SENSITIVITY:
+			writeSensitivityReport(costPerFoot, sink);
+			break;
+		case RESTROOM_LOCATIONS:
+			writeRestroomLocations(minTrailLength, sink);
+			break;
+		case LEAST_COSTLY_TRAILS_BY_SYSTEM:
+			writeLeastCostlyTrailsBySystem(costPerFoot, sink);
+			break;
+		case RESTROOM_LOCATIONS_BY_SYSTEM:
+			writeRestroomLocationsBySystem(minTrailLength, sink);
+			break;
+		case TRAIL_SIGNS_BY_SYSTEM:
+			writeTrailSignLocationsBySystem(sink);
+			break;
+		default:
+			writeTrailSignLocations(minTrailLength, sink);
+		}
+	}
+
+	/**
+	 * Destination of a report, which is either a String or a Writer. A String
+	 * report is built in one builder sized for the whole report. A report for a
+	 * Writer is built in a small builder that is passed on to the writer each
+	 * time it fills up, so only a bounded part of the report is held at once.
+	 * The time from creating the sink to finishing it is recorded as the
+	 * report's timer, and the characters produced as OUTPUT_CHARACTERS.
+	 * 
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class ReportSink {
+		
+		/** Number of characters buffered before they are passed to the writer */
+		private static final int CHUNK_SIZE = 8192;
 		
-		/** Name of the attraction */
-		private String name;
-		/** Number of intersecting trails at the location */
-		private int numTrails;
+		/** Builder of the report, or of its unwritten part */
+		private StringBuilder sb;
+		/** Writer that receives the report, or null for a String report */
+		private final Writer out;
+		/** Buffer that passes characters from the builder to the writer */
+		private final char[] chunk;
+		/** Timer that records how long the report took */
+		private final TrailMetric metric;
+		/** Start time of the report, from TrailMetrics.start */
+		private final long started;
+		/** Number of characters already passed to the writer */
+		private long written;
 		
-		/** Constructor for SignLocation
+		/** Creates a sink that builds a String report
 		 * 
-		 * @param entry is the MapEntry containing the Attraction
-		 * and the number of intersecting trails at that Attraction
+		 * @param metric is the timer that records how long the report takes
 		 */
-		public SignLocation(Entry<Attraction, Integer> entry) {
-			this.name = entry.getKey().getName();
-			this.numTrails = entry.getValue();
+		public ReportSink(TrailMetric metric) {
+			this.sb = new StringBuilder();
+			this.out = null;
+			this.chunk = null;
+			this.metric = metric;
+			this.started = TrailMetrics.start();
 		}
 		
-		/** Returns the number of intersecting trails at this location
+		/** Creates a sink that writes the report to a writer
 		 * 
-		 * @return returns the number of intersecting trails at this location
+		 * @param metric is the timer that records how long the report takes
+		 * @param out    is the writer that receives the report
 		 */
-		public int getNumTrails() {
-			return this.numTrails;
+		public ReportSink(TrailMetric metric, Writer out) {
+			this.sb = new StringBuilder(CHUNK_SIZE + 1024);
+			this.out = out;
+			this.chunk = new char[CHUNK_SIZE + 1024];
+			this.metric = metric;
+			this.started = TrailMetrics.start();
 		}
 		
-		/** Returns the name of the attraction at this location
+		/** Returns the builder that report text is appended to
 		 * 
-		 * @return returns the name of the attraction at this location
+		 * @return the builder of the report
 		 */
-		public String getName() {
-			return this.name;
+		public StringBuilder builder() {
+			return sb;
 		}
 		
-		@Override
-		public int compareTo(SignLocation other) {
-			if (other.getNumTrails() > this.numTrails) {
-				return 1;
-			} else if (other.getNumTrails() < this.numTrails) {
-				return -1;
-			} else {
-				return this.name.compareTo(other.getName());
+		/** Returns whether the report is passed on to a writer as it is built
+		 * 
+		 * @return true if the sink writes to a Writer
+		 */
+		public boolean isStreaming() {
+			return out != null;
+		}
+		
+		/** Returns the builder after sizing it for a String report of the given
+		 * length, so the report is built without growing the builder
+		 * 
+		 * @param capacity is the estimated length of the report
+		 * @return the builder of the report
+		 */
+		public StringBuilder reserve(long capacity) {
+			if (out == null) {
+				sb.ensureCapacity((int) Math.min(capacity, Integer.MAX_VALUE - 8));
+			}
+			return sb;
+		}
+		
+		/** Passes the buffered lines to the writer once enough of them are buffered */
+		public void endLine() {
+			if (out != null && sb.length() >= CHUNK_SIZE) {
+				drain();
+			}
+		}
+		
+		/** Passes the rest of the report to the writer and records its metrics */
+		public void finish() {
+			long length = written + sb.length();
+			if (out != null) {
+				drain();
+			}
+			TrailMetrics.stop(metric, started);
+			TrailMetrics.count(TrailMetric.OUTPUT_CHARACTERS, length);
+		}
+		
+		/** Writes the buffered characters and empties the builder. A failed write is
+		 * rethrown unchecked and unwrapped again by the public write methods.
+		 */
+		private void drain() {
+			int start = 0;
+			try {
+				while (start < sb.length()) {
+					int end = Math.min(sb.length(), start + chunk.length);
+					sb.getChars(start, end, chunk, 0);
+					out.write(chunk, 0, end - start);
+					start = end;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
 			}
+			written += sb.length();
+			sb.setLength(0);
 		}
 		
 		@Override
 		public String toString() {
-			return this.name + ": " + this.numTrails + " intersecting trails\n";
+			return sb.toString();
 		}
 	}
 	
@@ -215,7 +1286,7 @@ public class TrailReportManager {
 	 * @author Sumit Biswas
 	 *
 	 */
-	private class Trail implements Comparable<Trail> {
+	private static class Trail {
 		
 		/** Name of the attraction on one end of the Trail */
 		private String attractionOne;
@@ -223,32 +1294,37 @@ public class TrailReportManager {
 		private String attractionTwo;
 		/** Length of the trail in feet*/
 		private int trailLength;
-		/** Cost per foot for the construction of the trail */
-		private double costPerFoot;
 		/** Integer that keeps track of the main attraction */
 		private int main;
+		/** Dictionary id of the attraction on one end of the Trail */
+		private int id;
 		
-		public Trail(Attraction one, Attraction two, int trailLength, double costPerFoot) {
+		/** Constructor for Trail
+		 * 
+		 * @param one is the attraction on one end of the trail
+		 * @param two is the attraction on the other end of the trail
+		 * @param trailLength is the length of the trail in feet
+		 * @param oneFirst is true if the first attraction comes earlier by name
+		 * @param id is the dictionary id of the attraction on one end
+		 */
+		public Trail(Attraction one, Attraction two, int trailLength, boolean oneFirst, int id) {
+			this.id = id;
 			this.attractionOne = one.getName();
 			this.attractionTwo = two.getName();
 			this.trailLength = trailLength;
-			this.costPerFoot = costPerFoot;
-			if (attractionOne.compareTo(attractionTwo) < 1) {
+			if (oneFirst) {
 				main = 1;
 			} else {
 				main = 2;
 			}
 		}
 		
-		/** Returns the name of the attraction which would come earlier if sorted alphabetically
+		/** Returns the dictionary id of the attraction on one end of the trail
 		 * 
-		 * @return returns the name of the attraction
+		 * @return returns the id of an attraction of the trail
 		 */
-		public String getMainAttraction() {
-			if (attractionOne.compareTo(attractionTwo) < 1) {
-				return attractionOne;
-			}
-			return attractionTwo;
+		public int getId() {
+			return this.id;
 		}
 		
 		/** Returns the length of the trail
@@ -261,27 +1337,53 @@ public class TrailReportManager {
 		
 		/** Returns the cost for constructing this trail
 		 * 
+		 * @param costPerFoot is the cost per foot for the construction of the trail
 		 * @return returns the cost for constructing this trail
 		 */
-		public double getCost() {
-			return this.costPerFoot * this.trailLength;
+		public double getCost(double costPerFoot) {
+			return costPerFoot * this.trailLength;
 		}
 		
-		@Override
-		public int compareTo(Trail o) {
-			if (o.getLength() < this.trailLength) {
-				return 1;
-			} else if (o.getLength() > this.trailLength) {
-				return -1;
-			} else {
-				return getMainAttraction().compareTo(o.getMainAttraction());
-			}
+		/** Returns an upper estimate of the length of the report line of this trail
+		 * 
+		 * @return returns the estimated length of the report line
+		 */
+		public int getReportLength() {
+			return attractionOne.length() + attractionTwo.length() + 64;
 		}
 		
-		@Override
-		public String toString() {
-			String c = String.format("%.2f", this.trailLength * this.costPerFoot);
-			StringBuilder tS = new StringBuilder("   from ");
+		/** Appends the report line of this trail
+		 * 
+		 * @param tS is the report being written
+		 * @param formatter formats the cost of the trail
+		 */
+		public void appendTo(StringBuilder tS, CentsFormatter formatter) {
+			tS.append("   ");
+			appendNames(tS);
+			tS.append(" (");
+			tS.append(this.trailLength);
+			tS.append(" feet for $");
+			formatter.appendCost(tS, this.trailLength);
+			tS.append(")\n");
+		}
+
+		/** Appends the attractions and length of this trail
+		 * 
+		 * @param tS is the report being written
+		 */
+		public void appendRoute(StringBuilder tS) {
+			appendNames(tS);
+			tS.append(" (");
+			tS.append(this.trailLength);
+			tS.append(" feet)");
+		}
+
+		/** Appends the attractions of this trail, main attraction first
+		 * 
+		 * @param tS is the report being written
+		 */
+		private void appendNames(StringBuilder tS) {
+			tS.append("from ");
 			if (main == 1) {
 				tS.append(attractionOne);
 			} else {
@@ -293,12 +1395,6 @@ public class TrailReportManager {
 			} else {
 				tS.append(attractionOne);
 			}
-			tS.append(" (");
-			tS.append(this.trailLength);
-			tS.append(" feet for $");
-			tS.append(c);
-			tS.append(")\n");
-			return tS.toString();
 		}
 	}
 }
\ No newline at end of file
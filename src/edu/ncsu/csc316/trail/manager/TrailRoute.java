@@ -0,0 +1,67 @@
+package edu.ncsu.csc316.trail.manager;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.trail.data.Attraction;
+
+/**
+ * A shortest route along the trails between two attractions: the attractions
+ * passed in order, from the start to the end, and the total length.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailRoute {
+
+	/** Attractions along the route, from the start to the end */
+	private final List<Attraction> attractions;
+	/** Total length of the route in feet */
+	private final long length;
+
+	/**
+	 * Creates a TrailRoute
+	 *
+	 * @param attractions is the attractions along the route, from the start to
+	 *                    the end
+	 * @param length      is the total length of the route in feet
+	 */
+	public TrailRoute(List<Attraction> attractions, long length) {
+		this.attractions = attractions;
+		this.length = length;
+	}
+
+	/**
+	 * Returns the attractions along the route
+	 *
+	 * @return the attractions from the start to the end
+	 */
+	public List<Attraction> getAttractions() {
+		return attractions;
+	}
+
+	/**
+	 * Returns the total length of the route
+	 *
+	 * @return the length in feet
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the route as its attraction names joined by arrows, followed by
+	 * its length
+	 *
+	 * @return a description of the route
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < attractions.size(); i++) {
+			if (i > 0) {
+				sb.append(" -> ");
+			}
+			sb.append(attractions.get(i).getName());
+		}
+		return sb.append(" (").append(length).append(" feet)").toString();
+	}
+}
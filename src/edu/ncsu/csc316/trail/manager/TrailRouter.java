@@ -0,0 +1,113 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+import edu.ncsu.csc316.trail.factory.ShortestPathEngine;
+
+/**
+ * Answers shortest route queries between attractions, built once per graph.
+ * Attraction names are resolved through the network's AttractionDictionary to
+ * the vertex ids of a ShortestPathEngine, so a route length query allocates
+ * nothing. The router is immutable and may be queried from several threads at
+ * once.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailRouter {
+
+	/** Trail graph the routes follow */
+	private final Graph<Attraction, Weighted> graph;
+	/** Engine that searches the trail graph */
+	private final ShortestPathEngine<Attraction> engine;
+	/** Dictionary of the attraction names */
+	private final AttractionDictionary dictionary;
+	/** Engine vertex id of each dictionary id, or -1 if not in the graph */
+	private final int[] vertexIds;
+
+	/**
+	 * Builds the router for a graph
+	 *
+	 * @param graph      is the trail graph
+	 * @param dictionary is the dictionary that holds every attraction of the graph
+	 * @param landmarks  is the number of landmark distance tables to precompute
+	 *                   for goal-directed search, 0 for none
+	 */
+	public TrailRouter(Graph<Attraction, Weighted> graph, AttractionDictionary dictionary, int landmarks) {
+		this.graph = graph;
+		this.engine = DSAFactory.getShortestPathEngine(graph, landmarks);
+		this.dictionary = dictionary;
+		vertexIds = new int[dictionary.size()];
+		Arrays.fill(vertexIds, -1);
+		for (Vertex<Attraction> v : graph.vertices()) {
+			vertexIds[dictionary.getId(v.getElement())] = engine.id(v);
+		}
+	}
+
+	/**
+	 * Returns the length of a shortest route between two attractions
+	 *
+	 * @param from is the name of the start attraction
+	 * @param to   is the name of the end attraction
+	 * @return the length in feet, or -1 if the attractions are not connected
+	 * @throws IllegalArgumentException if an attraction is not in the network
+	 */
+	public long getRouteLength(String from, String to) {
+		return engine.distance(vertexId(from), vertexId(to));
+	}
+
+	/**
+	 * Returns a shortest route between two attractions
+	 *
+	 * @param from is the name of the start attraction
+	 * @param to   is the name of the end attraction
+	 * @return the route, or null if the attractions are not connected
+	 * @throws IllegalArgumentException if an attraction is not in the network
+	 */
+	public TrailRoute getRoute(String from, String to) {
+		int[] path = engine.path(vertexId(from), vertexId(to));
+		if (path == null) {
+			return null;
+		}
+		List<Attraction> attractions = DSAFactory.getIndexedList();
+		long length = 0;
+		for (int i = 0; i < path.length; i++) {
+			Vertex<Attraction> v = engine.vertex(path[i]);
+			attractions.addLast(v.getElement());
+			if (i > 0) {
+				length += graph.getEdge(engine.vertex(path[i - 1]), v).getElement().getWeight();
+			}
+		}
+		return new TrailRoute(attractions, length);
+	}
+
+	/**
+	 * Returns the number of landmark distance tables
+	 *
+	 * @return the number of landmarks
+	 */
+	public int getLandmarkCount() {
+		return engine.getLandmarkCount();
+	}
+
+	/**
+	 * Returns the engine vertex id of an attraction
+	 *
+	 * @param name is the name of the attraction
+	 * @return the vertex id
+	 * @throws IllegalArgumentException if the attraction is not in the network
+	 */
+	private int vertexId(String name) {
+		int id = dictionary.getId(name);
+		if (id < 0 || id >= vertexIds.length || vertexIds[id] < 0) {
+			throw new IllegalArgumentException("Unknown attraction " + name + ".");
+		}
+		return vertexIds[id];
+	}
+}
@@ -0,0 +1,482 @@
+package edu.ncsu.csc316.trail.manager;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+import edu.ncsu.csc316.trail.factory.EdgeEndpoints;
+
+/**
+ * The separate trail systems of a network: its connected components, found
+ * with a union-find over the attractions' dictionary ids in int arrays.
+ * Systems are numbered in the name order of their first attraction, so
+ * reports list them in a stable order.
+ *
+ * <p>
+ * The endpoints and lengths of the trails are resolved by vertex id in
+ * parallel ranges of trails on a fork-join pool, without looking up names.
+ * The union-find pass over the resolved arrays and the numbering of the
+ * systems are sequential and take nearly linear time. The restroom and sign
+ * candidates of each system are then packed into keys and sorted by one task
+ * per range of systems, so networks made of many systems are analyzed on every
+ * core. The least costly trails are not computed per system: the minimum
+ * spanning forest of the whole network, which is computed in parallel on
+ * large graphs, is exactly the union of the per-system trees, and the reports
+ * split it by system. The systems are immutable and may be read from several
+ * threads at once.
+ * </p>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class TrailSystems {
+
+	/** Default number of trails or keys below which the work runs on one thread */
+	public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 14;
+
+	/** System of each attraction id, or -1 if the attraction is not in the graph */
+	private final int[] systemOf;
+	/** Number of attractions in each system */
+	private final int[] sizes;
+	/** First attraction by name of each system */
+	private final Attraction[] firstAttractions;
+	/** Attractions of the dictionary in name order, indexed by name rank */
+	private final Attraction[] byName;
+	/** Keys of system s are at [restroomOffsets[s], restroomOffsets[s + 1]) */
+	private final int[] restroomOffsets;
+	/** Shortest trail length and name rank of each attraction, sorted within each system */
+	private final long[] restroomKeys;
+	/** Keys of system s are at [signOffsets[s], signOffsets[s + 1]) */
+	private final int[] signOffsets;
+	/** Inverted trail count and name rank of each sign location, sorted within each system */
+	private final long[] signKeys;
+
+	/**
+	 * Finds the trail systems of a graph on the common fork-join pool
+	 *
+	 * @param graph      is the trail graph
+	 * @param degrees    is the number of least costly trails at each attraction
+	 * @param dictionary is the dictionary that holds every attraction of the graph
+	 */
+	public TrailSystems(Graph<Attraction, Weighted> graph, TrailDegrees degrees, AttractionDictionary dictionary) {
+		this(graph, degrees, dictionary, ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+	}
+
+	/**
+	 * Finds the trail systems of a graph on the given pool
+	 *
+	 * @param graph      is the trail graph
+	 * @param degrees    is the number of least costly trails at each attraction
+	 * @param dictionary is the dictionary that holds every attraction of the graph
+	 * @param pool       is the pool the trails are resolved and the systems
+	 *                   analyzed on
+	 * @param threshold  is the number of trails or keys below which the work
+	 *                   runs on the calling thread
+	 */
+	@SuppressWarnings("unchecked")
+	public TrailSystems(Graph<Attraction, Weighted> graph, TrailDegrees degrees, AttractionDictionary dictionary,
+			ForkJoinPool pool, int threshold) {
+		int n = dictionary.size();
+		int[] ranks = dictionary.getRanks();
+		byName = dictionary.getAttractionsByName();
+		threshold = Math.max(threshold, 1);
+
+		// Resolve the endpoints and lengths of the trails by vertex id
+		EdgeEndpoints<Attraction> endpoints = DSAFactory.getEdgeEndpoints(graph);
+		int[] ids = dictionary.getIds(endpoints);
+		Edge<Weighted>[] edges = (Edge<Weighted>[]) new Edge<?>[graph.numEdges()];
+		int m = 0;
+		for (Edge<Weighted> e : graph.edges()) {
+			edges[m++] = e;
+		}
+		int[] one = new int[m];
+		int[] two = new int[m];
+		int[] length = new int[m];
+		ResolveTask resolve = new ResolveTask(edges, endpoints, ids, one, two, length, 0, m, threshold);
+		if (m < threshold) {
+			resolve.compute();
+		} else {
+			pool.invoke(resolve);
+		}
+
+		boolean[] present = new boolean[n];
+		for (int v = 0; v < ids.length; v++) {
+			if (ids[v] >= 0) {
+				present[ids[v]] = true;
+			}
+		}
+		int[] minLengths = new int[n];
+		Arrays.fill(minLengths, Integer.MAX_VALUE);
+		int[] parent = new int[n];
+		Arrays.fill(parent, -1);
+		for (int e = 0; e < m; e++) {
+			minLengths[one[e]] = Math.min(minLengths[one[e]], length[e]);
+			minLengths[two[e]] = Math.min(minLengths[two[e]], length[e]);
+			union(parent, one[e], two[e]);
+		}
+
+		// Number the systems by visiting the attractions in name order, and list
+		// the members of each system in name order
+		int[] idOfRank = new int[n];
+		for (int id = 0; id < n; id++) {
+			idOfRank[ranks[id]] = id;
+		}
+		systemOf = new int[n];
+		Arrays.fill(systemOf, -1);
+		int[] systemOfRoot = new int[n];
+		Arrays.fill(systemOfRoot, -1);
+		Attraction[] firsts = new Attraction[n];
+		int[] counts = new int[n + 1];
+		int[] signCounts = new int[n + 1];
+		int count = 0;
+		for (int rank = 0; rank < n; rank++) {
+			int id = idOfRank[rank];
+			if (!present[id]) {
+				continue;
+			}
+			int root = find(parent, id);
+			if (systemOfRoot[root] < 0) {
+				systemOfRoot[root] = count;
+				firsts[count++] = byName[rank];
+			}
+			int s = systemOfRoot[root];
+			systemOf[id] = s;
+			counts[s + 1]++;
+			if (degrees.getDegree(id) > 2) {
+				signCounts[s + 1]++;
+			}
+		}
+		firstAttractions = Arrays.copyOf(firsts, count);
+		sizes = new int[count];
+		restroomOffsets = Arrays.copyOf(counts, count + 1);
+		signOffsets = Arrays.copyOf(signCounts, count + 1);
+		for (int s = 0; s < count; s++) {
+			sizes[s] = restroomOffsets[s + 1];
+			restroomOffsets[s + 1] += restroomOffsets[s];
+			signOffsets[s + 1] += signOffsets[s];
+		}
+		int[] members = new int[restroomOffsets[count]];
+		int[] fill = Arrays.copyOf(restroomOffsets, count);
+		for (int rank = 0; rank < n; rank++) {
+			int id = idOfRank[rank];
+			if (systemOf[id] >= 0) {
+				members[fill[systemOf[id]]++] = id;
+			}
+		}
+
+		// Build and sort the restroom and sign keys of every system
+		restroomKeys = new long[members.length];
+		signKeys = new long[signOffsets[count]];
+		SystemTask systems = new SystemTask(members, minLengths, ranks, degrees, 0, count, threshold);
+		if (members.length < threshold) {
+			systems.compute();
+		} else {
+			pool.invoke(systems);
+		}
+	}
+
+	/**
+	 * Builds and sorts the restroom and sign keys of a range of systems
+	 *
+	 * @param members    is the attraction ids of each system, grouped by system
+	 * @param minLengths is the shortest trail at each attraction id
+	 * @param ranks      is the name rank of each attraction id
+	 * @param degrees    is the number of least costly trails at each attraction
+	 * @param from       is the first system of the range
+	 * @param to         is one past the last system of the range
+	 */
+	private void analyze(int[] members, int[] minLengths, int[] ranks, TrailDegrees degrees, int from, int to) {
+		for (int s = from; s < to; s++) {
+			int sign = signOffsets[s];
+			for (int i = restroomOffsets[s]; i < restroomOffsets[s + 1]; i++) {
+				int id = members[i];
+				restroomKeys[i] = (long) minLengths[id] << 32 | ranks[id];
+				int degree = degrees.getDegree(id);
+				if (degree > 2) {
+					signKeys[sign++] = (long) (Integer.MAX_VALUE - degree) << 32 | ranks[id];
+				}
+			}
+			Arrays.sort(restroomKeys, restroomOffsets[s], restroomOffsets[s + 1]);
+			Arrays.sort(signKeys, signOffsets[s], signOffsets[s + 1]);
+		}
+	}
+
+	/**
+	 * Returns the root of an attraction's set, halving the path on the way
+	 *
+	 * @param parent is the parent of each id, or a negative size for roots
+	 * @param v      is the id
+	 * @return the id of the root
+	 */
+	private static int find(int[] parent, int v) {
+		while (parent[v] >= 0) {
+			if (parent[parent[v]] >= 0) {
+				parent[v] = parent[parent[v]];
+			}
+			v = parent[v];
+		}
+		return v;
+	}
+
+	/**
+	 * Merges the sets of two attractions, hanging the smaller set under the
+	 * larger one
+	 *
+	 * @param parent is the parent of each id, or a negative size for roots
+	 * @param one    is the id of one attraction
+	 * @param two    is the id of the other attraction
+	 */
+	private static void union(int[] parent, int one, int two) {
+		int a = find(parent, one);
+		int b = find(parent, two);
+		if (a == b) {
+			return;
+		}
+		if (parent[a] > parent[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		parent[a] += parent[b];
+		parent[b] = a;
+	}
+
+	/**
+	 * Returns the number of trail systems
+	 *
+	 * @return the number of systems
+	 */
+	public int getCount() {
+		return sizes.length;
+	}
+
+	/**
+	 * Returns the system of an attraction
+	 *
+	 * @param id is the dictionary id of the attraction
+	 * @return the number of its system, or -1 if the attraction is not in the
+	 *         network
+	 */
+	public int getSystem(int id) {
+		return id < systemOf.length ? systemOf[id] : -1;
+	}
+
+	/**
+	 * Returns the number of attractions in a system
+	 *
+	 * @param system is the number of the system
+	 * @return the number of attractions
+	 */
+	public int getSize(int system) {
+		return sizes[system];
+	}
+
+	/**
+	 * Returns the attraction of a system that comes first by name
+	 *
+	 * @param system is the number of the system
+	 * @return the first attraction
+	 */
+	public Attraction getFirstAttraction(int system) {
+		return firstAttractions[system];
+	}
+
+	/**
+	 * Returns the attractions of a system for which all connecting trails are
+	 * longer than minTrailLength, sorted by name
+	 *
+	 * @param system         is the number of the system
+	 * @param minTrailLength is the minimum trail length to use as a threshold
+	 * @return a List of the matching attractions in name order
+	 */
+	public List<Attraction> getSortedAttractionsLongerThan(int system, int minTrailLength) {
+		int from = restroomOffsets[system];
+		int to = restroomOffsets[system + 1];
+		int first = Arrays.binarySearch(restroomKeys, from, to, (long) minTrailLength << 32 | Integer.MAX_VALUE);
+		first = first < 0 ? -first - 1 : first + 1;
+		int[] matches = new int[to - first];
+		for (int i = first; i < to; i++) {
+			matches[i - first] = (int) restroomKeys[i];
+		}
+		Arrays.sort(matches);
+		List<Attraction> list = DSAFactory.getIndexedList();
+		for (int rank : matches) {
+			list.addLast(byName[rank]);
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the number of attractions of a system with at least 3 least costly
+	 * trails
+	 *
+	 * @param system is the number of the system
+	 * @return the number of sign locations
+	 */
+	public int getSignCount(int system) {
+		return signOffsets[system + 1] - signOffsets[system];
+	}
+
+	/**
+	 * Returns a sign location of a system. The locations with the most trails
+	 * come first, and ties are in name order.
+	 *
+	 * @param system is the number of the system
+	 * @param index  is the index of the location within the system
+	 * @return the attraction
+	 */
+	public Attraction getSignAttraction(int system, int index) {
+		return byName[(int) signKeys[signOffsets[system] + index]];
+	}
+
+	/**
+	 * Returns the number of least costly trails at a sign location of a system
+	 *
+	 * @param system is the number of the system
+	 * @param index  is the index of the location within the system
+	 * @return the number of trails
+	 */
+	public int getSignDegree(int system, int index) {
+		return Integer.MAX_VALUE - (int) (signKeys[signOffsets[system] + index] >>> 32);
+	}
+
+	/**
+	 * Task that resolves the endpoints and length of a range of trails,
+	 * splitting it in half while it holds more trails than the threshold
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class ResolveTask extends RecursiveAction {
+
+		/** Serial version */
+		private static final long serialVersionUID = 1L;
+
+		/** Trails of the graph */
+		private final Edge<Weighted>[] edges;
+		/** Vertex ids of the graph */
+		private final EdgeEndpoints<Attraction> endpoints;
+		/** Dictionary id of each vertex id */
+		private final int[] ids;
+		/** Receives the dictionary id of the first attraction of each trail */
+		private final int[] one;
+		/** Receives the dictionary id of the second attraction of each trail */
+		private final int[] two;
+		/** Receives the length of each trail */
+		private final int[] length;
+		/** First trail of the range */
+		private final int from;
+		/** One past the last trail of the range */
+		private final int to;
+		/** Number of trails resolved without splitting */
+		private final int threshold;
+
+		/**
+		 * Creates a task over a range of trails
+		 *
+		 * @param edges     is the trails of the graph
+		 * @param endpoints is the vertex ids of the graph
+		 * @param ids       is the dictionary id of each vertex id
+		 * @param one       receives the id of the first attraction of each trail
+		 * @param two       receives the id of the second attraction of each trail
+		 * @param length    receives the length of each trail
+		 * @param from      is the first trail of the range
+		 * @param to        is one past the last trail of the range
+		 * @param threshold is the number of trails resolved without splitting
+		 */
+		ResolveTask(Edge<Weighted>[] edges, EdgeEndpoints<Attraction> endpoints, int[] ids, int[] one, int[] two,
+				int[] length, int from, int to, int threshold) {
+			this.edges = edges;
+			this.endpoints = endpoints;
+			this.ids = ids;
+			this.one = one;
+			this.two = two;
+			this.length = length;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				for (int e = from; e < to; e++) {
+					one[e] = ids[endpoints.endpointId(edges[e], 0)];
+					two[e] = ids[endpoints.endpointId(edges[e], 1)];
+					length[e] = edges[e].getElement().getWeight();
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ResolveTask(edges, endpoints, ids, one, two, length, from, middle, threshold),
+						new ResolveTask(edges, endpoints, ids, one, two, length, middle, to, threshold));
+			}
+		}
+	}
+
+	/**
+	 * Task that builds and sorts the keys of a range of systems, splitting the
+	 * range in half while it holds more attractions than the threshold
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private class SystemTask extends RecursiveAction {
+
+		/** Serial version */
+		private static final long serialVersionUID = 1L;
+
+		/** Attraction ids of each system, grouped by system */
+		private final int[] members;
+		/** Shortest trail at each attraction id */
+		private final int[] minLengths;
+		/** Name rank of each attraction id */
+		private final int[] ranks;
+		/** Number of least costly trails at each attraction */
+		private final TrailDegrees degrees;
+		/** First system of the range */
+		private final int from;
+		/** One past the last system of the range */
+		private final int to;
+		/** Number of attractions analyzed without splitting */
+		private final int threshold;
+
+		/**
+		 * Creates a task over a range of systems
+		 *
+		 * @param members    is the attraction ids of each system
+		 * @param minLengths is the shortest trail at each attraction id
+		 * @param ranks      is the name rank of each attraction id
+		 * @param degrees    is the number of least costly trails at each attraction
+		 * @param from       is the first system of the range
+		 * @param to         is one past the last system of the range
+		 * @param threshold  is the number of attractions analyzed without splitting
+		 */
+		SystemTask(int[] members, int[] minLengths, int[] ranks, TrailDegrees degrees, int from, int to,
+				int threshold) {
+			this.members = members;
+			this.minLengths = minLengths;
+			this.ranks = ranks;
+			this.degrees = degrees;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1 && restroomOffsets[to] - restroomOffsets[from] > threshold) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new SystemTask(members, minLengths, ranks, degrees, from, middle, threshold),
+						new SystemTask(members, minLengths, ranks, degrees, middle, to, threshold));
+			} else {
+				analyze(members, minLengths, ranks, degrees, from, to);
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package edu.ncsu.csc316.trail.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations. Bucket i counts the durations d with
+ * 2^(i-1) &lt;= d &lt; 2^i nanoseconds, so recording is a few atomic additions
+ * and a percentile is accurate to within a factor of two. The exact count,
+ * total and maximum are kept as well.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public class LatencyHistogram {
+
+	/** Number of duration buckets */
+	private static final int BUCKETS = 64;
+
+	/** Number of durations in each bucket */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	/** Number of durations recorded */
+	private final LongAdder count = new LongAdder();
+	/** Sum of the durations recorded */
+	private final LongAdder total = new LongAdder();
+	/** Longest duration recorded */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a duration
+	 *
+	 * @param nanos is the duration in nanoseconds; negative durations count as 0
+	 */
+	public void record(long nanos) {
+		long d = Math.max(0, nanos);
+		buckets.incrementAndGet(Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(d)));
+		count.increment();
+		total.add(d);
+		long m = max.get();
+		while (d > m && !max.compareAndSet(m, d)) {
+			m = max.get();
+		}
+	}
+
+	/**
+	 * Returns the number of durations recorded
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the sum of the durations recorded
+	 *
+	 * @return the total in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return total.sum();
+	}
+
+	/**
+	 * Returns the longest duration recorded
+	 *
+	 * @return the maximum in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	/**
+	 * Returns an upper bound of a percentile of the durations: the end of the
+	 * bucket that holds it, capped at the maximum
+	 *
+	 * @param percentile is the percentile, from 0 to 100
+	 * @return the percentile in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getPercentileNanos(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long n = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			n += counts[i];
+		}
+		if (n == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= Math.max(1, rank)) {
+				return i == 0 ? 0 : Math.min(getMaxNanos(), i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+			}
+		}
+		return getMaxNanos();
+	}
+
+	/**
+	 * Discards every recorded duration
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		total.reset();
+		max.set(0);
+	}
+}
@@ -0,0 +1,28 @@
+package edu.ncsu.csc316.trail.metrics;
+
+/**
+ * Receives every measurement while metrics are enabled, so they can be passed
+ * on to an external monitoring system. Listeners are called on the thread that
+ * made the measurement and should return quickly.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public interface MetricsListener {
+
+	/**
+	 * Called when a timed operation finishes
+	 *
+	 * @param metric is the timer
+	 * @param nanos  is the duration of the operation in nanoseconds
+	 */
+	void timed(TrailMetric metric, long nanos);
+
+	/**
+	 * Called when a counter is increased
+	 *
+	 * @param metric is the counter
+	 * @param amount is the amount added
+	 */
+	void counted(TrailMetric metric, long amount);
+}
@@ -0,0 +1,69 @@
+package edu.ncsu.csc316.trail.metrics;
+
+/**
+ * Metrics recorded by the trail managers. Timers record how long each run of an
+ * operation took, counters add up amounts.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public enum TrailMetric {
+
+	/** Time to load a trail network from a file, including building its graph */
+	LOAD(true),
+	/** Time spent parsing CSV rows while loading, excluding graph building */
+	PARSE(true),
+	/** Time spent adding parsed rows to the graph while loading */
+	GRAPH_BUILD(true),
+	/** Time to compute the minimum spanning tree when it is not cached */
+	SPANNING_TREE(true),
+	/** Time to compute the least costly trails of a file without loading its graph */
+	EXTERNAL_SPANNING_TREE(true),
+	/** Time to answer getLeastCostlyTrails */
+	QUERY_LEAST_COSTLY_TRAILS(true),
+	/** Time to answer a query for attractions with long trails */
+	QUERY_LONG_TRAILS(true),
+	/** Time to count the least costly trails at each attraction when they are not cached */
+	QUERY_INTERSECTION_FREQUENCIES(true),
+	/** Time to answer a shortest route query */
+	QUERY_ROUTE(true),
+	/** Time to render a least costly trails report */
+	REPORT_LEAST_COSTLY_TRAILS(true),
+	/** Time to render a restroom locations report */
+	REPORT_RESTROOM_LOCATIONS(true),
+	/** Time to render a trail sign locations report */
+	REPORT_TRAIL_SIGNS(true),
+	/** Time to render a least costly trails sensitivity report */
+	REPORT_SENSITIVITY(true),
+	/** Number of attractions loaded */
+	VERTICES(false),
+	/** Number of trails loaded */
+	EDGES(false),
+	/** Number of rows skipped because their attractions were already connected */
+	DUPLICATE_ROWS(false),
+	/** Number of sorted runs spilled to disk while computing least costly trails out of core */
+	SPILLED_RUNS(false),
+	/** Number of report characters produced */
+	OUTPUT_CHARACTERS(false);
+
+	/** Whether the metric records durations */
+	private final boolean timer;
+
+	/**
+	 * Constructor for TrailMetric
+	 *
+	 * @param timer is true if the metric records durations
+	 */
+	TrailMetric(boolean timer) {
+		this.timer = timer;
+	}
+
+	/**
+	 * Returns whether the metric records durations rather than amounts
+	 *
+	 * @return true for timers, false for counters
+	 */
+	public boolean isTimer() {
+		return timer;
+	}
+}
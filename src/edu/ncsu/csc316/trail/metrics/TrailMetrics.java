@@ -0,0 +1,305 @@
+package edu.ncsu.csc316.trail.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide metrics of the trail managers: a latency histogram for every
+ * timer and a sum for every counter, plus any number of MetricsListeners that
+ * receive each measurement. Metrics are off unless the system property
+ * trail.metrics is true or setEnabled(true) is called. While they are off,
+ * start() returns without reading the clock and every other call returns after
+ * checking a single volatile flag, so the instrumented code runs at full speed.
+ *
+ * <p>
+ * Timed code follows the pattern
+ * </p>
+ *
+ * <pre>
+ * long start = TrailMetrics.start();
+ * ...
+ * TrailMetrics.stop(TrailMetric.SPANNING_TREE, start);
+ * </pre>
+ *
+ * @author Sumit Biswas
+ *
+ */
+public final class TrailMetrics {
+
+	/** Name the MBean is registered under */
+	public static final String OBJECT_NAME = "edu.ncsu.csc316.trail:type=TrailMetrics";
+
+	/** Start time returned while metrics are disabled */
+	private static final long DISABLED = Long.MIN_VALUE;
+
+	/** Whether metrics are recorded */
+	private static volatile boolean enabled = Boolean.getBoolean("trail.metrics");
+	/** Histogram of each timer, indexed by ordinal; null for counters */
+	private static final LatencyHistogram[] TIMERS = new LatencyHistogram[TrailMetric.values().length];
+	/** Sum of each counter, indexed by ordinal; null for timers */
+	private static final LongAdder[] COUNTERS = new LongAdder[TrailMetric.values().length];
+	/** Listeners that receive every measurement */
+	private static final CopyOnWriteArrayList<MetricsListener> LISTENERS = new CopyOnWriteArrayList<MetricsListener>();
+
+	static {
+		for (TrailMetric m : TrailMetric.values()) {
+			if (m.isTimer()) {
+				TIMERS[m.ordinal()] = new LatencyHistogram();
+			} else {
+				COUNTERS[m.ordinal()] = new LongAdder();
+			}
+		}
+	}
+
+	/**
+	 * Metrics are only used through the static methods
+	 */
+	private TrailMetrics() {
+	}
+
+	/**
+	 * Returns whether metrics are being recorded
+	 *
+	 * @return true if metrics are enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts or stops recording metrics. Values recorded so far are kept.
+	 *
+	 * @param enable is true to record metrics
+	 */
+	public static void setEnabled(boolean enable) {
+		enabled = enable;
+	}
+
+	/**
+	 * Returns the start time of a timed operation
+	 *
+	 * @return the current time in nanoseconds, or a marker that stop ignores if
+	 *         metrics are disabled
+	 */
+	public static long start() {
+		return enabled ? System.nanoTime() : DISABLED;
+	}
+
+	/**
+	 * Records the duration of a timed operation that began at start
+	 *
+	 * @param metric is the timer
+	 * @param start  is the value start() returned when the operation began
+	 */
+	public static void stop(TrailMetric metric, long start) {
+		if (start != DISABLED && enabled) {
+			record(metric, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Records the duration of an operation
+	 *
+	 * @param metric is the timer
+	 * @param nanos  is the duration in nanoseconds
+	 */
+	public static void record(TrailMetric metric, long nanos) {
+		if (!enabled) {
+			return;
+		}
+		if (!metric.isTimer()) {
+			throw new IllegalArgumentException(metric + " is not a timer.");
+		}
+		TIMERS[metric.ordinal()].record(nanos);
+		for (MetricsListener listener : LISTENERS) {
+			listener.timed(metric, nanos);
+		}
+	}
+
+	/**
+	 * Adds an amount to a counter
+	 *
+	 * @param metric is the counter
+	 * @param amount is the amount to add
+	 */
+	public static void count(TrailMetric metric, long amount) {
+		if (!enabled) {
+			return;
+		}
+		if (metric.isTimer()) {
+			throw new IllegalArgumentException(metric + " is not a counter.");
+		}
+		COUNTERS[metric.ordinal()].add(amount);
+		for (MetricsListener listener : LISTENERS) {
+			listener.counted(metric, amount);
+		}
+	}
+
+	/**
+	 * Adds a listener that receives every later measurement
+	 *
+	 * @param listener is the listener
+	 */
+	public static void addListener(MetricsListener listener) {
+		LISTENERS.add(listener);
+	}
+
+	/**
+	 * Removes a listener
+	 *
+	 * @param listener is the listener
+	 * @return true if the listener had been added
+	 */
+	public static boolean removeListener(MetricsListener listener) {
+		return LISTENERS.remove(listener);
+	}
+
+	/**
+	 * Returns the number of times a timer was recorded, or the value of a counter
+	 *
+	 * @param metric is the metric
+	 * @return the count
+	 */
+	public static long getCount(TrailMetric metric) {
+		return metric.isTimer() ? TIMERS[metric.ordinal()].getCount() : COUNTERS[metric.ordinal()].sum();
+	}
+
+	/**
+	 * Returns the histogram of a timer
+	 *
+	 * @param metric is the timer
+	 * @return the histogram of its durations
+	 */
+	public static LatencyHistogram getHistogram(TrailMetric metric) {
+		if (!metric.isTimer()) {
+			throw new IllegalArgumentException(metric + " is not a timer.");
+		}
+		return TIMERS[metric.ordinal()];
+	}
+
+	/**
+	 * Discards every recorded value
+	 */
+	public static void reset() {
+		for (TrailMetric m : TrailMetric.values()) {
+			if (m.isTimer()) {
+				TIMERS[m.ordinal()].reset();
+			} else {
+				COUNTERS[m.ordinal()].reset();
+			}
+		}
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server under OBJECT_NAME,
+	 * unless they are already registered
+	 *
+	 * @throws IllegalStateException if the MBean cannot be registered
+	 */
+	public static synchronized void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new Bean(), name);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to register the trail metrics MBean.", e);
+		}
+	}
+
+	/**
+	 * Removes the metrics from the platform MBean server, if they are registered
+	 *
+	 * @throws IllegalStateException if the MBean cannot be unregistered
+	 */
+	public static synchronized void unregisterMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to unregister the trail metrics MBean.", e);
+		}
+	}
+
+	/**
+	 * MBean that exposes the static metrics
+	 *
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class Bean implements TrailMetricsMXBean {
+
+		@Override
+		public boolean isEnabled() {
+			return TrailMetrics.isEnabled();
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			TrailMetrics.setEnabled(enabled);
+		}
+
+		@Override
+		public String[] getMetricNames() {
+			TrailMetric[] metrics = TrailMetric.values();
+			String[] names = new String[metrics.length];
+			for (int i = 0; i < metrics.length; i++) {
+				names[i] = metrics[i].name();
+			}
+			return names;
+		}
+
+		@Override
+		public long getCount(String metric) {
+			return TrailMetrics.getCount(TrailMetric.valueOf(metric));
+		}
+
+		@Override
+		public double getMeanMillis(String metric) {
+			LatencyHistogram h = getHistogram(TrailMetric.valueOf(metric));
+			long n = h.getCount();
+			return n == 0 ? 0 : h.getTotalNanos() / 1e6 / n;
+		}
+
+		@Override
+		public double getMaxMillis(String metric) {
+			return getHistogram(TrailMetric.valueOf(metric)).getMaxNanos() / 1e6;
+		}
+
+		@Override
+		public double getPercentileMillis(String metric, double percentile) {
+			return getHistogram(TrailMetric.valueOf(metric)).getPercentileNanos(percentile) / 1e6;
+		}
+
+		@Override
+		public String getSummary() {
+			StringBuilder sb = new StringBuilder();
+			for (TrailMetric m : TrailMetric.values()) {
+				if (m.isTimer()) {
+					sb.append(String.format(Locale.US, "%s count=%d mean=%.3fms p99=%.3fms max=%.3fms%n", m.name(),
+							TrailMetrics.getCount(m), getMeanMillis(m.name()), getPercentileMillis(m.name(), 99),
+							getMaxMillis(m.name())));
+				} else {
+					sb.append(m.name()).append(" count=").append(TrailMetrics.getCount(m))
+							.append(System.lineSeparator());
+				}
+			}
+			return sb.toString();
+		}
+
+		@Override
+		public void reset() {
+			TrailMetrics.reset();
+		}
+	}
+}
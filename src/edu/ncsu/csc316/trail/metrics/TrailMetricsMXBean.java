@@ -0,0 +1,80 @@
+package edu.ncsu.csc316.trail.metrics;
+
+/**
+ * Management interface of the trail metrics, registered with the platform
+ * MBean server by TrailMetrics.registerMBean. Metric names are the names of
+ * the TrailMetric constants.
+ *
+ * @author Sumit Biswas
+ *
+ */
+public interface TrailMetricsMXBean {
+
+	/**
+	 * Returns whether metrics are being recorded
+	 *
+	 * @return true if metrics are enabled
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Starts or stops recording metrics
+	 *
+	 * @param enabled is true to record metrics
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Returns the names of every metric
+	 *
+	 * @return the metric names
+	 */
+	String[] getMetricNames();
+
+	/**
+	 * Returns the number of times a timer was recorded, or the value of a counter
+	 *
+	 * @param metric is the name of the metric
+	 * @return the count
+	 */
+	long getCount(String metric);
+
+	/**
+	 * Returns the mean duration of a timer
+	 *
+	 * @param metric is the name of the timer
+	 * @return the mean in milliseconds, or 0 if nothing was recorded
+	 */
+	double getMeanMillis(String metric);
+
+	/**
+	 * Returns the longest duration of a timer
+	 *
+	 * @param metric is the name of the timer
+	 * @return the maximum in milliseconds
+	 */
+	double getMaxMillis(String metric);
+
+	/**
+	 * Returns an upper bound of a percentile of a timer, accurate to within a
+	 * factor of two
+	 *
+	 * @param metric     is the name of the timer
+	 * @param percentile is the percentile, from 0 to 100
+	 * @return the percentile in milliseconds
+	 */
+	double getPercentileMillis(String metric, double percentile);
+
+	/**
+	 * Returns one line per metric with its count and, for timers, its mean, 99th
+	 * percentile and maximum
+	 *
+	 * @return a summary of every metric
+	 */
+	String getSummary();
+
+	/**
+	 * Discards every recorded value
+	 */
+	void reset();
+}
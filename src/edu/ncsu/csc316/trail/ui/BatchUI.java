@@ -0,0 +1,445 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.ui;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.ncsu.csc316.trail.manager.DuplicateTrailPolicy;
+import edu.ncsu.csc316.trail.manager.ExternalSpanningTree;
+import edu.ncsu.csc316.trail.manager.TrailReportManager;
+
+/** Non-interactive interface that loads a trail file once and writes any number
+ * of reports, so it can be run from scripts. The arguments are the input file
+ * followed by report specs, each a report option and its parameters:
+ * 
+ * <pre>
+ * trails.csv --mst cost=1.5 out=a.txt --restroom min=5000 out=b.txt --signs out=c.txt
+ * </pre>
+ * 
+ * <p>The options are --mst cost=X, --sensitivity cost=X, --restroom min=N,
+ * --signs [top=N] and --snapshot out=FILE. Reports without out= are printed to
+ * standard output in the order given. --parallel writes the reports on several
+ * threads at once, and --threads=N sets how many. --external finds the least
+ * costly trails by sorting the rows on disk instead of loading the trail
+ * graph, for files too large for the heap; it only allows --mst reports. The
+ * exit status is EXIT_OK if every report was written, EXIT_REPORT_FAILED if
+ * any could not be written, EXIT_USAGE for invalid arguments and EXIT_INPUT if
+ * the input file cannot be loaded.</p>
+ * 
+ * @author Sumit Biswas
+ *
+ */
+public class BatchUI {
+
+	/** Exit status when every report was written */
+	public static final int EXIT_OK = 0;
+	/** Exit status when at least one report could not be written */
+	public static final int EXIT_REPORT_FAILED = 1;
+	/** Exit status when the arguments are invalid */
+	public static final int EXIT_USAGE = 2;
+	/** Exit status when the input file cannot be loaded */
+	public static final int EXIT_INPUT = 3;
+
+	/** Summary of the arguments, printed with usage errors */
+	private static final String USAGE = "Usage: <trail file> [--parallel] [--threads=N] [--external] (--mst cost=X | "
+			+ "--sensitivity cost=X | --restroom min=N | --signs [top=N] | --snapshot) [out=FILE] ...";
+
+	/** Runs the reports given on the command line and exits with their status
+	 * 
+	 * @param args the input file followed by report specs
+	 */
+	public static void main(String[] args) {
+		System.exit(run(args, System.out, System.err));
+	}
+
+	/** Loads the input file and writes every report it is given
+	 * 
+	 * @param args the input file followed by report specs
+	 * @param out  the stream that receives reports without an output file
+	 * @param err  the stream that receives error messages
+	 * @return the exit status
+	 */
+	public static int run(String[] args, PrintStream out, PrintStream err) {
+		ArrayList<ReportSpec> specs = new ArrayList<ReportSpec>();
+		int threads;
+		try {
+			threads = parse(args, specs);
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return EXIT_USAGE;
+		}
+		if (isExternal(args)) {
+			return runExternal(args[0], specs, out, err);
+		}
+		TrailReportManager manager;
+		try {
+			manager = new TrailReportManager(args[0]);
+		} catch (FileNotFoundException e) {
+			err.println("Could not find file " + args[0] + ".");
+			return EXIT_INPUT;
+		} catch (IllegalArgumentException e) {
+			err.println("The provided input file does not contain any trail data.");
+			return EXIT_INPUT;
+		}
+		String[] printed = new String[specs.size()];
+		int status = threads > 1 ? runParallel(manager, specs, printed, threads, err)
+				: runSequential(manager, specs, printed, err);
+		for (int i = 0; i < printed.length; i++) {
+			if (printed[i] != null) {
+				out.println(printed[i]);
+			}
+		}
+		out.flush();
+		return status;
+	}
+
+	/** Finds the least costly trails out of core and writes the least costly
+	 * trails reports one after another
+	 * 
+	 * @param path  the path of the trail file
+	 * @param specs the reports to write, which must all be --mst reports
+	 * @param out   the stream that receives reports without an output file
+	 * @param err   the stream that receives error messages
+	 * @return the exit status
+	 */
+	private static int runExternal(String path, ArrayList<ReportSpec> specs, PrintStream out, PrintStream err) {
+		for (ReportSpec spec : specs) {
+			if (spec.kind != Kind.MST) {
+				err.println("--external only writes --mst reports.");
+				err.println(USAGE);
+				return EXIT_USAGE;
+			}
+		}
+		ExternalSpanningTree tree;
+		try {
+			tree = new ExternalSpanningTree(path, DuplicateTrailPolicy.FIRST);
+		} catch (FileNotFoundException e) {
+			err.println("Could not find file " + path + ".");
+			return EXIT_INPUT;
+		} catch (IOException e) {
+			err.println("Could not sort the trails of " + path + ": " + e.getMessage());
+			return EXIT_INPUT;
+		} catch (IllegalArgumentException e) {
+			err.println("The provided input file does not contain any trail data.");
+			return EXIT_INPUT;
+		}
+		int status = EXIT_OK;
+		for (ReportSpec spec : specs) {
+			try {
+				if (spec.output == null) {
+					out.println(TrailReportManager.getLeastCostlyTrailsReport(tree, spec.cost));
+				} else {
+					try (Writer op = openOutput(spec.output)) {
+						TrailReportManager.writeLeastCostlyTrailsReport(tree, spec.cost, op);
+					}
+				}
+			} catch (IOException e) {
+				err.println("Could not write " + spec + ": " + e.getMessage());
+				status = EXIT_REPORT_FAILED;
+			}
+		}
+		out.flush();
+		return status;
+	}
+
+	/** Returns whether the least costly trails should be found out of core
+	 * 
+	 * @param args the input file followed by report specs
+	 * @return true if --external is given
+	 */
+	private static boolean isExternal(String[] args) {
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--external")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** Writes the reports one after another
+	 * 
+	 * @param manager the manager of the loaded trails
+	 * @param specs   the reports to write
+	 * @param printed receives the text of each report without an output file
+	 * @param err     the stream that receives error messages
+	 * @return the exit status
+	 */
+	private static int runSequential(TrailReportManager manager, ArrayList<ReportSpec> specs, String[] printed,
+			PrintStream err) {
+		int status = EXIT_OK;
+		for (int i = 0; i < specs.size(); i++) {
+			try {
+				printed[i] = specs.get(i).write(manager);
+			} catch (IOException e) {
+				err.println("Could not write " + specs.get(i) + ": " + e.getMessage());
+				status = EXIT_REPORT_FAILED;
+			}
+		}
+		return status;
+	}
+
+	/** Writes the reports on a pool of threads, which share the loaded trails
+	 * 
+	 * @param manager the manager of the loaded trails
+	 * @param specs   the reports to write
+	 * @param printed receives the text of each report without an output file
+	 * @param threads the number of threads
+	 * @param err     the stream that receives error messages
+	 * @return the exit status
+	 */
+	private static int runParallel(final TrailReportManager manager, ArrayList<ReportSpec> specs, String[] printed,
+			int threads, PrintStream err) {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, specs.size()));
+		try {
+			ArrayList<Future<String>> results = new ArrayList<Future<String>>();
+			for (final ReportSpec spec : specs) {
+				results.add(pool.submit(new Callable<String>() {
+					@Override
+					public String call() throws IOException {
+						return spec.write(manager);
+					}
+				}));
+			}
+			int status = EXIT_OK;
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					printed[i] = results.get(i).get();
+				} catch (ExecutionException e) {
+					err.println("Could not write " + specs.get(i) + ": " + e.getCause().getMessage());
+					status = EXIT_REPORT_FAILED;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					err.println("Interrupted while writing " + specs.get(i) + ".");
+					return EXIT_REPORT_FAILED;
+				}
+			}
+			return status;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Parses the arguments after the input file into report specs
+	 * 
+	 * @param args  the input file followed by report specs
+	 * @param specs receives the report specs in order
+	 * @return the number of threads to write the reports on
+	 * @throws IllegalArgumentException if the arguments are invalid
+	 */
+	private static int parse(String[] args, ArrayList<ReportSpec> specs) {
+		if (args.length == 0 || args[0].startsWith("--")) {
+			throw new IllegalArgumentException("No trail file given.");
+		}
+		int threads = 1;
+		ReportSpec spec = null;
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.equals("--external")) {
+				continue;
+			} else if (arg.equals("--parallel")) {
+				threads = Math.max(threads, Math.max(2, Runtime.getRuntime().availableProcessors()));
+			} else if (arg.startsWith("--threads=")) {
+				threads = parseInt(arg, "--threads=".length());
+			} else if (arg.startsWith("--")) {
+				spec = new ReportSpec(arg.substring(2));
+				specs.add(spec);
+			} else if (spec == null) {
+				throw new IllegalArgumentException("Parameter " + arg + " does not follow a report option.");
+			} else if (arg.startsWith("out=")) {
+				spec.output = arg.substring("out=".length());
+			} else if (arg.startsWith("cost=") && (spec.kind == Kind.MST || spec.kind == Kind.SENSITIVITY)) {
+				try {
+					spec.cost = Double.parseDouble(arg.substring("cost=".length()));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid parameter " + arg + ".");
+				}
+			} else if (arg.startsWith("min=") && spec.kind == Kind.RESTROOM) {
+				spec.min = parseInt(arg, "min=".length());
+			} else if (arg.startsWith("top=") && spec.kind == Kind.SIGNS) {
+				spec.top = parseInt(arg, "top=".length());
+			} else {
+				throw new IllegalArgumentException("Unknown parameter " + arg + " for --" + spec.kind.option + ".");
+			}
+		}
+		if (specs.isEmpty()) {
+			throw new IllegalArgumentException("No reports requested.");
+		}
+		for (ReportSpec s : specs) {
+			s.validate();
+		}
+		return threads;
+	}
+
+	/** Parses a positive integer parameter
+	 * 
+	 * @param arg   the argument holding the parameter
+	 * @param start the index the number starts at
+	 * @return the number
+	 * @throws IllegalArgumentException if the number is invalid or not positive
+	 */
+	private static int parseInt(String arg, int start) {
+		try {
+			int value = Integer.parseInt(arg.substring(start));
+			if (value > 0) {
+				return value;
+			}
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new IllegalArgumentException("Invalid parameter " + arg + ".");
+	}
+
+	/** Opens a report output file, replacing any earlier contents
+	 * 
+	 * @param path is the path of the output file
+	 * @return a buffered writer for the file
+	 * @throws IOException if the file cannot be created or opened
+	 */
+	private static Writer openOutput(String path) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8), 1 << 16);
+	}
+
+	/** Kinds of report that can be requested
+	 * 
+	 * @author Sumit Biswas
+	 *
+	 */
+	private enum Kind {
+		/** Least costly trails report */
+		MST("mst"),
+		/** Least costly trails sensitivity report */
+		SENSITIVITY("sensitivity"),
+		/** Restroom locations report */
+		RESTROOM("restroom"),
+		/** Trail sign locations report */
+		SIGNS("signs"),
+		/** Binary snapshot of the trail network */
+		SNAPSHOT("snapshot");
+
+		/** Command line option of the report, without the leading dashes */
+		private final String option;
+
+		/** Creates a Kind
+		 * 
+		 * @param option the command line option of the report
+		 */
+		Kind(String option) {
+			this.option = option;
+		}
+	}
+
+	/** One requested report with its parameters and output file
+	 * 
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class ReportSpec {
+
+		/** Kind of report */
+		private Kind kind;
+		/** Construction cost per foot for a least costly trails or sensitivity report */
+		private double cost = -1;
+		/** Minimum trail length for a restroom locations report */
+		private int min = -1;
+		/** Most attractions listed in a trail sign locations report, 0 for all */
+		private int top;
+		/** Path of the output file, or null for standard output */
+		private String output;
+
+		/** Creates a spec for a report option
+		 * 
+		 * @param option the report option, without the leading dashes
+		 * @throws IllegalArgumentException if the option is unknown
+		 */
+		ReportSpec(String option) {
+			for (Kind k : Kind.values()) {
+				if (k.option.equals(option)) {
+					kind = k;
+				}
+			}
+			if (kind == null) {
+				throw new IllegalArgumentException("Unknown option --" + option + ".");
+			}
+		}
+
+		/** Checks that every required parameter was given
+		 * 
+		 * @throws IllegalArgumentException if a parameter is missing or invalid
+		 */
+		void validate() {
+			if (kind == Kind.MST && !(cost > 0)) {
+				throw new IllegalArgumentException("--mst needs cost=X with X > 0.");
+			}
+			if (kind == Kind.SENSITIVITY && !(cost > 0)) {
+				throw new IllegalArgumentException("--sensitivity needs cost=X with X > 0.");
+			}
+			if (kind == Kind.RESTROOM && min <= 0) {
+				throw new IllegalArgumentException("--restroom needs min=N with N > 0.");
+			}
+			if (kind == Kind.SNAPSHOT && output == null) {
+				throw new IllegalArgumentException("--snapshot needs out=FILE.");
+			}
+		}
+
+		/** Writes the report to its output file, or returns it if it has none
+		 * 
+		 * @param manager the manager of the loaded trails
+		 * @return the report, or null if it was written to a file
+		 * @throws IOException if the report cannot be written
+		 */
+		String write(TrailReportManager manager) throws IOException {
+			if (kind == Kind.SNAPSHOT) {
+				manager.saveSnapshot(output);
+				return null;
+			}
+			if (output == null) {
+				switch (kind) {
+				case MST:
+					return manager.getLeastCostlyTrailsReport(cost);
+				case SENSITIVITY:
+					return manager.getSensitivityReport(cost);
+				case RESTROOM:
+					return manager.getRestroomLocations(min);
+				default:
+					return manager.getTrailSignLocations(top);
+				}
+			}
+			try (Writer op = openOutput(output)) {
+				switch (kind) {
+				case MST:
+					manager.writeLeastCostlyTrailsReport(cost, op);
+					break;
+				case SENSITIVITY:
+					manager.writeSensitivityReport(cost, op);
+					break;
+				case RESTROOM:
+					manager.writeRestroomLocations(min, op);
+					break;
+				default:
+					manager.writeTrailSignLocations(top, op);
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public String toString() {
+			return "--" + kind.option + (output == null ? "" : " out=" + output);
+		}
+	}
+}
@@ -3,16 +3,21 @@
  */
 package edu.ncsu.csc316.trail.ui;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 import edu.ncsu.csc316.trail.manager.TrailReportManager;
 
 /** CommandLineUI class that provides a command line based interface to the user
- * to run the TrailReportManager program
+ * to run the TrailReportManager program. When it is started with arguments, it
+ * runs them as a batch through BatchUI instead of prompting.
  * 
  * @author Sumit Biswas
  *
@@ -24,16 +29,22 @@ public class CommandLineUI {
 	
 	/** Starts the program
 	 * 
-	 * @param args command line arguments 
+	 * @param args command line arguments, which are passed to BatchUI if there
+	 *             are any
 	 * @throws FileNotFoundException if the input file is not found
 	 */
 	public static void main(String[] args) throws FileNotFoundException {
+		if (args.length > 0) {
+			BatchUI.main(args);
+			return;
+		}
 		Scanner scanner = new Scanner(System.in);
 		System.out.println("________________________________________________________________\n");
 		System.out.println("                       TRAIL REPORT MANAGER");
 		System.out.println("________________________________________________________________\n\n");
 		System.out.println("*** Enter Q at any time to exit the program ***\n");
-		System.out.println("Please enter path to the potential trails data file you wish to use\n");
+		System.out.println("Please enter path to the potential trails data file you wish to use");
+		System.out.println("(a .csv file, or a .trailgraph snapshot saved with option 4)\n");
 		String input = scanner.next();
 		if (input.equalsIgnoreCase("q")) {
 			scanner.close();
@@ -64,11 +75,12 @@ public class CommandLineUI {
 			System.out.println("\nCHOOSE ONE OF THE OPTIONS BELOW:\n");
 			System.out.println("          # Enter 1 to get least costly trails report");
 			System.out.println("          # Enter 2 to get restroom locations");
-			System.out.println("          # Enter 3 to get trail sign locations\n");
+			System.out.println("          # Enter 3 to get trail sign locations");
+			System.out.println("          # Enter 4 to save the trail network as a .trailgraph snapshot\n");
 			
 			int option = -1;
 			
-			while (option != 1 && option != 2 && option != 3) {
+			while (option < 1 || option > 4) {
 				input = scanner.next();
 				if (input.equalsIgnoreCase("q")) {
 					scanner.close();
@@ -104,28 +116,15 @@ public class CommandLineUI {
 						System.out.println("Construction cost per linear foot must be > $0.00.\n");
 					}
 				}
-				String output = manager.getLeastCostlyTrailsReport(number);
 				System.out.println("Enter the filename for output\n");
 				String opFile = scanner.next();
-				File out = new File(opFile);
-				if (!out.exists()) {
-					try {
-						out.createNewFile();
-					} catch (IOException e) {
-						System.out.println("Unexpected Error, program terminated");
-						scanner.close();
-						System.exit(0);
-					}
-				}
-				PrintStream op = null;
-				try {
-					op = new PrintStream(out);
-				} catch (FileNotFoundException e) {
+				try (Writer op = openOutput(opFile)) {
+					manager.writeLeastCostlyTrailsReport(number, op);
+				} catch (IOException e) {
 					System.out.println("Unexpected Error, program terminated");
 					scanner.close();
 					System.exit(0);
 				}
-				op.print(output);
 				System.out.println("\nEnter Q to exit / anything else to continue\n");
 			//////////////////////////////////////////////// RESTROOM LOCATIONS  /////////////////////////////////////////////////
 			} else if (option == 2) {
@@ -147,56 +146,54 @@ public class CommandLineUI {
 						System.out.println("Trail length must be > 0 feet.");
 					}
 				}			
-				String output = manager.getRestroomLocations(dist);
 				System.out.println("Enter the filename for output\n");
 				String opFile = scanner.next();
-				File out = new File(opFile);
-				if (!out.exists()) {
-					try {
-						out.createNewFile();
-					} catch (IOException e) {
-						System.out.println("Unexpected Error, program terminated");
-						scanner.close();
-						System.exit(0);
-					}
+				try (Writer op = openOutput(opFile)) {
+					manager.writeRestroomLocations(dist, op);
+				} catch (IOException e) {
+					System.out.println("Unexpected Error, program terminated");
+					scanner.close();
+					System.exit(0);
 				}
-				PrintStream op = null;
+				System.out.println("\nEnter Q to exit / anything else to continue\n");
+			//////////////////////////////////////////////// SNAPSHOT /////////////////////////////////////////////////	
+			} else if (option == 4) {
+				System.out.println("Enter the filename for the snapshot (ending in .trailgraph)\n");
+				String opFile = scanner.next();
 				try {
-					op = new PrintStream(out);
-				} catch (FileNotFoundException e) {
+					manager.saveSnapshot(opFile);
+				} catch (IOException e) {
 					System.out.println("Unexpected Error, program terminated");
 					scanner.close();
 					System.exit(0);
 				}
-				op.print(output);
 				System.out.println("\nEnter Q to exit / anything else to continue\n");
 			//////////////////////////////////////////////// TRAIL SIGN LOCATIONS /////////////////////////////////////////////////	
 			} else {
-				String output = manager.getTrailSignLocations();
 				System.out.println("Enter the filename for output: ");
 				String opFile = scanner.next();
-				File out = new File(opFile);
-				if (!out.exists()) {
-					try {
-						out.createNewFile();
-					} catch (IOException e) {
-						System.out.println("Unexpected Error, program terminated");
-						scanner.close();
-						System.exit(0);
-					}
-				}
-				PrintStream op = null;
-				try {
-					op = new PrintStream(out);
-				} catch (FileNotFoundException e) {
+				try (Writer op = openOutput(opFile)) {
+					manager.writeTrailSignLocations(op);
+				} catch (IOException e) {
 					System.out.println("Unexpected Error, program terminated");
 					scanner.close();
 					System.exit(0);
 				}
-				op.print(output);
 				System.out.println("\nEnter Q to exit / anything else to continue");
 			}
 		} while (!scanner.next().equalsIgnoreCase("q"));
 		
 	}
+	
+	/** Opens a report output file, replacing any earlier contents. Reports are
+	 * streamed into the file through a buffer, so they are never held in memory
+	 * as a whole.
+	 * 
+	 * @param path is the path of the output file
+	 * @return a buffered writer for the file
+	 * @throws IOException if the file cannot be created or opened
+	 */
+	private static Writer openOutput(String path) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8), 1 << 16);
+	}
 }
@@ -0,0 +1,370 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.ui;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.ncsu.csc316.trail.manager.TrailManagerCache;
+import edu.ncsu.csc316.trail.manager.TrailReportManager;
+
+/** Long-running HTTP service that serves the trail reports of the trail files
+ * in a data directory. Loaded trail networks are kept in a TrailManagerCache,
+ * so repeated requests for a file skip parsing and graph building until the
+ * file changes. The endpoints answer GET requests with plain text:
+ * 
+ * <pre>
+ * /mst?file=park.csv&amp;cost=1.5
+ * /restroom?file=park.csv&amp;min=5000
+ * /signs?file=park.csv&amp;top=10
+ * /stats
+ * </pre>
+ * 
+ * <p>The top parameter of /signs is optional. The file parameter is resolved
+ * against the data directory and may not leave it. Invalid parameters are
+ * answered with 400, files outside the directory with 403, missing files with
+ * 404, and files without trail data or that cannot be read with 422.</p>
+ * 
+ * @author Sumit Biswas
+ *
+ */
+public class ReportServer {
+
+	/** Port the server listens on if none is given */
+	public static final int DEFAULT_PORT = 8316;
+	/** Number of trail networks kept loaded if no other number is given */
+	public static final int DEFAULT_CACHE_SIZE = 32;
+	/** Message the trail readers give for a file without trail data */
+	private static final String NO_TRAIL_DATA = "The specified input file does not contain any trail data!";
+
+	/** Directory the requested files are resolved against */
+	private final File root;
+	/** Cache of the loaded trail networks */
+	private final TrailManagerCache cache;
+	/** Threads that handle the requests */
+	private final ExecutorService executor;
+	/** Underlying HTTP server */
+	private final HttpServer server;
+
+	/** Creates a server, which does not accept requests until it is started
+	 * 
+	 * @param dataDirectory the directory the requested files are resolved against
+	 * @param address       the address to listen on; port 0 picks a free port
+	 * @param cacheSize     the number of trail networks kept loaded
+	 * @param threads       the number of requests handled at once
+	 * @throws IOException if the directory cannot be resolved or the address
+	 *                     cannot be bound
+	 */
+	public ReportServer(String dataDirectory, InetSocketAddress address, int cacheSize, int threads)
+			throws IOException {
+		root = new File(dataDirectory).getCanonicalFile();
+		if (!root.isDirectory()) {
+			throw new FileNotFoundException("Could not find directory " + dataDirectory + ".");
+		}
+		cache = new TrailManagerCache(cacheSize);
+		executor = Executors.newFixedThreadPool(threads);
+		server = HttpServer.create(address, 0);
+		server.setExecutor(executor);
+		for (String report : new String[] { "mst", "restroom", "signs" }) {
+			server.createContext("/" + report, new ReportHandler(report));
+		}
+		server.createContext("/stats", new StatsHandler());
+	}
+
+	/** Starts accepting requests */
+	public void start() {
+		server.start();
+	}
+
+	/** Stops accepting requests and waits up to the given time for the requests
+	 * being handled to finish
+	 * 
+	 * @param seconds the longest time to wait
+	 */
+	public void stop(int seconds) {
+		server.stop(seconds);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(seconds, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Returns the port the server listens on
+	 * 
+	 * @return the port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/** Returns the cache of the loaded trail networks
+	 * 
+	 * @return the cache
+	 */
+	public TrailManagerCache getCache() {
+		return cache;
+	}
+
+	/** Starts a server on the loopback address
+	 * 
+	 * @param args the data directory, optionally followed by the port and the
+	 *             number of trail networks kept loaded
+	 * @throws IOException if the server cannot be started
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: <data directory> [port] [cache size]");
+			System.exit(BatchUI.EXIT_USAGE);
+		}
+		int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+		int cacheSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CACHE_SIZE;
+		final ReportServer reportServer = new ReportServer(args[0],
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), port), cacheSize,
+				Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				reportServer.stop(1);
+			}
+		});
+		reportServer.start();
+		System.out.println("Serving reports from " + reportServer.root + " at http://localhost:"
+				+ reportServer.getPort() + "/");
+	}
+
+	/** Sends a complete plain text response
+	 * 
+	 * @param exchange the exchange to answer
+	 * @param status   the HTTP status
+	 * @param text     the body of the response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private static void send(HttpExchange exchange, int status, String text) throws IOException {
+		byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		boolean head = "HEAD".equals(exchange.getRequestMethod());
+		exchange.sendResponseHeaders(status, head ? -1 : body.length);
+		if (!head) {
+			exchange.getResponseBody().write(body);
+		}
+	}
+
+	/** Parses the query string of a request
+	 * 
+	 * @param exchange the exchange of the request
+	 * @return the value of each query parameter
+	 * @throws UnsupportedEncodingException never, since UTF-8 is always supported
+	 * @throws BadRequest                   if the query contains a malformed escape
+	 */
+	private static Map<String, String> parameters(HttpExchange exchange)
+			throws UnsupportedEncodingException, BadRequest {
+		Map<String, String> parameters = new HashMap<String, String>();
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query != null) {
+			for (String pair : query.split("&")) {
+				int eq = pair.indexOf('=');
+				if (eq > 0) {
+					try {
+						parameters.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+								URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+					} catch (IllegalArgumentException e) {
+						throw new BadRequest(400, "Malformed query parameter " + pair + ".");
+					}
+				}
+			}
+		}
+		return parameters;
+	}
+
+	/** Request that cannot be answered, with the status and message to send
+	 * 
+	 * @author Sumit Biswas
+	 *
+	 */
+	private static class BadRequest extends Exception {
+
+		/** Serial version UID */
+		private static final long serialVersionUID = 1L;
+		/** HTTP status of the response */
+		private final int status;
+
+		/** Creates a BadRequest
+		 * 
+		 * @param status  the HTTP status of the response
+		 * @param message the body of the response
+		 */
+		BadRequest(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+	/** Handler of one report endpoint
+	 * 
+	 * @author Sumit Biswas
+	 *
+	 */
+	private class ReportHandler implements HttpHandler {
+
+		/** Name of the report, which is also the path of its endpoint */
+		private final String report;
+
+		/** Creates a ReportHandler
+		 * 
+		 * @param report the name of the report
+		 */
+		ReportHandler(String report) {
+			this.report = report;
+		}
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+					exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+					throw new BadRequest(405, "Only GET is supported.");
+				}
+				Map<String, String> parameters = parameters(exchange);
+				double cost = 0;
+				int min = 0;
+				if ("mst".equals(report)) {
+					cost = number(parameters, "cost");
+				} else if ("restroom".equals(report)) {
+					min = wholeNumber(parameters, "min");
+				} else if (parameters.get("top") != null) {
+					min = wholeNumber(parameters, "top");
+				}
+				TrailReportManager manager = load(parameters.get("file"));
+				exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+				if ("HEAD".equals(exchange.getRequestMethod())) {
+					exchange.sendResponseHeaders(200, -1);
+					return;
+				}
+				exchange.sendResponseHeaders(200, 0);
+				OutputStream body = exchange.getResponseBody();
+				Writer out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), 1 << 16);
+				if ("mst".equals(report)) {
+					manager.writeLeastCostlyTrailsReport(cost, out);
+				} else if ("restroom".equals(report)) {
+					manager.writeRestroomLocations(min, out);
+				} else {
+					manager.writeTrailSignLocations(min, out);
+				}
+				out.flush();
+			} catch (BadRequest e) {
+				send(exchange, e.status, e.getMessage());
+			} finally {
+				exchange.close();
+			}
+		}
+
+		/** Returns a positive number parameter
+		 * 
+		 * @param parameters the query parameters
+		 * @param name       the name of the parameter
+		 * @return the number
+		 * @throws BadRequest if the parameter is missing, invalid or not positive
+		 */
+		private double number(Map<String, String> parameters, String name) throws BadRequest {
+			String value = parameters.get(name);
+			if (value == null) {
+				throw new BadRequest(400, "Missing parameter " + name + ".");
+			}
+			try {
+				double number = Double.parseDouble(value);
+				if (number > 0 && !Double.isInfinite(number)) {
+					return number;
+				}
+			} catch (NumberFormatException e) {
+				// answered below
+			}
+			throw new BadRequest(400, "Parameter " + name + " must be a number > 0.");
+		}
+
+		/** Returns a positive whole number parameter
+		 * 
+		 * @param parameters the query parameters
+		 * @param name       the name of the parameter
+		 * @return the number
+		 * @throws BadRequest if the parameter is missing, invalid or not a positive
+		 *                    whole number
+		 */
+		private int wholeNumber(Map<String, String> parameters, String name) throws BadRequest {
+			double value = number(parameters, name);
+			if (value != Math.rint(value) || value > Integer.MAX_VALUE) {
+				throw new BadRequest(400, "Parameter " + name + " must be a whole number.");
+			}
+			return (int) value;
+		}
+
+		/** Returns the report manager of a file in the data directory
+		 * 
+		 * @param file the path of the file, relative to the data directory
+		 * @return the report manager of the file
+		 * @throws IOException if the path cannot be resolved
+		 * @throws BadRequest  if the file is missing, outside the data directory,
+		 *                     contains no trail data or cannot be read
+		 */
+		private TrailReportManager load(String file) throws IOException, BadRequest {
+			if (file == null) {
+				throw new BadRequest(400, "Missing parameter file.");
+			}
+			File resolved = new File(root, file).getCanonicalFile();
+			if (!resolved.getPath().startsWith(root.getPath() + File.separator)) {
+				throw new BadRequest(403, "File " + file + " is outside the data directory.");
+			}
+			try {
+				return cache.getReportManager(resolved.getPath());
+			} catch (FileNotFoundException e) {
+				throw new BadRequest(404, "Could not find file " + file + ".");
+			} catch (IllegalArgumentException e) {
+				if (NO_TRAIL_DATA.equals(e.getMessage())) {
+					throw new BadRequest(422, "File " + file + " does not contain any trail data.");
+				}
+				// the message may name the file by its path on the server
+				String message = String.valueOf(e.getMessage()).replace(resolved.getPath(), file);
+				throw new BadRequest(422, "File " + file + " could not be read: " + message);
+			}
+		}
+	}
+
+	/** Handler that reports the statistics of the cache
+	 * 
+	 * @author Sumit Biswas
+	 *
+	 */
+	private class StatsHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				send(exchange, 200, "cached=" + cache.size() + " hits=" + cache.getHits() + " misses="
+						+ cache.getMisses() + " evictions=" + cache.getEvictions());
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+}
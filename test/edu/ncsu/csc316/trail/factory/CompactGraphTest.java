@@ -0,0 +1,156 @@
+/**
+ *
+ */
+package edu.ncsu.csc316.trail.factory;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+
+/** Test class for CompactGraph
+ * @author Sumit Biswas
+ *
+ */
+public class CompactGraphTest {
+
+	/** Graph used for testing */
+	private CompactGraph<String> graph;
+	/** Vertices of the graph */
+	private Vertex<String> a, b, c, d;
+
+	/** Creates a weight for an edge
+	 * @param length is the weight
+	 * @return a Weighted with the given weight
+	 */
+	private static Weighted length(final int length) {
+		return new Weighted() {
+			@Override
+			public int getWeight() {
+				return length;
+			}
+		};
+	}
+
+	/** Setup
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		graph = DSAFactory.getCompactUndirectedGraph();
+		a = graph.insertVertex("A");
+		b = graph.insertVertex("B");
+		c = graph.insertVertex("C");
+		d = graph.insertVertex("D");
+		graph.insertEdge(a, b, length(10));
+		graph.insertEdge(b, c, length(20));
+		graph.insertEdge(c, a, length(30));
+	}
+
+	/** Tests inserting and looking up vertices and edges */
+	@Test
+	public void testInsertAndGetEdge() {
+		assertFalse(graph.isDirected());
+		assertEquals(4, graph.numVertices());
+		assertEquals(3, graph.numEdges());
+		assertEquals(20, graph.getEdge(c, b).getElement().getWeight());
+		assertEquals(graph.getEdge(a, c), graph.getEdge(c, a));
+		assertNull(graph.getEdge(a, d));
+		assertEquals(2, graph.outDegree(a));
+		assertEquals(0, graph.inDegree(d));
+		Vertex<String>[] ends = graph.endVertices(graph.getEdge(b, a));
+		assertSame(a, ends[0]);
+		assertSame(b, ends[1]);
+		assertSame(c, graph.opposite(b, graph.getEdge(b, c)));
+		try {
+			graph.insertEdge(b, a, length(5));
+			fail("Parallel edges should be rejected");
+		} catch (IllegalArgumentException e) {
+			assertEquals(3, graph.numEdges());
+		}
+	}
+
+	/** Tests iterating over vertices and incident edges */
+	@Test
+	public void testIteration() {
+		StringBuilder sb = new StringBuilder();
+		for (Vertex<String> v : graph.vertices()) {
+			sb.append(v.getElement());
+			for (Edge<Weighted> e : graph.outgoingEdges(v)) {
+				sb.append(e.getElement().getWeight());
+			}
+		}
+		assertEquals("A1030B1020C2030D", sb.toString());
+		int total = 0;
+		for (Edge<Weighted> e : graph.edges()) {
+			total += e.getElement().getWeight();
+		}
+		assertEquals(60, total);
+	}
+
+	/** Tests removing vertices and edges, before and after trimming */
+	@Test
+	public void testRemoveAndTrim() {
+		graph.trimToSize();
+		assertEquals(10, graph.getEdge(b, a).getElement().getWeight());
+		graph.removeEdge(graph.getEdge(a, b));
+		assertNull(graph.getEdge(a, b));
+		assertEquals(2, graph.numEdges());
+		Edge<Weighted> e = graph.insertEdge(a, d, length(40));
+		assertEquals(e, graph.getEdge(d, a));
+		graph.removeVertex(c);
+		assertEquals(3, graph.numVertices());
+		assertEquals(1, graph.numEdges());
+		assertEquals(0, graph.outDegree(b));
+		try {
+			graph.outDegree(c);
+			fail("Removed vertices should be rejected");
+		} catch (IllegalArgumentException ex) {
+			assertEquals(1, graph.outDegree(a));
+		}
+	}
+
+	/** Tests building a graph in one step with a CompactGraphBuilder */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testBuilder() {
+		CompactGraphBuilder<String> builder = DSAFactory.getCompactGraphBuilder(1, 1);
+		for (String name : new String[] { "A", "B", "C", "D" }) {
+			builder.addVertex(name);
+		}
+		assertEquals(-1, builder.addEdge(0, 1, 5));
+		assertEquals(-1, builder.addEdge(2, 1, 7));
+		assertEquals(0, builder.addEdge(1, 0, 3));
+		assertEquals(-1, builder.addEdge(3, 3, 2));
+		assertEquals(1, builder.addEdge(1, 2, 9));
+		builder.setWeight(0, builder.getWeight(0) - 1);
+		assertEquals(4, builder.numVertices());
+		assertEquals(3, builder.numEdges());
+		try {
+			builder.addEdge(0, 4, 1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			assertNotNull(e.getMessage());
+		}
+		CompactGraph<String> built = builder.build();
+		assertEquals(4, built.numVertices());
+		assertEquals(3, built.numEdges());
+		@SuppressWarnings("unchecked")
+		Vertex<String>[] v = (Vertex<String>[]) new Vertex<?>[4];
+		for (Vertex<String> vertex : built.vertices()) {
+			v["ABCD".indexOf(vertex.getElement())] = vertex;
+		}
+		assertEquals(4, built.getEdge(v[1], v[0]).getElement().getWeight());
+		assertEquals(7, built.getEdge(v[1], v[2]).getElement().getWeight());
+		assertEquals(2, built.outDegree(v[1]));
+		assertEquals(1, built.outDegree(v[3]));
+		assertNull(built.getEdge(v[0], v[2]));
+		built.insertEdge(v[0], v[2], length(1));
+		assertEquals(4, built.numEdges());
+		assertEquals(v[2], built.opposite(v[0], built.getEdge(v[2], v[0])));
+	}
+}
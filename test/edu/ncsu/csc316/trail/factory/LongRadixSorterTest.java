@@ -0,0 +1,53 @@
+/**
+ *
+ */
+package edu.ncsu.csc316.trail.factory;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Test class for LongRadixSorter
+ * @author Sumit Biswas
+ *
+ */
+public class LongRadixSorterTest {
+
+	/** Tests that keys end up in unsigned order, that equal keys keep the order
+	 * of their values, and that entries past the size are left alone */
+	@Test
+	public void testSort() {
+		LongRadixSorter sorter = DSAFactory.getLongRadixSorter();
+		Random random = new Random(316);
+		for (int run = 0; run < 50; run++) {
+			int size = random.nextInt(2000);
+			long[] keys = new long[size + 3];
+			int[] values = new int[size + 3];
+			int bits = 1 + random.nextInt(64);
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = random.nextLong() >>> (64 - bits);
+				if (random.nextBoolean()) {
+					keys[i] = keys[i] << (64 - bits) | 7;
+				}
+				values[i] = i;
+			}
+			long[] tail = { keys[size], keys[size + 1], keys[size + 2] };
+			sorter.sort(keys, values, size);
+			for (int i = 1; i < size; i++) {
+				int c = Long.compareUnsigned(keys[i - 1], keys[i]);
+				assertTrue(c < 0 || c == 0 && values[i - 1] < values[i]);
+			}
+			for (int i = 0; i < 3; i++) {
+				assertEquals(tail[i], keys[size + i]);
+				assertEquals(size + i, values[size + i]);
+			}
+		}
+		long[] keys = { -1L, 0L, Long.MIN_VALUE, Long.MAX_VALUE };
+		int[] values = { 0, 1, 2, 3 };
+		sorter.sort(keys, values, keys.length);
+		assertArrayEquals(new long[] { 0L, Long.MAX_VALUE, Long.MIN_VALUE, -1L }, keys);
+		assertArrayEquals(new int[] { 1, 3, 2, 0 }, values);
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ *
+ */
+package edu.ncsu.csc316.trail.factory;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+
+/** Test class for ShortestPathEngine
+ * @author Sumit Biswas
+ *
+ */
+public class ShortestPathEngineTest {
+
+	/** Creates a weight for an edge
+	 * @param length is the weight
+	 * @return a Weighted with the given weight
+	 */
+	private static Weighted length(final int length) {
+		return new Weighted() {
+			@Override
+			public int getWeight() {
+				return length;
+			}
+		};
+	}
+
+	/** Tests routes on a small graph with two components */
+	@Test
+	public void testSmallGraph() {
+		CompactGraph<String> graph = DSAFactory.getCompactUndirectedGraph();
+		Vertex<String> a = graph.insertVertex("A");
+		Vertex<String> b = graph.insertVertex("B");
+		Vertex<String> c = graph.insertVertex("C");
+		Vertex<String> d = graph.insertVertex("D");
+		Vertex<String> e = graph.insertVertex("E");
+		graph.insertEdge(a, b, length(10));
+		graph.insertEdge(b, c, length(20));
+		graph.insertEdge(c, a, length(50));
+		graph.insertEdge(d, e, length(5));
+		ShortestPathEngine<String> engine = DSAFactory.getShortestPathEngine(graph, 0);
+		assertEquals(0, engine.getLandmarkCount());
+		int ia = engine.id(a);
+		int ic = engine.id(c);
+		assertEquals(30, engine.distance(ia, ic));
+		assertEquals(30, engine.distance(ic, ia));
+		assertEquals(0, engine.distance(ia, ia));
+		assertEquals(-1, engine.distance(ia, engine.id(e)));
+		assertNull(engine.path(ia, engine.id(d)));
+		int[] path = engine.path(ia, ic);
+		assertEquals(3, path.length);
+		assertEquals("A", engine.vertex(path[0]).getElement());
+		assertEquals("B", engine.vertex(path[1]).getElement());
+		assertEquals("C", engine.vertex(path[2]).getElement());
+		assertEquals(1, engine.path(ic, ic).length);
+		try {
+			engine.vertex(engine.vertexIdBound());
+			fail();
+		} catch (IndexOutOfBoundsException ex) {
+			assertNotNull(ex.getMessage());
+		}
+		Graph<String, Weighted> generic = DSAFactory.getUndirectedGraph();
+		Vertex<String> x = generic.insertVertex("X");
+		Vertex<String> y = generic.insertVertex("Y");
+		Vertex<String> z = generic.insertVertex("Z");
+		generic.insertEdge(x, y, length(7));
+		generic.insertEdge(y, z, length(8));
+		generic.insertEdge(x, z, length(20));
+		ShortestPathEngine<String> other = DSAFactory.getShortestPathEngine(generic, 2);
+		assertEquals(2, other.getLandmarkCount());
+		assertEquals(15, other.distance(other.id(x), other.id(z)));
+		assertEquals(3, other.path(other.id(z), other.id(x)).length);
+		try {
+			DSAFactory.getShortestPathEngine(generic, -1);
+			fail();
+		} catch (IllegalArgumentException ex) {
+			assertNotNull(ex.getMessage());
+		}
+	}
+
+	/** Compares distances and paths with a plain Dijkstra search on random graphs */
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(316);
+		for (int round = 0; round < 20; round++) {
+			int n = 2 + random.nextInt(60);
+			int m = random.nextInt(n * 3);
+			CompactGraph<Integer> graph = DSAFactory.getCompactUndirectedGraph();
+			@SuppressWarnings("unchecked")
+			Vertex<Integer>[] vertices = (Vertex<Integer>[]) new Vertex<?>[n];
+			for (int i = 0; i < n; i++) {
+				vertices[i] = graph.insertVertex(i);
+			}
+			int[][] weights = new int[n][n];
+			for (int[] row : weights) {
+				Arrays.fill(row, -1);
+			}
+			for (int i = 0; i < m; i++) {
+				int u = random.nextInt(n);
+				int v = random.nextInt(n);
+				if (u != v && weights[u][v] < 0) {
+					int w = random.nextInt(100);
+					weights[u][v] = w;
+					weights[v][u] = w;
+					graph.insertEdge(vertices[u], vertices[v], length(w));
+				}
+			}
+			for (int landmarks = 0; landmarks <= 3; landmarks += 3) {
+				ShortestPathEngine<Integer> engine = DSAFactory.getShortestPathEngine(graph, landmarks);
+				for (int s = 0; s < n; s++) {
+					long[] expected = dijkstra(weights, s);
+					for (int t = 0; t < n; t++) {
+						int from = engine.id(vertices[s]);
+						int to = engine.id(vertices[t]);
+						assertEquals(expected[t], engine.distance(from, to));
+						int[] path = engine.path(from, to);
+						if (expected[t] < 0) {
+							assertNull(path);
+						} else {
+							assertEquals(Integer.valueOf(s), engine.vertex(path[0]).getElement());
+							assertEquals(Integer.valueOf(t), engine.vertex(path[path.length - 1]).getElement());
+							long total = 0;
+							for (int i = 1; i < path.length; i++) {
+								int u = engine.vertex(path[i - 1]).getElement();
+								int v = engine.vertex(path[i]).getElement();
+								assertTrue(weights[u][v] >= 0);
+								total += weights[u][v];
+							}
+							assertEquals(expected[t], total);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/** Computes the distances from a vertex with a quadratic Dijkstra search
+	 * @param weights is the weight of each edge, or -1 where there is none
+	 * @param source is the start vertex
+	 * @return the distance to each vertex, or -1 if it cannot be reached
+	 */
+	private static long[] dijkstra(int[][] weights, int source) {
+		int n = weights.length;
+		long[] dist = new long[n];
+		boolean[] done = new boolean[n];
+		Arrays.fill(dist, -1);
+		dist[source] = 0;
+		for (int k = 0; k < n; k++) {
+			int u = -1;
+			for (int i = 0; i < n; i++) {
+				if (!done[i] && dist[i] >= 0 && (u < 0 || dist[i] < dist[u])) {
+					u = i;
+				}
+			}
+			if (u < 0) {
+				break;
+			}
+			done[u] = true;
+			for (int v = 0; v < n; v++) {
+				if (weights[u][v] >= 0 && (dist[v] < 0 || dist[u] + weights[u][v] < dist[v])) {
+					dist[v] = dist[u] + weights[u][v];
+				}
+			}
+		}
+		return dist;
+	}
+}
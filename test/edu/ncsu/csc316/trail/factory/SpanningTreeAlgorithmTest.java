@@ -0,0 +1,162 @@
+/**
+ *
+ */
+package edu.ncsu.csc316.trail.factory;
+
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.graph.MinimumSpanningTreeUtil;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+
+/** Test class for the spanning tree algorithms
+ * @author Sumit Biswas
+ *
+ */
+public class SpanningTreeAlgorithmTest {
+
+	/** Creates a weight for an edge
+	 * @param length is the weight
+	 * @return a Weighted with the given weight
+	 */
+	private static Weighted length(final int length) {
+		return new Weighted() {
+			@Override
+			public int getWeight() {
+				return length;
+			}
+		};
+	}
+
+	/** Fills a graph with random edges between groups of vertices that are not
+	 * joined to each other, using few distinct weights so there are many ties
+	 * @param graph is the graph to fill
+	 * @param random is the source of the edges
+	 * @param vertices is the number of vertices
+	 * @param edges is the number of edges
+	 * @param groups is the number of groups
+	 */
+	private static void fill(Graph<Integer, Weighted> graph, Random random, int vertices, int edges, int groups) {
+		@SuppressWarnings("unchecked")
+		Vertex<Integer>[] v = (Vertex<Integer>[]) new Vertex<?>[vertices];
+		for (int i = 0; i < vertices; i++) {
+			v[i] = graph.insertVertex(i);
+		}
+		for (int i = 0; i < edges; i++) {
+			int one = random.nextInt(vertices);
+			int two = random.nextInt(vertices);
+			two -= two % groups;
+			two += one % groups;
+			if (two >= vertices) {
+				two -= groups;
+			}
+			if (one != two && graph.getEdge(v[one], v[two]) == null) {
+				graph.insertEdge(v[one], v[two], length(random.nextInt(5) - 2));
+			}
+		}
+	}
+
+	/** Returns the total weight of a list of edges
+	 * @param list is the list
+	 * @return the total weight
+	 */
+	private static long weight(PositionalList<Edge<Weighted>> list) {
+		long total = 0;
+		for (Edge<Weighted> e : list) {
+			total += e.getElement().getWeight();
+		}
+		return total;
+	}
+
+	/** Checks that two lists hold the same edges in the same order
+	 * @param expected is the expected list
+	 * @param actual is the actual list
+	 */
+	private static void assertSameEdges(PositionalList<Edge<Weighted>> expected, PositionalList<Edge<Weighted>> actual) {
+		assertEquals(expected.size(), actual.size());
+		Iterator<Edge<Weighted>> it = actual.iterator();
+		for (Edge<Weighted> e : expected) {
+			assertEquals(e, it.next());
+		}
+	}
+
+	/** Tests Kruskal's algorithm against the library on connected graphs with
+	 * many trails of equal length, which must choose the same edges in the same
+	 * order, and on a graph with several components and an isolated vertex */
+	@Test
+	public void testKruskal() {
+		SpanningTreeAlgorithm kruskal = DSAFactory.getSequentialSpanningTreeAlgorithm();
+		Random random = new Random(316);
+		for (int run = 0; run < 20; run++) {
+			Graph<Integer, Weighted> graph;
+			if (run % 2 == 0) {
+				graph = DSAFactory.getUndirectedGraph();
+			} else {
+				graph = DSAFactory.getCompactUndirectedGraph();
+			}
+			fill(graph, random, 30, 120, 1);
+			Vertex<Integer> first = graph.vertices().iterator().next();
+			for (Vertex<Integer> v : graph.vertices()) {
+				if (v != first && graph.getEdge(first, v) == null) {
+					graph.insertEdge(first, v, length(1000));
+				}
+			}
+			PositionalList<Edge<Weighted>> tree = kruskal.minimumSpanningForest(graph);
+			assertEquals(29, tree.size());
+			assertSameEdges(MinimumSpanningTreeUtil.kruskal(graph), tree);
+			int previous = Integer.MIN_VALUE;
+			for (Edge<Weighted> e : tree) {
+				assertTrue(previous <= e.getElement().getWeight());
+				previous = e.getElement().getWeight();
+			}
+		}
+
+		Graph<Integer, Weighted> graph = DSAFactory.getUndirectedGraph();
+		fill(graph, random, 40, 400, 3);
+		graph.insertVertex(40);
+		PositionalList<Edge<Weighted>> forest = kruskal.minimumSpanningForest(graph);
+		assertEquals(41 - 4, forest.size());
+		assertEquals(0, kruskal.minimumSpanningForest(DSAFactory.<Integer, Weighted>getUndirectedGraph()).size());
+	}
+
+	/** Tests that parallel Boruvka returns exactly the edges of Kruskal's
+	 * algorithm, on compact and library graphs, with and without components */
+	@Test
+	public void testBoruvkaMatchesKruskal() {
+		SpanningTreeAlgorithm kruskal = DSAFactory.getSequentialSpanningTreeAlgorithm();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			SpanningTreeAlgorithm boruvka = new BoruvkaSpanningTree(pool, 0);
+			Random random = new Random(2024);
+			for (int run = 0; run < 30; run++) {
+				int vertices = 1 + random.nextInt(3000);
+				int edges = random.nextInt(4 * vertices + 1);
+				int groups = 1 + random.nextInt(4);
+				Graph<Integer, Weighted> graph;
+				if (run % 3 == 0) {
+					graph = DSAFactory.getUndirectedGraph();
+				} else {
+					graph = DSAFactory.getCompactUndirectedGraph();
+				}
+				fill(graph, random, vertices, edges, groups);
+				if (run % 3 == 2) {
+					Vertex<Integer> removed = graph.vertices().iterator().next();
+					graph.removeVertex(removed);
+					graph = DSAFactory.getUnmodifiableGraph(graph);
+				}
+				assertSameEdges(kruskal.minimumSpanningForest(graph), boruvka.minimumSpanningForest(graph));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ *
+ */
+package edu.ncsu.csc316.trail.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.trail.io.StreamingTrailReader.TrailHandler;
+
+/** Test class for ParallelTrailReader and StreamingTrailReader
+ * @author Sumit Biswas
+ *
+ */
+public class ParallelTrailReaderTest {
+
+	/** Handler that records every trail it receives */
+	private static class Recorder implements TrailHandler {
+
+		/** Trails received so far */
+		private StringBuilder trails = new StringBuilder();
+
+		@Override
+		public void handleTrail(String attractionOne, String attractionTwo, int length) {
+			trails.append(attractionOne).append('|').append(attractionTwo).append('|').append(length).append('\n');
+		}
+	}
+
+	/**
+	 * Tests that the parallel reader hands over the same trails in the same order
+	 * as the streaming reader, whatever the chunk size
+	 *
+	 * @throws Exception if an input file cannot be read
+	 */
+	@Test
+	public void testSameTrailsAsStreaming() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for (String path : new String[] { "input/sample.csv", "input/sample2.csv" }) {
+			Recorder expected = new Recorder();
+			int rows = StreamingTrailReader.readTrails(path, expected);
+			for (int chunkSize : new int[] { 1, 7, 40, ParallelTrailReader.DEFAULT_CHUNK_SIZE }) {
+				Recorder actual = new Recorder();
+				assertEquals(rows, ParallelTrailReader.readTrails(path, actual, pool, chunkSize));
+				assertEquals(expected.trails.toString(), actual.trails.toString());
+			}
+		}
+		pool.shutdown();
+	}
+
+	/**
+	 * Tests that invalid trail files are rejected
+	 *
+	 * @throws Exception if an input file cannot be read
+	 */
+	@Test
+	public void testInvalidFiles() throws Exception {
+		try {
+			ParallelTrailReader.readTrails("input/empty.csv", new Recorder());
+			fail("A file without trail data should be rejected");
+		} catch (IllegalArgumentException e) {
+			assertNotNull(e.getMessage());
+		}
+		try {
+			ParallelTrailReader.readTrails("input/missing.csv", new Recorder());
+			fail("A missing file should be rejected");
+		} catch (FileNotFoundException e) {
+			assertNotNull(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that both readers reject a trail with a negative length, with the
+	 * line it is on, like any other length that is not a whole number of feet
+	 *
+	 * @throws Exception if the trail file cannot be written or read
+	 */
+	@Test
+	public void testNegativeLength() throws Exception {
+		File file = File.createTempFile("negative", ".csv");
+		PrintWriter out = new PrintWriter(file, "UTF-8");
+		try {
+			out.println("ATTRACTION_ONE,ATTRACTION_TWO,LENGTH_OF_TRAIL_IN_FEET");
+			out.println("Airlie Gardens,Beautiful Falls,5808");
+			out.println("Beautiful Falls,Coffee Shop,-3168");
+		} finally {
+			out.close();
+		}
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			try {
+				StreamingTrailReader.readTrails(file.getPath(), new Recorder());
+				fail("A negative trail length should be rejected");
+			} catch (IllegalArgumentException e) {
+				assertEquals("Line 3 has an invalid trail length.", e.getMessage());
+			}
+			for (int chunkSize : new int[] { 1, 7, ParallelTrailReader.DEFAULT_CHUNK_SIZE }) {
+				try {
+					ParallelTrailReader.readTrails(file.getPath(), new Recorder(), pool, chunkSize);
+					fail("A negative trail length should be rejected");
+				} catch (IllegalArgumentException e) {
+					assertEquals("Line 3 has an invalid trail length.", e.getMessage());
+				}
+			}
+		} finally {
+			pool.shutdown();
+			assertTrue(file.delete());
+		}
+	}
+}
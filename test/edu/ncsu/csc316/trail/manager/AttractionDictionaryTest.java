@@ -0,0 +1,64 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.trail.data.Attraction;
+
+/** Test class for AttractionDictionary
+ * @author Sumit Biswas
+ *
+ */
+public class AttractionDictionaryTest {
+
+	/**
+	 * Tests that the attraction dictionary interns each name once, ranks the
+	 * names in order and keeps ranking after attractions are added and removed
+	 * 
+	 * @throws FileNotFoundException if the sample file cannot be read
+	 */
+	@Test
+	public void testAttractionDictionary() throws FileNotFoundException {
+		TrailManager trails = new TrailManager("input/sample2.csv");
+		AttractionDictionary dictionary = trails.getDictionary();
+		assertEquals(6, dictionary.size());
+		String[] firstSeen = { "Airlie Gardens", "Beautiful Falls", "Dog Park", "Coffee Shop", "Elephant Sculpture",
+				"Chicken Coop" };
+		int[] ranks = { 0, 1, 4, 3, 5, 2 };
+		for (int id = 0; id < firstSeen.length; id++) {
+			assertEquals(id, dictionary.getId(firstSeen[id]));
+			assertEquals(firstSeen[id], dictionary.getAttraction(id).getName());
+			assertEquals(ranks[id], dictionary.getRanks()[id]);
+			assertSame(dictionary.getAttraction(id), dictionary.getAttractionsByName()[ranks[id]]);
+			assertEquals(id, dictionary.intern(firstSeen[id]));
+		}
+		for (Vertex<Attraction> v : trails.getGraph().vertices()) {
+			assertSame(dictionary.getAttraction(dictionary.getId(v.getElement())), v.getElement());
+		}
+		assertEquals(-1, dictionary.getId("Gift Shop"));
+		try {
+			dictionary.getRank(new Attraction("Gift Shop"));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unknown attraction Gift Shop.", e.getMessage());
+		}
+
+		trails.addTrail("Bird Bath", "Dog Park", 10);
+		assertEquals(7, dictionary.size());
+		assertEquals(6, dictionary.getId("Bird Bath"));
+		assertEquals(2, dictionary.getRank(new Attraction("Bird Bath")));
+		assertEquals(3, dictionary.getRank(new Attraction("Chicken Coop")));
+		assertTrue(trails.removeTrail("Bird Bath", "Dog Park"));
+		assertEquals(6, dictionary.getId("Bird Bath"));
+		assertEquals(1, trails.getSortedAttractionsWithLongTrails(5300).size());
+		assertEquals("Airlie Gardens", trails.getSortedAttractionsWithLongTrails(5300).get(0).getName());
+		assertEquals(6, trails.getRestroomIndex().countLongerThan(0));
+	}
+}
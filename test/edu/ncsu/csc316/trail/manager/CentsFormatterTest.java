@@ -0,0 +1,39 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/** Test class for CentsFormatter
+ * @author Sumit Biswas
+ *
+ */
+public class CentsFormatterTest {
+
+	/**
+	 * Tests that costs formatted with integer arithmetic match String.format,
+	 * including costs on a half cent and costs too large for a long
+	 */
+	@Test
+	public void testCentsFormatter() {
+		double[] costs = { 1.25, 0.335, 1.005, 0.01, 0.125, 2.675, 1e-9, 123456.789, 1e17, Math.PI, 0.1 };
+		int[] lengths = { 1, 3, 7, 10, 999, 5808, 123456789, Integer.MAX_VALUE };
+		for (double cost : costs) {
+			CentsFormatter formatter = new CentsFormatter(cost);
+			assertEquals(String.format("%.2f", cost), formatter.appendCostPerFoot(new StringBuilder()).toString());
+			double total = 0;
+			long totalLength = 0;
+			for (int length : lengths) {
+				assertEquals(String.format("%.2f", length * cost),
+						formatter.appendCost(new StringBuilder(), length).toString());
+				total += cost * length;
+				totalLength += length;
+			}
+			assertEquals(String.format("%.2f", total),
+					formatter.appendTotal(new StringBuilder(), totalLength, total, lengths.length).toString());
+		}
+	}
+}
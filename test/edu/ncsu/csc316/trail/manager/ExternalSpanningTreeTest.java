@@ -0,0 +1,94 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/** Test class for ExternalSpanningTree
+ * @author Sumit Biswas
+ *
+ */
+public class ExternalSpanningTreeTest {
+
+	/** TrailReportManager of the sample trails, used for the expected reports */
+	private TrailReportManager manager;
+
+	/** Setup
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		manager = new TrailReportManager("input/sample2.csv");
+	}
+
+	/**
+	 * Tests that the least costly trails found out of core give the same report
+	 * as the trail graph for both duplicate policies, whether the records fit in
+	 * memory, are spilled to a few runs or to more runs than are merged at once,
+	 * and that the spilled runs are deleted
+	 * 
+	 * @throws Exception if a trail file or a run cannot be written or read
+	 */
+	@Test
+	public void testExternalSpanningTree() throws Exception {
+		File directory = File.createTempFile("runs", "");
+		assertTrue(directory.delete());
+		assertTrue(directory.mkdir());
+		try {
+			ExternalSpanningTree sample = new ExternalSpanningTree("input/sample2.csv", DuplicateTrailPolicy.FIRST);
+			assertEquals(0, sample.getSpilledRuns());
+			assertEquals(5, sample.size());
+			assertEquals(manager.getLeastCostlyTrailsReport(.5), TrailReportManager.getLeastCostlyTrailsReport(sample, .5));
+			assertEquals("Construction cost per linear foot must be > $0.00.",
+					TrailReportManager.getLeastCostlyTrailsReport(sample, 0));
+
+			Random random = new Random(25);
+			for (int dataset = 0; dataset < 3; dataset++) {
+				File file = TrailTestUtil.writeDataset(random, 100 + 100 * dataset, 25 + dataset);
+				try {
+					for (DuplicateTrailPolicy policy : DuplicateTrailPolicy.values()) {
+						String expected = new TrailReportManager(new TrailManager(file.getPath(), policy))
+								.getLeastCostlyTrailsReport(1.25);
+						for (int recordsPerRun : new int[] { 2, 7, 1000, ExternalSpanningTree.DEFAULT_RECORDS_PER_RUN }) {
+							ExternalSpanningTree tree = new ExternalSpanningTree(file.getPath(), policy, directory,
+									recordsPerRun);
+							assertEquals(expected, TrailReportManager.getLeastCostlyTrailsReport(tree, 1.25));
+							StringWriter out = new StringWriter();
+							TrailReportManager.writeLeastCostlyTrailsReport(tree, 1.25, out);
+							assertEquals(expected, out.toString());
+							assertEquals(recordsPerRun < 1000, tree.getSpilledRuns() > 0);
+							assertEquals(0, directory.list().length);
+						}
+					}
+				} finally {
+					file.delete();
+				}
+			}
+			try {
+				new ExternalSpanningTree("input/sample2.csv", DuplicateTrailPolicy.FIRST, directory, 1);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("At least 2 records must be sorted in memory.", e.getMessage());
+			}
+			try {
+				sample.getLength(5);
+				fail();
+			} catch (IndexOutOfBoundsException e) {
+				assertNotNull(e.getMessage());
+			}
+		} finally {
+			for (File f : directory.listFiles()) {
+				f.delete();
+			}
+			directory.delete();
+		}
+	}
+}
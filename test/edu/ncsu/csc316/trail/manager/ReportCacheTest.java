@@ -0,0 +1,76 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/** Test class for ReportCache
+ * @author Sumit Biswas
+ *
+ */
+public class ReportCacheTest {
+
+	/** TrailReportManager of the sample trails, used for the expected reports */
+	private TrailReportManager manager;
+
+	/** Setup
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		manager = new TrailReportManager("input/sample2.csv");
+	}
+
+	/**
+	 * Tests that repeated reports are served from the report cache, that the
+	 * cache stays within its bounds and that changing the trails invalidates it
+	 * 
+	 * @throws Exception if the sample file cannot be read or a report written
+	 */
+	@Test
+	public void testReportCache() throws Exception {
+		TrailManager trails = new TrailManager("input/sample2.csv");
+		TrailReportManager reports = new TrailReportManager(trails, new ReportCache(2, 1 << 20));
+		ReportCache cache = reports.getReportCache();
+		String first = reports.getLeastCostlyTrailsReport(.50);
+		assertSame(first, reports.getLeastCostlyTrailsReport(.50));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		StringWriter out = new StringWriter();
+		reports.writeLeastCostlyTrailsReport(.50, out);
+		assertEquals(first, out.toString());
+		assertEquals(2, cache.getHits());
+
+		reports.getRestroomLocations(5000);
+		reports.getTrailSignLocations();
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(2 * (reports.getRestroomLocations(5000).length() + reports.getTrailSignLocations().length())
+				+ 2 * 96, cache.getBytes());
+
+		trails.addTrail("Dog Park", "Gift Shop", 10);
+		String changed = reports.getTrailSignLocations();
+		assertEquals(2, cache.getInvalidations());
+		assertEquals(1, cache.size());
+		assertEquals(new TrailReportManager(trails, new ReportCache(0, 0)).getTrailSignLocations(), changed);
+		assertEquals(-1, reports.getRestroomLocations(5000).indexOf("Gift Shop"));
+		assertTrue(trails.removeTrail("Dog Park", "Gift Shop"));
+		assertEquals(manager.getLeastCostlyTrailsReport(.50), reports.getLeastCostlyTrailsReport(.50));
+
+		ReportCache small = new ReportCache(8, first.length());
+		reports = new TrailReportManager(trails, small);
+		reports.getLeastCostlyTrailsReport(.50);
+		reports.getLeastCostlyTrailsReport(.50);
+		assertEquals(0, small.size());
+		assertEquals(0, small.getHits());
+		reports.getTrailSignLocations();
+		reports.getRestroomLocations(5000);
+		assertTrue(small.getBytes() <= first.length());
+	}
+}
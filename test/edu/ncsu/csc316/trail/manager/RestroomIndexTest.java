@@ -0,0 +1,69 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.trail.data.Attraction;
+
+/** Test class for RestroomIndex
+ * @author Sumit Biswas
+ *
+ */
+public class RestroomIndexTest {
+
+	/**
+	 * Tests that the restroom index finds the same attractions as a scan of every
+	 * trail, in name order, for every threshold
+	 * 
+	 * @throws Exception if a dataset cannot be written or read
+	 */
+	@Test
+	public void testRestroomIndex() throws Exception {
+		File file = TrailTestUtil.writeDataset(new Random(7), 300, 0);
+		try {
+			for (String path : new String[] { "input/sample2.csv", file.getPath() }) {
+				TrailManager trails = new TrailManager(path);
+				Graph<Attraction, Weighted> graph = trails.getGraph();
+				RestroomIndex index = trails.getRestroomIndex();
+				assertSame(index, trails.getRestroomIndex());
+				assertEquals(graph.numVertices(), index.size());
+				for (int threshold = 0; threshold <= 10000; threshold += threshold < 1000 ? 7 : 500) {
+					List<String> expected = new ArrayList<String>();
+					for (Vertex<Attraction> v : graph.vertices()) {
+						boolean longer = true;
+						for (Edge<Weighted> e : graph.outgoingEdges(v)) {
+							longer &= e.getElement().getWeight() > threshold;
+						}
+						if (longer) {
+							expected.add(v.getElement().getName());
+						}
+					}
+					Collections.sort(expected);
+					edu.ncsu.csc316.dsa.list.List<Attraction> actual = trails.getSortedAttractionsWithLongTrails(threshold);
+					assertEquals(expected.size(), actual.size());
+					assertEquals(expected.size(), index.countLongerThan(threshold));
+					assertEquals(expected.size(), trails.getAttractionsWithLongTrails(threshold).size());
+					for (int i = 0; i < actual.size(); i++) {
+						assertEquals(expected.get(i), actual.get(i).getName());
+					}
+				}
+			}
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+}
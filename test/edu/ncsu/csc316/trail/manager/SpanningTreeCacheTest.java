@@ -0,0 +1,50 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/** Test class for SpanningTreeCache
+ * @author Sumit Biswas
+ *
+ */
+public class SpanningTreeCacheTest {
+
+	/**
+	 * Tests that the least costly trails are computed once and shared by every report
+	 * 
+	 * @throws Exception if the input file cannot be read
+	 */
+	@Test
+	public void testSpanningTreeCache() throws Exception {
+		TrailManager trails = new TrailManager("input/sample2.csv");
+		SpanningTreeCache cache = trails.getSpanningTreeCache();
+		assertFalse(cache.isCached());
+		assertEquals(5, trails.getLeastCostlyTrails().size());
+		assertEquals(6, trails.getTrailIntersectionFrequencies().size());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertSame(trails.getLeastCostlyTrails(), trails.getLeastCostlyTrails());
+		try {
+			trails.getLeastCostlyTrails().addLast(null);
+			fail("The cached spanning tree should be read-only");
+		} catch (UnsupportedOperationException e) {
+			assertEquals(5, trails.getLeastCostlyTrails().size());
+		}
+		cache.invalidate();
+		assertFalse(cache.isCached());
+		trails.getLeastCostlyTrails();
+		assertEquals(2, cache.getMisses());
+		int hits = cache.getHits();
+		trails.addTrail("Airlie Gardens", "Zoo", 10);
+		assertEquals(6, trails.getLeastCostlyTrails().size());
+		assertEquals(1, cache.getRebuilds());
+		assertEquals(hits, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		trails.getLeastCostlyTrails();
+		assertEquals(hits + 1, cache.getHits());
+	}
+}
@@ -0,0 +1,152 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+
+/** Test class for SpanningTreeSensitivity
+ * @author Sumit Biswas
+ *
+ */
+public class SpanningTreeSensitivityTest {
+
+	/**
+	 * Tests the sensitivity report, and compares the replacement of every least
+	 * costly trail with the least costly trails computed again without it
+	 * 
+	 * @throws Exception if a trail file cannot be written or read
+	 */
+	@Test
+	public void testSensitivityReport() throws Exception {
+		TrailReportManager sample = new TrailReportManager("input/sample.csv");
+		String report = sample.getSensitivityReport(1);
+		assertTrue(report.startsWith("Trail Sensitivity ($1.00 per linear foot) [\n"));
+		assertTrue(report.contains("   from Airlie Gardens to Beautiful Falls (5808 feet) -> "
+				+ "from Airlie Gardens to Dog Park (6336 feet), 528 more feet for $528.00\n"));
+		assertTrue(report.contains("   from Beautiful Falls to Coffee Shop (3168 feet) -> "
+				+ "from Beautiful Falls to Dog Park (4224 feet), 1056 more feet"));
+		assertTrue(report.endsWith("528 more feet for $528.00\n]"));
+		assertSame(report, sample.getSensitivityReport(1));
+		StringWriter out = new StringWriter();
+		sample.writeSensitivityReport(1, out);
+		assertEquals(report, out.toString());
+		assertEquals("Construction cost per linear foot must be > $0.00.", sample.getSensitivityReport(0));
+		sample.getTrailManager().addTrail("Elephant Sculpture", "Zoo", 100);
+		assertTrue(sample.getSensitivityReport(1)
+				.startsWith("Trail Sensitivity ($1.00 per linear foot) [\n"
+						+ "   from Elephant Sculpture to Zoo (100 feet) -> no replacement\n"));
+
+		Random random = new Random(22);
+		for (int round = 0; round < 5; round++) {
+			File file = File.createTempFile("sensitivity", ".csv");
+			PrintWriter writer = new PrintWriter(file, "UTF-8");
+			try {
+				writer.println("ATTRACTION_ONE,ATTRACTION_TWO,LENGTH_OF_TRAIL_IN_FEET");
+				for (int i = 0; i < 30; i++) {
+					int one = random.nextInt(12);
+					int two = random.nextInt(12);
+					if (one != two) {
+						writer.println("A" + one + ",A" + two + "," + (1 + random.nextInt(50)));
+					}
+				}
+			} finally {
+				writer.close();
+			}
+			try {
+				TrailManager manager = new TrailManager(file.getPath());
+				long total = TrailTestUtil.totalLength(manager.getLeastCostlyTrails());
+				int trails = manager.getLeastCostlyTrails().size();
+				SpanningTreeSensitivity sensitivity = manager.getSpanningTreeSensitivity();
+				assertEquals(trails, sensitivity.size());
+				int size = sensitivity.size();
+				String[][] names = new String[size][2];
+				int[] lengths = new int[size];
+				long[] increases = new long[size];
+				for (int i = 0; i < size; i++) {
+					Vertex<Attraction>[] ends = manager.getGraph().endVertices(sensitivity.getTreeEdge(i));
+					names[i][0] = ends[0].getElement().getName();
+					names[i][1] = ends[1].getElement().getName();
+					lengths[i] = sensitivity.getTreeEdge(i).getElement().getWeight();
+					increases[i] = sensitivity.getIncrease(i);
+				}
+				for (int i = 0; i < size; i++) {
+					assertTrue(manager.removeTrail(names[i][0], names[i][1]));
+					PositionalList<Edge<Weighted>> tree = manager.getLeastCostlyTrails();
+					if (increases[i] < 0) {
+						assertEquals(trails - 1, tree.size());
+					} else {
+						assertEquals(trails, tree.size());
+						assertEquals(total + increases[i], TrailTestUtil.totalLength(tree));
+					}
+					manager.addTrail(names[i][0], names[i][1], lengths[i]);
+				}
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Tests that a trail with a negative length is ordered before longer trails
+	 * when the cheapest replacement of each tree trail is chosen
+	 */
+	@Test
+	public void testSensitivityNegativeLengths() {
+		AttractionDictionary dictionary = new AttractionDictionary();
+		Graph<Attraction, Weighted> graph = DSAFactory.getUndirectedGraph();
+		@SuppressWarnings("unchecked")
+		Vertex<Attraction>[] v = (Vertex<Attraction>[]) new Vertex<?>[4];
+		for (int i = 0; i < v.length; i++) {
+			v[i] = graph.insertVertex(dictionary.getAttraction(dictionary.intern(String.valueOf((char) ('A' + i)))));
+		}
+		graph.insertEdge(v[0], v[1], length(-10));
+		graph.insertEdge(v[1], v[2], length(-10));
+		graph.insertEdge(v[2], v[3], length(-10));
+		Edge<Weighted> shortcut = graph.insertEdge(v[0], v[2], length(-5));
+		Edge<Weighted> outer = graph.insertEdge(v[0], v[3], length(3));
+		PositionalList<Edge<Weighted>> tree = DSAFactory.getSpanningTreeAlgorithm().minimumSpanningForest(graph);
+		SpanningTreeSensitivity sensitivity = new SpanningTreeSensitivity(graph, tree, dictionary);
+		assertEquals(3, sensitivity.size());
+		for (int i = 0; i < sensitivity.size(); i++) {
+			Edge<Weighted> e = sensitivity.getTreeEdge(i);
+			if (e == graph.getEdge(v[2], v[3])) {
+				assertSame(outer, sensitivity.getReplacement(i));
+				assertEquals(13, sensitivity.getIncrease(i));
+			} else {
+				assertSame(shortcut, sensitivity.getReplacement(i));
+				assertEquals(5, sensitivity.getIncrease(i));
+			}
+		}
+	}
+
+	/**
+	 * Returns a trail length
+	 * 
+	 * @param length the length
+	 * @return a Weighted with the given length
+	 */
+	private static Weighted length(final int length) {
+		return new Weighted() {
+			@Override
+			public int getWeight() {
+				return length;
+			}
+		};
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.trail.data.Attraction;
+import edu.ncsu.csc316.trail.factory.DSAFactory;
+
+/** Test class for TrailDegrees
+ * @author Sumit Biswas
+ *
+ */
+public class TrailDegreesTest {
+
+	/**
+	 * Tests that the trail counts agree with the intersection frequencies, that
+	 * counting in parallel gives the same counts, and that the top attractions
+	 * are the first of the sorted attractions, also on a loaded compact graph
+	 * 
+	 * @throws Exception if the dataset cannot be written or read
+	 */
+	@Test
+	public void testTrailDegrees() throws Exception {
+		Random random = new Random(23);
+		AttractionDictionary dictionary = new AttractionDictionary();
+		Graph<Attraction, Weighted> graph = DSAFactory.getUndirectedGraph();
+		@SuppressWarnings("unchecked")
+		Vertex<Attraction>[] vertices = (Vertex<Attraction>[]) new Vertex<?>[300];
+		for (int i = 0; i < vertices.length; i++) {
+			vertices[i] = graph.insertVertex(dictionary.getAttraction(dictionary.intern("A" + i)));
+		}
+		for (int i = 1; i < vertices.length; i++) {
+			final int length = 1 + random.nextInt(100);
+			graph.insertEdge(vertices[random.nextInt(i)], vertices[i], new Weighted() {
+				@Override
+				public int getWeight() {
+					return length;
+				}
+			});
+		}
+		PositionalList<Edge<Weighted>> tree = DSAFactory.getSpanningTreeAlgorithm().minimumSpanningForest(graph);
+		TrailDegrees sequential = new TrailDegrees(graph, tree, dictionary);
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			TrailDegrees parallel = new TrailDegrees(graph, tree, dictionary, pool, 8);
+			int[] sorted = sequential.sorted(1);
+			assertEquals(vertices.length, sorted.length);
+			int total = 0;
+			for (int id = 0; id < sequential.size(); id++) {
+				assertEquals(sequential.getDegree(id), parallel.getDegree(id));
+				total += sequential.getDegree(id);
+			}
+			assertEquals(2 * (vertices.length - 1), total);
+			for (int i = 1; i < sorted.length; i++) {
+				int before = sequential.getDegree(sorted[i - 1]);
+				int after = sequential.getDegree(sorted[i]);
+				assertTrue(before > after || before == after
+						&& dictionary.getRank(dictionary.getAttraction(sorted[i - 1])) < dictionary
+								.getRank(dictionary.getAttraction(sorted[i])));
+			}
+			int[] signs = sequential.sorted(3);
+			assertEquals(signs.length, sequential.filter(3).length);
+			for (int k = 0; k <= signs.length + 1; k++) {
+				int[] top = sequential.top(k, 3);
+				assertEquals(Math.min(k, signs.length), top.length);
+				for (int i = 0; i < top.length; i++) {
+					assertEquals(signs[i], top[i]);
+				}
+			}
+
+			File file = TrailTestUtil.writeDataset(random, 500, 23);
+			try {
+				TrailManager trails = new TrailManager(file.getPath());
+				trails.addTrail("Park 23 Stop 1", "Park 23 Stop 499", 1);
+				TrailDegrees loaded = trails.getTrailDegrees();
+				TrailDegrees compact = new TrailDegrees(trails.getGraph(), trails.getLeastCostlyTrails(),
+						trails.getDictionary(), pool, 16);
+				assertEquals(loaded.size(), compact.size());
+				for (int id = 0; id < loaded.size(); id++) {
+					assertEquals(loaded.getDegree(id), compact.getDegree(id));
+				}
+			} finally {
+				file.delete();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/** Test class for TrailGraphSnapshot
+ * @author Sumit Biswas
+ *
+ */
+public class TrailGraphSnapshotTest {
+
+	/** TrailReportManager of the sample trails, used for the expected reports */
+	private TrailReportManager manager;
+
+	/** Setup
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		manager = new TrailReportManager("input/sample2.csv");
+	}
+
+	/**
+	 * Tests that a saved snapshot loads into the same trail network, with its
+	 * least costly trails already computed
+	 * 
+	 * @throws Exception if a file cannot be read or written
+	 */
+	@Test
+	public void testSnapshot() throws Exception {
+		File file = File.createTempFile("sample2", TrailGraphSnapshot.EXTENSION);
+		try {
+			manager.saveSnapshot(file.getPath());
+			TrailReportManager loaded = new TrailReportManager(file.getPath());
+			assertEquals(manager.getLeastCostlyTrailsReport(1.25), loaded.getLeastCostlyTrailsReport(1.25));
+			assertEquals(manager.getRestroomLocations(4000), loaded.getRestroomLocations(4000));
+			assertEquals(manager.getTrailSignLocations(), loaded.getTrailSignLocations());
+			
+			TrailManager trails = new TrailManager(file.getPath());
+			trails.getLeastCostlyTrails();
+			assertEquals(0, trails.getSpanningTreeCache().getMisses());
+			trails.saveSnapshot(file.getPath(), false);
+			trails = new TrailManager(file.getPath());
+			assertFalse(trails.getSpanningTreeCache().isCached());
+			assertEquals(5, trails.getLeastCostlyTrails().size());
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+
+	/**
+	 * Tests that a snapshot whose header counts do not fit the file is rejected
+	 * before anything is allocated for it
+	 * 
+	 * @throws Exception if the snapshot cannot be written
+	 */
+	@Test
+	public void testCorruptSnapshot() throws Exception {
+		File file = File.createTempFile("sample2", TrailGraphSnapshot.EXTENSION);
+		try {
+			// vertex, edge and tree counts follow the magic number and version
+			int[][] headers = { { -1, 6, 5 }, { 5, Integer.MAX_VALUE, 5 }, { Integer.MAX_VALUE, 6, 5 },
+					{ 5, -6, 5 }, { 5, 6, Integer.MAX_VALUE }, { 5, 6, -2 } };
+			for (int[] header : headers) {
+				manager.saveSnapshot(file.getPath());
+				RandomAccessFile out = new RandomAccessFile(file, "rw");
+				try {
+					out.seek(8);
+					for (int count : header) {
+						out.writeInt(count);
+					}
+				} finally {
+					out.close();
+				}
+				try {
+					new TrailManager(file.getPath());
+					fail();
+				} catch (IllegalArgumentException e) {
+					assertEquals("The snapshot " + file.getPath() + " is truncated or corrupt.", e.getMessage());
+				}
+			}
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+}
@@ -5,9 +5,28 @@ package edu.ncsu.csc316.trail.manager;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.dsa.map.Map.Entry;
+import edu.ncsu.csc316.trail.data.Attraction;
 import edu.ncsu.csc316.trail.factory.DSAFactory;
 
 /** Test class for TrailReportManager and TrailManager
@@ -70,4 +89,402 @@ public class TrailReportManagerTest {
 		assertEquals(expected, result);
 	}
 
+	/**
+	 * Test method for {@link edu.ncsu.csc316.trail.manager.TrailReportManager#getTrailSignLocations(int)}.
+	 * 
+	 * @throws IOException if the report cannot be written
+	 */
+	@Test
+	public void testGetTrailSignLocationsLimit() throws IOException {
+		String expected = "Attractions that need a trail navigation sign [\n   Beautiful Falls: 3 intersecting trails\n   Coffee Shop: 3 intersecting trails\n]";
+		assertEquals("Attractions that need a trail navigation sign [\n   Beautiful Falls: 3 intersecting trails\n]",
+				manager.getTrailSignLocations(1));
+		assertEquals(expected, manager.getTrailSignLocations(5));
+		assertEquals("Number of sign locations must be >= 0.", manager.getTrailSignLocations(-1));
+		StringWriter out = new StringWriter();
+		manager.writeTrailSignLocations(-1, out);
+		assertEquals("Number of sign locations must be >= 0.", out.toString());
+	}
+
+	/**
+	 * Tests that invalid trail files are rejected while loading
+	 * 
+	 * @throws Exception if the input file cannot be read
+	 */
+	@Test
+	public void testInvalidFiles() throws Exception {
+		try {
+			new TrailManager("input/empty.csv");
+			fail("A file without trail data should be rejected");
+		} catch (IllegalArgumentException e) {
+			assertNotNull(e.getMessage());
+		}
+		try {
+			new TrailManager("input/missing.csv");
+			fail("A missing file should be rejected");
+		} catch (FileNotFoundException e) {
+			assertNotNull(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that several trail networks can be analyzed in parallel, each report
+	 * manager producing the same reports as a single-threaded run
+	 * 
+	 * @throws Exception if a dataset cannot be written or read
+	 */
+	@Test
+	public void testConcurrentReports() throws Exception {
+		int datasets = 6;
+		Random random = new Random(316);
+		File[] files = new File[datasets];
+		String[] expected = new String[datasets];
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			for (int i = 0; i < datasets; i++) {
+				files[i] = TrailTestUtil.writeDataset(random, 40 + 20 * i, i);
+				expected[i] = reports(new TrailReportManager(files[i].getPath()));
+			}
+			final TrailReportManager[] shared = new TrailReportManager[datasets];
+			ArrayList<Future<String>> results = new ArrayList<Future<String>>();
+			for (int round = 0; round < 4; round++) {
+				for (int i = 0; i < datasets; i++) {
+					final String path = files[i].getPath();
+					final int index = i;
+					if (round == 0) {
+						shared[i] = new TrailReportManager(path);
+					}
+					results.add(pool.submit(new Callable<String>() {
+						@Override
+						public String call() throws Exception {
+							return reports(new TrailReportManager(path));
+						}
+					}));
+					results.add(pool.submit(new Callable<String>() {
+						@Override
+						public String call() throws Exception {
+							return reports(shared[index]);
+						}
+					}));
+				}
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(expected[i / 2 % datasets], results.get(i).get());
+			}
+		} finally {
+			pool.shutdown();
+			for (File file : files) {
+				if (file != null) {
+					assertTrue(file.delete());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that sensitivity reports, both as Strings and written to a Writer,
+	 * stay consistent while other threads remove, add and change trails and add
+	 * new attractions
+	 * 
+	 * @throws Exception if the dataset cannot be written or read
+	 */
+	@Test
+	public void testConcurrentSensitivityReport() throws Exception {
+		File file = TrailTestUtil.writeDataset(new Random(22), 60, 22);
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		try {
+			final TrailReportManager reports = new TrailReportManager(file.getPath());
+			final TrailManager trails = reports.getTrailManager();
+			Future<?> editor = pool.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					Random random = new Random(23);
+					for (int i = 0; i < 400; i++) {
+						String one = "Park 22 Stop " + random.nextInt(60);
+						String two = "Park 22 Stop " + random.nextInt(60);
+						if (one.equals(two)) {
+							continue;
+						}
+						if (trails.removeTrail(one, two)) {
+							trails.addTrail(one, two, 1 + random.nextInt(1000));
+							trails.updateLength(one, two, 1 + random.nextInt(1000));
+						}
+						trails.removeTrail(one, two);
+						trails.addTrail(one, "New Stop " + i, 1 + random.nextInt(1000));
+					}
+					return null;
+				}
+			});
+			ArrayList<Future<Integer>> readers = new ArrayList<Future<Integer>>();
+			for (int t = 0; t < 2; t++) {
+				final boolean write = t == 1;
+				readers.add(pool.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws IOException {
+						int count = 0;
+						while (count < 50 || !editor.isDone()) {
+							String report;
+							if (write) {
+								StringWriter out = new StringWriter();
+								reports.writeSensitivityReport(1, out);
+								report = out.toString();
+							} else {
+								report = reports.getSensitivityReport(1);
+							}
+							assertTrue(report.startsWith("Trail Sensitivity ($1.00 per linear foot) [\n"));
+							assertTrue(report.endsWith("]"));
+							count++;
+						}
+						return count;
+					}
+				}));
+			}
+			editor.get();
+			for (Future<Integer> reader : readers) {
+				assertTrue(reader.get() >= 50);
+			}
+			StringWriter out = new StringWriter();
+			reports.writeSensitivityReport(1, out);
+			assertEquals(new TrailReportManager(trails).getSensitivityReport(1), out.toString());
+		} finally {
+			pool.shutdown();
+			assertTrue(file.delete());
+		}
+	}
+
+	/**
+	 * Tests that the batch reports match one report per scenario, including
+	 * invalid scenarios
+	 */
+	@Test
+	public void testBatchReports() {
+		double[] costs = { 1.25, 0, 2.5, 0.01, -3, 1000.99 };
+		edu.ncsu.csc316.dsa.list.List<String> trailReports = manager.getLeastCostlyTrailsReports(costs);
+		assertEquals(costs.length, trailReports.size());
+		for (int i = 0; i < costs.length; i++) {
+			assertEquals(manager.getLeastCostlyTrailsReport(costs[i]), trailReports.get(i));
+		}
+		assertEquals("Construction cost per linear foot must be > $0.00.", trailReports.get(1));
+		int[] thresholds = { 4000, 0, 1, 5000, 6000, 100000, -5 };
+		edu.ncsu.csc316.dsa.list.List<String> restroomReports = manager.getRestroomLocations(thresholds);
+		assertEquals(thresholds.length, restroomReports.size());
+		for (int i = 0; i < thresholds.length; i++) {
+			assertEquals(manager.getRestroomLocations(thresholds[i]), restroomReports.get(i));
+		}
+		assertEquals(0, manager.getLeastCostlyTrailsReports(new double[0]).size());
+	}
+
+	/**
+	 * Tests that reports streamed to a writer match the String reports, and that
+	 * write errors reach the caller
+	 * 
+	 * @throws Exception if a dataset cannot be written or read
+	 */
+	@Test
+	public void testWriteReports() throws Exception {
+		File file = TrailTestUtil.writeDataset(new Random(11), 3000, 0);
+		try {
+			TrailReportManager large = new TrailReportManager(file.getPath());
+			for (TrailReportManager reports : new TrailReportManager[] { manager, large }) {
+				for (double cost : new double[] { 1.25, 0 }) {
+					StringWriter out = new StringWriter();
+					reports.writeLeastCostlyTrailsReport(cost, out);
+					assertEquals(reports.getLeastCostlyTrailsReport(cost), out.toString());
+				}
+				for (int threshold : new int[] { 4000, 100, 0, 1000000 }) {
+					StringWriter out = new StringWriter();
+					reports.writeRestroomLocations(threshold, out);
+					assertEquals(reports.getRestroomLocations(threshold), out.toString());
+				}
+				StringWriter out = new StringWriter();
+				reports.writeTrailSignLocations(out);
+				assertEquals(reports.getTrailSignLocations(), out.toString());
+			}
+			assertTrue(large.getLeastCostlyTrailsReport(1.25).length() > 8192 * 4);
+			Writer broken = new Writer() {
+				@Override
+				public void write(char[] cbuf, int off, int len) throws IOException {
+					throw new IOException("disk full");
+				}
+
+				@Override
+				public void flush() {
+					// nothing is buffered
+				}
+
+				@Override
+				public void close() {
+					// nothing to release
+				}
+			};
+			try {
+				large.writeLeastCostlyTrailsReport(1.25, broken);
+				fail("A failed write should be reported");
+			} catch (IOException e) {
+				assertEquals("disk full", e.getMessage());
+			}
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+
+	/**
+	 * Tests that adding, removing and changing trails keeps the least costly
+	 * trails minimal without computing them again
+	 * 
+	 * @throws Exception if a dataset cannot be written or read
+	 */
+	@Test
+	public void testIncrementalChanges() throws Exception {
+		TrailManager trails = new TrailManager("input/sample2.csv");
+		TrailReportManager reports = new TrailReportManager(trails);
+		assertEquals("Minimum Trails for $23100.00 ($1.25 per linear foot) [\n"
+				+ "   from Coffee Shop to Dog Park (2640 feet for $3300.00)\n"
+				+ "   from Beautiful Falls to Coffee Shop (3168 feet for $3960.00)\n"
+				+ "   from Beautiful Falls to Chicken Coop (3168 feet for $3960.00)\n"
+				+ "   from Coffee Shop to Elephant Sculpture (3696 feet for $4620.00)\n"
+				+ "   from Airlie Gardens to Beautiful Falls (5808 feet for $7260.00)\n"
+				+ "]", reports.getLeastCostlyTrailsReport(1.25));
+		trails.updateLength("Airlie Gardens", "Dog Park", 1000);
+		trails.updateLength("Coffee Shop", "Elephant Sculpture", 100);
+		assertEquals("Minimum Trails for $12595.00 ($1.25 per linear foot) [\n"
+				+ "   from Coffee Shop to Elephant Sculpture (100 feet for $125.00)\n"
+				+ "   from Airlie Gardens to Dog Park (1000 feet for $1250.00)\n"
+				+ "   from Coffee Shop to Dog Park (2640 feet for $3300.00)\n"
+				+ "   from Beautiful Falls to Coffee Shop (3168 feet for $3960.00)\n"
+				+ "   from Beautiful Falls to Chicken Coop (3168 feet for $3960.00)\n"
+				+ "]", reports.getLeastCostlyTrailsReport(1.25));
+		trails.addTrail("Dog Park", "Gift Shop", 10);
+		assertEquals(1, trails.getTrailIntersectionFrequencies().get(new Attraction("Gift Shop")).intValue());
+		assertTrue(trails.removeTrail("Dog Park", "Gift Shop"));
+		assertNull(trails.getTrailIntersectionFrequencies().get(new Attraction("Gift Shop")));
+		assertEquals(6, trails.getGraph().numVertices());
+		assertTrue(trails.removeTrail("Coffee Shop", "Dog Park"));
+		assertFalse(trails.removeTrail("Coffee Shop", "Dog Park"));
+		assertFalse(trails.removeTrail("Coffee Shop", "Nowhere"));
+		assertEquals(TrailTestUtil.treeWeight(trails.getGraph()),
+				TrailTestUtil.totalLength(trails.getLeastCostlyTrails()));
+		assertEquals(1, trails.getSpanningTreeCache().getMisses());
+		try {
+			trails.addTrail("Airlie Gardens", "Dog Park", 5);
+			fail("An existing trail should not be added again");
+		} catch (IllegalArgumentException e) {
+			assertNotNull(e.getMessage());
+		}
+		try {
+			trails.updateLength("Airlie Gardens", "Nowhere", 5);
+			fail("A missing trail should not be changed");
+		} catch (IllegalArgumentException e) {
+			assertNotNull(e.getMessage());
+		}
+		long version = trails.getVersion();
+		try {
+			trails.addTrail("Airlie Gardens", "Gift Shop", -5);
+			fail("A negative length should not be added");
+		} catch (IllegalArgumentException e) {
+			assertEquals("The trail from Airlie Gardens to Gift Shop has an invalid trail length.", e.getMessage());
+		}
+		try {
+			trails.updateLength("Airlie Gardens", "Dog Park", -1);
+			fail("A negative length should not be set");
+		} catch (IllegalArgumentException e) {
+			assertEquals("The trail from Airlie Gardens to Dog Park has an invalid trail length.", e.getMessage());
+		}
+		assertEquals(version, trails.getVersion());
+		assertNull(trails.getTrailIntersectionFrequencies().get(new Attraction("Gift Shop")));
+		
+		File file = TrailTestUtil.writeDataset(new Random(12), 60, 0);
+		try {
+			trails = new TrailManager(file.getPath());
+			reports = new TrailReportManager(trails);
+			Random random = new Random(13);
+			trails.getLeastCostlyTrails();
+			for (int step = 0; step < 400; step++) {
+				String one = "Park 0 Stop " + random.nextInt(70);
+				String two = "Park 0 Stop " + random.nextInt(70);
+				int length = 1 + random.nextInt(1000);
+				int action = random.nextInt(3);
+				if (one.equals(two)) {
+					continue;
+				} else if (action == 0) {
+					try {
+						trails.addTrail(one, two, length);
+					} catch (IllegalArgumentException e) {
+						trails.updateLength(one, two, length);
+					}
+				} else if (action == 1) {
+					trails.removeTrail(one, two);
+				} else if (!trails.removeTrail(one, two)) {
+					trails.addTrail(one, two, length);
+				} else {
+					trails.addTrail(one, two, length);
+				}
+				Graph<Attraction, Weighted> graph = trails.getGraph();
+				PositionalList<Edge<Weighted>> tree = trails.getLeastCostlyTrails();
+				assertEquals(TrailTestUtil.treeWeight(graph), TrailTestUtil.totalLength(tree));
+				assertEquals(graph.numVertices() - TrailTestUtil.components(graph), tree.size());
+				int degrees = 0;
+				for (Entry<Attraction, Integer> entry : trails.getTrailIntersectionFrequencies().entrySet()) {
+					degrees += entry.getValue();
+				}
+				assertEquals(2 * tree.size(), degrees);
+				assertEquals(graph.numVertices(), trails.getRestroomIndex().size());
+				assertTrue(reports.getLeastCostlyTrailsReport(1)
+						.startsWith("Minimum Trails for $" + TrailTestUtil.totalLength(tree) + ".00"));
+			}
+			assertEquals(1, trails.getSpanningTreeCache().getMisses());
+			assertTrue(trails.getSpanningTreeCache().getUpdates() > 0);
+			assertTrue(trails.getSpanningTreeCache().getRebuilds() > 0);
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+
+	/**
+	 * Returns every report of a report manager
+	 * 
+	 * @param reports the report manager
+	 * @return the concatenated reports
+	 */
+	private static String reports(TrailReportManager reports) {
+		return reports.getLeastCostlyTrailsReport(1.25) + reports.getRestroomLocations(300)
+				+ reports.getTrailSignLocations();
+	}
+
+	/**
+	 * Tests that parallel trails keep the first or the shortest trail listed,
+	 * depending on the duplicate trail policy
+	 * 
+	 * @throws Exception if the trail file cannot be written or read
+	 */
+	@Test
+	public void testDuplicateTrailPolicy() throws Exception {
+		File file = File.createTempFile("duplicates", ".csv");
+		PrintWriter out = new PrintWriter(file, "UTF-8");
+		try {
+			out.println("ATTRACTION_ONE,ATTRACTION_TWO,LENGTH_OF_TRAIL_IN_FEET");
+			out.println("Airlie Gardens,Beautiful Falls,300");
+			out.println("Beautiful Falls,Coffee Shop,200");
+			out.println("Beautiful Falls,Airlie Gardens,100");
+			out.println("Coffee Shop,Beautiful Falls,400");
+		} finally {
+			out.close();
+		}
+		try {
+			TrailManager first = new TrailManager(file.getPath());
+			TrailManager shortest = new TrailManager(file.getPath(), DuplicateTrailPolicy.SHORTEST);
+			assertEquals(2, first.getGraph().numEdges());
+			assertEquals(2, shortest.getGraph().numEdges());
+			assertEquals("Minimum Trails for $500.00 ($1.00 per linear foot) [\n"
+					+ "   from Beautiful Falls to Coffee Shop (200 feet for $200.00)\n"
+					+ "   from Airlie Gardens to Beautiful Falls (300 feet for $300.00)\n]",
+					new TrailReportManager(first).getLeastCostlyTrailsReport(1));
+			assertEquals("Minimum Trails for $300.00 ($1.00 per linear foot) [\n"
+					+ "   from Airlie Gardens to Beautiful Falls (100 feet for $100.00)\n"
+					+ "   from Beautiful Falls to Coffee Shop (200 feet for $200.00)\n]",
+					new TrailReportManager(shortest).getLeastCostlyTrailsReport(1));
+		} finally {
+			file.delete();
+		}
+	}
 }
@@ -0,0 +1,52 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/** Test class for TrailRouter
+ * @author Sumit Biswas
+ *
+ */
+public class TrailRouterTest {
+
+	/**
+	 * Tests shortest route queries, with and without landmarks, and that the
+	 * router follows changes to the trails
+	 * 
+	 * @throws Exception if the trail file cannot be read
+	 */
+	@Test
+	public void testShortestRoute() throws Exception {
+		TrailManager manager = new TrailManager("input/sample.csv");
+		TrailRoute route = manager.getShortestRoute("Airlie Gardens", "Elephant Sculpture");
+		assertNotNull(route);
+		assertEquals("Airlie Gardens", route.getAttractions().get(0).getName());
+		assertEquals("Elephant Sculpture", route.getAttractions().get(route.getAttractions().size() - 1).getName());
+		assertEquals(route.getLength(), manager.getRouteLength("Elephant Sculpture", "Airlie Gardens"));
+		assertEquals(0, manager.getRouteLength("Airlie Gardens", "Airlie Gardens"));
+		manager.setRouteLandmarks(0);
+		assertEquals(0, manager.getRouter().getLandmarkCount());
+		assertEquals(route.getLength(), manager.getRouteLength("Airlie Gardens", "Elephant Sculpture"));
+		try {
+			manager.getRouteLength("Airlie Gardens", "Nowhere");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unknown attraction Nowhere.", e.getMessage());
+		}
+		try {
+			manager.setRouteLandmarks(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNotNull(e.getMessage());
+		}
+		TrailRouter before = manager.getRouter();
+		manager.addTrail("Airlie Gardens", "Elephant Sculpture", 1);
+		assertFalse(before == manager.getRouter());
+		assertEquals(1, manager.getRouteLength("Elephant Sculpture", "Airlie Gardens"));
+		assertEquals(2, manager.getShortestRoute("Airlie Gardens", "Elephant Sculpture").getAttractions().size());
+	}
+}
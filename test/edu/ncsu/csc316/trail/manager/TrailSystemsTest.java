@@ -0,0 +1,156 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/** Test class for TrailSystems
+ * @author Sumit Biswas
+ *
+ */
+public class TrailSystemsTest {
+
+	/**
+	 * Tests the reports with a section for each trail system, that their
+	 * sections add up to the report of the whole network, that writing them gives
+	 * the same text, and that finding the systems in parallel gives the same
+	 * systems
+	 * 
+	 * @throws Exception if the trail file cannot be written or read
+	 */
+	@Test
+	public void testTrailSystems() throws Exception {
+		File file = File.createTempFile("systems", ".csv");
+		PrintWriter out = new PrintWriter(file, "UTF-8");
+		try {
+			out.println("ATTRACTION_ONE,ATTRACTION_TWO,LENGTH_OF_TRAIL_IN_FEET");
+			java.util.Scanner in = new java.util.Scanner(new File("input/sample2.csv"), "UTF-8");
+			try {
+				in.nextLine();
+				while (in.hasNextLine()) {
+					out.println(in.nextLine());
+				}
+			} finally {
+				in.close();
+			}
+			out.println("Zoo Gate,Yacht Club,1000");
+			out.println("Yacht Club,Xeriscape Garden,6000");
+			out.println("Zoo Gate,Xeriscape Garden,7000");
+			out.println("Yacht Club,Waterfall,500");
+			out.println("Yacht Club,Visitor Center,800");
+			out.println("Market Square,Lighthouse,5400");
+		} finally {
+			out.close();
+		}
+		try {
+			TrailReportManager reports = new TrailReportManager(file.getPath());
+			TrailSystems systems = reports.getTrailManager().getTrailSystems();
+			assertEquals(3, systems.getCount());
+			assertEquals("Airlie Gardens", systems.getFirstAttraction(0).getName());
+			assertEquals(6, systems.getSize(0));
+			assertEquals("Lighthouse", systems.getFirstAttraction(1).getName());
+			assertEquals("Visitor Center", systems.getFirstAttraction(2).getName());
+			assertSame(systems, reports.getTrailManager().getTrailSystems());
+
+			String expected = "Minimum Trails for $16090.00 ($0.50 per linear foot) in 3 trail systems [\n"
+					+ "   Trail system of Airlie Gardens (6 attractions) for $9240.00 [\n"
+					+ "      from Coffee Shop to Dog Park (2640 feet for $1320.00)\n"
+					+ "      from Beautiful Falls to Coffee Shop (3168 feet for $1584.00)\n"
+					+ "      from Beautiful Falls to Chicken Coop (3168 feet for $1584.00)\n"
+					+ "      from Coffee Shop to Elephant Sculpture (3696 feet for $1848.00)\n"
+					+ "      from Airlie Gardens to Beautiful Falls (5808 feet for $2904.00)\n" + "   ]\n"
+					+ "   Trail system of Lighthouse (2 attractions) for $2700.00 [\n"
+					+ "      from Lighthouse to Market Square (5400 feet for $2700.00)\n" + "   ]\n"
+					+ "   Trail system of Visitor Center (5 attractions) for $4150.00 [\n"
+					+ "      from Waterfall to Yacht Club (500 feet for $250.00)\n"
+					+ "      from Visitor Center to Yacht Club (800 feet for $400.00)\n"
+					+ "      from Yacht Club to Zoo Gate (1000 feet for $500.00)\n"
+					+ "      from Xeriscape Garden to Yacht Club (6000 feet for $3000.00)\n" + "   ]\n" + "]";
+			assertEquals(expected, reports.getLeastCostlyTrailsReportBySystem(.5));
+			assertTrue(reports.getLeastCostlyTrailsReport(.5).startsWith("Minimum Trails for $16090.00 "));
+			assertSame(reports.getLeastCostlyTrailsReportBySystem(.5), reports.getLeastCostlyTrailsReportBySystem(.5));
+			StringWriter writer = new StringWriter();
+			reports.writeLeastCostlyTrailsReportBySystem(.5, writer);
+			assertEquals(expected, writer.toString());
+			assertEquals("Construction cost per linear foot must be > $0.00.",
+					reports.getLeastCostlyTrailsReportBySystem(0));
+
+			expected = "Attractions with adjacent trails longer than 5300 feet in 3 trail systems [\n"
+					+ "   Trail system of Airlie Gardens (1 of 6 attractions) [\n" + "      Airlie Gardens\n" + "   ]\n"
+					+ "   Trail system of Lighthouse (2 of 2 attractions) [\n" + "      Lighthouse\n"
+					+ "      Market Square\n" + "   ]\n" + "   Trail system of Visitor Center (1 of 5 attractions) [\n"
+					+ "      Xeriscape Garden\n" + "   ]\n" + "]";
+			assertEquals(expected, reports.getRestroomLocationsBySystem(5300));
+			writer = new StringWriter();
+			reports.writeRestroomLocationsBySystem(5300, writer);
+			assertEquals(expected, writer.toString());
+			assertEquals("No attractions are endpoints of trails longer than 9000 feet.",
+					reports.getRestroomLocationsBySystem(9000));
+			assertEquals("Trail length must be > 0 feet.", reports.getRestroomLocationsBySystem(0));
+
+			expected = "Attractions that need a trail navigation sign in 2 trail systems [\n"
+					+ "   Trail system of Airlie Gardens (2 of 6 attractions) [\n"
+					+ "      Beautiful Falls: 3 intersecting trails\n" + "      Coffee Shop: 3 intersecting trails\n"
+					+ "   ]\n" + "   Trail system of Visitor Center (1 of 5 attractions) [\n"
+					+ "      Yacht Club: 4 intersecting trails\n" + "   ]\n" + "]";
+			assertEquals(expected, reports.getTrailSignLocationsBySystem());
+			writer = new StringWriter();
+			reports.writeTrailSignLocationsBySystem(writer);
+			assertEquals(expected, writer.toString());
+
+			reports.getTrailManager().addTrail("Lighthouse", "Zoo Gate", 100);
+			assertFalse(systems == reports.getTrailManager().getTrailSystems());
+			assertEquals(2, reports.getTrailManager().getTrailSystems().getCount());
+			assertTrue(reports.getLeastCostlyTrailsReportBySystem(.5)
+					.startsWith("Minimum Trails for $16140.00 ($0.50 per linear foot) in 2 trail systems [\n"));
+		} finally {
+			file.delete();
+		}
+
+		Random random = new Random(24);
+		TrailManager manager = new TrailManager(TrailTestUtil.writeDataset(random, 400, 24).getPath());
+		for (int i = 0; i < 100; i++) {
+			manager.addTrail("Island " + i, "Island " + (i + random.nextInt(3) + 1), 1 + random.nextInt(1000));
+		}
+		TrailSystems sequential = manager.getTrailSystems();
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			TrailSystems parallel = new TrailSystems(manager.getGraph(), manager.getTrailDegrees(),
+					manager.getDictionary(), pool, 1);
+			assertEquals(TrailTestUtil.components(manager.getGraph()), sequential.getCount());
+			assertEquals(sequential.getCount(), parallel.getCount());
+			int attractions = 0;
+			for (int s = 0; s < sequential.getCount(); s++) {
+				attractions += sequential.getSize(s);
+				assertEquals(sequential.getSize(s), parallel.getSize(s));
+				assertSame(sequential.getFirstAttraction(s), parallel.getFirstAttraction(s));
+				assertEquals(sequential.getSignCount(s), parallel.getSignCount(s));
+				for (int i = 0; i < sequential.getSignCount(s); i++) {
+					assertSame(sequential.getSignAttraction(s, i), parallel.getSignAttraction(s, i));
+					assertEquals(sequential.getSignDegree(s, i), parallel.getSignDegree(s, i));
+				}
+				assertEquals(sequential.getSortedAttractionsLongerThan(s, 300).size(),
+						parallel.getSortedAttractionsLongerThan(s, 300).size());
+			}
+			assertEquals(manager.getGraph().numVertices(), attractions);
+		} finally {
+			pool.shutdown();
+		}
+		TrailReportManager reports = new TrailReportManager(manager);
+		String report = reports.getLeastCostlyTrailsReportBySystem(1);
+		StringWriter writer = new StringWriter();
+		reports.writeLeastCostlyTrailsReportBySystem(1, writer);
+		assertEquals(report, writer.toString());
+		String whole = reports.getLeastCostlyTrailsReport(1);
+		assertEquals(whole.substring(0, whole.indexOf(" [")), report.substring(0, report.indexOf(" in ")));
+	}
+}
@@ -0,0 +1,145 @@
+/**
+ * 
+ */
+package edu.ncsu.csc316.trail.manager;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import edu.ncsu.csc316.dsa.Weighted;
+import edu.ncsu.csc316.dsa.graph.Graph;
+import edu.ncsu.csc316.dsa.graph.Graph.Edge;
+import edu.ncsu.csc316.dsa.graph.Graph.Vertex;
+import edu.ncsu.csc316.dsa.list.positional.PositionalList;
+import edu.ncsu.csc316.trail.data.Attraction;
+
+/** Trail networks and spanning tree checks shared by the manager tests
+ * @author Sumit Biswas
+ *
+ */
+final class TrailTestUtil {
+
+	/**
+	 * Utility class, not instantiated
+	 */
+	private TrailTestUtil() {
+		// only static helpers
+	}
+
+	/**
+	 * Returns the total length of a list of trails
+	 * 
+	 * @param tree the trails
+	 * @return the sum of their lengths
+	 */
+	static long totalLength(PositionalList<Edge<Weighted>> tree) {
+		long total = 0;
+		for (Edge<Weighted> e : tree) {
+			total += e.getElement().getWeight();
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the total length of a minimum spanning forest of a graph, found by
+	 * Kruskal's algorithm with a simple union-find
+	 * 
+	 * @param graph the graph
+	 * @return the total length of its minimum spanning forest
+	 */
+	static long treeWeight(Graph<Attraction, Weighted> graph) {
+		List<Edge<Weighted>> edges = new ArrayList<Edge<Weighted>>();
+		for (Edge<Weighted> e : graph.edges()) {
+			edges.add(e);
+		}
+		Collections.sort(edges, new java.util.Comparator<Edge<Weighted>>() {
+			@Override
+			public int compare(Edge<Weighted> a, Edge<Weighted> b) {
+				return Integer.compare(a.getElement().getWeight(), b.getElement().getWeight());
+			}
+		});
+		java.util.Map<Vertex<Attraction>, Vertex<Attraction>> parent = new java.util.HashMap<Vertex<Attraction>, Vertex<Attraction>>();
+		long total = 0;
+		for (Edge<Weighted> e : edges) {
+			Vertex<Attraction>[] ends = graph.endVertices(e);
+			Vertex<Attraction> a = root(parent, ends[0]);
+			Vertex<Attraction> b = root(parent, ends[1]);
+			if (a != b) {
+				parent.put(a, b);
+				total += e.getElement().getWeight();
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the number of connected components of a graph
+	 * 
+	 * @param graph the graph
+	 * @return the number of components
+	 */
+	static int components(Graph<Attraction, Weighted> graph) {
+		java.util.Map<Vertex<Attraction>, Vertex<Attraction>> parent = new java.util.HashMap<Vertex<Attraction>, Vertex<Attraction>>();
+		int count = graph.numVertices();
+		for (Edge<Weighted> e : graph.edges()) {
+			Vertex<Attraction>[] ends = graph.endVertices(e);
+			Vertex<Attraction> a = root(parent, ends[0]);
+			Vertex<Attraction> b = root(parent, ends[1]);
+			if (a != b) {
+				parent.put(a, b);
+				count--;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the root of a vertex in a union-find forest
+	 * 
+	 * @param parent the parent of each vertex that is not a root
+	 * @param v      the vertex
+	 * @return the root of the vertex
+	 */
+	private static Vertex<Attraction> root(java.util.Map<Vertex<Attraction>, Vertex<Attraction>> parent,
+			Vertex<Attraction> v) {
+		Vertex<Attraction> p = parent.get(v);
+		while (p != null) {
+			v = p;
+			p = parent.get(v);
+		}
+		return v;
+	}
+
+	/**
+	 * Writes a random connected trail network to a temporary file
+	 * 
+	 * @param random      the source of trail lengths and endpoints
+	 * @param attractions the number of attractions
+	 * @param dataset     the number of the dataset, used in attraction names
+	 * @return the file holding the trail network
+	 * @throws Exception if the file cannot be written
+	 */
+	static File writeDataset(Random random, int attractions, int dataset) throws Exception {
+		File file = File.createTempFile("trails" + dataset, ".csv");
+		PrintWriter out = new PrintWriter(file, "UTF-8");
+		try {
+			out.println("ATTRACTION_ONE,ATTRACTION_TWO,LENGTH_OF_TRAIL_IN_FEET");
+			for (int i = 1; i < attractions; i++) {
+				int j = random.nextInt(i);
+				out.println("Park " + dataset + " Stop " + i + ",Park " + dataset + " Stop " + j + ","
+						+ (1 + random.nextInt(1000)));
+			}
+			for (int k = 0; k < attractions * 2; k++) {
+				out.println("Park " + dataset + " Stop " + random.nextInt(attractions) + ",Park " + dataset
+						+ " Stop " + random.nextInt(attractions) + "," + (1 + random.nextInt(1000)));
+			}
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+}
@@ -0,0 +1,179 @@
+/**
+ *
+ */
+package edu.ncsu.csc316.trail.metrics;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.trail.manager.TrailManager;
+import edu.ncsu.csc316.trail.manager.TrailReportManager;
+
+/** Test class for TrailMetrics
+ * @author Sumit Biswas
+ *
+ */
+public class TrailMetricsTest {
+
+	/** Number of measurements passed to the listener */
+	private int[] heard;
+	/** Listener that counts the measurements it receives */
+	private MetricsListener listener;
+
+	/** Starts each test with empty metrics and a counting listener */
+	@Before
+	public void setUp() {
+		TrailMetrics.reset();
+		heard = new int[TrailMetric.values().length];
+		listener = new MetricsListener() {
+			@Override
+			public void timed(TrailMetric metric, long nanos) {
+				heard[metric.ordinal()]++;
+			}
+
+			@Override
+			public void counted(TrailMetric metric, long amount) {
+				heard[metric.ordinal()] += amount;
+			}
+		};
+		TrailMetrics.addListener(listener);
+	}
+
+	/** Turns metrics back off after each test */
+	@After
+	public void tearDown() {
+		TrailMetrics.removeListener(listener);
+		TrailMetrics.setEnabled(false);
+		TrailMetrics.reset();
+	}
+
+	/** Tests that loading and reporting record their timers and counters, and
+	 * that the listener receives the same values
+	 * 
+	 * @throws Exception if the trail file cannot be written or read
+	 */
+	@Test
+	public void testRecording() throws Exception {
+		TrailMetrics.setEnabled(true);
+		File file = File.createTempFile("metrics", ".csv");
+		PrintWriter out = new PrintWriter(file, "UTF-8");
+		try {
+			out.println("ATTRACTION_ONE,ATTRACTION_TWO,LENGTH_OF_TRAIL_IN_FEET");
+			out.println("Airlie Gardens,Beautiful Falls,10");
+			out.println("Beautiful Falls,Coffee Shop,20");
+			out.println("Beautiful Falls,Airlie Gardens,30");
+			out.println("Beautiful Falls,Dog Park,40");
+		} finally {
+			out.close();
+		}
+		try {
+			TrailManager trails = new TrailManager(file.getPath());
+			assertEquals(1, TrailMetrics.getCount(TrailMetric.LOAD));
+			assertEquals(1, TrailMetrics.getCount(TrailMetric.PARSE));
+			assertEquals(1, TrailMetrics.getCount(TrailMetric.GRAPH_BUILD));
+			assertEquals(4, TrailMetrics.getCount(TrailMetric.VERTICES));
+			assertEquals(3, TrailMetrics.getCount(TrailMetric.EDGES));
+			assertEquals(1, TrailMetrics.getCount(TrailMetric.DUPLICATE_ROWS));
+			assertEquals(0, TrailMetrics.getCount(TrailMetric.SPANNING_TREE));
+
+			TrailReportManager reports = new TrailReportManager(trails);
+			String report = reports.getLeastCostlyTrailsReport(1.5);
+			StringWriter signs = new StringWriter();
+			reports.writeTrailSignLocations(signs);
+			String second = reports.getLeastCostlyTrailsReport(2.5);
+			assertEquals(1, TrailMetrics.getCount(TrailMetric.SPANNING_TREE));
+			assertEquals(2, TrailMetrics.getCount(TrailMetric.REPORT_LEAST_COSTLY_TRAILS));
+			assertEquals(1, TrailMetrics.getCount(TrailMetric.REPORT_TRAIL_SIGNS));
+			assertEquals(1, TrailMetrics.getCount(TrailMetric.QUERY_INTERSECTION_FREQUENCIES));
+			assertEquals(report.length() + second.length() + signs.toString().length(),
+					TrailMetrics.getCount(TrailMetric.OUTPUT_CHARACTERS));
+
+			for (TrailMetric m : TrailMetric.values()) {
+				assertEquals(m.name(), TrailMetrics.getCount(m), heard[m.ordinal()]);
+			}
+			LatencyHistogram load = TrailMetrics.getHistogram(TrailMetric.LOAD);
+			assertTrue(load.getMaxNanos() > 0);
+			assertEquals(load.getMaxNanos(), load.getTotalNanos());
+			assertEquals(load.getMaxNanos(), load.getPercentileNanos(50));
+		} finally {
+			file.delete();
+		}
+	}
+
+	/** Tests that nothing is recorded while metrics are disabled
+	 * 
+	 * @throws Exception if the sample file cannot be read
+	 */
+	@Test
+	public void testDisabled() throws Exception {
+		TrailMetrics.setEnabled(false);
+		long start = TrailMetrics.start();
+		TrailMetrics.stop(TrailMetric.LOAD, start);
+		TrailReportManager reports = new TrailReportManager("input/sample2.csv");
+		reports.getTrailSignLocations();
+		for (TrailMetric m : TrailMetric.values()) {
+			assertEquals(0, TrailMetrics.getCount(m));
+			assertEquals(0, heard[m.ordinal()]);
+		}
+	}
+
+	/** Tests the percentiles of a latency histogram */
+	@Test
+	public void testHistogram() {
+		LatencyHistogram h = new LatencyHistogram();
+		assertEquals(0, h.getPercentileNanos(99));
+		for (int i = 1; i <= 100; i++) {
+			h.record(i * 1000);
+		}
+		h.record(-5);
+		assertEquals(101, h.getCount());
+		assertEquals(5050000, h.getTotalNanos());
+		assertEquals(100000, h.getMaxNanos());
+		assertEquals(0, h.getPercentileNanos(0));
+		long median = h.getPercentileNanos(50);
+		assertTrue(median >= 50000 && median < 100000);
+		assertEquals(100000, h.getPercentileNanos(100));
+		h.reset();
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getMaxNanos());
+	}
+
+	/** Tests the metrics through the platform MBean server
+	 * 
+	 * @throws Exception if the MBean cannot be reached
+	 */
+	@Test
+	public void testMBean() throws Exception {
+		TrailMetrics.registerMBean();
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(TrailMetrics.OBJECT_NAME);
+			assertEquals(Boolean.FALSE, server.getAttribute(name, "Enabled"));
+			server.setAttribute(name, new Attribute("Enabled", Boolean.TRUE));
+			assertTrue(TrailMetrics.isEnabled());
+			TrailMetrics.count(TrailMetric.EDGES, 7);
+			TrailMetrics.record(TrailMetric.LOAD, 2000000);
+			assertEquals(7L, server.invoke(name, "getCount", new Object[] { "EDGES" },
+					new String[] { String.class.getName() }));
+			assertEquals(2.0, (Double) server.invoke(name, "getMeanMillis", new Object[] { "LOAD" },
+					new String[] { String.class.getName() }), 1e-9);
+			String[] names = (String[]) server.getAttribute(name, "MetricNames");
+			assertEquals(TrailMetric.values().length, names.length);
+			assertTrue(((String) server.getAttribute(name, "Summary")).contains("EDGES count=7"));
+		} finally {
+			TrailMetrics.unregisterMBean();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ *
+ */
+package edu.ncsu.csc316.trail.ui;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.trail.manager.TrailReportManager;
+
+/** Test class for BatchUI
+ * @author Sumit Biswas
+ *
+ */
+public class BatchUITest {
+
+	/** Receives the reports printed to standard output */
+	private ByteArrayOutputStream out;
+	/** Receives the error messages */
+	private ByteArrayOutputStream err;
+	/** Manager of the sample trails, used for the expected reports */
+	private TrailReportManager manager;
+
+	/** Setup
+	 * @throws Exception if the sample file cannot be read
+	 */
+	@Before
+	public void setUp() throws Exception {
+		out = new ByteArrayOutputStream();
+		err = new ByteArrayOutputStream();
+		manager = new TrailReportManager("input/sample2.csv");
+	}
+
+	/** Runs the batch interface with the given arguments
+	 * 
+	 * @param args the command line arguments
+	 * @return the exit status
+	 */
+	private int run(String... args) {
+		return BatchUI.run(args, new PrintStream(out, true), new PrintStream(err, true));
+	}
+
+	/** Tests that every report is written to its file, sequentially and in
+	 * parallel, and that reports without a file are printed in order
+	 * 
+	 * @throws Exception if a report file cannot be read
+	 */
+	@Test
+	public void testReports() throws Exception {
+		for (String mode : new String[] { "--threads=1", "--parallel" }) {
+			File mst = File.createTempFile("mst", ".txt");
+			File signs = File.createTempFile("signs", ".txt");
+			try {
+				out.reset();
+				assertEquals(BatchUI.EXIT_OK, run("input/sample2.csv", mode, "--mst", "cost=1.5", "out=" + mst.getPath(),
+						"--restroom", "min=5000", "--signs", "out=" + signs.getPath(), "--restroom", "min=100"));
+				assertEquals(manager.getLeastCostlyTrailsReport(1.5),
+						new String(Files.readAllBytes(mst.toPath()), StandardCharsets.UTF_8));
+				assertEquals(manager.getTrailSignLocations(),
+						new String(Files.readAllBytes(signs.toPath()), StandardCharsets.UTF_8));
+				String nl = System.lineSeparator();
+				assertEquals(manager.getRestroomLocations(5000) + nl + manager.getRestroomLocations(100) + nl,
+						out.toString("UTF-8"));
+				out.reset();
+				assertEquals(BatchUI.EXIT_OK, run("input/sample2.csv", mode, "--sensitivity", "cost=2"));
+				assertEquals(manager.getSensitivityReport(2) + nl, out.toString("UTF-8"));
+				out.reset();
+				assertEquals(BatchUI.EXIT_OK, run("input/sample2.csv", mode, "--external", "--mst", "cost=1.5"));
+				assertEquals(manager.getLeastCostlyTrailsReport(1.5) + nl, out.toString("UTF-8"));
+			} finally {
+				mst.delete();
+				signs.delete();
+			}
+		}
+		assertEquals(0, err.size());
+	}
+
+	/** Tests the exit status of invalid arguments, missing input and failed
+	 * reports */
+	@Test
+	public void testExitStatus() {
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "--mst"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "--mst", "cost=0"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "--sensitivity"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "--signs", "top=0"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "--restroom", "cost=5"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "--bogus"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "out=a.txt", "--signs"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "--snapshot"));
+		assertEquals(BatchUI.EXIT_INPUT, run("input/missing.csv", "--signs"));
+		assertEquals(BatchUI.EXIT_INPUT, run("input/empty.csv", "--signs"));
+		assertEquals(BatchUI.EXIT_USAGE, run("input/sample2.csv", "--external", "--signs"));
+		assertEquals(BatchUI.EXIT_INPUT, run("input/missing.csv", "--external", "--mst", "cost=1"));
+		assertEquals(BatchUI.EXIT_INPUT, run("input/empty.csv", "--external", "--mst", "cost=1"));
+		assertEquals(BatchUI.EXIT_REPORT_FAILED,
+				run("input/sample2.csv", "--signs", "out=missing-directory/signs.txt", "--mst", "cost=1"));
+		assertTrue(out.size() > 0);
+		assertTrue(err.toString().contains("missing-directory"));
+	}
+}
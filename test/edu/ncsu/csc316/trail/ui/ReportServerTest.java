@@ -0,0 +1,166 @@
+/**
+ *
+ */
+package edu.ncsu.csc316.trail.ui;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.trail.manager.TrailGraphSnapshot;
+import edu.ncsu.csc316.trail.manager.TrailReportManager;
+
+/** Test class for ReportServer
+ * @author Sumit Biswas
+ *
+ */
+public class ReportServerTest {
+
+	/** Server under test, on a free loopback port */
+	private ReportServer server;
+	/** Manager of the sample trails, used for the expected reports */
+	private TrailReportManager manager;
+
+	/** Starts a server over the input directory
+	 * @throws Exception if the server cannot be started
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new ReportServer("input", new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2, 4);
+		server.start();
+		manager = new TrailReportManager("input/sample2.csv");
+	}
+
+	/** Stops the server */
+	@After
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	/** Requests a path from the server
+	 * 
+	 * @param path the path and query of the request
+	 * @return the status followed by a space and the body of the response
+	 * @throws Exception if the request fails
+	 */
+	private String get(String path) throws Exception {
+		URL url = new URL("http://localhost:" + server.getPort() + path);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		try {
+			int status = connection.getResponseCode();
+			InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+				body.write(buffer, 0, n);
+			}
+			in.close();
+			return status + " " + new String(body.toByteArray(), StandardCharsets.UTF_8);
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/** Tests that the reports match TrailReportManager and that the trail file
+	 * is only loaded once
+	 * 
+	 * @throws Exception if a request fails
+	 */
+	@Test
+	public void testReports() throws Exception {
+		assertEquals("200 " + manager.getLeastCostlyTrailsReport(1.5), get("/mst?file=sample2.csv&cost=1.5"));
+		assertEquals("200 " + manager.getRestroomLocations(5000), get("/restroom?file=sample2.csv&min=5000"));
+		assertEquals("200 " + manager.getTrailSignLocations(), get("/signs?file=sample2.csv"));
+		assertEquals(1, server.getCache().getMisses());
+		assertEquals(2, server.getCache().getHits());
+		assertEquals("200 cached=1 hits=2 misses=1 evictions=0\n", get("/stats"));
+		assertEquals("200 " + manager.getTrailSignLocations(1), get("/signs?file=sample2.csv&top=1"));
+		assertTrue(get("/signs?file=sample2.csv&top=1.5").startsWith("400 "));
+		assertTrue(get("/signs?file=sample2.csv&top=-1").startsWith("400 "));
+	}
+
+	/** Tests the status of invalid requests
+	 * 
+	 * @throws Exception if a request fails
+	 */
+	@Test
+	public void testErrors() throws Exception {
+		assertTrue(get("/mst?file=sample2.csv").startsWith("400 "));
+		assertTrue(get("/mst?file=sample2.csv&cost=-1").startsWith("400 "));
+		assertTrue(get("/restroom?file=sample2.csv&min=2.5").startsWith("400 "));
+		assertTrue(get("/signs").startsWith("400 "));
+		assertTrue(get("/signs?file=..%2Fsrc%2Fmissing.csv").startsWith("403 "));
+		assertTrue(get("/signs?file=missing.csv").startsWith("404 "));
+		assertEquals("422 File empty.csv does not contain any trail data.\n", get("/signs?file=empty.csv"));
+		assertEquals(0, server.getCache().size());
+	}
+
+	/** Tests that a malformed escape in the query is answered with 400 and that
+	 * a corrupt file is not reported as a file without trail data
+	 * 
+	 * @throws Exception if a file cannot be written or a request fails
+	 */
+	@Test
+	public void testMalformedRequests() throws Exception {
+		assertTrue(get("/signs?file=%zz").startsWith("400 "));
+		assertTrue(get("/restroom?file=sample2.csv&min=%2").startsWith("400 "));
+		File corrupt = File.createTempFile("corrupt", TrailGraphSnapshot.EXTENSION, new File("input"));
+		try {
+			Files.write(corrupt.toPath(), "not a snapshot".getBytes(StandardCharsets.UTF_8));
+			assertEquals("422 File " + corrupt.getName() + " could not be read: The file is not a trail graph snapshot.\n",
+					get("/signs?file=" + corrupt.getName()));
+			assertEquals(0, server.getCache().size());
+		} finally {
+			assertTrue(corrupt.delete());
+		}
+	}
+
+	/** Tests that a trail file is loaded again after it changes, and that the
+	 * least recently used network is dropped when the cache is full
+	 * 
+	 * @throws Exception if a file cannot be written or a request fails
+	 */
+	@Test
+	public void testReload() throws Exception {
+		File dir = Files.createTempDirectory("trails").toFile();
+		File copy = new File(dir, "park.csv");
+		ReportServer local = new ReportServer(dir.getPath(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+				1, 2);
+		local.start();
+		ReportServer shared = server;
+		server = local;
+		try {
+			Files.copy(new File("input/sample.csv").toPath(), copy.toPath());
+			String before = get("/signs?file=park.csv");
+			Files.copy(new File("input/sample2.csv").toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			copy.setLastModified(copy.lastModified() + 5000);
+			assertEquals("200 " + manager.getTrailSignLocations(), get("/signs?file=park.csv"));
+			assertFalse(before.equals(get("/signs?file=park.csv")));
+			assertEquals(2, local.getCache().getMisses());
+			Files.copy(new File("input/sample.csv").toPath(), new File(dir, "other.csv").toPath());
+			get("/signs?file=other.csv");
+			assertEquals(1, local.getCache().size());
+			assertEquals(1, local.getCache().getEvictions());
+		} finally {
+			server = shared;
+			local.stop(0);
+			for (File f : dir.listFiles()) {
+				f.delete();
+			}
+			dir.delete();
+		}
+	}
+}